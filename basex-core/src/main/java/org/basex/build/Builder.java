@@ -172,6 +172,15 @@ public abstract class Builder extends Job {
     addText(pi, Data.PI);
   }
 
+  /**
+   * Returns the statistics of the parent element of the node that is currently added.
+   * @return statistics, or {@code null} if the node has no parent element
+   */
+  final Stats parentStats() {
+    final int l = level;
+    return l > 1 ? elemNames.stats(elemStack.get(l - 1)) : null;
+  }
+
   // PROGRESS INFORMATION =========================================================================
 
   @Override
@@ -8,6 +8,7 @@ import org.basex.core.*;
 import org.basex.core.cmd.*;
 import org.basex.data.*;
 import org.basex.index.name.*;
+import org.basex.index.stats.*;
 import org.basex.io.*;
 import org.basex.io.in.DataInput;
 import org.basex.io.out.*;
@@ -31,6 +32,8 @@ public final class DiskBuilder extends Builder {
   private DataOutput vout;
   /** Output stream for temporary values. */
   private DataOutput sout;
+  /** Value dictionary ({@code null} if dictionary encoding is disabled). */
+  private ValueDictionary dictionary;
 
   /** Static options. */
   private final StaticOptions sopts;
@@ -74,7 +77,9 @@ public final class DiskBuilder extends Builder {
         xout = new DataOutput(meta.dbfile(DATATXT), bs);
         vout = new DataOutput(meta.dbfile(DATAATV), bs);
         sout = new DataOutput(meta.dbfile(DATATMP), bs);
+        if(meta.dictionary) dictionary = new ValueDictionary(meta.dbfile(DATADIC));
         parse();
+        if(dictionary != null) dictionary.flush();
       } finally {
         if(tout != null) tout.close();
         if(xout != null) xout.close();
@@ -93,6 +98,12 @@ public final class DiskBuilder extends Builder {
       }
       meta.dbfile(DATATMP).delete();
 
+      // compress texts and attribute values
+      if(meta.compression) {
+        DataAccess.compress(meta.dbfile(DATATXT), meta.dbfile(DATABLK + DATATXT));
+        DataAccess.compress(meta.dbfile(DATAATV), meta.dbfile(DATABLK + DATAATV));
+      }
+
       // return database instance
       return new DiskData(meta, elemNames, attrNames, path, nspaces);
 
@@ -111,7 +122,7 @@ public final class DiskBuilder extends Builder {
   protected void addDoc(final byte[] value) throws IOException {
     tout.write1(Data.DOC);
     tout.write2(0);
-    tout.write5(textRef(value, true));
+    tout.write5(textRef(value, true, false));
     tout.write4(0);
     tout.write4(meta.size++);
   }
@@ -136,7 +147,7 @@ public final class DiskBuilder extends Builder {
 
     tout.write1(dist << 3 | Data.ATTR);
     tout.write2(nameId);
-    tout.write5(textRef(value, false));
+    tout.write5(textRef(value, false, category(attrNames.stats(nameId))));
     tout.write4(uriId);
     tout.write4(meta.size++);
   }
@@ -145,7 +156,7 @@ public final class DiskBuilder extends Builder {
   protected void addText(final byte[] value, final int dist, final byte kind) throws IOException {
     tout.write1(kind);
     tout.write2(0);
-    tout.write5(textRef(value, true));
+    tout.write5(textRef(value, true, kind == Data.TEXT && category(parentStats())));
     tout.write4(dist);
     tout.write4(meta.size++);
   }
@@ -157,22 +168,42 @@ public final class DiskBuilder extends Builder {
     ++ssize;
   }
 
+  /**
+   * Checks if values with the specified statistics will be added to the dictionary.
+   * @param stats statistics (can be {@code null})
+   * @return result of check
+   */
+  private boolean category(final Stats stats) {
+    // distinct values are only cached as long as they represent a category
+    return dictionary != null && stats != null && stats.values != null;
+  }
+
   /**
    * Calculates the text offset and writes the text value.
    * @param value value to be inlined
    * @param text text/attribute flag
-   * @return inline value or text position
+   * @param add add value to the dictionary
+   * @return inline value, dictionary reference or text position
    * @throws IOException I/O exception
    */
-  private long textRef(final byte[] value, final boolean text) throws IOException {
+  private long textRef(final byte[] value, final boolean text, final boolean add)
+      throws IOException {
+
     // try to inline value
     final long inlined = Inline.pack(value);
     if(inlined != 0) return inlined;
+    // try to reference dictionary entry
+    if(dictionary != null) {
+      final long ref = dictionary.ref(value, add);
+      if(ref != 0) return ref;
+    }
 
     // store text to heap file
     final byte[] packed = Compress.pack(value);
     final DataOutput store = text ? xout : vout;
     final long offset = store.size();
+    if(dictionary != null && !ValueDictionary.offset(offset))
+      throw new BuildException(BuildText.LIMITRANGE, parser.detailedInfo());
     store.writeToken(packed);
     return packed != value ? Compress.COMPRESS | offset : offset;
   }
@@ -5,6 +5,7 @@ import org.basex.core.locks.*;
 import org.basex.core.users.*;
 import org.basex.data.*;
 import org.basex.io.random.*;
+import org.basex.query.*;
 import org.basex.query.util.pkg.*;
 import org.basex.query.value.seq.*;
 import org.basex.server.*;
@@ -43,6 +44,8 @@ public final class Context {
   public final Log log;
   /** Locking. */
   public final Locking locking;
+  /** Cached query plans. */
+  public final QueryPlans plans;
 
   /** Client info. Set to {@code null} in standalone/server mode. */
   private final ClientInfo client;
@@ -107,6 +110,7 @@ public final class Context {
     repo = ctx.repo;
     log = ctx.log;
     jobs = ctx.jobs;
+    plans = ctx.plans;
   }
 
   /**
@@ -126,6 +130,7 @@ public final class Context {
     log = new Log(soptions);
     user = users.get(UserText.ADMIN);
     jobs = new JobPool(soptions);
+    plans = new QueryPlans(soptions);
     client = null;
   }
 
@@ -155,6 +160,7 @@ public final class Context {
     closed = true;
     jobs.close();
     sessions.close();
+    plans.close();
     datas.close();
     log.close();
     closeDB();
@@ -239,6 +245,8 @@ public final class Context {
    * @return result of check
    */
   public boolean pinned(final String db) {
+    // cached query plans keep their databases opened: discard them before checking the pins
+    plans.close(db);
     return datas.pinned(db) || TableDiskAccess.locked(db, this);
   }
 
@@ -79,6 +79,8 @@ public final class MainOptions extends Options {
   public static final BooleanOption ATTRINDEX = new BooleanOption("ATTRINDEX", true);
   /** Flag for creating a token index. */
   public static final BooleanOption TOKENINDEX = new BooleanOption("TOKENINDEX", false);
+  /** Flag for creating a trigram index. */
+  public static final BooleanOption TRIGRAMINDEX = new BooleanOption("TRIGRAMINDEX", false);
   /** Flag for creating a full-text index. */
   public static final BooleanOption FTINDEX = new BooleanOption("FTINDEX", false);
 
@@ -88,6 +90,8 @@ public final class MainOptions extends Options {
   public static final StringOption ATTRINCLUDE = new StringOption("ATTRINCLUDE", "");
   /** Token index: names to include. */
   public static final StringOption TOKENINCLUDE = new StringOption("TOKENINCLUDE", "");
+  /** Trigram index: names to include. */
+  public static final StringOption TRIGRAMINCLUDE = new StringOption("TRIGRAMINCLUDE", "");
   /** Full-text index: names to include. */
   public static final StringOption FTINCLUDE = new StringOption("FTINCLUDE", "");
 
@@ -99,6 +103,14 @@ public final class MainOptions extends Options {
   public static final BooleanOption UPDINDEX = new BooleanOption("UPDINDEX", false);
   /** Flag for automatic index updates. */
   public static final BooleanOption AUTOOPTIMIZE = new BooleanOption("AUTOOPTIMIZE", false);
+  /** Flag for memory-mapped table access. */
+  public static final BooleanOption MMAP = new BooleanOption("MMAP", false);
+  /** Flag for block-compressed texts and attribute values. */
+  public static final BooleanOption COMPRESSION = new BooleanOption("COMPRESSION", false);
+  /** Flag for dictionary-encoded texts and attribute values. */
+  public static final BooleanOption DICTIONARY = new BooleanOption("DICTIONARY", false);
+  /** Flag for creating typed indexes for numeric texts and attribute values. */
+  public static final BooleanOption RANGEINDEX = new BooleanOption("RANGEINDEX", false);
   /** Index split size. */
   public static final NumberOption SPLITSIZE = new NumberOption("SPLITSIZE", 0);
 
@@ -143,6 +155,8 @@ public final class MainOptions extends Options {
   public static final BooleanOption ENFORCEINDEX = new BooleanOption("ENFORCEINDEX", false);
   /** Deep node copies. */
   public static final BooleanOption COPYNODE = new BooleanOption("COPYNODE", true);
+  /** Maximum number of tuples sorted in main memory (0: dynamic, -1: unlimited). */
+  public static final NumberOption SORTSIZE = new NumberOption("SORTSIZE", 0);
 
   // Serialize
 
@@ -2,7 +2,10 @@ package org.basex.core;
 
 import java.util.*;
 
+import org.basex.index.*;
 import org.basex.io.*;
+import org.basex.io.random.*;
+import org.basex.query.util.*;
 import org.basex.util.*;
 import org.basex.util.options.*;
 
@@ -33,6 +36,16 @@ public final class StaticOptions extends Options {
   public static final BooleanOption FAIRLOCK = new BooleanOption("FAIRLOCK", false);
   /** Timeout (seconds) for remembering result of asynchronous queries. */
   public static final NumberOption CACHETIMEOUT = new NumberOption("CACHETIMEOUT", 3600);
+  /** Maximum number of disk pages cached in the shared buffer pool. */
+  public static final NumberOption BUFFERPOOL = new NumberOption("BUFFERPOOL", 4096);
+  /** Number of disk pages to be read ahead if sequential access is detected. */
+  public static final NumberOption PREFETCH = new NumberOption("PREFETCH", 32);
+  /** Number of threads for building index structures (0: number of processors). */
+  public static final NumberOption INDEXTHREADS = new NumberOption("INDEXTHREADS", 0);
+  /** Number of threads for parallel query evaluation (0: number of processors). */
+  public static final NumberOption QUERYTHREADS = new NumberOption("QUERYTHREADS", 0);
+  /** Maximum number of cached query plans (0: no caching). */
+  public static final NumberOption QUERYCACHE = new NumberOption("QUERYCACHE", 0);
 
   /** Comment: written to options file. */
   public static final Comment C_CLIENT = new Comment("Client/Server Architecture");
@@ -117,6 +130,10 @@ public final class StaticOptions extends Options {
     Prop.language = get(LANG);
     Prop.langkeys = get(LANGKEYS);
     Prop.debug = get(DEBUG);
+    BufferPool.get().capacity(get(BUFFERPOOL));
+    Prefetcher.blocks(get(PREFETCH));
+    IndexBuilder.threads(get(INDEXTHREADS));
+    QueryPool.threads(get(QUERYTHREADS));
     final String ph = get(PROXYHOST);
     if(!ph.isEmpty()) {
       Prop.setSystem("http.proxyHost", ph);
@@ -538,6 +538,8 @@ public interface Text {
   String INDEX_ATTRIBUTES_D = lang("index_attributes") + DOTS;
   /** Create token index. */
   String INDEX_TOKENS_D = lang("index_tokens") + DOTS;
+  /** Create trigram index. */
+  String INDEX_TRIGRAMS_D = lang("index_trigrams") + DOTS;
   /** Create full-text index. */
   String INDEX_FULLTEXT_D = lang("index_fulltext") + DOTS;
 
@@ -838,6 +840,8 @@ public interface Text {
   String PATH_INDEX = lang("path_index");
   /** Info on token index. */
   String TOKEN_INDEX = lang("token_index");
+  /** Info on trigram index. */
+  String TRIGRAM_INDEX = lang("trigram_index");
 
   /** Info on elements. */
   String ELEMENTS = lang("elements");
@@ -1344,6 +1348,8 @@ public interface Text {
 
   /** Info on used main memory. */
   String USED_MEM = lang("used_mem");
+  /** Info on the buffer pool. */
+  String BUFFER_POOL = lang("buffer_pool");
   /** Memory information. */
   String TOTAL_MEM_C = lang("total_mem") + COLS;
   /** Memory information. */
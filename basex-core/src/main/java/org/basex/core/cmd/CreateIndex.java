@@ -3,6 +3,7 @@ package org.basex.core.cmd;
 import static org.basex.core.Text.*;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.core.*;
 import org.basex.core.parse.*;
@@ -46,6 +47,10 @@ public final class CreateIndex extends ACreate {
         type = IndexType.TOKEN;
         data.meta.createtoken = true;
         break;
+      case TRIGRAM:
+        type = IndexType.TRIGRAM;
+        data.meta.createtrigram = true;
+        break;
       case FULLTEXT:
         type = IndexType.FULLTEXT;
         data.meta.createft = true;
@@ -82,10 +87,13 @@ public final class CreateIndex extends ACreate {
    * @throws IOException I/O exception
    */
   static void create(final Data data, final ACreate cmd) throws IOException {
-    if(data.meta.createtext) create(IndexType.TEXT, data, cmd);
-    if(data.meta.createattr) create(IndexType.ATTRIBUTE, data, cmd);
-    if(data.meta.createtoken) create(IndexType.TOKEN, data, cmd);
-    if(data.meta.createft) create(IndexType.FULLTEXT, data, cmd);
+    final ArrayList<IndexType> types = new ArrayList<>();
+    if(data.meta.createtext) types.add(IndexType.TEXT);
+    if(data.meta.createattr) types.add(IndexType.ATTRIBUTE);
+    if(data.meta.createtoken) types.add(IndexType.TOKEN);
+    if(data.meta.createtrigram) types.add(IndexType.TRIGRAM);
+    if(data.meta.createft) types.add(IndexType.FULLTEXT);
+    create(data, cmd, types.toArray(new IndexType[0]));
   }
 
   /**
@@ -96,8 +104,21 @@ public final class CreateIndex extends ACreate {
    * @throws IOException I/O exception
    */
   static void create(final IndexType type, final Data data, final ACreate cmd) throws IOException {
-    DropIndex.drop(type, data);
-    data.createIndex(type, cmd);
-    data.meta.index(type, true);
+    create(data, cmd, type);
+  }
+
+  /**
+   * Builds the specified indexes.
+   * @param data data reference
+   * @param cmd calling command
+   * @param types indexes to be built
+   * @throws IOException I/O exception
+   */
+  private static void create(final Data data, final ACreate cmd, final IndexType... types)
+      throws IOException {
+    if(types.length == 0) return;
+    for(final IndexType type : types) DropIndex.drop(type, data);
+    data.createIndexes(cmd, types);
+    for(final IndexType type : types) data.meta.index(type, true);
   }
 }
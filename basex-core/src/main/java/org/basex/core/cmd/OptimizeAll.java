@@ -6,6 +6,7 @@ import java.io.*;
 
 import org.basex.build.*;
 import org.basex.core.*;
+import org.basex.core.locks.*;
 import org.basex.core.parse.*;
 import org.basex.core.parse.Commands.*;
 import org.basex.core.users.*;
@@ -14,6 +15,7 @@ import org.basex.io.*;
 import org.basex.io.serial.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
+import org.basex.util.*;
 import org.basex.util.list.*;
 
 /**
@@ -21,6 +23,12 @@ import org.basex.util.list.*;
  * the currently opened database. This effectively eliminates all fragmentation
  * and can lead to significant space savings after updates.
  *
+ * The new database instance is built while the original database is only locked for reading.
+ * A write lock is only acquired to replace the original database with the new instance.
+ * As the read lock is released before the write lock is acquired (see
+ * {@link Locking#upgrade()}), other jobs may update the database in between. In this case,
+ * the new instance is discarded, and the database is rebuilt under the write lock.
+ *
  * @author BaseX Team 2005-19, BSD License
  * @author Leo Woerteler
  */
@@ -35,12 +43,38 @@ public final class OptimizeAll extends ACreate {
   @Override
   protected boolean run() {
     final Data data = context.data();
+    if(data.inMemory()) return error(NO_MAINMEM);
+
+    // build new database instance while other jobs can still read the database
+    final DiskData odata = (DiskData) data;
+    final int updates = odata.updates();
+    String name;
+    try {
+      name = build(odata, context, options, this);
+    } catch(final IOException ex) {
+      return error(Util.message(ex));
+    }
+
+    // acquire write lock; discard new instance if the database has been updated in the meantime
+    if(!context.locking.upgrade() || odata.updates() != updates) {
+      DropDB.drop(name, context.soptions);
+      name = null;
+    }
+
+    final String tmpName = name;
     if(!update(data, new Code() {
       @Override
       boolean run() throws IOException {
         try {
-          optimizeAll(data, context, options, OptimizeAll.this);
+          if(tmpName == null) {
+            optimizeAll(data, context, options, OptimizeAll.this);
+          } else {
+            replace(odata, tmpName, context);
+          }
           return true;
+        } catch(final IOException ex) {
+          if(tmpName != null) DropDB.drop(tmpName, context.soptions);
+          throw ex;
         } finally {
           context.closeDB();
         }
@@ -52,6 +86,12 @@ public final class OptimizeAll extends ACreate {
       error(open.info());
   }
 
+  @Override
+  public void addLocks() {
+    // write lock will be acquired before the database is replaced
+    jc().locks.reads.add(Locking.CONTEXT);
+  }
+
   @Override
   public boolean newData(final Context ctx) {
     return true;
@@ -84,20 +124,41 @@ public final class OptimizeAll extends ACreate {
     if(data.inMemory()) throw new BaseXException(NO_MAINMEM);
 
     final DiskData odata = (DiskData) data;
-    final MetaData ometa = odata.meta;
+    pinned(odata, context);
+    final String tmpName = build(odata, context, options, cmd);
+    try {
+      replace(odata, tmpName, context);
+    } catch(final IOException ex) {
+      DropDB.drop(tmpName, context.soptions);
+      throw ex;
+    }
+  }
 
-    // check if database is also pinned by other users
-    final String name = ometa.name;
-    if(context.datas.pins(name) > 1) throw new BaseXException(DB_PINNED_X, name);
+  /**
+   * Builds a new instance of the specified database, including all index structures.
+   * The original database will only be read.
+   * @param odata disk data
+   * @param context database context
+   * @param options main options
+   * @param cmd command reference or {@code null}
+   * @return name of the temporary database
+   * @throws IOException I/O Exception during index rebuild
+   */
+  private static String build(final DiskData odata, final Context context,
+      final MainOptions options, final OptimizeAll cmd) throws IOException {
+
+    final MetaData ometa = odata.meta;
 
     // adopt original index options
     options.set(MainOptions.TEXTINDEX, ometa.textindex);
     options.set(MainOptions.ATTRINDEX, ometa.attrindex);
     options.set(MainOptions.TOKENINDEX, ometa.tokenindex);
+    options.set(MainOptions.TRIGRAMINDEX, ometa.trigramindex);
     options.set(MainOptions.FTINDEX, ometa.ftindex);
     options.set(MainOptions.TEXTINCLUDE, ometa.textinclude);
     options.set(MainOptions.ATTRINCLUDE, ometa.attrinclude);
     options.set(MainOptions.TOKENINCLUDE, ometa.tokeninclude);
+    options.set(MainOptions.TRIGRAMINCLUDE, ometa.trigraminclude);
     options.set(MainOptions.FTINCLUDE, ometa.ftinclude);
     // adopt original full-text index options
     options.set(MainOptions.STEMMING, ometa.stemming);
@@ -111,7 +172,7 @@ public final class OptimizeAll extends ACreate {
 
     // build database and index structures
     final StaticOptions sopts = context.soptions;
-    final String tmpName = sopts.randomDbName(name);
+    final String tmpName = sopts.randomDbName(ometa.name);
     final DBParser parser = new DBParser(odata, options);
     final DiskBuilder builder = new DiskBuilder(tmpName, parser, sopts, options);
     if(cmd != null) cmd.pushJob(builder);
@@ -123,7 +184,6 @@ public final class OptimizeAll extends ACreate {
     } finally {
       if(cmd != null) cmd.popJob();
     }
-    Close.close(odata, context);
 
     // adopt original meta data, create new index structures
     final MetaData nmeta = ndata.meta;
@@ -144,16 +204,46 @@ public final class OptimizeAll extends ACreate {
     } finally {
       ndata.close();
     }
+    return tmpName;
+  }
+
+  /**
+   * Closes the specified database and replaces it with the rebuilt instance.
+   * @param odata disk data
+   * @param tmpName name of the rebuilt database
+   * @param context database context
+   * @throws IOException I/O Exception
+   */
+  private static void replace(final DiskData odata, final String tmpName, final Context context)
+      throws IOException {
+
+    final MetaData ometa = odata.meta;
+    final String name = ometa.name;
+    pinned(odata, context);
+    Close.close(odata, context);
 
     // move binary files
+    final StaticOptions sopts = context.soptions;
     final IOFile bin = ometa.binaries();
-    if(bin.exists()) bin.rename(nmeta.binaries());
+    if(bin.exists()) bin.rename(new IOFile(sopts.dbPath(tmpName), IO.RAW));
 
     // drop old database, rename temporary database
     if(!DropDB.drop(name, sopts)) throw new BaseXException(DB_NOT_DROPPED_X, name);
     if(!AlterDB.alter(tmpName, name, sopts)) throw new BaseXException(DB_NOT_RENAMED_X, tmpName);
   }
 
+  /**
+   * Checks if the database is also pinned by other users.
+   * @param data disk data
+   * @param context database context
+   * @throws BaseXException database exception
+   */
+  private static void pinned(final DiskData data, final Context context) throws BaseXException {
+    final String name = data.meta.name;
+    context.plans.close(name);
+    if(context.datas.pins(name) > 1) throw new BaseXException(DB_PINNED_X, name);
+  }
+
   /**
    * Parser for rebuilding existing databases.
    *
@@ -11,6 +11,8 @@ import java.util.concurrent.locks.*;
 final class LocalReadWriteLock extends ReentrantReadWriteLock {
   /** Pins. */
   private int pins;
+  /** Number of acquired write locks (guarded by the write lock). */
+  long writes;
 
   /**
    * Constructor.
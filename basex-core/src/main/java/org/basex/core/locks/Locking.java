@@ -5,6 +5,7 @@ import static org.basex.util.Token.*;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 import java.util.concurrent.locks.*;
 
 import org.basex.core.*;
@@ -23,6 +24,9 @@ import org.basex.util.list.*;
  *
  * Locks can only be released by the same thread which acquired it.
  *
+ * Read locks can be upgraded to write locks (see {@link #upgrade()}). As read locks cannot be
+ * converted atomically, the read locks are released before the write locks are acquired.
+ *
  * Locking methods are not synchronized to each other. The user must make sure not to call them in
  * parallel by the same thread (it is fine to call arbitrary locking methods by different threads at
  * the same time).
@@ -64,6 +68,11 @@ public final class Locking {
   /** Lock object for queuing local writes and global reads. */
   private final Object globalLock = new Object();
 
+  /** Number of jobs that acquired write locks. */
+  private final AtomicLong writers = new AtomicLong();
+  /** Number of jobs that acquired global write locks. */
+  private final AtomicLong globalWriters = new AtomicLong();
+
   /** Number of running local writers. */
   private int localWriters;
   /** Number of running global readers. */
@@ -118,6 +127,8 @@ public final class Locking {
 
     // apply exclusive lock (global write), or shared lock otherwise
     if(lock) (writes.global() ? globalLocks.writeLock() : globalLocks.readLock()).lock();
+    if(write) writers.incrementAndGet();
+    if(writes.global()) globalWriters.incrementAndGet();
 
     synchronized(globalLock) {
       // local write locks: wait for completion of global readers
@@ -137,13 +148,62 @@ public final class Locking {
     final int rs = reads.size(), ws = writes.size();
     while(r < rs || w < ws) {
       if(w < ws && (r == rs || writes.get(w).compareTo(reads.get(r)) <= 0)) {
-        pin(writes.get(w++)).writeLock().lock();
+        final LocalReadWriteLock lrwl = pin(writes.get(w++));
+        lrwl.writeLock().lock();
+        lrwl.writes++;
       } else {
         pin(reads.get(r++)).readLock().lock();
       }
     }
   }
 
+  /**
+   * Converts the read locks of the current thread to write locks.
+   *
+   * As read locks cannot be converted atomically, all locks are released before the write locks
+   * are acquired, and other jobs may be executed in between. If other jobs have acquired write
+   * locks on the same strings in the meantime, {@code false} is returned, and the caller must
+   * assume that the locked resources have been changed (e.g., repeat its work under the write
+   * locks).
+   * @return {@code true} if no other job has written to the locked resources in the meantime
+   */
+  public boolean upgrade() {
+    final Locks locks = locked.get(Thread.currentThread().getId());
+    if(locks == null || !locks.reads.locking()) return true;
+
+    // keep local locks pinned and remember the number of writers
+    final LockList reads = locks.reads;
+    final boolean global = reads.global();
+    final long all = writers.get(), globals = globalWriters.get();
+    final int rs = reads.size();
+    final String[] strings = new String[rs];
+    final LocalReadWriteLock[] pinned = new LocalReadWriteLock[rs];
+    final long[] writes = new long[rs];
+    for(int r = 0; r < rs; r++) {
+      strings[r] = reads.get(r);
+      pinned[r] = pin(strings[r]);
+      writes[r] = pinned[r].writes;
+    }
+
+    release();
+    locks.writes.add(reads);
+    reads.reset();
+    locks.writes.finish(null);
+    try {
+      acquire(locks);
+    } catch(final InterruptedException ex) {
+      throw Util.notExpected("Thread was interrupted: %", ex);
+    }
+
+    // check if other jobs have acquired write locks in the meantime
+    boolean unchanged = global ? writers.get() == all + 1 : globalWriters.get() == globals;
+    for(int r = 0; r < rs; r++) {
+      unchanged &= pinned[r].writes == writes[r] + 1;
+      unpin(strings[r]);
+    }
+    return unchanged;
+  }
+
   /**
    * Removes locks for the specified job, all in reverse order.
    */
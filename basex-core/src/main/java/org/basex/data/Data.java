@@ -105,6 +105,8 @@ public abstract class Data {
   public ValueIndex attrIndex;
   /** Token index. */
   public ValueIndex tokenIndex;
+  /** Trigram index. */
+  public ValueIndex trigramIndex;
   /** Full-text index. */
   public ValueIndex ftIndex;
 
@@ -149,6 +151,16 @@ public abstract class Data {
    */
   public abstract void createIndex(IndexType type, Command cmd) throws IOException;
 
+  /**
+   * Creates the specified index structures.
+   * @param cmd calling command
+   * @param types types of indexes to be built
+   * @throws IOException I/O exception
+   */
+  public void createIndexes(final Command cmd, final IndexType... types) throws IOException {
+    for(final IndexType type : types) createIndex(type, cmd);
+  }
+
   /**
    * Drops the specified index.
    * @param type index to be dropped
@@ -217,6 +229,7 @@ public abstract class Data {
       case TEXT:      return textIndex;
       case ATTRIBUTE: return attrIndex;
       case TOKEN:     return tokenIndex;
+      case TRIGRAM:   return trigramIndex;
       case FULLTEXT:  return ftIndex;
       case PATH:      return paths;
       default:        throw Util.notExpected();
@@ -304,6 +317,27 @@ public abstract class Data {
     return table.read1(pre, 0) & 0x07;
   }
 
+  /**
+   * Returns the node kinds, name ids and namespace uri ids of consecutive nodes.
+   * Name ids are only defined for elements, attributes and processing instructions,
+   * and uri ids are only defined for elements.
+   * @param pre pre value of the first node
+   * @param kinds array for node kinds
+   * @param names array for name ids
+   * @param uris array for uri ids
+   * @param n number of nodes
+   */
+  public final void kinds(final int pre, final int[] kinds, final int[] names, final int[] uris,
+      final int n) {
+    table.read4(pre, 0, kinds, n);
+    for(int i = 0; i < n; i++) {
+      final int v = kinds[i];
+      kinds[i] = v >>> 24 & 0x07;
+      names[i] = v >>> 8 & 0x7FFF;
+      uris[i] = v & 0xFF;
+    }
+  }
+
   /**
    * Returns a pre value of the parent node.
    * @param pre pre value
@@ -493,6 +527,22 @@ public abstract class Data {
    */
   public abstract int textLen(int pre, boolean text);
 
+  /**
+   * Returns the id of a text or attribute value in the value dictionary
+   * (see {@link MetaData#dictionary}).
+   * @param value value
+   * @return id, or {@code 0} if the value is not found in the dictionary
+   */
+  public abstract int dictionaryId(byte[] value);
+
+  /**
+   * Returns the dictionary id of the string value of a text, an attribute, or an element with
+   * a single text node. Two values are equal if their dictionary ids are equal.
+   * @param pre pre value
+   * @return id, or {@code 0} if the value is not referenced in the dictionary
+   */
+  public abstract int dictionaryId(int pre);
+
   // UPDATE OPERATIONS ============================================================================
 
   /**
@@ -536,18 +586,26 @@ public abstract class Data {
       } else {
         // update element name
         final IntList pres = new IntList();
-        // update text index
-        if(meta.updindex && meta.textindex) {
+        // update text and full-text index
+        if(meta.updindex && (meta.textindex || meta.trigramindex || meta.ftindex)) {
           final int last = pre + size;
           for(int curr = pre + attSize(pre, kind); curr < last; curr += size(curr, kind(curr))) {
             if(kind(curr) == TEXT) pres.add(curr);
           }
-          textIndex.delete(new ValueCache(pres, IndexType.TEXT, this));
+          if(meta.textindex) textIndex.delete(new ValueCache(pres, IndexType.TEXT, this));
+          if(meta.trigramindex) {
+            trigramIndex.delete(new ValueCache(pres, IndexType.TRIGRAM, this));
+          }
+          if(meta.ftindex) ftIndex.delete(new ValueCache(pres, IndexType.FULLTEXT, this));
         }
         table.write1(pre, 3, uriId);
         final int nameId = elemNames.put(name);
         table.write2(nsPre, 1, (nsFlag || nsFlag(nsPre) ? 1 << 15 : 0) | nameId);
-        if(!pres.isEmpty()) textIndex.add(new ValueCache(pres, IndexType.TEXT, this));
+        if(!pres.isEmpty()) {
+          if(meta.textindex) textIndex.add(new ValueCache(pres, IndexType.TEXT, this));
+          if(meta.trigramindex) trigramIndex.add(new ValueCache(pres, IndexType.TRIGRAM, this));
+          if(meta.ftindex) ftIndex.add(new ValueCache(pres, IndexType.FULLTEXT, this));
+        }
       }
     }
   }
@@ -1072,6 +1130,10 @@ public abstract class Data {
       if(meta.textindex) textIndex.delete(new ValueCache(pre, size, IndexType.TEXT, this));
       if(meta.attrindex) attrIndex.delete(new ValueCache(pre, size, IndexType.ATTRIBUTE, this));
       if(meta.tokenindex) tokenIndex.delete(new ValueCache(pre, size, IndexType.TOKEN, this));
+      if(meta.trigramindex) {
+        trigramIndex.delete(new ValueCache(pre, size, IndexType.TRIGRAM, this));
+      }
+      if(meta.ftindex) ftIndex.delete(new ValueCache(pre, size, IndexType.FULLTEXT, this));
       if(id != -1) idmap.delete(pre, id, -size);
     }
   }
@@ -1090,6 +1152,8 @@ public abstract class Data {
       if(meta.textindex) textIndex.add(new ValueCache(pre, size, IndexType.TEXT, this));
       if(meta.attrindex) attrIndex.add(new ValueCache(pre, size, IndexType.ATTRIBUTE, this));
       if(meta.tokenindex) tokenIndex.add(new ValueCache(pre, size, IndexType.TOKEN, this));
+      if(meta.trigramindex) trigramIndex.add(new ValueCache(pre, size, IndexType.TRIGRAM, this));
+      if(meta.ftindex) ftIndex.add(new ValueCache(pre, size, IndexType.FULLTEXT, this));
     }
   }
 
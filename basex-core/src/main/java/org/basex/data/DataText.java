@@ -34,12 +34,22 @@ public interface DataText {
   String DBUPDIDX = "UPDINDEX";
   /** Automatic optimization. */
   String DBAUTOOPT = "AUTOOPT";
+  /** Memory-mapped table access. */
+  String DBMMAP = "MMAP";
+  /** Block compression of texts and attribute values. */
+  String DBCOMPRESSION = "COMPRESSION";
+  /** Dictionary encoding of texts and attribute values. */
+  String DBDICTIONARY = "DICTIONARY";
+  /** Typed indexes for numeric texts and attribute values. */
+  String DBRANGEIDX = "RANGEINDEX";
   /** Text index. */
   String DBTXTIDX = "TXTINDEX";
   /** Attribute index. */
   String DBATVIDX = "ATVINDEX";
   /** Token index. */
   String DBTOKIDX = "TOKINDEX";
+  /** Trigram index. */
+  String DBTRIIDX = "TRIINDEX";
   /** Full-text index. */
   String DBFTXIDX = "FTXINDEX";
   /** Text index: names. */
@@ -48,6 +58,8 @@ public interface DataText {
   String DBATVINC = "ATVINC";
   /** Token index: names. */
   String DBTOKINC = "TOKINC";
+  /** Trigram index: names. */
+  String DBTRIINC = "TRIINC";
   /** Full-text index: names. */
   String DBFTXINC = "FTXINC";
   /** Full-text stemming. */
@@ -78,6 +90,8 @@ public interface DataText {
   String DBCRTATV = "CRTATV";
   /** Recreate token index. */
   String DBCRTTOK = "CRTTOK";
+  /** Recreate trigram index. */
+  String DBCRTTRI = "CRTTRI";
   /** Recreate full-text index. */
   String DBCRTFTX = "CRTFTX";
 
@@ -104,6 +118,8 @@ public interface DataText {
   String DATAATV = "atv";
   /** Database - Token index. */
   String DATATOK = "tok";
+  /** Database - Trigram index. */
+  String DATATRI = "tri";
   /** Database - Full-text index. */
   String DATAFTX = "ftx";
   /** Database - Stopword list. */
@@ -114,6 +130,10 @@ public interface DataText {
   String DATAPTH = "pth";
   /** Database - ID-PRE mapping. */
   String DATAIDP = "idp";
+  /** Database - Value dictionary. */
+  String DATADIC = "dic";
+  /** Database - Block index of compressed heap files (prefix; must not match index files). */
+  String DATABLK = "blk";
 
   // XML SERIALIZATION ============================================================================
 
@@ -31,7 +31,8 @@ import org.basex.util.*;
  * <pre>
  * Bit 0 [INLINED]    indicates if value is inlined in table or stored externally
  * Bit 1 [COMPRESSED] indicates if value is compressed
- * Bit 2 [STRING]     indicates if an inlined value is a string
+ * Bit 2 [STRING]     indicates if an inlined value is a string, or if an external value is
+ *                    a dictionary reference
  *
  * - INLINED (text is inlined):
  *   - STRING (value is string):
@@ -42,7 +43,9 @@ import org.basex.util.*;
  *   - NOT STRING (value is integer):
  *     - return 32 bits of remaining 4 bytes as integer
  * - NOT INLINED (text is stored externally):
- *   - 38 remaining bits contain text reference
+ *   - DICTIONARY (value is a dictionary reference, see {@link MetaData#dictionary}):
+ *     - 32 remaining bits contain the id of the value in the {@link ValueDictionary}
+ *   - 38 remaining bits contain text reference (37 bits if the dictionary is enabled)
  *   - COMPRESSED: unpack and return external text
  *   - NOT COMPRESSED: return external text unchanged
  * </pre>
@@ -56,6 +59,10 @@ public final class DiskData extends Data {
   private DataAccess texts;
   /** Values access file. */
   private DataAccess values;
+  /** Value dictionary ({@code null} if dictionary encoding is disabled). */
+  private ValueDictionary dictionary;
+  /** Number of started updates. */
+  private volatile int updates;
 
   /**
    * Default constructor, called from {@link Open#open}.
@@ -87,12 +94,17 @@ public final class DiskData extends Data {
       if(meta.textindex) textIndex = new UpdatableDiskValues(this, IndexType.TEXT);
       if(meta.attrindex) attrIndex = new UpdatableDiskValues(this, IndexType.ATTRIBUTE);
       if(meta.tokenindex) tokenIndex = new UpdatableDiskValues(this, IndexType.TOKEN);
+      if(meta.trigramindex) trigramIndex = new UpdatableDiskValues(this, IndexType.TRIGRAM);
+      // full-text indexes of previous versions store pre values and cannot be updated
+      if(meta.ftindex) ftIndex = UpdatableFTIndex.exists(meta) ? new UpdatableFTIndex(this) :
+        new FTIndex(this);
     } else {
       if(meta.textindex) textIndex = new DiskValues(this, IndexType.TEXT);
       if(meta.attrindex) attrIndex = new DiskValues(this, IndexType.ATTRIBUTE);
       if(meta.tokenindex) tokenIndex = new DiskValues(this, IndexType.TOKEN);
+      if(meta.trigramindex) trigramIndex = new DiskValues(this, IndexType.TRIGRAM);
+      if(meta.ftindex) ftIndex = new FTIndex(this);
     }
-    if(meta.ftindex) ftIndex = new FTIndex(this);
   }
 
   /**
@@ -123,8 +135,19 @@ public final class DiskData extends Data {
    */
   private void init() throws IOException {
     table = new TableDiskAccess(meta, false);
-    texts = new DataAccess(meta.dbfile(DATATXT));
-    values = new DataAccess(meta.dbfile(DATAATV));
+    texts = heap(DATATXT);
+    values = heap(DATAATV);
+    if(meta.dictionary) dictionary = new ValueDictionary(meta.dbfile(DATADIC));
+  }
+
+  /**
+   * Opens a heap file for texts or attribute values.
+   * @param name name of the heap file
+   * @return data access
+   * @throws IOException I/O exception
+   */
+  private DataAccess heap(final String name) throws IOException {
+    return new DataAccess(meta.dbfile(name), meta.compression ? meta.dbfile(DATABLK + name) : null);
   }
 
   /**
@@ -164,6 +187,7 @@ public final class DiskData extends Data {
       close(IndexType.TEXT);
       close(IndexType.ATTRIBUTE);
       close(IndexType.TOKEN);
+      close(IndexType.TRIGRAM);
       close(IndexType.FULLTEXT);
     } catch(final IOException ex) {
       Util.stack(ex);
@@ -185,19 +209,32 @@ public final class DiskData extends Data {
 
   @Override
   public void createIndex(final IndexType type, final Command cmd) throws IOException {
-    // close existing index
-    close(type);
-    final IndexBuilder ib;
-    switch(type) {
-      case TEXT: case ATTRIBUTE: case TOKEN: ib = new DiskValuesBuilder(this, type); break;
-      case FULLTEXT: ib = new FTBuilder(this); break;
-      default: throw Util.notExpected();
+    createIndexes(cmd, type);
+  }
+
+  @Override
+  public void createIndexes(final Command cmd, final IndexType... types) throws IOException {
+    // close existing indexes, create builders
+    final int tl = types.length;
+    final IndexBuilder[] builders = new IndexBuilder[tl];
+    for(int t = 0; t < tl; t++) {
+      final IndexType type = types[t];
+      close(type);
+      switch(type) {
+        case TEXT: case ATTRIBUTE: case TOKEN: case TRIGRAM:
+          builders[t] = new DiskValuesBuilder(this, type); break;
+        case FULLTEXT:
+          builders[t] = new FTBuilder(this); break;
+        default: throw Util.notExpected();
+      }
     }
+    // independent index structures are built in parallel
     try {
-      if(cmd != null) cmd.pushJob(ib);
-      set(type, ib.build());
+      if(cmd != null) for(final IndexBuilder ib : builders) cmd.pushJob(ib);
+      final ValueIndex[] indexes = IndexBuilder.build(builders);
+      for(int t = 0; t < tl; t++) set(types[t], indexes[t]);
     } finally {
-      if(cmd != null) cmd.popJob();
+      if(cmd != null) for(int t = 0; t < tl; t++) cmd.popJob();
     }
   }
 
@@ -219,6 +256,7 @@ public final class DiskData extends Data {
       case TEXT:      textIndex = index; break;
       case ATTRIBUTE: attrIndex = index; break;
       case TOKEN:     tokenIndex = index; break;
+      case TRIGRAM:   trigramIndex = index; break;
       case FULLTEXT:  ftIndex = index; break;
       default:        break;
     }
@@ -227,6 +265,7 @@ public final class DiskData extends Data {
   @Override
   public void startUpdate(final MainOptions opts) throws BaseXException {
     if(!table.lock(true)) throw new BaseXException(DB_PINNED_X, meta.name);
+    updates++;
     if(opts.get(MainOptions.AUTOFLUSH)) {
       final IOFile upd = meta.updateFile();
       if(upd.exists()) throw new BaseXException(DB_UPDATED_X, meta.name);
@@ -261,6 +300,7 @@ public final class DiskData extends Data {
         values.flush();
         if(textIndex != null) textIndex.flush();
         if(attrIndex != null) attrIndex.flush();
+        if(ftIndex != null) ftIndex.flush();
       }
     } catch(final IOException ex) {
       Util.stack(ex);
@@ -289,6 +329,7 @@ public final class DiskData extends Data {
   public int textLen(final int pre, final boolean text) {
     final long value = textRef(pre);
     if(Inline.inlined(value)) return Inline.unpackLength(value);
+    if(dictionary(value)) return dictionary.value(value).length;
 
     final DataAccess da = text ? texts : values;
     final int l = da.readNum(value & Compress.COMPRESS - 1);
@@ -303,10 +344,58 @@ public final class DiskData extends Data {
    * @return text
    */
   private byte[] txt(final long offset, final boolean text) {
+    if(dictionary(offset)) return dictionary.value(offset);
     final byte[] txt = (text ? texts : values).readToken(offset & Compress.COMPRESS - 1);
     return Compress.compressed(offset) ? Compress.unpack(txt) : txt;
   }
 
+  @Override
+  public int dictionaryId(final byte[] value) {
+    return dictionary != null ? ValueDictionary.id(dictionary.ref(value, false)) : 0;
+  }
+
+  @Override
+  public int dictionaryId(final int pre) {
+    if(dictionary == null) return 0;
+    // text, attribute, or element with a single text node
+    final int kind = kind(pre);
+    int p = pre;
+    if(kind == ELEM) {
+      p += attSize(pre, kind);
+      if(size(pre, kind) != p - pre + 1 || kind(p) != TEXT) return 0;
+    } else if(kind != TEXT && kind != ATTR) {
+      return 0;
+    }
+    final long value = textRef(p);
+    return dictionary(value) ? ValueDictionary.id(value) : 0;
+  }
+
+  /**
+   * Checks if the specified text reference points to the value dictionary.
+   * @param value text reference
+   * @return result of check
+   */
+  private boolean dictionary(final long value) {
+    return dictionary != null && ValueDictionary.ref(value);
+  }
+
+  /**
+   * Checks if the specified text reference points to an entry in a heap file.
+   * @param value text reference
+   * @return result of check
+   */
+  private boolean stored(final long value) {
+    return !Inline.inlined(value) && !dictionary(value);
+  }
+
+  /**
+   * Returns the number of updates that have been started since the database was opened.
+   * @return number of updates
+   */
+  public int updates() {
+    return updates;
+  }
+
   @Override
   public boolean inMemory() {
     return false;
@@ -319,7 +408,7 @@ public final class DiskData extends Data {
     // old entry (offset or value)
     final long old = textRef(pre);
     // if old text was not inlined, fill unused space in text file with zero bytes
-    if(!Inline.inlined(old)) (text ? texts : values).free(old & Compress.COMPRESS - 1, 0);
+    if(stored(old)) (text ? texts : values).free(old & Compress.COMPRESS - 1, 0);
   }
 
   @Override
@@ -332,12 +421,16 @@ public final class DiskData extends Data {
     // old entry (offset or value)
     final long oldRef = textRef(pre);
 
-    // check if new entry can be inlined
-    final long v = Inline.packInt(value);
+    // check if new entry can be inlined or referenced in the dictionary
+    long v = Inline.packInt(value);
+    if(v == -1 && dictionary != null) {
+      v = dictionary.ref(value, false);
+      if(v == 0) v = -1;
+    }
     if(v != -1) {
-      // invalidate old entry if it was not inlined
-      if(!Inline.inlined(oldRef)) store.free(oldRef & Compress.COMPRESS - 1, 0);
-      // inline integer value
+      // invalidate old entry if it was stored in the heap file
+      if(stored(oldRef)) store.free(oldRef & Compress.COMPRESS - 1, 0);
+      // inline integer value or dictionary reference
       textRef(pre, v);
     } else {
       // otherwise, try to compress new value
@@ -345,8 +438,8 @@ public final class DiskData extends Data {
 
       // choose inserting position
       final long off;
-      if(Inline.inlined(oldRef)) {
-        // old entry was inlined: append new entry to heap file
+      if(!stored(oldRef)) {
+        // old entry was inlined or referenced: append new entry to heap file
         off = store.length();
       } else {
         // otherwise, compute inserting position and invalidate old entry
@@ -354,6 +447,7 @@ public final class DiskData extends Data {
         off = store.free(oldRef & Compress.COMPRESS - 1, vl + Num.length(vl));
       }
 
+      offset(off);
       store.writeToken(off, val);
       textRef(pre, val == value ? off : off | Compress.COMPRESS);
     }
@@ -367,12 +461,27 @@ public final class DiskData extends Data {
     // try to inline value
     final long inlined = Inline.pack(value);
     if(inlined != 0) return inlined;
+    // reference existing dictionary entry
+    if(dictionary != null) {
+      final long ref = dictionary.ref(value, false);
+      if(ref != 0) return ref;
+    }
 
     // store text in heap file
     final byte[] packed = Compress.pack(value);
     final DataAccess store = text ? texts : values;
     final long offset = store.length();
+    offset(offset);
     store.writeToken(offset, packed);
     return packed != value ? Compress.COMPRESS | offset : offset;
   }
+
+  /**
+   * Checks if a value can be stored at the specified offset of a heap file.
+   * @param offset offset in the heap file
+   */
+  private void offset(final long offset) {
+    if(dictionary != null && !ValueDictionary.offset(offset))
+      throw Util.notExpected("%: heap file exceeds limit for dictionary encoding.", meta.name);
+  }
 }
@@ -74,7 +74,7 @@ public final class MemData extends Data {
   public void createIndex(final IndexType type, final Command cmd) throws IOException {
     final IndexBuilder ib;
     switch(type) {
-      case TEXT: case ATTRIBUTE: case TOKEN:
+      case TEXT: case ATTRIBUTE: case TOKEN: case TRIGRAM:
         ib = new MemValuesBuilder(this, type); break;
       case FULLTEXT:
         throw new BaseXException(NO_MAINMEM);
@@ -95,6 +95,7 @@ public final class MemData extends Data {
       case TEXT:      break;
       case ATTRIBUTE: break;
       case TOKEN:     break;
+      case TRIGRAM:   break;
       case FULLTEXT:  throw new BaseXException(NO_MAINMEM);
       default:        throw Util.notExpected();
     }
@@ -112,6 +113,7 @@ public final class MemData extends Data {
       case TEXT:      textIndex = index; break;
       case ATTRIBUTE: attrIndex = index; break;
       case TOKEN:     tokenIndex = index; break;
+      case TRIGRAM:   trigramIndex = index; break;
       case FULLTEXT:  ftIndex = index; break;
       default:        break;
     }
@@ -146,6 +148,16 @@ public final class MemData extends Data {
     return text(pre, text).length;
   }
 
+  @Override
+  public int dictionaryId(final byte[] value) {
+    return 0;
+  }
+
+  @Override
+  public int dictionaryId(final int pre) {
+    return 0;
+  }
+
   @Override
   public boolean inMemory() {
     return true;
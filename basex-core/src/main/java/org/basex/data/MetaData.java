@@ -45,6 +45,8 @@ public final class MetaData {
   public boolean attrindex;
   /** Indicates if a token index exists. */
   public boolean tokenindex;
+  /** Indicates if a trigram index exists. */
+  public boolean trigramindex;
   /** Indicates if a full-text index exists. */
   public boolean ftindex;
 
@@ -52,6 +54,14 @@ public final class MetaData {
   public boolean updindex;
   /** Flag for automatic index updating. */
   public boolean autooptimize;
+  /** Flag for memory-mapped table access. */
+  public boolean mmap;
+  /** Flag for block-compressed texts and attribute values. */
+  public boolean compression;
+  /** Flag for dictionary-encoded texts and attribute values. */
+  public boolean dictionary;
+  /** Flag for typed indexes of numeric texts and attribute values. */
+  public boolean rangeindex;
 
   /** Indicates if the text index is to be recreated. */
   public boolean createtext;
@@ -59,6 +69,8 @@ public final class MetaData {
   public boolean createattr;
   /** Indicates if the token index is to be recreated. */
   public boolean createtoken;
+  /** Indicates if the trigram index is to be recreated. */
+  public boolean createtrigram;
   /** Indicates if the full-text index is to be recreated. */
   public boolean createft;
   /** Text index: names to include. */
@@ -67,6 +79,8 @@ public final class MetaData {
   public String attrinclude;
   /** Token index: names to tokenize. */
   public String tokeninclude;
+  /** Trigram index: names to include. */
+  public String trigraminclude;
   /** Full-text index: names to include. */
   public String ftinclude;
 
@@ -124,12 +138,17 @@ public final class MetaData {
     createtext = options.get(MainOptions.TEXTINDEX);
     createattr = options.get(MainOptions.ATTRINDEX);
     createtoken = options.get(MainOptions.TOKENINDEX);
+    createtrigram = options.get(MainOptions.TRIGRAMINDEX);
     createft = options.get(MainOptions.FTINDEX);
     diacritics = options.get(MainOptions.DIACRITICS);
     stemming = options.get(MainOptions.STEMMING);
     casesens = options.get(MainOptions.CASESENS);
     updindex = options.get(MainOptions.UPDINDEX);
     autooptimize = options.get(MainOptions.AUTOOPTIMIZE);
+    mmap = options.get(MainOptions.MMAP);
+    compression = options.get(MainOptions.COMPRESSION);
+    dictionary = options.get(MainOptions.DICTIONARY);
+    rangeindex = options.get(MainOptions.RANGEINDEX);
     maxlen = options.get(MainOptions.MAXLEN);
     maxcats = options.get(MainOptions.MAXCATS);
     stopwords = options.get(MainOptions.STOPWORDS);
@@ -137,6 +156,7 @@ public final class MetaData {
     textinclude = options.get(MainOptions.TEXTINCLUDE);
     attrinclude = options.get(MainOptions.ATTRINCLUDE);
     tokeninclude = options.get(MainOptions.TOKENINCLUDE);
+    trigraminclude = options.get(MainOptions.TRIGRAMINCLUDE);
     ftinclude = options.get(MainOptions.FTINCLUDE);
     splitsize = options.get(MainOptions.SPLITSIZE);
   }
@@ -314,6 +334,7 @@ public final class MetaData {
       case TEXT:      return textindex;
       case ATTRIBUTE: return attrindex;
       case TOKEN:     return tokenindex;
+      case TRIGRAM:   return trigramindex;
       case FULLTEXT:  return ftindex;
       default:        throw Util.notExpected();
     }
@@ -329,6 +350,7 @@ public final class MetaData {
       case TEXT:      textindex = exists; break;
       case ATTRIBUTE: attrindex = exists; break;
       case TOKEN:     tokenindex = exists; break;
+      case TRIGRAM:   trigramindex = exists; break;
       case FULLTEXT:  ftindex = exists; break;
       default:        throw Util.notExpected();
     }
@@ -344,6 +366,7 @@ public final class MetaData {
       case TEXT:      return textinclude;
       case ATTRIBUTE: return attrinclude;
       case TOKEN:     return tokeninclude;
+      case TRIGRAM:   return trigraminclude;
       case FULLTEXT:  return ftinclude;
       default:        throw Util.notExpected();
     }
@@ -359,6 +382,7 @@ public final class MetaData {
       case TEXT:      textinclude = options.get(MainOptions.TEXTINCLUDE); break;
       case ATTRIBUTE: attrinclude = options.get(MainOptions.ATTRINCLUDE); break;
       case TOKEN:     tokeninclude = options.get(MainOptions.TOKENINCLUDE); break;
+      case TRIGRAM:   trigraminclude = options.get(MainOptions.TRIGRAMINCLUDE); break;
       case FULLTEXT:  ftinclude = options.get(MainOptions.FTINCLUDE); break;
       default:        throw Util.notExpected();
     }
@@ -393,18 +417,25 @@ public final class MetaData {
         case DBFTDC:     diacritics = toBoolean(v); break;
         case DBUPDIDX:   updindex = toBoolean(v); break;
         case DBAUTOOPT:  autooptimize = toBoolean(v); break;
+        case DBMMAP:     mmap = toBoolean(v); break;
+        case DBCOMPRESSION: compression = toBoolean(v); break;
+        case DBDICTIONARY: dictionary = toBoolean(v); break;
+        case DBRANGEIDX: rangeindex = toBoolean(v); break;
         case DBTXTIDX:   textindex = toBoolean(v); break;
         case DBATVIDX:   attrindex = toBoolean(v); break;
         case DBTOKIDX:   tokenindex = toBoolean(v); break;
+        case DBTRIIDX:   trigramindex = toBoolean(v); break;
         case DBFTXIDX:   ftindex = toBoolean(v); break;
         case DBTXTINC:   textinclude = v; break;
         case DBATVINC:   attrinclude = v; break;
         case DBTOKINC:   tokeninclude = v; break;
+        case DBTRIINC:   trigraminclude = v; break;
         case DBFTXINC:   ftinclude = v; break;
         case DBSPLITS:   splitsize = toInt(v); break;
         case DBCRTTXT:   createtext = toBoolean(v); break;
         case DBCRTATV:   createattr = toBoolean(v); break;
         case DBCRTTOK:   createtoken = toBoolean(v); break;
+        case DBCRTTRI:   createtrigram = toBoolean(v); break;
         case DBCRTFTX:   createft = toBoolean(v); break;
         case DBFTST:     stemming = toBoolean(v); break;
         case DBFTCS:     casesens = toBoolean(v); break;
@@ -436,18 +467,25 @@ public final class MetaData {
     writeInfo(out, DBSIZE,     size);
     writeInfo(out, DBUPDIDX,   updindex);
     writeInfo(out, DBAUTOOPT,  autooptimize);
+    writeInfo(out, DBMMAP,     mmap);
+    writeInfo(out, DBCOMPRESSION, compression);
+    writeInfo(out, DBDICTIONARY, dictionary);
+    writeInfo(out, DBRANGEIDX, rangeindex);
     writeInfo(out, DBTXTIDX,   textindex);
     writeInfo(out, DBATVIDX,   attrindex);
     writeInfo(out, DBTOKIDX,   tokenindex);
+    writeInfo(out, DBTRIIDX,   trigramindex);
     writeInfo(out, DBFTXIDX,   ftindex);
     writeInfo(out, DBTXTINC,   textinclude);
     writeInfo(out, DBATVINC,   attrinclude);
     writeInfo(out, DBTOKINC,   tokeninclude);
+    writeInfo(out, DBTRIINC,   trigraminclude);
     writeInfo(out, DBFTXINC,   ftinclude);
     writeInfo(out, DBSPLITS,   splitsize);
     writeInfo(out, DBCRTTXT,   createtext);
     writeInfo(out, DBCRTATV,   createattr);
     writeInfo(out, DBCRTTOK,   createtoken);
+    writeInfo(out, DBCRTTRI,   createtrigram);
     writeInfo(out, DBCRTFTX,   createft);
     writeInfo(out, DBFTST,     stemming);
     writeInfo(out, DBFTCS,     casesens);
@@ -473,8 +511,9 @@ public final class MetaData {
       textindex = false;
       attrindex = false;
       tokenindex = false;
+      trigramindex = false;
+      ftindex = false;
     }
-    ftindex = false;
   }
 
   /**
@@ -80,6 +80,11 @@ public enum MetaProp {
     public Boolean value(final MetaData meta) { return meta.tokenindex; }
   },
   /** Property. */
+  TRIGRAMINDEX(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.trigramindex; }
+  },
+  /** Property. */
   FTINDEX(true) {
     @Override
     public Boolean value(final MetaData meta) { return meta.ftindex; }
@@ -100,6 +105,11 @@ public enum MetaProp {
     public String value(final MetaData meta) { return meta.tokeninclude; }
   },
   /** Property. */
+  TRIGRAMINCLUDE(true) {
+    @Override
+    public String value(final MetaData meta) { return meta.trigraminclude; }
+  },
+  /** Property. */
   FTINCLUDE(true) {
     @Override
     public String value(final MetaData meta) { return meta.ftinclude; }
@@ -140,6 +150,26 @@ public enum MetaProp {
     public Boolean value(final MetaData meta) { return meta.autooptimize; }
   },
   /** Property. */
+  MMAP(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.mmap; }
+  },
+  /** Property. */
+  COMPRESSION(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.compression; }
+  },
+  /** Property. */
+  DICTIONARY(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.dictionary; }
+  },
+  /** Property. */
+  RANGEINDEX(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.rangeindex; }
+  },
+  /** Property. */
   MAXCATS(true) {
     @Override
     public Integer value(final MetaData meta) { return meta.maxcats; }
@@ -0,0 +1,111 @@
+package org.basex.data;
+
+import java.io.*;
+
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+
+/**
+ * This class stores recurring texts and attribute values of a database only once
+ * ({@link MetaData#dictionary}). The table references the dictionary entries by their ids.
+ *
+ * When a database is built, values are added if the statistics of the corresponding element or
+ * attribute name indicate a category (see {@link org.basex.index.stats.StatsType}).
+ * Updates will only reference existing entries. As each value is stored at most once,
+ * two values are equal if their dictionary ids are equal.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class ValueDictionary extends TokenSet {
+  /** Flag for dictionary references (see bit layout in {@link DiskData}). */
+  public static final long REF = 0x2000000000L;
+  /** Maximum number of entries. */
+  private static final int MAX = 1 << 18;
+
+  /** Dictionary file. */
+  private final IOFile file;
+  /** Dirty flag. */
+  private boolean dirty;
+
+  /**
+   * Constructor, reading the dictionary if it exists.
+   * @param file dictionary file
+   * @throws IOException I/O exception
+   */
+  public ValueDictionary(final IOFile file) throws IOException {
+    this.file = file;
+    if(file.exists()) {
+      try(DataInput in = new DataInput(file)) {
+        read(in);
+      }
+    }
+  }
+
+  /**
+   * Returns the reference to a value.
+   * @param value value
+   * @param add add value if it does not exist yet, and if the maximum size is not reached
+   * @return reference, or {@code 0} if the value is not found in the dictionary
+   */
+  public long ref(final byte[] value, final boolean add) {
+    int id = id(value);
+    if(id == 0 && add && size < MAX) {
+      id = put(value);
+      dirty = true;
+    }
+    return id == 0 ? 0 : REF | id;
+  }
+
+  /**
+   * Returns the value of a reference.
+   * @param ref reference
+   * @return value
+   */
+  public byte[] value(final long ref) {
+    return key(id(ref));
+  }
+
+  /**
+   * Checks if the specified table value is a dictionary reference.
+   * @param value table value
+   * @return result of check
+   */
+  public static boolean ref(final long value) {
+    return !Inline.inlined(value) && (value & REF) != 0;
+  }
+
+  /**
+   * Checks if a value at the specified offset of a heap file can be referenced.
+   * As bit 37 flags dictionary references, offsets must be smaller than {@link #REF}.
+   * @param offset offset in the heap file
+   * @return result of check
+   */
+  public static boolean offset(final long offset) {
+    return offset < REF;
+  }
+
+  /**
+   * Returns the id of a reference.
+   * @param ref reference
+   * @return id
+   */
+  public static int id(final long ref) {
+    return (int) (ref & REF - 1);
+  }
+
+  /**
+   * Writes the dictionary to disk.
+   * @throws IOException I/O exception
+   */
+  public void flush() throws IOException {
+    if(!dirty) return;
+    try(DataOutput out = new DataOutput(file)) {
+      write(out);
+    }
+    dirty = false;
+  }
+}
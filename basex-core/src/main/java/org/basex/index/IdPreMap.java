@@ -12,12 +12,19 @@ import org.basex.util.list.*;
 /**
  * Updatable ID-PRE mapping.
  *
+ * The mapping is represented by a table with the update intervals, which is sorted by PRE values.
+ * The PRE values of IDs that were inserted by updates are found via an additional index, which
+ * sorts the intervals by their first ID. The index is rebuilt after updates, when the next ID is
+ * looked up. Both kinds of IDs can thus be resolved in logarithmic time.
+ *
  * @author BaseX Team 2005-19, BSD License
  * @author Dimitar Popov
  */
 public class IdPreMap {
   /** Invalid id-value. */
   private static final int INV = -1;
+  /** Marker for the compact file format. */
+  private static final int COMPACT = Integer.MIN_VALUE;
   /** Base ID value. */
   private int baseid;
   /** PRE values of the inserted/deleted IDs. */
@@ -33,6 +40,8 @@ public class IdPreMap {
 
   /** Number of records in the table. */
   private int rows;
+  /** Indexes of the records with inserted IDs, sorted by first ID ({@code null}: invalid). */
+  private volatile int[] order;
 
   /**
    * Constructor.
@@ -54,13 +63,38 @@ public class IdPreMap {
    */
   public IdPreMap(final IOFile f) throws IOException {
     try(DataInput in = new DataInput(f)) {
-      baseid = in.readNum();
-      rows = in.readNum();
-      pres = in.readNums();
-      fids = in.readNums();
-      nids = in.readNums();
-      incs = in.readNums();
-      oids = in.readNums();
+      final int v = in.readNum();
+      if(v == COMPACT) {
+        baseid = in.readNum();
+        rows = in.readNum();
+        final int s = Math.max(1, rows);
+        pres = new int[s];
+        fids = new int[s];
+        nids = new int[s];
+        incs = new int[s];
+        oids = new int[s];
+        int pre = 0, inc = 0, oid = 0;
+        for(int r = 0; r < rows; r++) {
+          pre += in.readNum();
+          inc += unzip(in.readNum());
+          oid += in.readNum();
+          final int fid = in.readNum() - 1;
+          pres[r] = pre;
+          incs[r] = inc;
+          oids[r] = oid;
+          fids[r] = fid;
+          nids[r] = fid + in.readNum();
+        }
+      } else {
+        // legacy format
+        baseid = v;
+        rows = in.readNum();
+        pres = in.readNums();
+        fids = in.readNums();
+        nids = in.readNums();
+        incs = in.readNums();
+        oids = in.readNums();
+      }
     }
   }
 
@@ -71,13 +105,21 @@ public class IdPreMap {
    */
   public final void write(final IOFile file) throws IOException {
     try(DataOutput out = new DataOutput(file)) {
+      out.writeNum(COMPACT);
       out.writeNum(baseid);
       out.writeNum(rows);
-      out.writeNums(pres);
-      out.writeNums(fids);
-      out.writeNums(nids);
-      out.writeNums(incs);
-      out.writeNums(oids);
+      // PRE values and original IDs are sorted: write distances
+      int pre = 0, inc = 0, oid = 0;
+      for(int r = 0; r < rows; r++) {
+        out.writeNum(pres[r] - pre);
+        out.writeNum(zip(incs[r] - inc));
+        out.writeNum(oids[r] - oid);
+        out.writeNum(fids[r] + 1);
+        out.writeNum(nids[r] - fids[r]);
+        pre = pres[r];
+        inc = incs[r];
+        oid = oids[r];
+      }
     }
   }
 
@@ -99,9 +141,17 @@ public class IdPreMap {
     if(rows == 0 || id < pres[0]) return id;
 
     if(id > baseid) {
-      // id was inserted by update
-      for(int i = 0; i < rows; ++i) {
-        if(fids[i] <= id && id <= nids[i]) return pres[i] + id - fids[i];
+      // id was inserted by update: find last interval with a smaller or identical first id
+      final int[] ord = order();
+      int low = 0, high = ord.length - 1;
+      while(low <= high) {
+        final int mid = low + high >>> 1;
+        if(fids[ord[mid]] <= id) low = mid + 1;
+        else high = mid - 1;
+      }
+      if(high >= 0) {
+        final int i = ord[high];
+        if(id <= nids[i]) return pres[i] + id - fids[i];
       }
     } else {
       // id is affected by updates
@@ -148,6 +198,7 @@ public class IdPreMap {
 
             // shrink the previous interval
             nids[prev] = fid - 1;
+            order = null;
             incs[prev] -= prevcnt - split;
 
             oid = oids[prev];
@@ -243,6 +294,27 @@ public class IdPreMap {
     increment(endIndex + 1, c);
   }
 
+  /**
+   * Returns the indexes of all records with inserted IDs, sorted by their first ID.
+   * @return indexes
+   */
+  private int[] order() {
+    int[] ord = order;
+    if(ord == null) {
+      // sort non-empty records by first id; ranges of inserted ids are disjoint
+      final long[] keys = new long[rows];
+      int k = 0;
+      for(int i = 0; i < rows; i++) {
+        if(fids[i] != INV && fids[i] <= nids[i]) keys[k++] = (long) fids[i] << 32 | i;
+      }
+      Arrays.sort(keys, 0, k);
+      ord = new int[k];
+      for(int o = 0; o < k; o++) ord[o] = (int) keys[o];
+      order = ord;
+    }
+    return ord;
+  }
+
   /**
    * Shrinks the given tuple from the start.
    * @param i index of the tuple
@@ -253,6 +325,7 @@ public class IdPreMap {
     incs[i] += c;
     fids[i] += pre - c - pres[i];
     pres[i] = pre;
+    order = null;
   }
 
   /**
@@ -264,6 +337,7 @@ public class IdPreMap {
   private void shrinkFromEnd(final int i, final int pre, final int inc) {
     nids[i] = fids[i] + pre - pres[i] - 1;
     incs[i] = inc;
+    order = null;
   }
 
   /**
@@ -354,6 +428,7 @@ public class IdPreMap {
     incs[i] = inc;
     oids[i] = oid;
     ++rows;
+    order = null;
   }
 
   /**
@@ -371,9 +446,28 @@ public class IdPreMap {
       Array.copy(incs, last, length, incs, s);
       Array.copy(oids, last, length, oids, s);
       rows -= last - s;
+      order = null;
     }
   }
 
+  /**
+   * Encodes a signed integer as positive number.
+   * @param value value
+   * @return encoded value
+   */
+  private static int zip(final int value) {
+    return value << 1 ^ value >> 31;
+  }
+
+  /**
+   * Decodes a signed integer.
+   * @param value encoded value
+   * @return decoded value
+   */
+  private static int unzip(final int value) {
+    return value >>> 1 ^ -(value & 1);
+  }
+
   @Override
   public String toString() {
     final Table t = new Table();
@@ -3,6 +3,8 @@ package org.basex.index;
 import static org.basex.core.Text.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.core.*;
 import org.basex.core.jobs.*;
@@ -18,6 +20,9 @@ import org.basex.util.*;
  * @author Christian Gruen
  */
 public abstract class IndexBuilder extends Job {
+  /** Number of threads for building index structures. */
+  private static volatile int threads = Runtime.getRuntime().availableProcessors();
+
   /** Performance. */
   private final Performance perf = new Performance();
 
@@ -46,6 +51,8 @@ public abstract class IndexBuilder extends Job {
   protected int splits;
   /** Threshold for freeing memory when estimating main memory consumption. */
   private int gcCount;
+  /** Thread pool for building partitions in parallel ({@code null}: sequential build). */
+  protected ForkJoinPool pool;
 
   /**
    * Constructor.
@@ -58,12 +65,20 @@ public abstract class IndexBuilder extends Job {
     splitSize = (int) Math.min(Integer.MAX_VALUE, (long) data.meta.splitsize * splitFactor());
     size = data.meta.size;
     includeNames = new IndexNames(type, data);
-    text = type == IndexType.TEXT || type == IndexType.FULLTEXT;
+    text = type.text();
 
     // run garbage collection if memory maximum is already reached
     if(Performance.memory() >= maxMem) clean();
   }
 
+  /**
+   * Assigns the number of threads for building index structures.
+   * @param max number of threads ({@code 0}: number of available processors)
+   */
+  public static void threads(final int max) {
+    threads = max > 0 ? max : Runtime.getRuntime().availableProcessors();
+  }
+
   /**
    * Builds the index structure and returns an index instance.
    * @return index instance
@@ -71,6 +86,79 @@ public abstract class IndexBuilder extends Job {
    */
   public abstract ValueIndex build() throws IOException;
 
+  /**
+   * Builds the specified index structures. If more than one thread is available, the
+   * structures will be built in parallel, and builders may partition their work.
+   * @param builders index builders
+   * @return index instances
+   * @throws IOException I/O Exception
+   */
+  public static ValueIndex[] build(final IndexBuilder... builders) throws IOException {
+    final int bl = builders.length;
+    final ValueIndex[] indexes = new ValueIndex[bl];
+    final int th = threads;
+    if(th == 1) {
+      for(int b = 0; b < bl; b++) indexes[b] = builders[b].build();
+      return indexes;
+    }
+
+    final ForkJoinPool pool = new ForkJoinPool(th);
+    final ArrayList<Callable<ValueIndex>> tasks = new ArrayList<>(bl);
+    for(final IndexBuilder builder : builders) {
+      builder.pool = pool;
+      tasks.add(builder::build);
+    }
+    try {
+      return invoke(pool, tasks).toArray(indexes);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Runs the specified tasks in parallel and waits for their completion.
+   * If a task fails, its exception will be rethrown.
+   * @param <T> result type
+   * @param pool thread pool
+   * @param tasks tasks
+   * @return results
+   * @throws IOException I/O Exception
+   */
+  protected static <T> List<T> invoke(final ForkJoinPool pool, final List<Callable<T>> tasks)
+      throws IOException {
+
+    final ArrayList<T> results = new ArrayList<>(tasks.size());
+    Throwable error = null;
+    for(final Future<T> future : pool.invokeAll(tasks)) {
+      try {
+        results.add(future.get());
+      } catch(final ExecutionException ex) {
+        // exceptions from other threads may be wrapped by another instance of the same class
+        Throwable th = ex.getCause();
+        final Throwable cause = th.getCause();
+        if(cause != null && cause.getClass() == th.getClass()) th = cause;
+        if(error == null) error = th;
+        results.add(null);
+      } catch(final InterruptedException ex) {
+        throw new JobException(INTERRUPTED);
+      }
+    }
+    if(error == null) return results;
+
+    // close and drop completed index structures
+    for(final T result : results) {
+      if(result instanceof Index) {
+        final Index index = (Index) result;
+        index.close();
+        index.drop();
+      }
+    }
+    if(error instanceof IOException) throw (IOException) error;
+    if(error instanceof RuntimeException) throw (RuntimeException) error;
+    if(error instanceof Error) throw (Error) error;
+    throw new IOException(error);
+  }
+
   /**
    * Checks if the command was interrupted, and prints some debug output.
    * @throws IOException I/O Exception
@@ -169,6 +257,7 @@ public abstract class IndexBuilder extends Job {
       case TEXT: return INDEX_TEXTS_D;
       case ATTRIBUTE: return INDEX_ATTRIBUTES_D;
       case TOKEN: return INDEX_TOKENS_D;
+      case TRIGRAM: return INDEX_TRIGRAMS_D;
       case FULLTEXT: return INDEX_FULLTEXT_D;
       default: throw Util.notExpected();
     }
@@ -2,48 +2,58 @@ package org.basex.index;
 
 import static org.basex.util.Token.*;
 
-import java.lang.ref.*;
-import java.util.concurrent.locks.*;
+import java.util.*;
 
 import org.basex.util.*;
 
 /**
  * This class caches sizes and offsets from index results.
  *
+ * The cache is divided into segments, which are selected by the hash codes of the keys.
+ * Entries are only added and deleted by locking the affected segment. Lookups need no locks:
+ * the hash buckets and the entries are immutable and will be replaced if a segment is updated.
+ *
+ * The number of entries is limited. If a segment is full, entries will be evicted via a
+ * second-chance strategy, which approximates LRU: entries that have been requested since
+ * the last check are kept, and the oldest of the remaining entries is evicted.
+ *
  * @author BaseX Team 2005-19, BSD License
  * @author Dimitar Popov
  */
 public final class IndexCache {
-  /** Queue used to collect unused keys. */
-  private final ReferenceQueue<IndexEntry> queue = new ReferenceQueue<>();
-  /** Read-write lock. */
-  private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock(true);
-  /** Hash table buckets. */
-  private BucketEntry[] buckets = new BucketEntry[Array.CAPACITY];
-  /** Number of entries in the cache. */
-  private int size;
+  /** Number of bits used for addressing segments. */
+  private static final int BITS = 4;
+  /** Default maximum number of cache entries. */
+  private static final int CAPACITY = 1 << 16;
+
+  /** Segments. */
+  private final Segment[] segments = new Segment[1 << BITS];
+
+  /**
+   * Constructor.
+   */
+  public IndexCache() {
+    this(CAPACITY);
+  }
+
+  /**
+   * Constructor.
+   * @param capacity maximum number of entries
+   */
+  public IndexCache(final int capacity) {
+    final int sl = segments.length, max = Math.max(1, capacity / sl);
+    for(int s = 0; s < sl; s++) segments[s] = new Segment(max);
+  }
 
   /**
    * Gets cached entry for the specified key.
+   * <p><em>Important:</em> This method is thread-safe and does not block.</p>
    * @param key key
    * @return cached entry or {@code null} if the entry is stale
    */
   public IndexEntry get(final byte[] key) {
     final int hash = hash(key);
-    rwl.readLock().lock();
-
-    try {
-      final int i = indexFor(hash, buckets.length);
-      BucketEntry e = buckets[i];
-      while(e != null) {
-        final IndexEntry entry = e.get();
-        if(entry != null && e.hash == hash && eq(entry.key, key)) return entry;
-        e = e.next;
-      }
-    } finally {
-      rwl.readLock().unlock();
-    }
-    return null;
+    return segment(hash).get(key, hash);
   }
 
   /**
@@ -56,31 +66,7 @@ public final class IndexCache {
    */
   public IndexEntry add(final byte[] key, final int count, final long offset) {
     final int hash = hash(key);
-    rwl.writeLock().lock();
-
-    try {
-      purge();
-      final int i = indexFor(hash, buckets.length);
-      BucketEntry current = buckets[i], prev = current;
-      while(current != null) {
-        final BucketEntry next = current.next;
-        final IndexEntry entry = current.get();
-        if(entry == null) {
-          delete(i, current, prev, next);
-        } else if(current.hash == hash && eq(entry.key, key)) {
-          update(entry, count, offset);
-          return entry;
-        }
-        prev = current;
-        current = next;
-      }
-
-      final IndexEntry entry = new IndexEntry(key, count, offset);
-      add(i, hash, entry);
-      return entry;
-    } finally {
-      rwl.writeLock().unlock();
-    }
+    return segment(hash).add(key, hash, count, offset);
   }
 
   /**
@@ -89,142 +75,201 @@ public final class IndexCache {
    */
   public void delete(final byte[] key) {
     final int hash = hash(key);
-    rwl.writeLock().lock();
-
-    try {
-      purge();
-      final int i = indexFor(hash, buckets.length);
-      BucketEntry e = buckets[i], prev = e;
-      while(e != null) {
-        final BucketEntry next = e.next;
-        final IndexEntry entry = e.get();
-        if(entry == null) {
-          delete(i, e, prev, next);
-        } else if(e.hash == hash && eq(entry.key, key)) {
-          delete(i, e, prev, next);
-          break;
-        }
-        prev = e;
-        e = next;
-      }
-    } finally {
-      rwl.writeLock().unlock();
-    }
+    segment(hash).delete(key, hash);
   }
 
   /**
-   * Purges stale entries from the cache.
+   * Returns the segment for the specified hash code.
+   * The upper bits are used, as the lower bits address the buckets of a segment.
+   * The hash code is mixed first, as the upper bits of short keys would otherwise be zero.
+   * @param hash hash code
+   * @return segment
    */
-  private void purge() {
-    for(Object x; (x = queue.poll()) != null;) {
-      final BucketEntry e = (BucketEntry) x;
-      final int i = indexFor(e.hash, buckets.length);
-      BucketEntry prev = buckets[i], p = prev;
-      while(p != null) {
-        final BucketEntry next = p.next;
-        if(p == e) {
-          delete(i, e, prev, next);
-          break;
-        }
-        prev = p;
-        p = next;
-      }
-    }
+  private Segment segment(final int hash) {
+    return segments[(hash ^ hash >>> 16) * 0x9E3779B9 >>> Integer.SIZE - BITS];
   }
 
   /**
-   * Add a new index entry to the bucket with the specified index.
-   * @param i bucket index
-   * @param hash hash of the new index key
-   * @param entry index entry
+   * Returns buckets index for a hash code.
+   * @param h hash code
+   * @param n number of available buckets
+   * @return index of a buckets
    */
-  private void add(final int i, final int hash, final IndexEntry entry) {
-    buckets[i] = new BucketEntry(hash, buckets[i], entry, queue);
-    if(++size == buckets.length) rehash();
+  private static int indexFor(final int h, final int n) {
+    return h & n - 1;
   }
 
   /**
-   * Update an existing index entry.
-   * @param entry index entry to update
-   * @param size new size
-   * @param offset new offset
+   * Cache segment.
    */
-  private static void update(final IndexEntry entry, final int size, final long offset) {
-    entry.size = size;
-    entry.offset = offset;
-  }
+  private static final class Segment {
+    /** Entries in the order in which they were added or kept (may contain stale entries). */
+    private final ArrayDeque<IndexEntry> entries = new ArrayDeque<>();
+    /** Maximum number of entries. */
+    private final int max;
+    /** Hash table buckets. */
+    private volatile BucketEntry[] buckets = new BucketEntry[Array.CAPACITY];
+    /** Number of entries. */
+    private int size;
 
-  /**
-   * Deletes a cached entry from the buckets with the specified index.
-   * @param i buckets index
-   * @param e cached entry to delete
-   * @param p previous cache entry
-   * @param n next cache entry
-   */
-  private void delete(final int i, final BucketEntry e, final BucketEntry p, final BucketEntry n) {
-    if(p == e) buckets[i] = n;
-    else p.next = n;
-    e.next = null;
-    --size;
-  }
+    /**
+     * Constructor.
+     * @param max maximum number of entries
+     */
+    Segment(final int max) {
+      this.max = max;
+    }
 
-  /**
-   * Resizes the hash table.
-   */
-  private void rehash() {
-    purge();
-
-    final int s = size << 1;
-    final BucketEntry[] tmp = new BucketEntry[s];
-
-    final int l = buckets.length;
-    for(int i = 0; i < l; ++i) {
-      BucketEntry e = buckets[i];
-      buckets[i] = null;
-      while(e != null) {
-        final BucketEntry next = e.next;
-        final int p = indexFor(e.hash, tmp.length);
-        e.next = tmp[p];
-        tmp[p] = e;
-        e = next;
+    /**
+     * Gets cached entry for the specified key.
+     * @param key key
+     * @param hash hash code of the key
+     * @return cached entry or {@code null}
+     */
+    IndexEntry get(final byte[] key, final int hash) {
+      final BucketEntry[] b = buckets;
+      for(BucketEntry e = b[indexFor(hash, b.length)]; e != null; e = e.next) {
+        final IndexEntry entry = e.entry;
+        if(e.hash == hash && eq(entry.key, key)) {
+          // mark entry as used (skip write if flag has already been set)
+          if(!entry.used) entry.used = true;
+          return entry;
+        }
       }
+      return null;
     }
-    buckets = tmp;
-  }
 
-  /**
-   * Returns buckets index for a hash code.
-   * @param h hash code
-   * @param n number of available buckets
-   * @return index of a buckets
-   */
-  private static int indexFor(final int h, final int n) {
-    return h & n - 1;
+    /**
+     * Adds or updates a cache entry.
+     * @param key key
+     * @param hash hash code of the key
+     * @param count number of index hits
+     * @param offset offset to id list
+     * @return cache entry
+     */
+    synchronized IndexEntry add(final byte[] key, final int hash, final int count,
+        final long offset) {
+      final IndexEntry entry = new IndexEntry(key, count, offset);
+      // replace existing entry (readers will either see the old or the new entry)
+      final IndexEntry cached = remove(key, hash, entry);
+      if(cached != null) {
+        cached.stale = true;
+        entry.used = cached.used;
+        queue(entry);
+        return entry;
+      }
+
+      if(size == max) evict();
+      final BucketEntry[] b = size == buckets.length ? rehash() : buckets;
+      final int i = indexFor(hash, b.length);
+      b[i] = new BucketEntry(hash, entry, b[i]);
+      queue(entry);
+      size++;
+      return entry;
+    }
+
+    /**
+     * Deletes a cache entry.
+     * @param key key
+     * @param hash hash code of the key
+     */
+    synchronized void delete(final byte[] key, final int hash) {
+      final IndexEntry entry = remove(key, hash, null);
+      if(entry != null) entry.stale = true;
+    }
+
+    /**
+     * Adds an entry to the eviction queue. Stale entries are discarded if the queue has
+     * become too large.
+     * @param entry entry
+     */
+    private void queue(final IndexEntry entry) {
+      entries.add(entry);
+      if(entries.size() > Math.max(size, max) << 1) entries.removeIf(e -> e.stale);
+    }
+
+    /**
+     * Evicts the oldest entry that has not been used since the last eviction.
+     */
+    private void evict() {
+      while(true) {
+        final IndexEntry entry = entries.poll();
+        if(entry.stale) continue;
+        if(entry.used) {
+          // give entry a second chance
+          entry.used = false;
+          entries.add(entry);
+        } else {
+          remove(entry.key, hash(entry.key), null);
+          entry.stale = true;
+          return;
+        }
+      }
+    }
+
+    /**
+     * Removes or replaces an entry in the hash table.
+     * @param key key
+     * @param hash hash code of the key
+     * @param replacement replacing entry ({@code null}: remove entry)
+     * @return removed entry or {@code null}
+     */
+    private IndexEntry remove(final byte[] key, final int hash, final IndexEntry replacement) {
+      final BucketEntry[] b = buckets;
+      final int i = indexFor(hash, b.length);
+      final BucketEntry first = b[i];
+      for(BucketEntry e = first; e != null; e = e.next) {
+        if(e.hash == hash && eq(e.entry.key, key)) {
+          // copy preceding bucket entries
+          BucketEntry n = replacement != null ? new BucketEntry(hash, replacement, e.next) : e.next;
+          for(BucketEntry p = first; p != e; p = p.next) n = new BucketEntry(p.hash, p.entry, n);
+          b[i] = n;
+          if(replacement == null) size--;
+          return e.entry;
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Resizes the hash table.
+     * @return new buckets
+     */
+    private BucketEntry[] rehash() {
+      final BucketEntry[] old = buckets, b = new BucketEntry[old.length << 1];
+      for(final BucketEntry first : old) {
+        for(BucketEntry e = first; e != null; e = e.next) {
+          final int i = indexFor(e.hash, b.length);
+          b[i] = new BucketEntry(e.hash, e.entry, b[i]);
+        }
+      }
+      buckets = b;
+      return b;
+    }
   }
 
   /**
-   * Cache buckets entry. Used to implement a linked list of cache entries for
-   * each buckets. It also stores the hash of the current entry for better
-   * performance.
+   * Cache buckets entry. Used to implement an immutable linked list of cache entries for
+   * each buckets. It also stores the hash of the current entry for better performance.
    */
-  private static class BucketEntry extends SoftReference<IndexEntry> {
+  private static final class BucketEntry {
     /** Hash code of the stored cache entry key. */
     final int hash;
+    /** Cache entry. */
+    final IndexEntry entry;
     /** Next buckets entry or {@code null} if the last one for this buckets. */
-    BucketEntry next;
+    final BucketEntry next;
 
     /**
      * Constructor.
-     * @param h hash code of the cache entry key
-     * @param n next buckets entry or {@code null} if the last one
-     * @param v stored cache entry
-     * @param rq reference queue
+     * @param hash hash code of the cache entry key
+     * @param entry stored cache entry
+     * @param next next buckets entry or {@code null} if the last one
      */
-    BucketEntry(final int h, final BucketEntry n, final IndexEntry v,
-        final ReferenceQueue<IndexEntry> rq) {
-      super(v, rq);
-      hash = h;
-      next = n;
+    BucketEntry(final int hash, final IndexEntry entry, final BucketEntry next) {
+      this.hash = hash;
+      this.entry = entry;
+      this.next = next;
     }
   }
 }
@@ -10,9 +10,13 @@ public final class IndexEntry {
   /** Entry key. */
   public final byte[] key;
   /** Number of index results. */
-  public int size;
+  public final int size;
   /** File offset to the id list. */
-  public long offset;
+  public final long offset;
+  /** Indicates if the entry has recently been requested (used by {@link IndexCache}). */
+  boolean used;
+  /** Indicates if the entry has been replaced or deleted (used by {@link IndexCache}). */
+  boolean stale;
 
   /**
    * Constructor.
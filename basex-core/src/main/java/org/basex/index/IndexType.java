@@ -28,13 +28,41 @@ public enum IndexType {
   /** Token index. */
   TOKEN,
   /** Full-text index. */
-  FULLTEXT;
+  FULLTEXT,
+  /** Trigram index. */
+  TRIGRAM;
 
   @Override
   public String toString() {
     return name().toLowerCase(Locale.ENGLISH);
   }
 
+  /**
+   * Indicates if the index references text nodes (and not attributes).
+   * @return result of check
+   */
+  public boolean text() {
+    return this == TEXT || this == FULLTEXT || this == TRIGRAM;
+  }
+
+  /**
+   * Indicates if the index keys are substrings of the indexed texts or attribute values.
+   * @return result of check
+   */
+  public boolean tokenized() {
+    return this == TOKEN || this == TRIGRAM;
+  }
+
+  /**
+   * Returns the distinct keys of a text or attribute value that will be indexed by a
+   * tokenized index.
+   * @param value text or attribute value
+   * @return keys
+   */
+  public byte[][] tokens(final byte[] value) {
+    return this == TRIGRAM ? Token.distinctTrigrams(value) : Token.distinctTokens(value);
+  }
+
   /**
    * Checks if the specified database has this index.
    * @param data data reference
@@ -58,6 +58,11 @@ public final class FTBuilder extends IndexBuilder {
     Util.debug(detailedInfo());
 
     try {
+      // discard files of a previous index (delta segment, collection statistics)
+      data.meta.drop(DATAFTX + ".*");
+
+      final boolean updindex = data.meta.updindex;
+      final FTStats stats = new FTStats(updindex ? data.meta.lastid + 1 : size);
       for(pre = 0; pre < size; ++pre) {
         if((pre & 0x0FFF) == 0) check();
         if(!indexEntry()) continue;
@@ -65,7 +70,7 @@ public final class FTBuilder extends IndexBuilder {
         // current lexer position
         final StopWords sw = lexer.ftOpt().sw;
         lexer.init(data.text(pre, true));
-        int pos = -1;
+        int pos = -1, length = 0;
         while(lexer.hasNext()) {
           final byte[] tok = lexer.nextToken();
           ++pos;
@@ -76,17 +81,20 @@ public final class FTBuilder extends IndexBuilder {
               writeIndex(true);
               clean();
             }
-            tree.index(tok, pre, pos, splits);
+            tree.index(tok, updindex ? data.id(pre) : pre, pos, splits);
             count++;
+            length++;
           }
         }
+        stats.add(updindex ? data.id(pre) : pre, length);
       }
 
       // finalize partial or all index structures
       write(splits > 0);
+      stats.write(data.meta);
 
       finishIndex();
-      return new FTIndex(data);
+      return updindex ? new UpdatableFTIndex(data) : new FTIndex(data);
 
     } catch(final Throwable th) {
       // drop index files
@@ -158,7 +166,7 @@ public final class FTBuilder extends IndexBuilder {
    * @param lp last offset
    * @throws IOException I/O exception
    */
-  private static void writeInd(final DataOutput outX, final IntList il, final int ls, final int lp)
+  static void writeInd(final DataOutput outX, final IntList il, final int ls, final int lp)
       throws IOException {
 
     final int is = il.size();
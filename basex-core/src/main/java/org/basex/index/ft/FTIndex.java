@@ -6,6 +6,7 @@ import static org.basex.util.Token.*;
 import static org.basex.util.ft.FTFlag.*;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.core.*;
 import org.basex.data.*;
@@ -44,33 +45,46 @@ import org.basex.util.similarity.*;
  * </li>
  * <li>File <b>z</b> contains the {@code id/pos} references.
  *   The values are ordered, but not distinct:
- *   {@code pre1/pos1, pre2/pos2, pre3/pos3, ...} [{@link Num}]</li>
+ *   {@code pre1/pos1, pre2/pos2, pre3/pos3, ...} [{@link Num}].
+ *   If the index is updatable, ids are stored instead of pre values
+ *   (see {@link UpdatableFTIndex}).</li>
  * </ul>
  *
+ * <p>Read operations are not synchronized: the index files will not be changed while they
+ * are read, and sequential reads are performed by the thread-local readers of
+ * {@link DataAccess}.</p>
+ *
+ * <p>The collection statistics, which are required for relevance scoring, are stored in
+ * an additional file (see {@link FTStats}).</p>
+ *
  * @author BaseX Team 2005-19, BSD License
  * @author Christian Gruen
  */
-public final class FTIndex extends ValueIndex {
+public class FTIndex extends ValueIndex {
   /** Entry size. */
-  private static final int ENTRY = 9;
+  static final int ENTRY = 9;
 
   /** Cached texts. Increases used memory, but speeds up repeated queries. */
-  private final IntObjMap<byte[]> ctext = new IntObjMap<>();
-  /** Levenshtein reference. */
-  private final Levenshtein ls = new Levenshtein();
+  private IntObjMap<byte[]> ctext;
 
   /** Index storing each unique token length and pointer
    * on the first token with this length. */
-  private final DataAccess inX;
+  private DataAccess inX;
   /** Index storing each token, its data size and pointer on the data. */
-  private final DataAccess inY;
+  DataAccess inY;
   /** Storing pre and pos values for each token. */
-  private final DataAccess inZ;
+  DataAccess inZ;
 
   /** Cache for number of hits and data reference per token. */
-  private final IndexCache cache = new IndexCache();
+  private IndexCache cache;
   /** Token positions. */
-  private final int[] tp;
+  int[] tp;
+  /** Collection statistics (lazily loaded, can be {@code null}). */
+  private volatile FTStats stats;
+  /** Indicates if the statistics have been loaded. */
+  private volatile boolean loaded;
+  /** Lexer for tokenizing updated texts (lazily created). */
+  private FTLexer lexer;
 
   /**
    * Constructor, initializing the index structure.
@@ -79,7 +93,14 @@ public final class FTIndex extends ValueIndex {
    */
   public FTIndex(final Data data) throws IOException {
     super(data, IndexType.FULLTEXT);
-    // cache token length index
+    open();
+  }
+
+  /**
+   * Opens the index files and caches the token length index.
+   * @throws IOException I/O Exception
+   */
+  final void open() throws IOException {
     inY = new DataAccess(data.meta.dbfile(DATAFTX + 'y'));
     inZ = new DataAccess(data.meta.dbfile(DATAFTX + 'z'));
     inX = new DataAccess(data.meta.dbfile(DATAFTX + 'x'));
@@ -91,10 +112,12 @@ public final class FTIndex extends ValueIndex {
       tp[p] = inX.read4();
     }
     tp[tl - 1] = (int) inY.length();
+    cache = new IndexCache();
+    ctext = new IntObjMap<>();
   }
 
   @Override
-  public synchronized IndexCosts costs(final IndexToken it) {
+  public IndexCosts costs(final IndexToken it) {
     final byte[] tok = it.get();
     if(tok.length > data.meta.maxlen) return null;
 
@@ -105,7 +128,7 @@ public final class FTIndex extends ValueIndex {
   }
 
   @Override
-  public synchronized IndexIterator iter(final IndexToken it) {
+  public FTIndexIterator iter(final IndexToken it) {
     final byte[] tok = it.get();
 
     // wildcard search
@@ -118,7 +141,7 @@ public final class FTIndex extends ValueIndex {
 
     // return cached or new result
     final IndexEntry e = entry(tok);
-    return e.size > 0 ? iter(e.offset, e.size, inZ, tok) : FTIndexIterator.FTEMPTY;
+    return e.size > 0 ? iter(e.offset, e.size, tok) : FTIndexIterator.FTEMPTY;
   }
 
   /**
@@ -126,7 +149,7 @@ public final class FTIndex extends ValueIndex {
    * @param token token to be found or cached
    * @return cache entry
    */
-  private IndexEntry entry(final byte[] token) {
+  final IndexEntry entry(final byte[] token) {
     final IndexEntry e = cache.get(token);
     if(e != null) return e;
 
@@ -144,35 +167,33 @@ public final class FTIndex extends ValueIndex {
 
       @Override
       public byte[] next() {
-        synchronized(FTIndex.this) {
-          if(inner && i < e) {
-            // loop through all entries with the same character length
-            final byte[] entry = inY.readBytes(i, ti);
-            if(startsWith(entry, prefix)) {
-              final long poi = inY.read5();
-              nr = inY.read4();
-              if(prefix.length != 0) cache.add(entry, nr, poi);
-              i += ti + ENTRY;
-              return entry;
-            }
-          }
-          // find next available entry group
-          final int tl = tp.length;
-          while(++ti < tl - 1) {
-            i = tp[ti];
-            if(i == -1) continue;
-            int c = ti + 1;
-            do e = tp[c++]; while(e == -1);
-            nr = 0;
-            inner = true;
-            i = find(prefix, i, e, ti);
-            // jump to inner loop
-            final byte[] n = next();
-            if(n != null) return n;
+        if(inner && i < e) {
+          // loop through all entries with the same character length
+          final byte[] entry = inY.readBytes(i, ti);
+          if(startsWith(entry, prefix)) {
+            final long poi = inY.read5();
+            nr = inY.read4();
+            if(prefix.length != 0) cache.add(entry, nr, poi);
+            i += ti + ENTRY;
+            return entry;
           }
-          // all entries processed: return null
-          return null;
         }
+        // find next available entry group
+        final int tl = tp.length;
+        while(++ti < tl - 1) {
+          i = tp[ti];
+          if(i == -1) continue;
+          int c = ti + 1;
+          do e = tp[c++]; while(e == -1);
+          nr = 0;
+          inner = true;
+          i = find(prefix, i, e, ti);
+          // jump to inner loop
+          final byte[] n = next();
+          if(n != null) return n;
+        }
+        // all entries processed: return null
+        return null;
       }
       @Override
       public int count() {
@@ -195,10 +216,15 @@ public final class FTIndex extends ValueIndex {
     while(l <= h) {
       final int m = l + h >>> 1;
       final int p = start + m * tl;
-      byte[] txt = ctext.get(p);
+      byte[] txt;
+      synchronized(ctext) {
+        txt = ctext.get(p);
+      }
       if(txt == null) {
         txt = inY.readBytes(p, ti);
-        ctext.put(p, txt);
+        synchronized(ctext) {
+          ctext.put(p, txt);
+        }
       }
       final int d = diff(txt, token);
       if(d == 0) return start + m * tl;
@@ -209,7 +235,7 @@ public final class FTIndex extends ValueIndex {
   }
 
   @Override
-  public synchronized byte[] info(final MainOptions options) {
+  public byte[] info(final MainOptions options) {
     final TokenBuilder tb = new TokenBuilder();
     final long l = inX.length() + inY.length() + inZ.length();
     tb.add(LI_NAMES).add(data.meta.ftinclude).add(NL);
@@ -305,7 +331,7 @@ public final class FTIndex extends ValueIndex {
    * @param lt length of the token
    * @return int pointer on ftdata
    */
-  private long pointer(final long pt, final int lt) {
+  final long pointer(final long pt, final int lt) {
     return inY.read5(pt + lt);
   }
 
@@ -315,35 +341,45 @@ public final class FTIndex extends ValueIndex {
    * @param lt length of the token
    * @return size of the ftdata
    */
-  private int size(final long pt, final int lt) {
+  final int size(final long pt, final int lt) {
     return inY.read4(pt + lt + 5);
   }
 
   /**
    * Performs a fuzzy search for the specified token with a maximum number of errors.
+   * The sorted tokens of each length are traversed with a Levenshtein automaton:
+   * if a prefix cannot lead to similar tokens, all tokens with this prefix are skipped.
    * @param token token to look for
    * @param k number of errors allowed
    * @return iterator
    */
-  private IndexIterator fuzzy(final byte[] token, final int k) {
-    FTIndexIterator it = FTIndexIterator.FTEMPTY;
+  private FTIndexIterator fuzzy(final byte[] token, final int k) {
+    final IntList pr = new IntList(), ps = new IntList();
     final int tokl = token.length, tl = tp.length;
     final int e = Math.min(tl - 1, tokl + k);
     int s = Math.max(1, tokl - k) - 1;
 
+    final LevenshteinAutomaton la = new LevenshteinAutomaton(token, k);
     while(++s <= e) {
       int p = tp[s];
       if(p == -1) continue;
       int t = s + 1, r = -1;
       while(t < tl && r == -1) r = tp[t++];
       while(p < r) {
-        if(ls.similar(inY.readBytes(p, s), token, k)) {
-          it = FTIndexIterator.union(iter(pointer(p, s), size(p, s), inZ, token), it);
+        final byte[] tok = inY.readBytes(p, s);
+        if(la.accept(tok)) read(pointer(p, s), size(p, s), pr, ps);
+        final int d = la.dead();
+        if(d == -1) {
+          p += s + ENTRY;
+        } else {
+          // skip all tokens with the same prefix (UTF-8 tokens contain no 0xFF bytes)
+          final byte[] last = Arrays.copyOf(tok, s);
+          Arrays.fill(last, d, s, (byte) 0xFF);
+          p = find(last, p, r, s);
         }
-        p += s + ENTRY;
       }
     }
-    return it;
+    return iter(new FTCache(pr, ps), token);
   }
 
   /**
@@ -351,7 +387,7 @@ public final class FTIndex extends ValueIndex {
    * @param token token to look for
    * @return iterator
    */
-  private IndexIterator wc(final byte[] token) {
+  private FTIndexIterator wc(final byte[] token) {
     final FTIndexIterator it = FTIndexIterator.FTEMPTY;
     final FTWildcard wc = new FTWildcard(token);
     if(!wc.parse()) return it;
@@ -372,14 +408,7 @@ public final class FTIndex extends ValueIndex {
       while(i < e) {
         final byte[] t = inY.readBytes(i, ti);
         if(!startsWith(t, pref)) break;
-        if(wc.match(t)) {
-          inZ.cursor(pointer(i, ti));
-          final int s = size(i, ti);
-          for(int d = 0; d < s; d++) {
-            pr.add(inZ.readNum());
-            ps.add(inZ.readNum());
-          }
-        }
+        if(wc.match(t)) read(pointer(i, ti), size(i, ti), pr, ps);
         i += ti + ENTRY;
       }
     }
@@ -390,19 +419,96 @@ public final class FTIndex extends ValueIndex {
    * Returns an iterator for an index entry.
    * @param off offset on entries
    * @param size number of id/pos entries
-   * @param da data source
    * @param token index token
    * @return iterator
    */
-  private static FTIndexIterator iter(final long off, final int size, final DataAccess da,
-      final byte[] token) {
-    da.cursor(off);
+  private FTIndexIterator iter(final long off, final int size, final byte[] token) {
     final IntList pr = new IntList(size), ps = new IntList(size);
+    read(off, size, pr, ps);
+    return iter(new FTCache(pr, ps), token);
+  }
+
+  /**
+   * Reads the id/pos entries of an index entry and adds the pre values and positions
+   * to the specified lists.
+   * @param off offset on entries
+   * @param size number of id/pos entries
+   * @param pr pre values
+   * @param ps positions
+   */
+  final void read(final long off, final int size, final IntList pr, final IntList ps) {
+    inZ.cursor(off);
     for(int c = 0; c < size; c++) {
-      pr.add(da.readNum());
-      ps.add(da.readNum());
+      final int pre = pre(inZ.readNum()), pos = inZ.readNum();
+      if(pre != -1) {
+        pr.add(pre);
+        ps.add(pos);
+      }
     }
-    return iter(new FTCache(pr, ps), token);
+  }
+
+  /**
+   * Returns the pre value for the specified id.
+   * @param id id value
+   * @return pre value, or {@code -1} if the entry is invalid
+   */
+  protected int pre(final int id) {
+    return id;
+  }
+
+  /**
+   * Returns the id for the specified pre value.
+   * @param pre pre value
+   * @return id
+   */
+  protected int id(final int pre) {
+    return pre;
+  }
+
+  /**
+   * Returns the collection statistics of the index. The statistics are loaded when they are
+   * requested for the first time.
+   * @return statistics, or {@code null} if the index was created without statistics
+   */
+  public final FTStats stats() {
+    if(!loaded) {
+      synchronized(this) {
+        if(!loaded) {
+          try {
+            stats = FTStats.read(data.meta);
+          } catch(final IOException ex) {
+            Util.debug(ex);
+          }
+          loaded = true;
+        }
+      }
+    }
+    return stats;
+  }
+
+  /**
+   * Returns a lexer for tokenizing the texts of updated nodes. The lexer and its stop words
+   * are created once per index. As the lexer has a state, it must only be used by updates.
+   * @return lexer
+   */
+  public final synchronized FTLexer lexer() {
+    if(lexer == null) {
+      final FTOpt opt = new FTOpt().assign(data.meta);
+      opt.sw = new StopWords();
+      opt.sw.compile(data);
+      lexer = new FTLexer(opt);
+    }
+    return lexer;
+  }
+
+  /**
+   * Returns the approximate number of tokens of an indexed text.
+   * Must only be called if statistics exist.
+   * @param pre pre value
+   * @return number of tokens
+   */
+  public final double length(final int pre) {
+    return stats().length(id(pre));
   }
 
   /**
@@ -411,7 +517,7 @@ public final class FTIndex extends ValueIndex {
    * @param token index token
    * @return iterator
    */
-  private static FTIndexIterator iter(final FTCache ftc, final byte[] token) {
+  static FTIndexIterator iter(final FTCache ftc, final byte[] token) {
     final int size = ftc.pre.size();
 
     return new FTIndexIterator() {
@@ -430,6 +536,25 @@ public final class FTIndex extends ValueIndex {
         return true;
       }
 
+      @Override
+      public boolean advance(final int target) {
+        // galloping search: double distance until a pre value is found that is not smaller
+        int l = c, h = c;
+        for(int d = 1; h < size && ftc.pre.get(ftc.order[h]) < target; d <<= 1) {
+          l = h + 1;
+          h += d;
+        }
+        // binary search in the remaining interval
+        h = Math.min(h, size);
+        while(l < h) {
+          final int m = l + h >>> 1;
+          if(ftc.pre.get(ftc.order[m]) < target) l = m + 1;
+          else h = m;
+        }
+        c = l;
+        return more();
+      }
+
       @Override
       public FTMatches matches() {
         return all;
@@ -450,6 +575,11 @@ public final class FTIndex extends ValueIndex {
         return size;
       }
 
+      @Override
+      public int texts() {
+        return ftc.texts;
+      }
+
       @Override
       public String toString() {
         return Strings.concat(token, '(', size, "x)");
@@ -460,37 +590,45 @@ public final class FTIndex extends ValueIndex {
   /**
    * Full-text cache.
    */
-  private static final class FTCache {
+  static final class FTCache {
     /** Order. */
     private final int[] order;
     /** Pre values. */
     private final IntList pre;
     /** Pos values. */
     private final IntList pos;
+    /** Number of distinct pre values. */
+    private final int texts;
 
     /**
      * Constructor.
      * @param pr pre values
      * @param ps positions
      */
-    private FTCache(final IntList pr, final IntList ps) {
+    FTCache(final IntList pr, final IntList ps) {
       final int s = pr.size();
       final double[] v = new double[s];
       for(int i = 0; i < s; i++) v[i] = (long) pr.get(i) << 32 | ps.get(i);
       order = Array.createOrder(v, true);
       pre = pr;
       pos = ps;
+      int t = 0;
+      for(int i = 0; i < s; i++) {
+        if(i == 0 || pr.get(order[i]) != pr.get(order[i - 1])) t++;
+      }
+      texts = t;
     }
   }
 
   @Override
   public void add(final ValueCache vc) {
-    throw Util.notExpected();
+    // static index structure: invalidate index
+    data.meta.ftindex = false;
   }
 
   @Override
   public void delete(final ValueCache vc) {
-    throw Util.notExpected();
+    data.meta.ftindex = false;
   }
 
   @Override
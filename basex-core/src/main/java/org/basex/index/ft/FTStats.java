@@ -0,0 +1,165 @@
+package org.basex.index.ft;
+
+import static org.basex.data.DataText.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+
+/**
+ * <p>This class contains the collection statistics of a full-text index, which are
+ * required for relevance scoring: the number of indexed texts, the total number of
+ * indexed tokens, and the number of tokens of each text.</p>
+ *
+ * <p>Text lengths are lossily compressed to single bytes: lengths up to {@code 127}
+ * are stored exactly, larger lengths are stored in logarithmic steps. The statistics
+ * are stored in the file {@code DATAFTX + 'l'} and have the following format:
+ * {@code [n, t, s, l0, l1, ...]}. {@code n} is the number of texts [{@link Num}],
+ * {@code t} is the number of tokens [long array], {@code s} is the number of length
+ * entries [{@link Num}], and {@code l0, l1, ...} are the encoded lengths, addressed by pre
+ * values or, if the index is updatable, by node ids.</p>
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class FTStats {
+  /** Maximum length that is stored exactly. */
+  private static final int EXACT = 0x7F;
+  /** Number of encoded steps per doubling of a length. */
+  private static final int STEPS = 16;
+  /** Decoded lengths. */
+  private static final double[] LENGTHS = new double[256];
+
+  static {
+    for(int n = 0; n < 256; n++) {
+      LENGTHS[n] = n <= EXACT ? n : (EXACT + 1) * Math.pow(2, (double) (n - EXACT - 1) / STEPS);
+    }
+  }
+
+  /** Encoded text lengths. */
+  private byte[] lengths;
+  /** Number of indexed texts. */
+  private int texts;
+  /** Total number of indexed tokens. */
+  private long tokens;
+
+  /**
+   * Constructor.
+   * @param size initial number of length entries
+   */
+  FTStats(final int size) {
+    lengths = new byte[size];
+  }
+
+  /**
+   * Reads the statistics of the specified database.
+   * @param meta meta data
+   * @return statistics or {@code null} if no statistics exist
+   * @throws IOException I/O exception
+   */
+  static FTStats read(final MetaData meta) throws IOException {
+    final IOFile file = file(meta);
+    if(!file.exists()) return null;
+    try(DataInput in = new DataInput(file)) {
+      final int n = in.readNum();
+      final long t = in.readLongs(in.readNum())[0];
+      final FTStats stats = new FTStats(in.readNum());
+      stats.texts = n;
+      stats.tokens = t;
+      final byte[] lengths = stats.lengths;
+      final int ls = lengths.length;
+      for(int l = 0; l < ls; l++) lengths[l] = (byte) in.read();
+      return stats;
+    }
+  }
+
+  /**
+   * Writes the statistics.
+   * @param meta meta data
+   * @throws IOException I/O exception
+   */
+  synchronized void write(final MetaData meta) throws IOException {
+    try(DataOutput out = new DataOutput(file(meta))) {
+      out.writeNum(texts);
+      out.writeLongs(new long[] { tokens });
+      out.writeNum(lengths.length);
+      out.writeBytes(lengths);
+    }
+  }
+
+  /**
+   * Adds a text.
+   * @param key pre value or id
+   * @param length number of tokens
+   */
+  synchronized void add(final int key, final int length) {
+    if(key >= lengths.length) {
+      lengths = Arrays.copyOf(lengths, Math.max(key + 1, Array.newSize(lengths.length)));
+    }
+    lengths[key] = encode(length);
+    texts++;
+    tokens += length;
+  }
+
+  /**
+   * Removes a text.
+   * @param key id
+   * @param length number of tokens
+   */
+  synchronized void delete(final int key, final int length) {
+    if(key < lengths.length) lengths[key] = 0;
+    texts--;
+    tokens -= length;
+  }
+
+  /**
+   * Returns the number of indexed texts.
+   * @return number of texts
+   */
+  public int texts() {
+    return texts;
+  }
+
+  /**
+   * Returns the average number of tokens of the indexed texts.
+   * @return average length
+   */
+  public double average() {
+    return texts == 0 ? 0 : (double) tokens / texts;
+  }
+
+  /**
+   * Returns the approximate number of tokens of a text.
+   * @param key pre value or id
+   * @return length
+   */
+  double length(final int key) {
+    final byte[] ls = lengths;
+    return key < ls.length ? LENGTHS[ls[key] & 0xFF] : 0;
+  }
+
+  /**
+   * Encodes a text length to a single byte.
+   * @param length length
+   * @return encoded length
+   */
+  private static byte encode(final int length) {
+    if(length <= EXACT) return (byte) length;
+    final double steps = Math.log((double) length / (EXACT + 1)) / Math.log(2) * STEPS;
+    return (byte) Math.min(0xFF, EXACT + 1 + (int) Math.round(steps));
+  }
+
+  /**
+   * Returns the file of the statistics.
+   * @param meta meta data
+   * @return file
+   */
+  static IOFile file(final MetaData meta) {
+    return meta.dbfile(DATAFTX + 'l');
+  }
+}
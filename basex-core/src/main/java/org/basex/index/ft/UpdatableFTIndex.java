@@ -0,0 +1,445 @@
+package org.basex.index.ft;
+
+import static org.basex.data.DataText.*;
+import static org.basex.util.Token.*;
+import static org.basex.util.ft.FTFlag.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.index.value.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.query.expr.ft.*;
+import org.basex.query.util.*;
+import org.basex.util.*;
+import org.basex.util.ft.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+import org.basex.util.similarity.*;
+
+/**
+ * <p>This class provides access and update functions to a full-text index structure
+ * stored on disk. The index consists of two segments:</p>
+ *
+ * <ul>
+ * <li> The disk-based segment has the format described in {@link FTIndex}. Node ids are
+ *   stored instead of pre values.</li>
+ * <li> The delta segment contains the entries of all nodes that have been added or
+ *   updated since the disk-based segment has been written, and the ids of all nodes that
+ *   have been deleted or updated. The ids are used to skip invalid entries of the
+ *   disk-based segment. The delta segment is kept in main memory and written to the file
+ *   {@code DATAFTX + 'u'}.</li>
+ * </ul>
+ *
+ * <p>If the number of buffered changes exceeds a fraction of the number of entries of the
+ * disk-based segment, both segments will be merged when the index is flushed.</p>
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class UpdatableFTIndex extends FTIndex {
+  /** Minimum number of buffered changes (added and deleted entries) that triggers a merge. */
+  private static final int MERGE = 1 << 14;
+  /** Order of the index entries: token length, tokens. */
+  private static final Comparator<byte[]> ORDER = (token1, token2) -> {
+    final int d = token1.length - token2.length;
+    return d != 0 ? d : diff(token1, token2);
+  };
+
+  /** Buffered entries: tokens and id/pos pairs. */
+  private final TokenObjMap<IntList> delta = new TokenObjMap<>();
+  /** Ids of deleted nodes. */
+  private IntSet deleted = new IntSet();
+  /** Number of buffered changes (added and invalidated entries). */
+  private int changes;
+  /** Number of entries (id/pos pairs) of the disk-based segment ({@code -1}: not computed yet). */
+  private long entries = -1;
+  /** Indicates if the delta segment has been changed. */
+  private boolean dirty;
+  /** Indicates if the collection statistics have been changed. */
+  private boolean counted;
+
+  /**
+   * Constructor, initializing the index structure.
+   * @param data data reference
+   * @throws IOException I/O Exception
+   */
+  public UpdatableFTIndex(final Data data) throws IOException {
+    super(data);
+    final IOFile file = file(data.meta);
+    if(file.exists()) {
+      read(file);
+    } else {
+      // new index: create empty delta segment
+      write(file);
+    }
+  }
+
+  /**
+   * Checks if an updatable index exists for the specified database.
+   * @param meta meta data
+   * @return result of check
+   */
+  public static boolean exists(final MetaData meta) {
+    return file(meta).exists();
+  }
+
+  @Override
+  protected int pre(final int id) {
+    return deleted.contains(id) ? -1 : data.pre(id);
+  }
+
+  @Override
+  protected int id(final int pre) {
+    return data.id(pre);
+  }
+
+  @Override
+  public IndexCosts costs(final IndexToken it) {
+    final IndexCosts costs = super.costs(it);
+    if(costs == null || delta.isEmpty()) return costs;
+    final IntList list = delta.get(it.get());
+    return list == null ? costs : IndexCosts.add(costs, IndexCosts.get(list.size() >> 1));
+  }
+
+  @Override
+  public FTIndexIterator iter(final IndexToken it) {
+    final FTIndexIterator iter = super.iter(it);
+    if(delta.isEmpty()) return iter;
+
+    // add buffered entries
+    final byte[] token = it.get();
+    final FTLexer lexer = (FTLexer) it;
+    final FTOpt opt = lexer.ftOpt();
+    final IntList pr = new IntList(), ps = new IntList();
+    if(opt.is(WC)) {
+      final FTWildcard wc = new FTWildcard(token);
+      if(!wc.parse()) return iter;
+      for(final byte[] key : delta) {
+        if(key != null && wc.match(key)) add(delta.get(key), pr, ps);
+      }
+    } else if(opt.is(FZ)) {
+      final Levenshtein ls = new Levenshtein();
+      final int k = lexer.lserror(token);
+      for(final byte[] key : delta) {
+        if(key != null && ls.similar(key, token, k)) add(delta.get(key), pr, ps);
+      }
+    } else {
+      final IntList list = delta.get(token);
+      if(list != null) add(list, pr, ps);
+    }
+    return pr.isEmpty() ? iter : FTIndexIterator.union(iter, iter(new FTCache(pr, ps), token));
+  }
+
+  @Override
+  public EntryIterator entries(final IndexEntries entries) {
+    if(delta.isEmpty() && deleted.isEmpty()) return super.entries(entries);
+
+    // merge entries of the disk-based segment and the buffered entries
+    final byte[] prefix = entries.get();
+    final TokenIntMap counts = new TokenIntMap();
+    final EntryIterator ei = super.entries(entries);
+    for(byte[] token; (token = ei.next()) != null;) {
+      final IndexEntry entry = entry(token);
+      final IntList pr = new IntList(), ps = new IntList();
+      read(entry.offset, entry.size, pr, ps);
+      counts.put(token, pr.size());
+    }
+    for(final byte[] token : delta) {
+      if(token != null && startsWith(token, prefix)) {
+        counts.put(token, Math.max(0, counts.get(token)) + (delta.get(token).size() >> 1));
+      }
+    }
+    final TokenList tokens = new TokenList(counts.size());
+    for(final byte[] token : counts) {
+      if(counts.get(token) > 0) tokens.add(token);
+    }
+    tokens.sort(ORDER, true);
+
+    return new EntryIterator() {
+      int t;
+
+      @Override
+      public byte[] next() {
+        return t < tokens.size() ? tokens.get(t++) : null;
+      }
+
+      @Override
+      public int count() {
+        return counts.get(tokens.get(t - 1));
+      }
+    };
+  }
+
+  @Override
+  public synchronized void add(final ValueCache vc) {
+    for(final byte[] key : vc) {
+      final IntList ids = vc.ids(key), pos = vc.pos(key), list;
+      final IntList cached = delta.get(key);
+      if(cached != null) {
+        list = cached;
+      } else {
+        list = new IntList();
+        delta.put(key, list);
+      }
+      final int is = ids.size();
+      for(int i = 0; i < is; i++) list.add(ids.get(i), pos.get(i));
+      changes += is;
+    }
+    final FTStats st = stats();
+    if(st != null) {
+      final IntList lengths = vc.lengths();
+      final int ls = lengths.size();
+      for(int l = 0; l < ls; l += 2) st.add(lengths.get(l), lengths.get(l + 1));
+      counted = true;
+    }
+    dirty = true;
+  }
+
+  @Override
+  public synchronized void delete(final ValueCache vc) {
+    for(final byte[] key : vc) {
+      final IntList ids = vc.ids(key);
+      // invalidate entries of the disk-based segment
+      final int is = ids.size();
+      final IntSet set = new IntSet(is);
+      for(int i = 0; i < is; i++) {
+        final int id = ids.get(i);
+        set.add(id);
+        deleted.add(id);
+      }
+      changes += is;
+      // remove buffered entries
+      final IntList list = delta.get(key);
+      if(list != null) {
+        final int ls = list.size();
+        int n = 0;
+        for(int l = 0; l < ls; l += 2) {
+          final int id = list.get(l);
+          if(!set.contains(id)) {
+            list.set(n++, id);
+            list.set(n++, list.get(l + 1));
+          }
+        }
+        list.size(n);
+      }
+    }
+    final FTStats st = stats();
+    if(st != null) {
+      final IntList lengths = vc.lengths();
+      final int ls = lengths.size();
+      for(int l = 0; l < ls; l += 2) st.delete(lengths.get(l), lengths.get(l + 1));
+      counted = true;
+    }
+    dirty = true;
+  }
+
+  @Override
+  public synchronized void flush() {
+    try {
+      if(changes > MERGE && changes > entries() >> 3) merge();
+      else if(dirty) write(file(data.meta));
+      if(counted) writeStats();
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    try {
+      if(dirty) write(file(data.meta));
+      if(counted) writeStats();
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+    super.close();
+  }
+
+  /**
+   * Returns the number of entries (id/pos pairs) of the disk-based segment.
+   * The number is computed when it is requested for the first time.
+   * @return number of entries
+   */
+  private long entries() {
+    if(entries == -1) {
+      long n = 0;
+      final int tl = tp.length;
+      for(int ti = 0; ti < tl - 1; ti++) {
+        int p = tp[ti];
+        if(p == -1) continue;
+        int c = ti + 1, e;
+        do e = tp[c++]; while(e == -1);
+        for(; p < e; p += ti + ENTRY) n += size(p, ti);
+      }
+      entries = n;
+    }
+    return entries;
+  }
+
+  /**
+   * Adds the pre values and positions of buffered entries to the specified lists.
+   * @param list id/pos pairs
+   * @param pr pre values
+   * @param ps positions
+   */
+  private void add(final IntList list, final IntList pr, final IntList ps) {
+    final int ls = list.size();
+    for(int l = 0; l < ls; l += 2) {
+      pr.add(data.pre(list.get(l)));
+      ps.add(list.get(l + 1));
+    }
+  }
+
+  /**
+   * Merges the delta segment into the disk-based segment.
+   * @throws IOException I/O exception
+   */
+  private void merge() throws IOException {
+    // sort buffered tokens in the order of the index entries
+    final TokenList tokens = new TokenList();
+    for(final byte[] token : delta) {
+      if(token != null && !delta.get(token).isEmpty()) tokens.add(token);
+    }
+    tokens.sort(ORDER, true);
+
+    // write temporary index files
+    final MetaData meta = data.meta;
+    final String name = DATAFTX + 'm';
+    try(DataOutput outX = new DataOutput(meta.dbfile(name + 'x'));
+        DataOutput outY = new DataOutput(meta.dbfile(name + 'y'));
+        DataOutput outZ = new DataOutput(meta.dbfile(name + 'z'))) {
+
+      final IntList ind = new IntList(), list = new IntList();
+      final int ts = tokens.size(), tl = tp.length;
+      int t = 0;
+      for(int ti = 0; ti < tl - 1; ti++) {
+        int p = tp[ti];
+        if(p == -1) continue;
+        int c = ti + 1, e;
+        do e = tp[c++]; while(e == -1);
+
+        for(; p < e; p += ti + ENTRY) {
+          final byte[] token = inY.readBytes(p, ti);
+          // write buffered tokens that precede the current token
+          for(; t < ts && ORDER.compare(tokens.get(t), token) < 0; t++) {
+            write(tokens.get(t), delta.get(tokens.get(t)), ind, outY, outZ);
+          }
+          // write valid entries of the disk-based segment and buffered entries
+          list.reset();
+          inZ.cursor(pointer(p, ti));
+          for(int s = size(p, ti); s > 0; s--) {
+            final int id = inZ.readNum(), pos = inZ.readNum();
+            if(!deleted.contains(id)) list.add(id, pos);
+          }
+          if(t < ts && eq(tokens.get(t), token)) list.add(delta.get(tokens.get(t++)).toArray());
+          write(token, list, ind, outY, outZ);
+        }
+      }
+      for(; t < ts; t++) write(tokens.get(t), delta.get(tokens.get(t)), ind, outY, outZ);
+      FTBuilder.writeInd(outX, ind, ind.isEmpty() ? 1 : ind.get(ind.size() - 2) + 1,
+          (int) outY.size());
+    }
+
+    // replace index files, reset delta segment
+    super.close();
+    for(final char c : new char[] { 'x', 'y', 'z' }) {
+      final IOFile source = meta.dbfile(name + c), target = meta.dbfile(DATAFTX + c);
+      if(!target.delete() || !source.rename(target))
+        throw new IOException("Index file could not be replaced: " + target);
+    }
+    open();
+    delta.clear();
+    deleted = new IntSet();
+    changes = 0;
+    entries = -1;
+    write(file(meta));
+  }
+
+  /**
+   * Writes an index entry.
+   * @param token token
+   * @param list id/pos pairs
+   * @param ind token lengths and offsets
+   * @param outY output for tokens
+   * @param outZ output for id/pos pairs
+   * @throws IOException I/O exception
+   */
+  private static void write(final byte[] token, final IntList list, final IntList ind,
+      final DataOutput outY, final DataOutput outZ) throws IOException {
+
+    final int ls = list.size(), tl = token.length;
+    if(ls == 0) return;
+    if(ind.isEmpty() || ind.get(ind.size() - 2) < tl) {
+      ind.add(tl);
+      ind.add((int) outY.size());
+    }
+    outY.writeBytes(token);
+    outY.write5(outZ.size());
+    outY.write4(ls >> 1);
+    for(int l = 0; l < ls; l++) outZ.writeNum(list.get(l));
+  }
+
+  /**
+   * Reads the delta segment.
+   * @param file input file
+   * @throws IOException I/O exception
+   */
+  private void read(final IOFile file) throws IOException {
+    try(DataInput in = new DataInput(file)) {
+      for(final int id : in.readNums()) deleted.add(id);
+      for(int s = in.readNum(); s > 0; s--) {
+        final byte[] token = in.readToken();
+        final int[] list = in.readNums();
+        delta.put(token, new IntList(list));
+        changes += list.length >> 1;
+      }
+    }
+    // number of invalidated entries is unknown: count deleted nodes instead
+    changes += deleted.size();
+  }
+
+  /**
+   * Writes the delta segment.
+   * @param file output file
+   * @throws IOException I/O exception
+   */
+  private void write(final IOFile file) throws IOException {
+    try(DataOutput out = new DataOutput(file)) {
+      out.writeNums(deleted.toArray());
+      final TokenList tokens = new TokenList();
+      for(final byte[] token : delta) {
+        if(token != null && !delta.get(token).isEmpty()) tokens.add(token);
+      }
+      out.writeNum(tokens.size());
+      for(final byte[] token : tokens) {
+        out.writeToken(token);
+        out.writeNums(delta.get(token).toArray());
+      }
+    }
+    dirty = false;
+  }
+
+  /**
+   * Writes the collection statistics.
+   * @throws IOException I/O exception
+   */
+  private void writeStats() throws IOException {
+    stats().write(data.meta);
+    counted = false;
+  }
+
+  /**
+   * Returns the file of the delta segment.
+   * @param meta meta data
+   * @return file
+   */
+  private static IOFile file(final MetaData meta) {
+    return meta.dbfile(DATAFTX + 'u');
+  }
+}
@@ -35,6 +35,15 @@ public abstract class FTIndexIterator implements IndexIterator {
    */
   public abstract void pos(int p);
 
+  /**
+   * Returns the number of distinct texts that will be returned by this iterator.
+   * By default, the number of index entries is returned.
+   * @return number of texts
+   */
+  public int texts() {
+    return size();
+  }
+
   /**
    * Merges two index array iterators.
    * @param i1 first index array iterator to merge
@@ -79,6 +88,11 @@ public abstract class FTIndexIterator implements IndexIterator {
         return i1.size() + i2.size();
       }
 
+      @Override
+      public int texts() {
+        return i1.texts() + i2.texts();
+      }
+
       @Override
       public String toString() {
         return "(" + i1 + " | " + i2 + ')';
@@ -97,20 +111,26 @@ public abstract class FTIndexIterator implements IndexIterator {
       final int dis) {
 
     return new FTIndexIterator() {
-      private FTIndexIterator ii1, ii2;
       private FTMatches all;
+      private int pre1 = -1, pre2 = -1;
 
       @Override
       public boolean more() {
-        int d = 0;
+        if(!i1.more()) return false;
+        pre1 = i1.pre();
         while(true) {
-          if(d <= 0) ii1 = i1.more() ? i1 : null;
-          if(d >= 0) ii2 = i2.more() ? i2 : null;
-          if(ii1 == null || ii2 == null) return false;
-          d = ii1.pre() - ii2.pre();
-          if(d != 0) continue;
-          all = ii1.matches();
-          final FTMatches all2 = ii2.matches();
+          // leapfrog: let each iterator skip the results that are smaller than the other one
+          if(pre2 < pre1) {
+            if(!i2.advance(pre1)) return false;
+            pre2 = i2.pre();
+          }
+          if(pre1 < pre2) {
+            if(!i1.advance(pre2)) return false;
+            pre1 = i1.pre();
+            continue;
+          }
+          all = i1.matches();
+          final FTMatches all2 = i2.matches();
           if(dis == 0) {
             for(final FTMatch m1 : all) {
               for(final FTMatch m2 : all2) m1.add(m2);
@@ -119,6 +139,8 @@ public abstract class FTIndexIterator implements IndexIterator {
           } else if(all.phrase(all2, dis)) {
             return true;
           }
+          if(!i1.more()) return false;
+          pre1 = i1.pre();
         }
       }
 
@@ -129,7 +151,7 @@ public abstract class FTIndexIterator implements IndexIterator {
 
       @Override
       public int pre() {
-        return ii1.pre();
+        return pre1;
       }
 
       @Override
@@ -143,6 +165,11 @@ public abstract class FTIndexIterator implements IndexIterator {
         return Math.min(i1.size(), i2.size());
       }
 
+      @Override
+      public int texts() {
+        return Math.min(i1.texts(), i2.texts());
+      }
+
       @Override
       public String toString() {
         return "(" + i1 + " & " + i2 + ')';
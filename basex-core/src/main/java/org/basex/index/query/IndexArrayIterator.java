@@ -0,0 +1,60 @@
+package org.basex.index.query;
+
+/**
+ * Iterator for a sorted array of pre values.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class IndexArrayIterator implements IndexIterator {
+  /** Pre values. */
+  private final int[] pres;
+  /** Number of pre values. */
+  private final int size;
+  /** Current position. */
+  private int p = -1;
+
+  /**
+   * Constructor.
+   * @param pres sorted pre values
+   * @param size number of pre values
+   */
+  public IndexArrayIterator(final int[] pres, final int size) {
+    this.pres = pres;
+    this.size = size;
+  }
+
+  @Override
+  public boolean more() {
+    return ++p < size;
+  }
+
+  @Override
+  public int pre() {
+    return pres[p];
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean advance(final int target) {
+    // galloping search: double distance until a pre value is found that is not smaller
+    int l = p + 1, h = l;
+    for(int d = 1; h < size && pres[h] < target; d <<= 1) {
+      l = h + 1;
+      h += d;
+    }
+    // binary search in the remaining interval
+    h = Math.min(h, size);
+    while(l < h) {
+      final int m = l + h >>> 1;
+      if(pres[m] < target) l = m + 1;
+      else h = m;
+    }
+    p = l;
+    return l < size;
+  }
+}
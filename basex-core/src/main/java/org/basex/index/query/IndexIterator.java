@@ -1,5 +1,9 @@
 package org.basex.index.query;
 
+import java.util.*;
+
+import org.basex.util.list.*;
+
 /**
  * Iterator for returning index results.
  *
@@ -24,14 +28,158 @@ public interface IndexIterator {
   boolean more();
 
   /**
-   * Returns the next pre value.
+   * Returns the current pre value.
    * @return result
    */
   int pre();
 
+  /**
+   * Moves to the next result with a pre value that is equal to or larger than the specified
+   * target. If {@code true} is returned, the result can be requested via {@link #pre()}.
+   * Iterators over sorted lists may skip results without decoding them.
+   * @param target target pre value
+   * @return result of check
+   */
+  default boolean advance(final int target) {
+    while(more()) {
+      if(pre() >= target) return true;
+    }
+    return false;
+  }
+
   /**
    * Returns an approximate number of index results.
    * @return result approximate number of results
    */
   int size();
+
+  /**
+   * Returns an iterator for the intersection of the specified iterators.
+   * The results are computed by leapfrogging: Each iterator skips the results that are
+   * smaller than the current result of the preceding iterator.
+   * @param iters iterators (results must be sorted and duplicate-free)
+   * @return iterator
+   */
+  static IndexIterator intersect(final IndexIterator... iters) {
+    final int il = iters.length;
+    if(il == 1) return iters[0];
+
+    return new IndexIterator() {
+      int pre = -1;
+
+      @Override
+      public boolean more() {
+        return find(pre + 1);
+      }
+
+      @Override
+      public boolean advance(final int target) {
+        return find(Math.max(target, pre + 1));
+      }
+
+      @Override
+      public int pre() {
+        return pre;
+      }
+
+      @Override
+      public int size() {
+        int size = Integer.MAX_VALUE;
+        for(final IndexIterator iter : iters) size = Math.min(size, iter.size());
+        return size;
+      }
+
+      /**
+       * Finds the next result that is returned by all iterators.
+       * @param target minimum pre value
+       * @return result of check
+       */
+      private boolean find(final int target) {
+        int t = target;
+        for(int i = 0, found = 0; found < il; i = (i + 1) % il) {
+          if(!iters[i].advance(t)) return false;
+          final int p = iters[i].pre();
+          if(p == t) {
+            found++;
+          } else {
+            t = p;
+            found = 1;
+          }
+        }
+        pre = t;
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Returns an iterator for the union of the specified iterators.
+   * The results are computed by a k-way merge.
+   * @param iters iterators (results must be sorted and duplicate-free)
+   * @return iterator
+   */
+  static IndexIterator union(final IndexIterator... iters) {
+    final int il = iters.length;
+    if(il == 0) return EMPTY;
+    if(il == 1) return iters[0];
+
+    // many iterators: cache and sort results
+    if(il > 16) {
+      final IntList list = new IntList();
+      for(final IndexIterator iter : iters) {
+        while(iter.more()) list.add(iter.pre());
+      }
+      final int[] pres = list.sort().distinct().finish();
+      return new IndexArrayIterator(pres, pres.length);
+    }
+
+    return new IndexIterator() {
+      /** Current results of the iterators ({@link Integer#MAX_VALUE}: no more results). */
+      int[] pres;
+      int pre = -1;
+
+      @Override
+      public boolean more() {
+        return find(pre + 1);
+      }
+
+      @Override
+      public boolean advance(final int target) {
+        return find(Math.max(target, pre + 1));
+      }
+
+      @Override
+      public int pre() {
+        return pre;
+      }
+
+      @Override
+      public int size() {
+        long size = 0;
+        for(final IndexIterator iter : iters) size += iter.size();
+        return (int) Math.min(Integer.MAX_VALUE, size);
+      }
+
+      /**
+       * Finds the smallest result of all iterators.
+       * @param target minimum pre value
+       * @return result of check
+       */
+      private boolean find(final int target) {
+        if(pres == null) {
+          pres = new int[il];
+          Arrays.fill(pres, -1);
+        }
+        int min = Integer.MAX_VALUE;
+        for(int i = 0; i < il; i++) {
+          if(pres[i] < target) pres[i] = iters[i].advance(target) ? iters[i].pre() :
+            Integer.MAX_VALUE;
+          min = Math.min(min, pres[i]);
+        }
+        if(min == Integer.MAX_VALUE) return false;
+        pre = min;
+        return true;
+      }
+    };
+  }
 }
@@ -12,6 +12,9 @@ import org.basex.data.*;
 import org.basex.index.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
 import org.basex.io.random.*;
 import org.basex.query.util.*;
 import org.basex.util.*;
@@ -26,6 +29,9 @@ import org.basex.util.list.*;
  * @author Christian Gruen
  */
 public class DiskValues extends ValueIndex {
+  /** Number of index keys per entry of the key directory. */
+  private static final int BLOCK = 1 << 6;
+
   /** ID references. */
   final DataAccess idxr;
   /** ID lists. */
@@ -39,6 +45,12 @@ public class DiskValues extends ValueIndex {
 
   /** Synchronization object. */
   private final Object monitor = new Object();
+  /** Typed index for numeric keys ({@code null} if not available). */
+  private NumericKeys numeric;
+  /** Sparse key directory: first key of each block ({@code null} if not available). */
+  private byte[][] directory;
+  /** Skip pointers for long id lists ({@code null} if not available). */
+  private SkipPointers skips;
 
   /**
    * Constructor, initializing the index structure.
@@ -63,6 +75,59 @@ public class DiskValues extends ValueIndex {
     idxl = new DataAccess(data.meta.dbfile(pref + 'l'));
     idxr = new DataAccess(data.meta.dbfile(pref + 'r'));
     size.set(idxl.read4());
+    // key directory and typed index will only be created for static index structures
+    if(!data.meta.updindex) {
+      final IOFile dir = data.meta.dbfile(pref + 'd');
+      if(dir.exists()) {
+        try(DataInput in = new DataInput(dir)) {
+          directory = in.readTokens();
+        }
+      }
+      final IOFile num = data.meta.dbfile(pref + 'n');
+      if(num.exists()) numeric = new NumericKeys(num);
+      final IOFile skp = data.meta.dbfile(pref + 's');
+      if(skp.exists()) skips = new SkipPointers(skp);
+    }
+  }
+
+  /**
+   * Creates a sparse directory with the first key of each block of {@link #BLOCK} keys.
+   * @throws IOException I/O Exception
+   */
+  final void createDirectory() throws IOException {
+    final int entries = size();
+    final TokenList keys = new TokenList((entries + BLOCK - 1) / BLOCK);
+    for(int index = 0; index < entries; index += BLOCK) keys.add(keyAt(index));
+    final byte[][] dir = keys.finish();
+    try(DataOutput out = new DataOutput(data.meta.dbfile(fileSuffix(type) + 'd'))) {
+      out.writeTokens(dir);
+    }
+    directory = dir;
+  }
+
+  /**
+   * Creates a typed index for the numeric keys of this index.
+   * @throws IOException I/O Exception
+   */
+  final void createNumeric() throws IOException {
+    final IOFile file = data.meta.dbfile(fileSuffix(type) + 'n');
+    NumericKeys.create(this, file);
+    numeric = new NumericKeys(file);
+  }
+
+  /**
+   * Creates skip pointers for the long id lists of this index.
+   * @throws IOException I/O Exception
+   */
+  final void createSkips() throws IOException {
+    final IOFile file = data.meta.dbfile(fileSuffix(type) + 's');
+    SkipPointers.create(this, file);
+    skips = new SkipPointers(file);
+  }
+
+  @Override
+  public final boolean ranges() {
+    return numeric != null;
   }
 
   @Override
@@ -108,19 +173,11 @@ public class DiskValues extends ValueIndex {
       pres = idRange((NumericRange) token);
     } else {
       final IndexEntry ie = entry(token.get());
+      // static index: ids are sorted pre values and can be decoded on demand
+      if(!data.meta.updindex) return iter(ie);
       pres = pres(ie.size, ie.offset);
     }
-
-    return new IndexIterator() {
-      final int s = pres.size();
-      int p;
-      @Override
-      public boolean more() { return p < s; }
-      @Override
-      public int pre() { return pres.get(p++); }
-      @Override
-      public int size() { return s; }
-    };
+    return new IndexArrayIterator(pres.finish(), pres.size());
   }
 
   @Override
@@ -133,6 +190,8 @@ public class DiskValues extends ValueIndex {
     synchronized(monitor) {
       idxl.close();
       idxr.close();
+      if(numeric != null) numeric.close();
+      if(skips != null) skips.close();
     }
   }
 
@@ -176,7 +235,19 @@ public class DiskValues extends ValueIndex {
    * @return index of the key, or (-(insertion point) - 1)
    */
   protected final int get(final byte[] key) {
-    return get(key, 0, size());
+    final byte[][] dir = directory;
+    if(dir == null) return get(key, 0, size());
+
+    // find block in the key directory, search block on disk
+    int l = 0, h = dir.length - 1;
+    while(l <= h) {
+      final int m = l + h >>> 1;
+      final int d = diff(dir[m], key);
+      if(d == 0) return m * BLOCK;
+      if(d < 0) l = m + 1;
+      else h = m - 1;
+    }
+    return h < 0 ? -1 : get(key, h * BLOCK + 1, Math.min(size(), l * BLOCK));
   }
 
   /**
@@ -387,13 +458,121 @@ public class DiskValues extends ValueIndex {
       for(int i = 0, id = 0; i < sz; i++) {
         id += idxl.readNum();
         // token index: skip position
-        if(type == IndexType.TOKEN) idxl.readNum();
+        if(type.tokenized()) idxl.readNum();
         pres.add(pre(id));
       }
     }
     return pres;
   }
 
+  /**
+   * Returns an iterator that decodes the id list of the specified entry block-wise.
+   * Skip pointers are used to skip blocks with smaller ids.
+   * <p><em>Important:</em> This method is thread-safe.</p>
+   * @param entry index entry
+   * @return iterator
+   */
+  private IndexIterator iter(final IndexEntry entry) {
+    final int size = entry.size;
+    final SkipPointers sp = skips;
+    final long entries = sp != null && size > SkipPointers.BLOCK ? sp.entries(entry.offset) : -1;
+    final int blocks = (size + SkipPointers.BLOCK - 1) / SkipPointers.BLOCK;
+
+    return new IndexIterator() {
+      /** Ids of the current block. */
+      final int[] ids = new int[Math.min(size, SkipPointers.BLOCK)];
+      /** Offset of the next block. */
+      long offset = entry.offset;
+      /** Next block, last decoded id, size of current block, current position. */
+      int block, id, bs, p = -1;
+
+      @Override
+      public boolean more() {
+        if(++p < bs) return true;
+        if(block == blocks) return false;
+        decode();
+        return true;
+      }
+
+      @Override
+      public int pre() {
+        return ids[p];
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public boolean advance(final int target) {
+        // target is located in the current block
+        if(p + 1 < bs && ids[bs - 1] >= target) return find(p + 1, target);
+
+        // skip pointers: find last block that is preceded by a smaller id
+        if(entries != -1) {
+          int l = Math.max(1, block), h = blocks - 1;
+          while(l <= h) {
+            final int m = l + h >>> 1;
+            if(sp.id(entries, m) < target) l = m + 1;
+            else h = m - 1;
+          }
+          if(h > block) {
+            block = h;
+            id = sp.id(entries, h);
+            offset = sp.offset(entries, h);
+          }
+        }
+        // decode blocks until the target is found
+        while(block < blocks) {
+          decode();
+          if(ids[bs - 1] >= target) return find(0, target);
+        }
+        p = bs;
+        return false;
+      }
+
+      /**
+       * Positions the iterator on the first id in the current block that is equal to or
+       * larger than the specified target.
+       * @param first first position to check
+       * @param target target id
+       * @return {@code true}
+       */
+      private boolean find(final int first, final int target) {
+        int l = first, h = bs - 1;
+        while(l < h) {
+          final int m = l + h >>> 1;
+          if(ids[m] < target) l = m + 1;
+          else h = m;
+        }
+        p = l;
+        return true;
+      }
+
+      /**
+       * Decodes the next block.
+       */
+      private void decode() {
+        final boolean tok = type.tokenized();
+        final int n = Math.min(SkipPointers.BLOCK, size - block * SkipPointers.BLOCK);
+        synchronized(monitor) {
+          idxl.cursor(offset);
+          for(int i = 0; i < n; i++) {
+            id += idxl.readNum();
+            // token index: skip position
+            if(tok) idxl.readNum();
+            ids[i] = id;
+          }
+          offset = idxl.cursor();
+        }
+        block++;
+        bs = n;
+        p = 0;
+      }
+    };
+  }
+
   /**
    * Performs a string-based range query.
    * <p><em>Important:</em> This method is thread-safe.</p>
@@ -401,21 +580,17 @@ public class DiskValues extends ValueIndex {
    * @return results
    */
   private IntList idRange(final StringRange tok) {
-    // check if min and max are positive integers with the same number of digits
     final IntList pres = new IntList();
     synchronized(monitor) {
-      final int i = get(tok.min);
-      final int entries = size();
-      for(int index = i < 0 ? -i - 1 : tok.mni ? i : i + 1; index < entries; index++) {
+      // find first and last key; keys in between need not be looked up
+      final int i = get(tok.min), j = get(tok.max);
+      final int first = i < 0 ? -i - 1 : tok.mni ? i : i + 1;
+      final int last = j < 0 ? -j - 1 : tok.mxi ? j + 1 : j;
+      for(int index = first; index < last; index++) {
         final int count = idxl.readNum(idxr.read5(index * 5L));
-        int id = idxl.readNum();
-        // skip traversal if value is too large
-        final int diff = diff(key(id), tok.max);
-        if(diff > 0 || !tok.mxi && diff == 0) break;
-        // add pre values
-        for(int c = 0; c < count; c++) {
-          pres.add(pre(id));
+        for(int c = 0, id = 0; c < count; c++) {
           id += idxl.readNum();
+          pres.add(pre(id));
         }
       }
     }
@@ -429,6 +604,8 @@ public class DiskValues extends ValueIndex {
    * @return results
    */
   private IntList idRange(final NumericRange tok) {
+    if(numeric != null) return idRange(numeric, tok);
+
     // check if min and max are positive integers with the same number of digits
     final double min = tok.min, max = tok.max;
     final int len = max > 0 && (long) max == max ? token(max).length : 0;
@@ -437,7 +614,7 @@ public class DiskValues extends ValueIndex {
     final IntList pres = new IntList();
     synchronized(monitor) {
       final int entries = size();
-      final boolean text = type == IndexType.TEXT;
+      final boolean text = type.text();
       for(int index = 0; index < entries; ++index) {
         final int count = idxl.readNum(idxr.read5(index * 5L));
         int id = idxl.readNum();
@@ -461,14 +638,50 @@ public class DiskValues extends ValueIndex {
     return pres.sort();
   }
 
+  /**
+   * Performs a range query on the typed index.
+   * <p><em>Important:</em> This method is thread-safe.</p>
+   * @param keys typed index
+   * @param tok index term
+   * @return results
+   */
+  private IntList idRange(final NumericKeys keys, final NumericRange tok) {
+    final IntList pres = new IntList();
+    synchronized(monitor) {
+      final IntList indexes = keys.keys(tok.min, tok.max);
+      final int is = indexes.size();
+      for(int i = 0; i < is; i++) {
+        final int count = idxl.readNum(idxr.read5(indexes.get(i) * 5L));
+        for(int c = 0, id = 0; c < count; c++) {
+          id += idxl.readNum();
+          pres.add(pre(id));
+        }
+      }
+    }
+    return pres.sort();
+  }
+
+  /**
+   * Returns the key at the specified position.
+   * <p><em>Important:</em> This method is thread-safe.</p>
+   * @param index key position
+   * @return key
+   */
+  final byte[] keyAt(final int index) {
+    synchronized(monitor) {
+      idxl.readNum(idxr.read5(index * 5L));
+      return key(idxl.readNum());
+    }
+  }
+
   /**
    * Returns the specified key, considering tokenization.
    * @param id id of key
    * @return key token
    */
   private byte[] key(final int id) {
-    final byte[] text = data.text(pre(id), type == IndexType.TEXT);
-    return type == IndexType.TOKEN ? distinctTokens(text)[idxl.readNum()] : text;
+    final byte[] text = data.text(pre(id), type.text());
+    return type.tokenized() ? type.tokens(text)[idxl.readNum()] : text;
   }
 
   /**
@@ -513,6 +726,7 @@ public class DiskValues extends ValueIndex {
    * @return file suffix
    */
   static String fileSuffix(final IndexType type) {
-    return type == IndexType.TOKEN ? DATATOK : type == IndexType.TEXT ? DATATXT : DATAATV;
+    return type == IndexType.TOKEN ? DATATOK : type == IndexType.TRIGRAM ? DATATRI :
+      type == IndexType.TEXT ? DATATXT : DATAATV;
   }
 }
@@ -3,6 +3,9 @@ package org.basex.index.value;
 import static org.basex.util.Token.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 import org.basex.data.*;
 import org.basex.index.*;
@@ -26,12 +29,30 @@ import org.basex.util.list.*;
  *   structure. Instead, they can be found by following the id references to
  *   the main table.
  * </li>
+ * <li> {@code DATATXT/ATV/TOK + 'd'}: contains a sparse directory with every 64th key. The
+ *   directory is kept in main memory and speeds up key lookups. It is only created for
+ *   static index structures.</li>
+ * <li> {@code DATATXT/ATV + 'n'}: contains a typed index for numeric keys
+ *   (see {@link NumericKeys}).</li>
+ * <li> {@code DATATXT/ATV/TOK + 's'}: contains skip pointers for long id lists
+ *   (see {@link SkipPointers}). It is only created for static index structures.</li>
  * </ul>
  *
  * @author BaseX Team 2005-19, BSD License
  * @author Christian Gruen
  */
 public final class DiskValuesBuilder extends ValuesBuilder {
+  /** Minimum number of nodes per partition. */
+  private static final int PARTITION = 1 << 16;
+
+  /** Parent builder ({@code null} if this builder does not index a partition). */
+  private final DiskValuesBuilder parent;
+  /** First pre value to be indexed. */
+  private final int start;
+  /** Pre value after the last entry to be indexed. */
+  private final int end;
+  /** Number of index structures written to disk (shared by all partitions). */
+  private final AtomicInteger runs;
   /** Temporary value tree. */
   private IndexTree index;
 
@@ -41,7 +62,24 @@ public final class DiskValuesBuilder extends ValuesBuilder {
    * @param type index type
    */
   public DiskValuesBuilder(final Data data, final IndexType type) {
+    this(data, type, null, 0, data.meta.size);
+  }
+
+  /**
+   * Constructor.
+   * @param data data reference
+   * @param type index type
+   * @param parent parent builder (can be {@code null})
+   * @param start first pre value to be indexed
+   * @param end pre value after the last entry to be indexed
+   */
+  private DiskValuesBuilder(final Data data, final IndexType type,
+      final DiskValuesBuilder parent, final int start, final int end) {
     super(data, type);
+    this.parent = parent;
+    this.start = start;
+    this.end = end;
+    runs = parent != null ? parent.runs : new AtomicInteger();
     index = new IndexTree(type);
   }
 
@@ -50,25 +88,28 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     Util.debug(detailedInfo());
 
     try {
-      final boolean updindex = data.meta.updindex;
-      for(pre = 0; pre < size; ++pre) {
-        if((pre & 0x0FFF) == 0) check();
-        if(indexEntry()) {
-          final int id = updindex ? data.id(pre) : pre;
-          if(tokenize) {
-            int pos = 0;
-            for(final byte[] token : distinctTokens(data.text(pre, text))) {
-              index.add(token, id, pos++);
-              count++;
-            }
-          } else if(data.textLen(pre, text) <= data.meta.maxlen) {
-            index.add(data.text(pre, text), id, 0);
-            count++;
-          }
+      final int parts = pool == null ? 1 :
+        Math.min(pool.getParallelism(), (size + PARTITION - 1) / PARTITION);
+      if(parts > 1) {
+        // index partitions in parallel; partial index structures will be merged
+        index = null;
+        final ArrayList<Callable<Long>> tasks = new ArrayList<>(parts);
+        for(int p = 0; p < parts; p++) {
+          final DiskValuesBuilder part = new DiskValuesBuilder(data, type, this,
+              (int) ((long) size * p / parts), (int) ((long) size * (p + 1) / parts));
+          tasks.add(() -> {
+            part.index();
+            part.writeIndex(true);
+            return part.count;
+          });
         }
+        for(final long c : invoke(pool, tasks)) count += c;
+        splits = runs.get();
+      } else {
+        index();
+        writeIndex(splits > 0);
       }
 
-      writeIndex(splits > 0);
       if(splits > 1) {
         index = null;
         clean();
@@ -76,7 +117,13 @@ public final class DiskValuesBuilder extends ValuesBuilder {
       }
 
       finishIndex();
-      return updindex ? new UpdatableDiskValues(data, type) : new DiskValues(data, type);
+      if(data.meta.updindex) return new UpdatableDiskValues(data, type);
+
+      final DiskValues values = new DiskValues(data, type);
+      values.createDirectory();
+      values.createSkips();
+      if(data.meta.rangeindex && !tokenize) values.createNumeric();
+      return values;
 
     } catch(final Throwable th) {
       // drop index files
@@ -85,9 +132,41 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     }
   }
 
+  /**
+   * Indexes all entries of the assigned pre range.
+   * @throws IOException I/O exception
+   */
+  private void index() throws IOException {
+    final boolean updindex = data.meta.updindex;
+    for(pre = start; pre < end; ++pre) {
+      if((pre & 0x0FFF) == 0) check();
+      if(indexEntry()) {
+        final int id = updindex ? data.id(pre) : pre;
+        if(tokenize) {
+          int pos = 0;
+          for(final byte[] token : type.tokens(data.text(pre, text))) {
+            index.add(token, id, pos++);
+            count++;
+          }
+        } else if(data.textLen(pre, text) <= data.meta.maxlen) {
+          index.add(data.text(pre, text), id, 0);
+          count++;
+        }
+      }
+    }
+  }
+
   @Override
   protected void check() throws IOException {
-    super.check();
+    if(parent != null) {
+      // partition: report progress to parent builder, check if it has been stopped
+      synchronized(parent) {
+        parent.pre += 0x1000;
+      }
+      parent.checkStop();
+    } else {
+      super.check();
+    }
     // check if main memory is exhausted
     if(splitRequired()) {
       writeIndex(true);
@@ -169,7 +248,8 @@ public final class DiskValuesBuilder extends ValuesBuilder {
    */
   private void writeIndex(final boolean partial) throws IOException {
     // write id arrays and references
-    final String name = DiskValues.fileSuffix(type) + (partial ? splits : "");
+    final int run = runs.getAndIncrement();
+    final String name = DiskValues.fileSuffix(type) + (partial ? run : "");
     try(DataOutput outL = new DataOutput(data.meta.dbfile(name + 'l'));
         DataOutput outR = new DataOutput(data.meta.dbfile(name + 'r'))) {
       outL.write4(index.size());
@@ -38,8 +38,8 @@ public final class MemValues extends ValueIndex {
    */
   public MemValues(final Data data, final IndexType type) {
     super(data, type);
-    // token index: work extra token set instance
-    values = type == IndexType.TOKEN ? new TokenSet() :
+    // tokenized index: work extra token set instance
+    values = type.tokenized() ? new TokenSet() :
       ((MemData) data).values(type == IndexType.TEXT);
     final int s = values.size() + 1;
     idsList = new ArrayList<>(s);
@@ -62,15 +62,7 @@ public final class MemValues extends ValueIndex {
       pres = ids;
     }
 
-    return new IndexIterator() {
-      int p;
-      @Override
-      public boolean more() { return p < len; }
-      @Override
-      public int pre() { return pres[p++]; }
-      @Override
-      public int size() { return len; }
-    };
+    return new IndexArrayIterator(pres, len);
   }
 
   @Override
@@ -163,7 +155,7 @@ public final class MemValues extends ValueIndex {
    */
   void add(final byte[] key, final int... vals) {
     // token index: add values. otherwise, reference existing values
-    final int id = type == IndexType.TOKEN ? values.put(key) : values.id(key), vl = vals.length;
+    final int id = type.tokenized() ? values.put(key) : values.id(key), vl = vals.length;
     // updatable index: if required, resize existing arrays
     while(idsList.size() < id + 1) idsList.add(null);
     if(lenList.size() < id + 1) lenList.set(id, 0);
@@ -1,7 +1,5 @@
 package org.basex.index.value;
 
-import static org.basex.util.Token.*;
-
 import java.io.*;
 
 import org.basex.data.*;
@@ -34,7 +32,7 @@ public class MemValuesBuilder extends ValuesBuilder {
       if((pre & 0x0FFF) == 0) check();
       if(indexEntry()) {
         if(tokenize) {
-          for(final byte[] token : distinctTokens(data.text(pre, text))) {
+          for(final byte[] token : type.tokens(data.text(pre, text))) {
             index.add(token, updindex ? data.id(pre) : pre);
             count++;
           }
@@ -0,0 +1,152 @@
+package org.basex.index.value;
+
+import static org.basex.util.Token.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.*;
+import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
+import org.basex.util.list.*;
+
+/**
+ * This class provides a typed index for the numeric keys of a value index
+ * ({@link org.basex.data.MetaData#rangeindex}).
+ *
+ * The keys are stored in a file with the value index suffix and {@code 'n'}:
+ * <ul>
+ * <li> the number of numeric keys (4 bytes)</li>
+ * <li> the numeric keys, sorted by their values: double value (8 bytes), and position of
+ *   the key in the value index (4 bytes)</li>
+ * <li> a sparse block directory: the first value of each block of {@link #BLOCK} keys</li>
+ * </ul>
+ * The block directory is kept in main memory. A range lookup needs a binary search in the
+ * directory, a scan of a single block, and a sequential read of the values in range.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+final class NumericKeys {
+  /** Number of keys per block. */
+  private static final int BLOCK = 1 << 8;
+  /** Size of a single entry. */
+  private static final int ENTRY = 12;
+
+  /** Key file. */
+  private final DataAccess file;
+  /** First values of the blocks. */
+  private final double[] blocks;
+  /** Number of numeric keys. */
+  private final int size;
+
+  /**
+   * Constructor, opening an existing file.
+   * @param file key file
+   * @throws IOException I/O Exception
+   */
+  NumericKeys(final IOFile file) throws IOException {
+    this.file = new DataAccess(file);
+    size = this.file.read4(0);
+    final int bl = blocks(size);
+    blocks = new double[bl];
+    this.file.cursor(4L + (long) size * ENTRY);
+    for(int b = 0; b < bl; b++) blocks[b] = readDouble();
+  }
+
+  /**
+   * Returns the positions of all keys whose values are within the specified range.
+   * <p><em>Important:</em> This method is NOT thread-safe.</p>
+   * @param min minimum value (inclusive)
+   * @param max maximum value (inclusive)
+   * @return key positions (sorted by values)
+   */
+  IntList keys(final double min, final double max) {
+    final IntList keys = new IntList();
+    // find last block starting with a smaller value
+    int l = 0, h = blocks.length - 1;
+    while(l <= h) {
+      final int m = l + h >>> 1;
+      if(blocks[m] < min) l = m + 1;
+      else h = m - 1;
+    }
+    // scan entries, starting from the found block
+    file.cursor(4L + (long) Math.max(0, h) * BLOCK * ENTRY);
+    for(int e = Math.max(0, h) * BLOCK; e < size; e++) {
+      final double value = readDouble();
+      final int key = file.read4();
+      if(value > max) break;
+      if(value >= min) keys.add(key);
+    }
+    return keys;
+  }
+
+  /**
+   * Closes the file.
+   */
+  void close() {
+    file.close();
+  }
+
+  /**
+   * Reads a double value at the current file position.
+   * @return value
+   */
+  private double readDouble() {
+    final long hi = file.read4(), lo = file.read4();
+    return Double.longBitsToDouble(hi << 32 | lo & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Creates a key file for the specified value index.
+   * @param values value index
+   * @param file key file to be created
+   * @throws IOException I/O Exception
+   */
+  static void create(final DiskValues values, final IOFile file) throws IOException {
+    // collect numeric keys and sort them by their values
+    final int vs = values.size();
+    final IntList keys = new IntList();
+    double[] dbls = new double[vs];
+    for(int k = 0; k < vs; k++) {
+      final double d = toDouble(values.keyAt(k));
+      if(!Double.isNaN(d)) {
+        dbls[keys.size()] = d;
+        keys.add(k);
+      }
+    }
+    final int size = keys.size();
+    dbls = Arrays.copyOf(dbls, size);
+    keys.sort(dbls, true);
+
+    try(DataOutput out = new DataOutput(file)) {
+      out.write4(size);
+      for(int s = 0; s < size; s++) {
+        write(out, dbls[s]);
+        out.write4(keys.get(s));
+      }
+      for(int s = 0; s < size; s += BLOCK) write(out, dbls[s]);
+    }
+  }
+
+  /**
+   * Returns the number of blocks.
+   * @param size number of keys
+   * @return number of blocks
+   */
+  private static int blocks(final int size) {
+    return (size + BLOCK - 1) / BLOCK;
+  }
+
+  /**
+   * Writes a double value.
+   * @param out output stream
+   * @param value value
+   * @throws IOException I/O Exception
+   */
+  private static void write(final DataOutput out, final double value) throws IOException {
+    final long bits = Double.doubleToLongBits(value);
+    out.write4((int) (bits >>> 32));
+    out.write4((int) bits);
+  }
+}
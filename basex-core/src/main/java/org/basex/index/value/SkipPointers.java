@@ -0,0 +1,144 @@
+package org.basex.index.value;
+
+import java.io.*;
+
+import org.basex.index.*;
+import org.basex.io.*;
+import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
+
+/**
+ * This class provides skip pointers for the long id lists of a static value index.
+ * An id list is divided into blocks of {@link #BLOCK} ids. Skip pointers allow iterators
+ * to jump to the block that contains a target id without decoding the preceding blocks.
+ *
+ * The pointers are stored in a file with the value index suffix and {@code 's'}:
+ * <ul>
+ * <li> the number of id lists with more than {@link #BLOCK} ids (4 bytes)</li>
+ * <li> for each of these lists: the offset of the list in the value index (5 bytes), and the
+ *   offset of its skip entries in this file (5 bytes)</li>
+ * <li> the skip entries: for all blocks except for the first, the last id of the preceding
+ *   block (4 bytes), and the offset of the block in the value index (5 bytes)</li>
+ * </ul>
+ * The list offsets are kept in main memory.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+final class SkipPointers {
+  /** Number of ids per block. */
+  static final int BLOCK = 1 << 7;
+  /** Size of a single skip entry. */
+  private static final int ENTRY = 9;
+
+  /** Skip file. */
+  private final DataAccess file;
+  /** Offsets of the id lists in the value index (sorted). */
+  private final long[] lists;
+  /** Offsets of the skip entries. */
+  private final long[] entries;
+
+  /**
+   * Constructor, opening an existing file.
+   * @param file skip file
+   * @throws IOException I/O Exception
+   */
+  SkipPointers(final IOFile file) throws IOException {
+    this.file = new DataAccess(file);
+    final int size = this.file.read4();
+    lists = new long[size];
+    entries = new long[size];
+    for(int s = 0; s < size; s++) {
+      lists[s] = this.file.read5();
+      entries[s] = this.file.read5();
+    }
+  }
+
+  /**
+   * Returns the offset of the skip entries for the specified id list.
+   * @param offset offset of the id list in the value index
+   * @return offset of the skip entries, or {@code -1} if the list has no skip entries
+   */
+  long entries(final long offset) {
+    int l = 0, h = lists.length - 1;
+    while(l <= h) {
+      final int m = l + h >>> 1;
+      final long o = lists[m];
+      if(o == offset) return entries[m];
+      if(o < offset) l = m + 1;
+      else h = m - 1;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the last id of the block preceding the specified block.
+   * @param entries offset of the skip entries
+   * @param block block (must be larger than {@code 0})
+   * @return id
+   */
+  int id(final long entries, final int block) {
+    return file.read4(entries + (block - 1L) * ENTRY);
+  }
+
+  /**
+   * Returns the offset of the specified block in the value index.
+   * @param entries offset of the skip entries
+   * @param block block (must be larger than {@code 0})
+   * @return offset
+   */
+  long offset(final long entries, final int block) {
+    return file.read5(entries + (block - 1L) * ENTRY + 4);
+  }
+
+  /**
+   * Closes the file.
+   */
+  void close() {
+    file.close();
+  }
+
+  /**
+   * Creates a skip file for the specified value index.
+   * @param values value index
+   * @param file skip file to be created
+   * @throws IOException I/O Exception
+   */
+  static void create(final DiskValues values, final IOFile file) throws IOException {
+    final DataAccess idxl = values.idxl, idxr = values.idxr;
+    final boolean token = values.type.tokenized();
+    final int vs = values.size();
+
+    // count lists with skip entries
+    int size = 0;
+    for(int index = 0; index < vs; index++) {
+      if(idxl.readNum(idxr.read5(index * 5L)) > BLOCK) size++;
+    }
+
+    try(DataOutput out = new DataOutput(file)) {
+      // write list offsets and offsets of skip entries
+      out.write4(size);
+      long entries = 4L + size * 10L;
+      for(int index = 0; index < vs; index++) {
+        final int count = idxl.readNum(idxr.read5(index * 5L));
+        if(count <= BLOCK) continue;
+        out.write5(idxl.cursor());
+        out.write5(entries);
+        entries += (long) (count - 1) / BLOCK * ENTRY;
+      }
+      // write skip entries
+      for(int index = 0; index < vs; index++) {
+        final int count = idxl.readNum(idxr.read5(index * 5L));
+        if(count <= BLOCK) continue;
+        for(int c = 0, id = 0; c < count; c++) {
+          if(c > 0 && c % BLOCK == 0) {
+            out.write4(id);
+            out.write5(idxl.cursor());
+          }
+          id += idxl.readNum();
+          if(token) idxl.readNum();
+        }
+      }
+    }
+  }
+}
@@ -1,11 +1,11 @@
 package org.basex.index.value;
 
-import static org.basex.util.Token.*;
-
 import java.util.*;
 
 import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.index.ft.*;
+import org.basex.util.ft.*;
 import org.basex.util.hash.*;
 import org.basex.util.list.*;
 
@@ -22,6 +22,8 @@ public final class ValueCache implements Iterable<byte[]> {
   private final ArrayList<IntList> ids = new ArrayList<>();
   /** Positions. */
   private final ArrayList<IntList> pos;
+  /** Ids and numbers of indexed tokens of full-text nodes (can be {@code null}). */
+  private final IntList lengths;
 
   /**
    * Caches the text and id for a node with specified pre value.
@@ -51,17 +53,33 @@ public final class ValueCache implements Iterable<byte[]> {
    * @param data data reference
    */
   public ValueCache(final IntList pres, final IndexType type, final Data data) {
-    pos = type == IndexType.TOKEN ? new ArrayList<>() : null;
+    final boolean ft = type == IndexType.FULLTEXT;
+    pos = type.tokenized() || ft ? new ArrayList<>() : null;
+    lengths = ft ? new IntList() : null;
+    final FTLexer lexer = ft ? ((FTIndex) data.ftIndex).lexer() : null;
+    final StopWords sw = ft ? lexer.ftOpt().sw : null;
 
     final IndexNames in = new IndexNames(type, data);
-    final boolean text = type == IndexType.TEXT;
+    final boolean text = type.text();
     final int pl = pres.size(), kind = text ? Data.TEXT : Data.ATTR;
     for(int p = 0; p < pl; p++) {
       final int pre = pres.get(p);
       if(data.kind(pre) == kind && in.contains(pre, text)) {
-        if(type == IndexType.TOKEN) {
+        if(ft) {
+          // skip too long tokens and stopwords (see FTBuilder)
+          lexer.init(data.text(pre, true));
+          int length = 0;
+          for(int ps = 0; lexer.hasNext(); ps++) {
+            final byte[] token = lexer.nextToken();
+            if(token.length <= data.meta.maxlen && !sw.contains(token)) {
+              addId(token, pre, ps, data);
+              length++;
+            }
+          }
+          lengths.add(data.id(pre), length);
+        } else if(type.tokenized()) {
           int ps = 0;
-          for(final byte[] token : distinctTokens(data.text(pre, text))) {
+          for(final byte[] token : type.tokens(data.text(pre, text))) {
             addId(token, pre, ps++, data);
           }
         } else if(data.textLen(pre, text) <= data.meta.maxlen) {
@@ -129,7 +147,7 @@ public final class ValueCache implements Iterable<byte[]> {
    * @param key key
    * @return id list
    */
-  IntList ids(final byte[] key) {
+  public IntList ids(final byte[] key) {
     return ids.get(keys.id(key) - 1);
   }
 
@@ -138,7 +156,15 @@ public final class ValueCache implements Iterable<byte[]> {
    * @param key key
    * @return id list or {@code null}
    */
-  IntList pos(final byte[] key) {
+  public IntList pos(final byte[] key) {
     return pos != null ? pos.get(keys.id(key) - 1) : null;
   }
+
+  /**
+   * Returns the ids and numbers of indexed tokens of all cached full-text nodes.
+   * @return id/length pairs or {@code null}
+   */
+  public IntList lengths() {
+    return lengths;
+  }
 }
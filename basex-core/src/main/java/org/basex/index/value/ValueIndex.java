@@ -47,4 +47,12 @@ public abstract class ValueIndex implements Index {
    * Flushes the buffered data.
    */
   public abstract void flush();
+
+  /**
+   * Indicates if numeric ranges can be retrieved from a typed index.
+   * @return result of check
+   */
+  public boolean ranges() {
+    return false;
+  }
 }
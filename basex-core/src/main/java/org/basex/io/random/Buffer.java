@@ -15,4 +15,17 @@ final class Buffer {
   long pos = -1;
   /** Dirty flag. */
   boolean dirty;
+
+  /** Buffer manager to which this buffer is currently assigned (can be {@code null}). */
+  Buffers owner;
+  /** Indicates if the buffer is currently used by its owner and must not be evicted. */
+  boolean pinned;
+  /** Indicates if the buffer is currently written to disk by an evicting thread. */
+  boolean writing;
+  /** Indicates if the buffer has been referenced more than once (protected queue). */
+  boolean hot;
+  /** Previous buffer in the queue. */
+  Buffer prev;
+  /** Next buffer in the queue. */
+  Buffer next;
 }
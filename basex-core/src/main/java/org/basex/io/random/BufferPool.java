@@ -0,0 +1,318 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.util.*;
+
+/**
+ * This class provides a global, size-bounded pool of disk buffers, which is shared by all
+ * open database files. Buffers are evicted by a scan-resistant, segmented LRU policy:
+ * new buffers are added to a probationary queue, and they are only promoted to the
+ * protected queue if they are referenced again. Pages that are visited only once,
+ * e.g. by sequential scans, will thus not displace frequently used pages.
+ *
+ * Dirty buffers are never written to disk while the pool is locked: if the next buffer to be
+ * evicted is dirty, it is marked as being written, and the requesting thread writes it to disk
+ * after releasing the lock. Buffers that are being written will neither be evicted nor
+ * returned to their owner before the write operation has been completed.
+ *
+ * The pool size is specified via {@link org.basex.core.StaticOptions#BUFFERPOOL}.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class BufferPool {
+  /** Global instance. */
+  private static final BufferPool INSTANCE = new BufferPool();
+
+  /** Probationary queue (least recently used buffer). */
+  private final Queue probation = new Queue();
+  /** Protected queue (least recently used buffer). */
+  private final Queue hot = new Queue();
+  /** Maximum number of buffers. */
+  private int capacity = 1 << 12;
+  /** Number of allocated buffers. */
+  private int size;
+  /** Number of buffer requests that could be served from the pool. */
+  private long hits;
+  /** Number of buffer requests that required disk access. */
+  private long misses;
+
+  /** Private constructor. */
+  private BufferPool() { }
+
+  /**
+   * Returns the global buffer pool.
+   * @return buffer pool
+   */
+  public static BufferPool get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Assigns the maximum number of buffers. Superfluous buffers will be evicted lazily.
+   * @param max maximum number of buffers
+   */
+  public synchronized void capacity(final int max) {
+    capacity = Math.max(1, max);
+  }
+
+  /**
+   * Returns the maximum number of buffers.
+   * @return capacity
+   */
+  public synchronized int capacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns the number of allocated buffers.
+   * @return size
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Returns the number of buffer requests that could be served from the pool.
+   * @return number of hits
+   */
+  public synchronized long hits() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of buffer requests that required disk access.
+   * @return number of misses
+   */
+  public synchronized long misses() {
+    return misses;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return Util.info("% of % pages, % hits, % misses", size, capacity, hits, misses);
+  }
+
+  // PACKAGE METHODS ==============================================================================
+
+  /**
+   * Registers a reference to a pooled buffer. Must be called while the pool is locked.
+   * @param buffer buffer
+   */
+  void access(final Buffer buffer) {
+    hits++;
+    if(buffer.hot) {
+      hot.remove(buffer);
+    } else {
+      // promote buffer to protected queue; demote least recently used protected buffer
+      probation.remove(buffer);
+      buffer.hot = true;
+      if(hot.size >= capacity - (capacity >>> 2)) {
+        final Buffer b = hot.first;
+        hot.remove(b);
+        b.hot = false;
+        probation.add(b);
+      }
+    }
+    hot.add(buffer);
+  }
+
+  /**
+   * Returns a clean buffer for the specified file and position.
+   * Must be called while the pool is locked.
+   * @param owner buffer manager
+   * @param pos position of the buffer
+   * @return buffer
+   */
+  Buffer add(final Buffers owner, final long pos) {
+    misses++;
+    // shrink pool if capacity has been reduced
+    while(size > capacity && evict() != null) size--;
+
+    Buffer b = size < capacity ? null : evict();
+    if(b == null) {
+      b = new Buffer();
+      size++;
+    }
+    b.owner = owner;
+    b.pos = pos;
+    b.hot = false;
+    owner.buffers.put(pos, b);
+    probation.add(b);
+    return b;
+  }
+
+  /**
+   * Returns the next buffer to be evicted if it is dirty, and marks it as being written.
+   * The buffer must then be passed on to {@link #write(Buffer)}.
+   * Must be called while the pool is locked.
+   * @return dirty buffer, or {@code null} if no buffer needs to be written
+   */
+  Buffer dirty() {
+    if(size < capacity) return null;
+    final Buffer b = victim();
+    if(b == null || !b.dirty) return null;
+    b.writing = true;
+    return b;
+  }
+
+  /**
+   * Returns all dirty buffers of the specified file, and marks them as being written.
+   * The buffers must then be passed on to {@link #write(Buffer...)}.
+   * Must be called while the pool is locked.
+   * @param owner buffer manager
+   * @return dirty buffers
+   */
+  Buffer[] dirty(final Buffers owner) {
+    for(Buffer w = writing(owner); w != null; w = writing(owner)) await(w);
+    final ArrayList<Buffer> list = new ArrayList<>();
+    for(final Buffer b : owner.buffers.values()) {
+      if(b.dirty) {
+        b.writing = true;
+        list.add(b);
+      }
+    }
+    return list.toArray(new Buffer[0]);
+  }
+
+  /**
+   * Writes buffers that have been returned by {@link #dirty()} or {@link #dirty(Buffers)}
+   * to disk. Must be called while the pool is not locked.
+   * @param buffers buffers
+   * @throws IOException I/O exception
+   */
+  void write(final Buffer... buffers) throws IOException {
+    try {
+      for(final Buffer b : buffers) b.owner.writer.write(b);
+    } finally {
+      synchronized(this) {
+        for(final Buffer b : buffers) b.writing = false;
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Waits until the specified buffer has been written to disk.
+   * Must be called while the pool is locked.
+   * @param buffer buffer
+   */
+  void await(final Buffer buffer) {
+    boolean interrupted = false;
+    while(buffer.writing) {
+      try {
+        wait();
+      } catch(final InterruptedException ex) {
+        interrupted = true;
+      }
+    }
+    if(interrupted) Thread.currentThread().interrupt();
+  }
+
+  /**
+   * Removes all buffers of the specified file from the pool.
+   * Waits until pending write operations on these buffers have been completed.
+   * @param owner buffer manager
+   */
+  synchronized void remove(final Buffers owner) {
+    for(Buffer w = writing(owner); w != null; w = writing(owner)) await(w);
+    for(final Buffer b : owner.buffers.values()) {
+      (b.hot ? hot : probation).remove(b);
+      b.owner = null;
+      b.pinned = false;
+      size--;
+    }
+    owner.buffers.clear();
+  }
+
+  // PRIVATE METHODS ==============================================================================
+
+  /**
+   * Returns the least recently used buffer that can be evicted.
+   * @return buffer, or {@code null} if all buffers are pinned or being written
+   */
+  private Buffer victim() {
+    final Buffer b = probation.victim();
+    return b != null ? b : hot.victim();
+  }
+
+  /**
+   * Returns a buffer of the specified file that is being written.
+   * @param owner buffer manager
+   * @return buffer or {@code null}
+   */
+  private static Buffer writing(final Buffers owner) {
+    for(final Buffer b : owner.buffers.values()) {
+      if(b.writing) return b;
+    }
+    return null;
+  }
+
+  /**
+   * Evicts the least recently used buffer if it is clean.
+   * Dirty buffers must be written before (see {@link #dirty()}).
+   * @return evicted buffer, or {@code null} if no clean buffer can be evicted
+   */
+  private Buffer evict() {
+    final Buffer b = victim();
+    if(b == null || b.dirty) return null;
+
+    (b.hot ? hot : probation).remove(b);
+    b.owner.buffers.remove(b.pos);
+    b.owner = null;
+    b.pos = -1;
+    return b;
+  }
+
+  /**
+   * Doubly linked buffer queue, ordered by the time of last reference.
+   */
+  private static final class Queue {
+    /** Least recently used buffer. */
+    Buffer first;
+    /** Most recently used buffer. */
+    Buffer last;
+    /** Number of buffers. */
+    int size;
+
+    /**
+     * Appends a buffer.
+     * @param b buffer
+     */
+    void add(final Buffer b) {
+      b.prev = last;
+      b.next = null;
+      if(last == null) first = b;
+      else last.next = b;
+      last = b;
+      size++;
+    }
+
+    /**
+     * Removes a buffer.
+     * @param b buffer
+     */
+    void remove(final Buffer b) {
+      if(b.prev == null) first = b.next;
+      else b.prev.next = b.next;
+      if(b.next == null) last = b.prev;
+      else b.next.prev = b.prev;
+      b.prev = null;
+      b.next = null;
+      size--;
+    }
+
+    /**
+     * Returns the least recently used buffer that is neither pinned nor being written.
+     * @return buffer or {@code null}
+     */
+    Buffer victim() {
+      for(Buffer b = first; b != null; b = b.next) {
+        if(!b.pinned && !b.writing) return b;
+      }
+      return null;
+    }
+  }
+}
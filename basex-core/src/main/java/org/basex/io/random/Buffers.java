@@ -1,32 +1,32 @@
 package org.basex.io.random;
 
+import java.io.*;
+import java.util.*;
+
 /**
- * This class provides a simple, clock-based buffer management.
+ * This class manages the buffers of a single file. Buffers are requested from the
+ * global {@link BufferPool}; the current buffer is pinned and will not be evicted
+ * before another buffer is chosen.
  *
  * @author BaseX Team 2005-19, BSD License
  * @author Christian Gruen
  */
 final class Buffers {
-  /** Number of buffers (must be 1 << n). */
-  private static final int BUFFERS = 1 << 4;
-  /** Buffers. */
-  private final Buffer[] buf = new Buffer[BUFFERS];
-  /** Current buffer offset. */
-  private int off;
+  /** Buffers of this file, indexed by their position (guarded by the buffer pool). */
+  final HashMap<Long, Buffer> buffers = new HashMap<>();
+  /** Writer for dirty buffers. */
+  final Writer writer;
+  /** Buffer pool. */
+  private final BufferPool pool = BufferPool.get();
+  /** Current buffer. */
+  private Buffer current;
 
   /**
    * Constructor.
+   * @param writer writer for dirty buffers
    */
-  Buffers() {
-    for(int b = 0; b < BUFFERS; ++b) buf[b] = new Buffer();
-  }
-
-  /**
-   * Returns all buffers.
-   * @return buffers
-   */
-  Buffer[] all() {
-    return buf;
+  Buffers(final Writer writer) {
+    this.writer = writer;
   }
 
   /**
@@ -34,20 +34,75 @@ final class Buffers {
    * @return current buffer
    */
   Buffer current() {
-    return buf[off];
+    return current;
   }
 
   /**
    * Chooses a buffer and sets the offset.
+   * If the buffer is new, its contents need to be read from disk.
    * @param p buffer pointer
-   * @return true if cursor has changed
+   * @return true if cursor has changed and the buffer contents are undefined
+   * @throws IOException I/O exception
+   */
+  boolean cursor(final long p) throws IOException {
+    final Buffer c = current;
+    if(c != null && c.pos == p) return false;
+
+    while(true) {
+      final Buffer dirty;
+      synchronized(pool) {
+        Buffer b = buffers.get(p);
+        if(b != null && b.writing) {
+          // buffer is currently written by an evicting thread
+          pool.await(b);
+          continue;
+        }
+        dirty = b == null ? pool.dirty() : null;
+        if(dirty == null) {
+          final boolean miss = b == null;
+          if(miss) b = pool.add(this, p);
+          else pool.access(b);
+          if(c != null) c.pinned = false;
+          b.pinned = true;
+          current = b;
+          return miss;
+        }
+      }
+      // write least recently used buffer without locking the pool, and try again
+      pool.write(dirty);
+    }
+  }
+
+  /**
+   * Writes all dirty buffers to disk.
+   * @throws IOException I/O exception
+   */
+  void flush() throws IOException {
+    final Buffer[] dirty;
+    synchronized(pool) {
+      dirty = pool.dirty(this);
+    }
+    pool.write(dirty);
+  }
+
+  /**
+   * Returns all buffers to the pool. Dirty buffers will be discarded.
+   * The current buffer remains accessible until another buffer is chosen.
+   */
+  void close() {
+    pool.remove(this);
+  }
+
+  /**
+   * Writes dirty buffers to disk.
+   * Implementations must not modify the state of the buffer manager.
    */
-  boolean cursor(final long p) {
-    final int o = off;
-    do {
-      if(buf[off].pos == p) return false;
-    } while((off = off + 1 & BUFFERS - 1) != o);
-    off = o + 1 & BUFFERS - 1;
-    return true;
+  interface Writer {
+    /**
+     * Writes the specified buffer to disk and resets the dirty flag.
+     * @param buffer buffer
+     * @throws IOException I/O exception
+     */
+    void write(Buffer buffer) throws IOException;
   }
 }
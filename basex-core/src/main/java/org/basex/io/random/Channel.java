@@ -0,0 +1,123 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+/**
+ * Channel for positional read and write operations on a file, which can be shared by
+ * multiple threads.
+ *
+ * If a thread is interrupted while it accesses a {@link FileChannel}, the channel will be
+ * closed for all threads (see {@link ClosedByInterruptException}). In this case, the channel
+ * is reopened, and the operation is repeated. The interrupt status of the thread is
+ * preserved. Channels that have been created from an existing file channel will not be
+ * reopened.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+final class Channel implements Closeable {
+  /** Path to the file ({@code null} if the channel cannot be reopened). */
+  private final Path path;
+  /** Current file channel. */
+  private volatile FileChannel channel;
+  /** Indicates if the channel has been closed. */
+  private volatile boolean closed;
+
+  /**
+   * Constructor.
+   * @param file file
+   * @throws IOException I/O exception
+   */
+  Channel(final File file) throws IOException {
+    path = file.toPath();
+    channel = open();
+  }
+
+  /**
+   * Constructor for an existing file channel, which will not be reopened.
+   * It is used if the channel must not be replaced, e.g. because it holds a file lock.
+   * @param channel file channel
+   */
+  Channel(final FileChannel channel) {
+    path = null;
+    this.channel = channel;
+  }
+
+  /**
+   * Reads a sequence of bytes from the specified file position.
+   * @param bb buffer
+   * @param pos file position
+   * @return number of read bytes, or {@code -1} if the end of the file has been reached
+   * @throws IOException I/O exception
+   */
+  int read(final ByteBuffer bb, final long pos) throws IOException {
+    boolean interrupted = false;
+    try {
+      while(true) {
+        final FileChannel fc = channel;
+        try {
+          return fc.read(bb, pos);
+        } catch(final ClosedChannelException ex) {
+          if(closed) throw ex;
+          interrupted |= Thread.interrupted();
+          reopen(fc);
+        }
+      }
+    } finally {
+      if(interrupted) Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Writes a sequence of bytes to the specified file position.
+   * @param bb buffer
+   * @param pos file position
+   * @return number of written bytes
+   * @throws IOException I/O exception
+   */
+  int write(final ByteBuffer bb, final long pos) throws IOException {
+    boolean interrupted = false;
+    try {
+      while(true) {
+        final FileChannel fc = channel;
+        try {
+          return fc.write(bb, pos);
+        } catch(final ClosedChannelException ex) {
+          if(closed) throw ex;
+          interrupted |= Thread.interrupted();
+          reopen(fc);
+        }
+      }
+    } finally {
+      if(interrupted) Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    closed = true;
+    channel.close();
+  }
+
+  /**
+   * Reopens the channel if it has not been replaced by another thread yet.
+   * @param fc closed channel
+   * @throws IOException I/O exception
+   */
+  private synchronized void reopen(final FileChannel fc) throws IOException {
+    if(closed || path == null) throw new ClosedChannelException();
+    if(channel == fc) channel = open();
+  }
+
+  /**
+   * Opens a new channel.
+   * @return channel
+   * @throws IOException I/O exception
+   */
+  private FileChannel open() throws IOException {
+    return FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+  }
+}
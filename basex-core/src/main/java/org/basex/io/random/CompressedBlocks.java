@@ -0,0 +1,285 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+
+/**
+ * This class organizes the blocks of a heap file in compressed form.
+ *
+ * Blocks of {@link IO#BLOCKSIZE} bytes are compressed individually, and they can thus be
+ * accessed randomly. All blocks of a file share a preset dictionary, which is taken from
+ * the beginning of the original file: short blocks with recurring strings can thus be
+ * compressed much better than without dictionary.
+ *
+ * The positions and sizes of the compressed blocks are stored in a block index. If a block
+ * is updated and does not fit into its original slot anymore, it will be appended to the
+ * end of the file. Orphaned slots will be discarded if the database is optimized.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+final class CompressedBlocks {
+  /** Maximum size of the preset dictionary. */
+  private static final int DICTSIZE = 1 << 15;
+  /** Granularity of slot sizes. */
+  private static final int SLOT = 1 << 6;
+
+  /** Block index file. */
+  private final IOFile file;
+  /** Preset dictionary. */
+  private final byte[] dict;
+  /** Compressor. */
+  private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+  /** Buffer for compressed data. */
+  private final byte[] buffer = new byte[IO.BLOCKSIZE << 1];
+
+  /** Positions of the compressed blocks. */
+  private long[] positions;
+  /** Sizes of the compressed blocks ({@code 0}: empty block). */
+  private int[] sizes;
+  /** Slot sizes of the compressed blocks. */
+  private int[] slots;
+  /** Uncompressed file length. */
+  private long length;
+  /** Length of the compressed file. */
+  private long end;
+  /** Dirty flag. */
+  private boolean dirty;
+
+  /**
+   * Constructor, reading the block index.
+   * @param file block index file
+   * @throws IOException I/O exception
+   */
+  CompressedBlocks(final IOFile file) throws IOException {
+    this.file = file;
+    try(DataInput in = new DataInput(file)) {
+      final long[] lengths = in.readLongs(in.readNum());
+      length = lengths[0];
+      end = lengths[1];
+      dict = in.readToken();
+      positions = in.readLongs(in.readNum());
+      sizes = in.readNums();
+      slots = in.readNums();
+    }
+  }
+
+  /**
+   * Returns the uncompressed file length.
+   * @return file length
+   */
+  synchronized long length() {
+    return length;
+  }
+
+  /**
+   * Assigns the uncompressed file length.
+   * @param len file length
+   */
+  synchronized void length(final long len) {
+    if(len == length) return;
+    length = len;
+    dirty = true;
+  }
+
+  /**
+   * Reads and decompresses the block at the specified position.
+   * @param channel file channel
+   * @param pos uncompressed position of the block
+   * @param data array for the uncompressed block
+   * @param inflater decompressor
+   * @throws IOException I/O exception
+   */
+  void read(final Channel channel, final long pos, final byte[] data,
+      final Inflater inflater) throws IOException {
+
+    final int b = (int) (pos / IO.BLOCKSIZE);
+    final long position;
+    final int size;
+    synchronized(this) {
+      final boolean exists = b < sizes.length;
+      position = exists ? positions[b] : 0;
+      size = exists ? sizes[b] : 0;
+    }
+    if(size == 0) {
+      Arrays.fill(data, (byte) 0);
+      return;
+    }
+
+    final byte[] input = new byte[size];
+    final ByteBuffer bb = ByteBuffer.wrap(input);
+    for(long p = position; bb.hasRemaining();) {
+      final int n = channel.read(bb, p);
+      if(n == -1) throw new EOFException(file + ": block " + b + " is incomplete.");
+      p += n;
+    }
+
+    inflater.reset();
+    inflater.setInput(input);
+    try {
+      int off = 0;
+      while(!inflater.finished() && off < IO.BLOCKSIZE) {
+        final int n = inflater.inflate(data, off, IO.BLOCKSIZE - off);
+        if(n == 0) {
+          if(!inflater.needsDictionary()) break;
+          inflater.setDictionary(dict);
+        }
+        off += n;
+      }
+      if(off < IO.BLOCKSIZE) Arrays.fill(data, off, IO.BLOCKSIZE, (byte) 0);
+    } catch(final DataFormatException ex) {
+      throw new IOException(file + ": block " + b + " is corrupt.", ex);
+    }
+  }
+
+  /**
+   * Compresses and writes a block to the specified position.
+   * @param channel file channel
+   * @param pos uncompressed position of the block
+   * @param data uncompressed block
+   * @param len number of bytes to be compressed
+   * @throws IOException I/O exception
+   */
+  synchronized void write(final Channel channel, final long pos, final byte[] data,
+      final int len) throws IOException {
+
+    final int b = (int) (pos / IO.BLOCKSIZE);
+    if(b >= sizes.length) {
+      final int s = Math.max(b + 1, Array.newSize(sizes.length));
+      positions = Arrays.copyOf(positions, s);
+      sizes = Arrays.copyOf(sizes, s);
+      slots = Arrays.copyOf(slots, s);
+    }
+
+    final int size = len > 0 ? compress(data, len, buffer) : 0;
+    if(size > slots[b]) {
+      // block does not fit into its slot: append it to the end of the file
+      final int slot = size + SLOT - 1 & -SLOT;
+      positions[b] = end;
+      slots[b] = slot;
+      end += slot;
+    }
+    sizes[b] = size;
+    dirty = true;
+
+    final ByteBuffer bb = ByteBuffer.wrap(buffer, 0, size);
+    for(long p = positions[b]; bb.hasRemaining();) p += channel.write(bb, p);
+  }
+
+  /**
+   * Writes the block index to disk.
+   * @throws IOException I/O exception
+   */
+  synchronized void flush() throws IOException {
+    if(!dirty) return;
+    write(file, length, end, dict, positions, sizes, slots);
+    dirty = false;
+  }
+
+  /**
+   * Closes the compressor.
+   */
+  synchronized void close() {
+    deflater.end();
+  }
+
+  /**
+   * Compresses a block.
+   * @param data uncompressed data
+   * @param len number of bytes to be compressed
+   * @param output output buffer
+   * @return size of compressed data
+   */
+  private int compress(final byte[] data, final int len, final byte[] output) {
+    return compress(deflater, dict, data, len, output);
+  }
+
+  /**
+   * Converts a heap file to the compressed format and creates the block index.
+   * @param heap heap file (will be replaced)
+   * @param index block index file to be created
+   * @throws IOException I/O exception
+   */
+  static void compress(final IOFile heap, final IOFile index) throws IOException {
+    final IOFile tmp = new IOFile(heap.path() + IO.TMPSUFFIX);
+    final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try(RandomAccessFile in = new RandomAccessFile(heap.file(), "r");
+        DataOutput out = new DataOutput(tmp)) {
+
+      final long length = in.length();
+      final byte[] dict = new byte[(int) Math.min(length, DICTSIZE)];
+      in.readFully(dict);
+      in.seek(0);
+
+      final int blocks = (int) ((length + IO.BLOCKSIZE - 1) / IO.BLOCKSIZE);
+      final long[] positions = new long[blocks];
+      final int[] sizes = new int[blocks], slots = new int[blocks];
+      final byte[] data = new byte[IO.BLOCKSIZE], output = new byte[IO.BLOCKSIZE << 1];
+      long end = 0;
+      for(int b = 0; b < blocks; b++) {
+        final int len = (int) Math.min(IO.BLOCKSIZE, length - (long) b * IO.BLOCKSIZE);
+        in.readFully(data, 0, len);
+        final int size = compress(deflater, dict, data, len, output);
+        out.write(output, 0, size);
+        positions[b] = end;
+        sizes[b] = size;
+        slots[b] = size;
+        end += size;
+      }
+      write(index, length, end, dict, positions, sizes, slots);
+    } finally {
+      deflater.end();
+    }
+    if(!heap.delete() || !tmp.rename(heap)) throw new IOException("Could not replace " + heap);
+  }
+
+  /**
+   * Compresses a block.
+   * @param deflater compressor
+   * @param dict preset dictionary
+   * @param data uncompressed data
+   * @param len number of bytes to be compressed
+   * @param output output buffer
+   * @return size of compressed data
+   */
+  private static int compress(final Deflater deflater, final byte[] dict, final byte[] data,
+      final int len, final byte[] output) {
+    deflater.reset();
+    if(dict.length != 0) deflater.setDictionary(dict);
+    deflater.setInput(data, 0, len);
+    deflater.finish();
+    int size = 0;
+    while(!deflater.finished()) size += deflater.deflate(output, size, output.length - size);
+    return size;
+  }
+
+  /**
+   * Writes a block index.
+   * @param index index file
+   * @param length uncompressed file length
+   * @param end length of the compressed file
+   * @param dict preset dictionary
+   * @param positions positions of the compressed blocks
+   * @param sizes sizes of the compressed blocks
+   * @param slots slot sizes of the compressed blocks
+   * @throws IOException I/O exception
+   */
+  private static void write(final IOFile index, final long length, final long end,
+      final byte[] dict, final long[] positions, final int[] sizes, final int[] slots)
+      throws IOException {
+    try(DataOutput out = new DataOutput(index)) {
+      out.writeLongs(new long[] { length, end });
+      out.writeToken(dict);
+      out.writeLongs(positions);
+      out.writeNums(sizes);
+      out.writeNums(slots);
+    }
+  }
+}
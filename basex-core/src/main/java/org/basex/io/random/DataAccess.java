@@ -1,27 +1,52 @@
 package org.basex.io.random;
 
 import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.zip.*;
 
 import org.basex.io.*;
 import org.basex.util.*;
 
 /**
  * This class allows positional read and write access to a database file.
+ * If a block index is supplied, the blocks of the file are stored in compressed form
+ * (see {@link CompressedBlocks}).
+ *
+ * As long as no buffered changes exist, read operations are performed by thread-local
+ * readers, which fetch blocks via positional reads and do not share any state.
+ * Write operations, and all read operations that take place before the changes have been
+ * flushed, are performed by a shared cursor, which is backed by the {@link BufferPool}.
  *
  * @author BaseX Team 2005-19, BSD License
  * @author Christian Gruen
  */
 public final class DataAccess implements Closeable {
   /** Buffer manager. */
-  private final Buffers bm = new Buffers();
+  private final Buffers bm = new Buffers(this::writeBlock);
+  /** Shared cursor (used for write operations, and for reads if changes are buffered). */
+  private final Shared shared = new Shared();
+  /** Thread-local readers (do not reference this instance, so stale entries can be expunged). */
+  private final ThreadLocal<Reader> readers = new ThreadLocal<>();
+  /** Readers that have been created by the threads (released when the file is closed). */
+  private final Set<Reader> created = Collections.newSetFromMap(new WeakHashMap<>());
   /** Reference to the data input stream. */
   private final RandomAccessFile raf;
+  /** Channel for positional reads and writes (not affected by interrupted threads). */
+  private final Channel channel;
+  /** Read-ahead for sequential block accesses. */
+  private final Prefetcher prefetcher;
+  /** Compressed blocks (can be {@code null}). */
+  private final CompressedBlocks blocks;
   /** File length. */
   private long length;
   /** Changed flag. */
   private boolean changed;
-  /** Offset. */
-  private int off;
+  /** Indicates if buffered changes exist that have not been written to disk yet. */
+  private volatile boolean dirty;
+  /** Modification counter (invalidates the blocks of thread-local readers). */
+  private volatile int version;
 
   /**
    * Constructor, initializing the file reader.
@@ -29,30 +54,59 @@ public final class DataAccess implements Closeable {
    * @throws IOException I/O Exception
    */
   public DataAccess(final IOFile file) throws IOException {
+    this(file, null);
+  }
+
+  /**
+   * Constructor, initializing the file reader.
+   * @param file the file to be read
+   * @param index block index of a compressed file (can be {@code null})
+   * @throws IOException I/O Exception
+   */
+  public DataAccess(final IOFile file, final IOFile index) throws IOException {
     RandomAccessFile f = null;
+    Channel ch = null;
     try {
       f = new RandomAccessFile(file.file(), "rw");
-      length = f.length();
+      ch = new Channel(file.file());
+      blocks = index != null ? new CompressedBlocks(index) : null;
+      length = blocks != null ? blocks.length() : f.length();
       raf = f;
-      cursor(0);
+      channel = ch;
+      prefetcher = new Prefetcher(ch);
     } catch(final IOException ex) {
+      if(ch != null) ch.close();
       if(f != null) f.close();
       throw ex;
     }
   }
 
+  /**
+   * Converts the specified file to the compressed format.
+   * @param file file to be converted
+   * @param index block index to be created
+   * @throws IOException I/O Exception
+   */
+  public static void compress(final IOFile file, final IOFile index) throws IOException {
+    CompressedBlocks.compress(file, index);
+  }
+
   /**
    * Flushes the buffered data.
    */
   public synchronized void flush() {
     try {
-      for(final Buffer b : bm.all()) {
-        if(b.dirty) writeBlock(b);
-      }
+      bm.flush();
       if(changed) {
-        raf.setLength(length);
+        if(blocks != null) blocks.length(length);
+        else raf.setLength(length);
         changed = false;
       }
+      if(blocks != null) blocks.flush();
+      if(dirty) {
+        dirty = false;
+        version++;
+      }
     } catch(final IOException ex) {
       Util.stack(ex);
     }
@@ -61,7 +115,15 @@ public final class DataAccess implements Closeable {
   @Override
   public synchronized void close() {
     flush();
+    bm.close();
+    if(blocks != null) blocks.close();
+    synchronized(created) {
+      for(final Reader r : created) r.close();
+      created.clear();
+    }
+    shared.close();
     try {
+      channel.close();
       raf.close();
     } catch(final IOException ex) {
       Util.stack(ex);
@@ -73,7 +135,8 @@ public final class DataAccess implements Closeable {
    * @return position in the file
    */
   public long cursor() {
-    return buffer(false).pos + off;
+    final Reader r = reader();
+    return (r != null ? r : shared).cursor();
   }
 
   /**
@@ -97,17 +160,24 @@ public final class DataAccess implements Closeable {
    * @param pos position
    * @return integer value
    */
-  public synchronized byte read1(final long pos) {
-    cursor(pos);
-    return read1();
+  public byte read1(final long pos) {
+    final Reader r = reader();
+    if(r != null) return r.read1(pos);
+    synchronized(this) {
+      return shared.read1(pos);
+    }
   }
 
   /**
    * Reads a byte value.
    * @return integer value
    */
-  public synchronized byte read1() {
-    return (byte) read();
+  public byte read1() {
+    final Reader r = reader();
+    if(r != null) return (byte) r.read();
+    synchronized(this) {
+      return (byte) shared.read();
+    }
   }
 
   /**
@@ -115,17 +185,24 @@ public final class DataAccess implements Closeable {
    * @param pos position
    * @return integer value
    */
-  public synchronized int read4(final long pos) {
-    cursor(pos);
-    return read4();
+  public int read4(final long pos) {
+    final Reader r = reader();
+    if(r != null) return r.read4(pos);
+    synchronized(this) {
+      return shared.read4(pos);
+    }
   }
 
   /**
    * Reads an integer value.
    * @return integer value
    */
-  public synchronized int read4() {
-    return (read() << 24) + (read() << 16) + (read() << 8) + read();
+  public int read4() {
+    final Reader r = reader();
+    if(r != null) return r.read4();
+    synchronized(this) {
+      return shared.read4();
+    }
   }
 
   /**
@@ -133,17 +210,24 @@ public final class DataAccess implements Closeable {
    * @param pos position
    * @return long value
    */
-  public synchronized long read5(final long pos) {
-    cursor(pos);
-    return read5();
+  public long read5(final long pos) {
+    final Reader r = reader();
+    if(r != null) return r.read5(pos);
+    synchronized(this) {
+      return shared.read5(pos);
+    }
   }
 
   /**
    * Reads a 5-byte value.
    * @return long value
    */
-  public synchronized long read5() {
-    return ((long) read() << 32) + ((long) read() << 24) + (read() << 16) + (read() << 8) + read();
+  public long read5() {
+    final Reader r = reader();
+    if(r != null) return r.read5();
+    synchronized(this) {
+      return shared.read5();
+    }
   }
 
   /**
@@ -151,9 +235,12 @@ public final class DataAccess implements Closeable {
    * @param p text position
    * @return read num
    */
-  public synchronized int readNum(final long p) {
-    cursor(p);
-    return readNum();
+  public int readNum(final long p) {
+    final Reader r = reader();
+    if(r != null) return r.readNum(p);
+    synchronized(this) {
+      return shared.readNum(p);
+    }
   }
 
   /**
@@ -161,18 +248,24 @@ public final class DataAccess implements Closeable {
    * @param p text position
    * @return text as byte array
    */
-  public synchronized byte[] readToken(final long p) {
-    cursor(p);
-    return readToken();
+  public byte[] readToken(final long p) {
+    final Reader r = reader();
+    if(r != null) return r.readToken(p);
+    synchronized(this) {
+      return shared.readToken(p);
+    }
   }
 
   /**
    * Reads the next token from disk.
    * @return text as byte array
    */
-  public synchronized byte[] readToken() {
-    final int l = readNum();
-    return readBytes(l);
+  public byte[] readToken() {
+    final Reader r = reader();
+    if(r != null) return r.readToken();
+    synchronized(this) {
+      return shared.readToken();
+    }
   }
 
   /**
@@ -181,9 +274,12 @@ public final class DataAccess implements Closeable {
    * @param len length
    * @return byte array
    */
-  public synchronized byte[] readBytes(final long pos, final int len) {
-    cursor(pos);
-    return readBytes(len);
+  public byte[] readBytes(final long pos, final int len) {
+    final Reader r = reader();
+    if(r != null) return r.readBytes(pos, len);
+    synchronized(this) {
+      return shared.readBytes(pos, len);
+    }
   }
 
   /**
@@ -191,21 +287,12 @@ public final class DataAccess implements Closeable {
    * @param len length
    * @return byte array
    */
-  public synchronized byte[] readBytes(final int len) {
-    int l = len, ll = IO.BLOCKSIZE - off;
-    final byte[] b = new byte[l];
-    Array.copyToStart(buffer(false).data, off, Math.min(l, ll), b);
-    if(l > ll) {
-      l -= ll;
-      while(l > IO.BLOCKSIZE) {
-        Array.copyFromStart(buffer(true).data, IO.BLOCKSIZE, b, ll);
-        ll += IO.BLOCKSIZE;
-        l -= IO.BLOCKSIZE;
-      }
-      Array.copyFromStart(buffer(true).data, l, b, ll);
+  public byte[] readBytes(final int len) {
+    final Reader r = reader();
+    if(r != null) return r.readBytes(len);
+    synchronized(this) {
+      return shared.readBytes(len);
     }
-    off += l;
-    return b;
   }
 
   /**
@@ -213,37 +300,19 @@ public final class DataAccess implements Closeable {
    * @param pos read position
    */
   public void cursor(final long pos) {
-    off = (int) (pos & IO.BLOCKSIZE - 1);
-    final long b = pos - off;
-    if(!bm.cursor(b)) return;
-
-    final Buffer bf = bm.current();
-    try {
-      if(bf.dirty) writeBlock(bf);
-      bf.pos = b;
-      raf.seek(bf.pos);
-      if(bf.pos < raf.length())
-        raf.readFully(bf.data, 0, (int) Math.min(length - bf.pos, IO.BLOCKSIZE));
-    } catch(final IOException ex) {
-      Util.stack(ex);
-    }
+    final Reader r = reader();
+    (r != null ? r : shared).cursor(pos);
   }
 
   /**
    * Reads the next compressed number and returns it as integer.
    * @return next integer
    */
-  public synchronized int readNum() {
-    final int value = read();
-    switch(value & 0xC0) {
-    case 0:
-      return value;
-    case 0x40:
-      return (value - 0x40 << 8) + read();
-    case 0x80:
-      return (value - 0x80 << 24) + (read() << 16) + (read() << 8) + read();
-    default:
-      return (read() << 24) + (read() << 16) + (read() << 8) + read();
+  public int readNum() {
+    final Reader r = reader();
+    if(r != null) return r.readNum();
+    synchronized(this) {
+      return shared.readNum();
     }
   }
 
@@ -253,7 +322,8 @@ public final class DataAccess implements Closeable {
    * @param value value to be written
    */
   public void write5(final long pos, final long value) {
-    cursor(pos);
+    modify();
+    shared.cursor(pos);
     write((byte) (value >>> 32));
     write((byte) (value >>> 24));
     write((byte) (value >>> 16));
@@ -267,7 +337,8 @@ public final class DataAccess implements Closeable {
    * @param value byte array to be appended
    */
   public void write4(final long pos, final int value) {
-    cursor(pos);
+    modify();
+    shared.cursor(pos);
     write4(value);
   }
 
@@ -276,6 +347,7 @@ public final class DataAccess implements Closeable {
    * @param value value to be written
    */
   public void write4(final int value) {
+    modify();
     write(value >>> 24);
     write(value >>> 16);
     write(value >>>  8);
@@ -287,6 +359,7 @@ public final class DataAccess implements Closeable {
    * @param value number to be appended
    */
   public void writeNum(final int value) {
+    modify();
     if(value < 0 || value > 0x3FFFFFFF) {
       write(0xC0); write(value >>> 24); write(value >>> 16); write(value >>> 8); write(value);
     } else if(value > 0x3FFF) {
@@ -306,18 +379,20 @@ public final class DataAccess implements Closeable {
    * @param len token length
    */
   public void writeBytes(final byte[] buffer, final int offset, final int len) {
+    modify();
+    final Cursor c = shared;
     final int last = offset + len;
     int o = offset;
 
     while(o < last) {
-      final Buffer bf = buffer();
-      final int l = Math.min(last - o, IO.BLOCKSIZE - off);
-      Array.copy(buffer, o, l, bf.data, off);
-      bf.dirty = true;
-      off += l;
+      c.block();
+      final int l = Math.min(last - o, IO.BLOCKSIZE - c.off);
+      Array.copy(buffer, o, l, c.data, c.off);
+      bm.current().dirty = true;
+      c.off += l;
       o += l;
       // adjust file size
-      final long nl = bf.pos + off;
+      final long nl = c.pos + c.off;
       if(nl > length) length(nl);
     }
   }
@@ -328,8 +403,10 @@ public final class DataAccess implements Closeable {
    * @param values byte array to be appended
    */
   public void writeToken(final long pos, final byte[] values) {
-    cursor(pos);
-    writeToken(values, 0, values.length);
+    modify();
+    shared.cursor(pos);
+    writeNum(values.length);
+    writeBytes(values, 0, values.length);
   }
 
   /**
@@ -340,12 +417,14 @@ public final class DataAccess implements Closeable {
    * @return new offset to store text
    */
   public long free(final long pos, final int size) {
+    modify();
+    final Cursor c = shared;
     // old text size (available space)
-    int os = readNum(pos) + (int) (cursor() - pos);
+    int os = c.readNum(pos) + (int) (c.cursor() - pos);
 
     // extend available space by subsequent zero-bytes
-    cursor(pos + os);
-    for(; pos + os < length && os < size && read() == 0xFF; os++);
+    c.cursor(pos + os);
+    for(; pos + os < length && os < size && c.read() == 0xFF; os++);
 
     long o = pos;
     if(pos + os == length) {
@@ -356,13 +435,13 @@ public final class DataAccess implements Closeable {
       if(os < size) {
         // gap is too small for new entry...
         // reset cursor to overwrite entry
-        cursor(pos);
+        c.cursor(pos);
         t = 0;
         // place new entry after last entry
         o = length;
       } else {
         // gap is large enough: set cursor to overwrite remaining bytes
-        cursor(pos + size);
+        c.cursor(pos + size);
       }
       // fill gap with 0xFF for future updates
       while(t++ < os) write(0xFF);
@@ -384,64 +463,373 @@ public final class DataAccess implements Closeable {
   // PRIVATE METHODS ==============================================================================
 
   /**
-   * Reads the next byte.
-   * @return next byte
+   * Returns the reader of the current thread, or {@code null} if buffered changes exist.
+   * @return reader or {@code null}
    */
-  private int read() {
-    final Buffer bf = buffer();
-    return bf.data[off++] & 0xFF;
+  private Reader reader() {
+    if(dirty) return null;
+    Reader r = readers.get();
+    if(r == null) {
+      r = new Reader(channel, blocks, prefetcher);
+      synchronized(created) {
+        created.add(r);
+      }
+      readers.set(r);
+    }
+    final int v = version;
+    if(r.version != v) r.reset(v, shared, length);
+    return r;
   }
 
   /**
-   * Writes the next byte.
-   * @param value byte to be written
+   * Prepares a write operation. If no changes have been buffered yet, the position of the
+   * current thread's reader is adopted, and all thread-local readers are invalidated.
    */
-  private void write(final int value) {
-    final Buffer bf = buffer();
-    bf.dirty = true;
-    bf.data[off++] = (byte) value;
-    final long nl = bf.pos + off;
-    if(nl > length) length(nl);
+  private void modify() {
+    if(dirty) return;
+    final Reader r = reader();
+    if(r != null && r.valid) shared.cursor(r.cursor());
+    dirty = true;
+    version++;
   }
 
   /**
-   * Write a token to the file.
-   * @param buffer buffer containing the token
-   * @param offset offset in the buffer where the token starts
-   * @param len token length
+   * Writes the next byte.
+   * @param value byte to be written
    */
-  private void writeToken(final byte[] buffer, final int offset, final int len) {
-    writeNum(len);
-    writeBytes(buffer, offset, len);
+  private void write(final int value) {
+    final Cursor c = shared;
+    c.block();
+    bm.current().dirty = true;
+    c.data[c.off++] = (byte) value;
+    final long nl = c.pos + c.off;
+    if(nl > length) length(nl);
   }
 
   /**
-   * Writes the specified block to disk.
+   * Writes the specified block to disk and resets the dirty flag.
+   * The file pointer is not changed, as the method may be called by other threads
+   * (see {@link BufferPool}).
    * @param buffer buffer to write
    * @throws IOException I/O exception
    */
   private void writeBlock(final Buffer buffer) throws IOException {
-    final long pos = buffer.pos, len = Math.min(IO.BLOCKSIZE, length - pos);
-    raf.seek(pos);
-    raf.write(buffer.data, 0, (int) len);
+    if(!buffer.dirty) return;
+
+    long pos = buffer.pos;
+    final int len = (int) Math.min(IO.BLOCKSIZE, length - pos);
+    if(blocks != null) {
+      blocks.write(channel, pos, buffer.data, Math.max(0, len));
+      buffer.dirty = false;
+      return;
+    }
+    final ByteBuffer bb = ByteBuffer.wrap(buffer.data, 0, Math.max(0, len));
+    while(bb.hasRemaining()) pos += channel.write(bb, pos);
     buffer.dirty = false;
   }
 
   /**
-   * Returns a buffer which can be used for writing new bytes.
-   * @return buffer
-   */
-  private Buffer buffer() {
-    return buffer(off == IO.BLOCKSIZE);
+   * Cursor on the blocks of the file.
+   */
+  private abstract static class Cursor {
+    /** Contents of the current block. */
+    byte[] data;
+    /** Position of the current block. */
+    long pos;
+    /** Offset in the current block. */
+    int off;
+    /** Indicates if the current block has been loaded. */
+    boolean valid;
+
+    /**
+     * Loads the block at the specified position and assigns its contents.
+     * @param p block position
+     */
+    abstract void load(long p);
+
+    /**
+     * Sets the cursor.
+     * @param p file position
+     */
+    final void cursor(final long p) {
+      off = (int) (p & IO.BLOCKSIZE - 1);
+      final long b = p - off;
+      if(!valid || b != pos) {
+        load(b);
+        pos = b;
+        valid = true;
+      }
+    }
+
+    /**
+     * Returns the cursor position.
+     * @return file position
+     */
+    final long cursor() {
+      return pos + off;
+    }
+
+    /**
+     * Ensures that the current block is loaded and can be accessed at the current offset.
+     */
+    final void block() {
+      if(!valid || off == IO.BLOCKSIZE) cursor(pos + off);
+    }
+
+    /**
+     * Reads the next byte.
+     * @return next byte
+     */
+    final int read() {
+      block();
+      return data[off++] & 0xFF;
+    }
+
+    /**
+     * Reads a byte value from the specified position.
+     * @param p position
+     * @return byte value
+     */
+    final byte read1(final long p) {
+      cursor(p);
+      return (byte) read();
+    }
+
+    /**
+     * Reads an integer value from the specified position.
+     * @param p position
+     * @return integer value
+     */
+    final int read4(final long p) {
+      cursor(p);
+      return read4();
+    }
+
+    /**
+     * Reads an integer value.
+     * @return integer value
+     */
+    final int read4() {
+      return (read() << 24) + (read() << 16) + (read() << 8) + read();
+    }
+
+    /**
+     * Reads a 5-byte value from the specified position.
+     * @param p position
+     * @return long value
+     */
+    final long read5(final long p) {
+      cursor(p);
+      return read5();
+    }
+
+    /**
+     * Reads a 5-byte value.
+     * @return long value
+     */
+    final long read5() {
+      return ((long) read() << 32) + ((long) read() << 24) + (read() << 16) + (read() << 8) +
+          read();
+    }
+
+    /**
+     * Reads a {@link Num} value from the specified position.
+     * @param p position
+     * @return number
+     */
+    final int readNum(final long p) {
+      cursor(p);
+      return readNum();
+    }
+
+    /**
+     * Reads the next compressed number and returns it as integer.
+     * @return next integer
+     */
+    final int readNum() {
+      final int value = read();
+      switch(value & 0xC0) {
+      case 0:
+        return value;
+      case 0x40:
+        return (value - 0x40 << 8) + read();
+      case 0x80:
+        return (value - 0x80 << 24) + (read() << 16) + (read() << 8) + read();
+      default:
+        return (read() << 24) + (read() << 16) + (read() << 8) + read();
+      }
+    }
+
+    /**
+     * Reads a token from the specified position.
+     * @param p position
+     * @return token
+     */
+    final byte[] readToken(final long p) {
+      cursor(p);
+      return readToken();
+    }
+
+    /**
+     * Reads the next token.
+     * @return token
+     */
+    final byte[] readToken() {
+      return readBytes(readNum());
+    }
+
+    /**
+     * Reads a number of bytes from the specified position.
+     * @param p position
+     * @param len length
+     * @return byte array
+     */
+    final byte[] readBytes(final long p, final int len) {
+      cursor(p);
+      return readBytes(len);
+    }
+
+    /**
+     * Reads a number of bytes.
+     * @param len length
+     * @return byte array
+     */
+    final byte[] readBytes(final int len) {
+      final byte[] bytes = new byte[len];
+      int o = 0;
+      while(o < len) {
+        block();
+        final int l = Math.min(len - o, IO.BLOCKSIZE - off);
+        Array.copy(data, off, l, bytes, o);
+        off += l;
+        o += l;
+      }
+      return bytes;
+    }
   }
 
   /**
-   * Returns the current or next buffer.
-   * @param next next block
-   * @return buffer
+   * Shared cursor, operating on the buffers of the buffer pool.
    */
-  private Buffer buffer(final boolean next) {
-    if(next) cursor(bm.current().pos + IO.BLOCKSIZE);
-    return bm.current();
+  private final class Shared extends Cursor {
+    /** Decompressor (only assigned if blocks are compressed). */
+    private Inflater inflater;
+
+    /**
+     * Releases the decompressor.
+     */
+    void close() {
+      if(inflater != null) inflater.end();
+      inflater = null;
+    }
+
+    @Override
+    void load(final long p) {
+      try {
+        if(bm.cursor(p)) {
+          if(blocks != null) {
+            if(inflater == null) inflater = new Inflater();
+            blocks.read(channel, p, bm.current().data, inflater);
+          } else {
+            raf.seek(p);
+            if(p < raf.length()) {
+              prefetcher.access(p);
+              raf.readFully(bm.current().data, 0, (int) Math.min(length - p, IO.BLOCKSIZE));
+            }
+          }
+        }
+      } catch(final IOException ex) {
+        Util.stack(ex);
+      }
+      data = bm.current().data;
+    }
+  }
+
+  /**
+   * Thread-local reader with a private block, which is loaded via positional reads.
+   * The reader does not reference its file instance: otherwise, the entries of the thread-local
+   * maps could never be expunged after the instance has been discarded.
+   */
+  private static final class Reader extends Cursor {
+    /** Version of the file when the block was loaded. */
+    int version = -1;
+    /** File channel ({@code null} if the file has been closed). */
+    private Channel channel;
+    /** Compressed blocks (can be {@code null}). */
+    private CompressedBlocks blocks;
+    /** Read-ahead for sequential block accesses. */
+    private Prefetcher prefetcher;
+    /** File length. */
+    private long length;
+    /** Decompressor (only assigned if blocks are compressed). */
+    private Inflater inflater;
+
+    /**
+     * Constructor.
+     * @param channel file channel
+     * @param blocks compressed blocks (can be {@code null})
+     * @param prefetcher read-ahead
+     */
+    Reader(final Channel channel, final CompressedBlocks blocks, final Prefetcher prefetcher) {
+      this.channel = channel;
+      this.blocks = blocks;
+      this.prefetcher = prefetcher;
+    }
+
+    /**
+     * Invalidates the block and adopts the position of the shared cursor.
+     * @param v current version
+     * @param shared shared cursor
+     * @param len current file length
+     */
+    void reset(final int v, final Cursor shared, final long len) {
+      version = v;
+      valid = false;
+      pos = shared.pos;
+      off = shared.off;
+      length = len;
+    }
+
+    /**
+     * Releases the decompressor and the references to the file.
+     * The current block remains accessible until another block is chosen.
+     */
+    void close() {
+      if(inflater != null) inflater.end();
+      inflater = null;
+      channel = null;
+      blocks = null;
+      prefetcher = null;
+    }
+
+    @Override
+    void load(final long p) {
+      if(data == null) data = new byte[IO.BLOCKSIZE];
+      if(channel == null) {
+        Util.stack(new ClosedChannelException());
+        return;
+      }
+      if(blocks != null) {
+        if(inflater == null) inflater = new Inflater();
+        try {
+          blocks.read(channel, p, data, inflater);
+        } catch(final IOException ex) {
+          Util.stack(ex);
+        }
+        return;
+      }
+      final int len = (int) Math.min(length - p, IO.BLOCKSIZE);
+      final ByteBuffer bb = ByteBuffer.wrap(data, 0, Math.max(0, len));
+      prefetcher.access(p);
+      try {
+        for(long o = p; bb.hasRemaining();) {
+          final int n = channel.read(bb, o);
+          if(n == -1) break;
+          o += n;
+        }
+      } catch(final IOException ex) {
+        Util.stack(ex);
+      }
+    }
   }
 }
@@ -0,0 +1,101 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.nio.*;
+import java.util.concurrent.*;
+
+import org.basex.io.*;
+import org.basex.util.*;
+
+/**
+ * This class detects sequential block accesses on a file and reads the subsequent blocks
+ * in the background. The read blocks are discarded: the read-ahead only serves to populate
+ * the page cache of the operating system, which will then serve the synchronous read
+ * operations of the file owner.
+ *
+ * The number of blocks to be read ahead is specified via
+ * {@link org.basex.core.StaticOptions#PREFETCH}.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class Prefetcher {
+  /** Background reader (shared by all files; pending requests are dropped if it is busy). */
+  private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(1, 1,
+      0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(64), r -> {
+        final Thread thread = new Thread(r, "Prefetcher");
+        thread.setDaemon(true);
+        return thread;
+      }, new ThreadPoolExecutor.DiscardPolicy());
+  /** Number of blocks to be read ahead ({@code 0}: no read-ahead). */
+  private static volatile int blocks = 32;
+
+  /** File channel. */
+  private final Channel channel;
+  /** Position of the last accessed block. */
+  private long last = -1;
+  /** Position after the last block that has been requested for read-ahead. */
+  private long ahead;
+
+  /**
+   * Constructor.
+   * @param channel file channel
+   */
+  Prefetcher(final Channel channel) {
+    this.channel = channel;
+  }
+
+  /**
+   * Assigns the number of blocks to be read ahead.
+   * @param max number of blocks ({@code 0}: disable read-ahead)
+   */
+  public static void blocks(final int max) {
+    blocks = Math.max(0, max);
+  }
+
+  /**
+   * Returns the number of blocks to be read ahead.
+   * @return number of blocks
+   */
+  public static int blocks() {
+    return blocks;
+  }
+
+  /**
+   * Registers the synchronous read of a block. If the block directly follows the last
+   * block, and if less than half of the read-ahead window is left, subsequent blocks will
+   * be read in the background.
+   * @param pos file position of the block
+   */
+  synchronized void access(final long pos) {
+    final int b = blocks;
+    final boolean seq = pos == last + IO.BLOCKSIZE;
+    last = pos;
+    if(b == 0 || !seq) return;
+
+    final long window = (long) b * IO.BLOCKSIZE, start = Math.max(ahead, pos + IO.BLOCKSIZE);
+    if(start - pos > window / 2) return;
+
+    final long end = pos + window;
+    ahead = end;
+    EXECUTOR.execute(() -> read(start, end));
+  }
+
+  /**
+   * Reads the specified range of the file.
+   * @param start start position
+   * @param end end position
+   */
+  private void read(final long start, final long end) {
+    final ByteBuffer bb = ByteBuffer.allocate(IO.BLOCKSIZE);
+    try {
+      for(long pos = start; pos < end; pos += IO.BLOCKSIZE) {
+        bb.clear();
+        if(channel.read(bb, pos) == -1) break;
+      }
+    } catch(final IOException ex) {
+      // file may have been closed in the meantime: read-ahead is optional
+      Util.debug(ex);
+    }
+  }
+}
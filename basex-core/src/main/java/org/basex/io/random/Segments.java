@@ -0,0 +1,82 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.channels.FileChannel.*;
+
+import org.basex.io.*;
+
+/**
+ * This class provides read-only, memory-mapped access to a file.
+ * The file is split into segments, each of which is mapped by a separate buffer.
+ * As the segment size is a multiple of {@link IO#BLOCKSIZE}, a table entry will never
+ * span two segments.
+ *
+ * Absolute reads do not change the state of the buffers. Instances of this class can
+ * thus be accessed by multiple threads without synchronization.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+final class Segments {
+  /** Power of segment size. */
+  private static final int POWER = 30;
+  /** Segment size. */
+  private static final int SIZE = 1 << POWER;
+  /** Mapped segments. */
+  private final MappedByteBuffer[] buffers;
+
+  /**
+   * Constructor, mapping the current contents of the specified channel.
+   * @param channel file channel
+   * @throws IOException I/O exception
+   */
+  Segments(final FileChannel channel) throws IOException {
+    final long length = channel.size();
+    final int size = (int) (length + SIZE - 1 >>> POWER);
+    buffers = new MappedByteBuffer[size];
+    for(int s = 0; s < size; s++) {
+      final long pos = (long) s << POWER;
+      buffers[s] = channel.map(MapMode.READ_ONLY, pos, Math.min(SIZE, length - pos));
+    }
+  }
+
+  /**
+   * Reads a byte value from the specified position.
+   * @param pos file position
+   * @return byte value
+   */
+  int read1(final long pos) {
+    return buffers[(int) (pos >>> POWER)].get((int) pos & SIZE - 1) & 0xFF;
+  }
+
+  /**
+   * Reads a short value from the specified position.
+   * @param pos file position
+   * @return integer value
+   */
+  int read2(final long pos) {
+    return buffers[(int) (pos >>> POWER)].getShort((int) pos & SIZE - 1) & 0xFFFF;
+  }
+
+  /**
+   * Reads an integer value from the specified position.
+   * @param pos file position
+   * @return integer value
+   */
+  int read4(final long pos) {
+    return buffers[(int) (pos >>> POWER)].getInt((int) pos & SIZE - 1);
+  }
+
+  /**
+   * Reads a 5-byte value from the specified position.
+   * @param pos file position
+   * @return long value
+   */
+  long read5(final long pos) {
+    final ByteBuffer bb = buffers[(int) (pos >>> POWER)];
+    final int o = (int) pos & SIZE - 1;
+    return ((long) (bb.get(o) & 0xFF) << 32) + (bb.getInt(o + 1) & 0xFFFFFFFFL);
+  }
+}
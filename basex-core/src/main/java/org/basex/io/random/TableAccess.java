@@ -71,6 +71,17 @@ public abstract class TableAccess {
    */
   public abstract int read4(int p, int o);
 
+  /**
+   * Reads integer values of consecutive entries.
+   * @param p pre value of the first entry
+   * @param o offset
+   * @param values array for the read values
+   * @param n number of entries
+   */
+  public void read4(final int p, final int o, final int[] values, final int n) {
+    for(int i = 0; i < n; i++) values[i] = read4(p + i, o);
+  }
+
   /**
    * Reads a 5-byte value and returns it as a long value.
    * @param p pre value
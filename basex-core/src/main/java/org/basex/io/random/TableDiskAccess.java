@@ -3,6 +3,7 @@ package org.basex.io.random;
 import static org.basex.data.DataText.*;
 
 import java.io.*;
+import java.nio.*;
 import java.nio.channels.*;
 import java.util.*;
 
@@ -15,6 +16,8 @@ import org.basex.util.*;
 
 /**
  * This class stores the table on disk and reads it page-wise.
+ * If {@link MetaData#mmap} is enabled, the table file will be memory-mapped while no updates
+ * take place, and read operations will be performed without buffering and synchronization.
  *
  * @author BaseX Team 2005-19, BSD License
  * @author Christian Gruen
@@ -22,13 +25,17 @@ import org.basex.util.*;
  */
 public final class TableDiskAccess extends TableAccess {
   /** Buffer manager. */
-  private final Buffers bm = new Buffers();
+  private final Buffers bm = new Buffers(this::write);
   /** File storing all pages. */
   private final RandomAccessFile file;
+  /** Read-ahead for sequential page accesses. */
+  private final Prefetcher prefetcher;
   /** Bitmap storing free (=0) and used (=1) pages. */
   private BitArray usedPages;
   /** File lock. */
   private FileLock fl;
+  /** Memory-mapped segments (can be {@code null}). */
+  private volatile Segments segments;
 
   /** First pre values (ascending order); will be initialized with the first update. */
   private int[] fPreIndex;
@@ -76,7 +83,9 @@ public final class TableDiskAccess extends TableAccess {
 
     // initialize data file
     file = new RandomAccessFile(meta.dbfile(DATATBL).file(), "rw");
+    prefetcher = new Prefetcher(new Channel(file.getChannel()));
     if(!lock(write)) throw new BaseXException(Text.DB_PINNED_X, md.name);
+    if(!write) map();
   }
 
   /**
@@ -99,7 +108,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public synchronized void flush(final boolean all) throws IOException {
-    for(final Buffer b : bm.all()) write(b);
+    bm.flush();
     if(!dirty || !all) return;
 
     try(DataOutput out = new DataOutput(meta.dbfile(DATATBL + 'i'))) {
@@ -119,7 +128,9 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public synchronized void close() throws IOException {
+    segments = null;
     flush(true);
+    bm.close();
     file.close();
   }
 
@@ -131,40 +142,80 @@ public final class TableDiskAccess extends TableAccess {
         fl.release();
       }
       fl = file.getChannel().tryLock(0, Long.MAX_VALUE, !write);
-      return fl != null;
+      if(fl == null) return false;
+      // updates are performed on buffered pages; mapped segments are recreated afterwards
+      if(write) segments = null;
+      else map();
+      return true;
     } catch(final IOException ex) {
       throw Util.notExpected(ex);
     }
   }
 
   @Override
-  public synchronized int read1(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
-    return b[o] & 0xFF;
+  public int read1(final int pre, final int off) {
+    final Segments sgm = segments;
+    if(sgm != null) return sgm.read1(position(pre) + off);
+    synchronized(this) {
+      final int o = off + cursor(pre);
+      final byte[] b = bm.current().data;
+      return b[o] & 0xFF;
+    }
   }
 
   @Override
-  public synchronized int read2(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
-    return ((b[o] & 0xFF) << 8) + (b[o + 1] & 0xFF);
+  public int read2(final int pre, final int off) {
+    final Segments sgm = segments;
+    if(sgm != null) return sgm.read2(position(pre) + off);
+    synchronized(this) {
+      final int o = off + cursor(pre);
+      final byte[] b = bm.current().data;
+      return ((b[o] & 0xFF) << 8) + (b[o + 1] & 0xFF);
+    }
   }
 
   @Override
-  public synchronized int read4(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
-    return ((b[o] & 0xFF) << 24) + ((b[o + 1] & 0xFF) << 16) +
-      ((b[o + 2] & 0xFF) << 8) + (b[o + 3] & 0xFF);
+  public int read4(final int pre, final int off) {
+    final Segments sgm = segments;
+    if(sgm != null) return sgm.read4(position(pre) + off);
+    synchronized(this) {
+      final int o = off + cursor(pre);
+      final byte[] b = bm.current().data;
+      return ((b[o] & 0xFF) << 24) + ((b[o + 1] & 0xFF) << 16) +
+        ((b[o + 2] & 0xFF) << 8) + (b[o + 3] & 0xFF);
+    }
   }
 
   @Override
-  public synchronized long read5(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
-    return ((long) (b[o] & 0xFF) << 32) + ((long) (b[o + 1] & 0xFF) << 24) +
-      ((b[o + 2] & 0xFF) << 16) + ((b[o + 3] & 0xFF) << 8) + (b[o + 4] & 0xFF);
+  public void read4(final int pre, final int off, final int[] values, final int n) {
+    final Segments sgm = segments;
+    if(sgm != null) {
+      for(int i = 0; i < n; i++) values[i] = sgm.read4(position(pre + i) + off);
+      return;
+    }
+    // read all entries of a page at once
+    synchronized(this) {
+      for(int i = 0; i < n;) {
+        int o = off + cursor(pre + i);
+        final byte[] b = bm.current().data;
+        for(final int e = Math.min(n, nextPre - pre); i < e; i++, o += 1 << IO.NODEPOWER) {
+          values[i] = ((b[o] & 0xFF) << 24) + ((b[o + 1] & 0xFF) << 16) +
+            ((b[o + 2] & 0xFF) << 8) + (b[o + 3] & 0xFF);
+        }
+      }
+    }
+  }
+
+  @Override
+  public long read5(final int pre, final int off) {
+    final Segments sgm = segments;
+    if(sgm != null) return sgm.read5(position(pre) + off);
+    synchronized(this) {
+      final int o = off + cursor(pre);
+      final byte[] b = bm.current().data;
+      return ((long) (b[o] & 0xFF) << 32) + ((long) (b[o + 1] & 0xFF) << 24) +
+        ((b[o + 2] & 0xFF) << 16) + ((b[o + 3] & 0xFF) << 8) + (b[o + 4] & 0xFF);
+    }
   }
 
   @Override
@@ -412,6 +463,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   protected void dirty() {
+    segments = null;
     // initialize data structures required for performing updates
     if(fPreIndex == null) {
       fPreIndex = new int[pages];
@@ -435,6 +487,41 @@ public final class TableDiskAccess extends TableAccess {
 
   // PRIVATE METHODS ==============================================================================
 
+  /**
+   * Maps the table file to memory if this has been requested.
+   * All buffered pages will be written to disk before.
+   */
+  private synchronized void map() {
+    if(!meta.mmap || segments != null) return;
+    try {
+      bm.flush();
+      segments = new Segments(file.getChannel());
+    } catch(final IOException ex) {
+      // fall back to buffered access
+      Util.debug(ex);
+    }
+  }
+
+  /**
+   * Returns the file position of the entry with the specified pre value.
+   * In contrast to {@link #cursor(int)}, no state is changed.
+   * @param pre pre value
+   * @return file position
+   */
+  private long position(final int pre) {
+    final int[] fpres = fPreIndex;
+    // no page mapping: pages are stored in ascending order
+    if(fpres == null) return (long) pre << IO.NODEPOWER;
+
+    int l = 0, h = used - 1;
+    while(l < h) {
+      final int m = h + l + 1 >>> 1;
+      if(fpres[m] <= pre) l = m;
+      else h = m - 1;
+    }
+    return (long) pageIndex[l] * IO.BLOCKSIZE + (pre - fpres[l] << IO.NODEPOWER);
+  }
+
   /**
    * Searches for the page containing the entry for the specified pre value.
    * Reads the page and returns its offset inside the page.
@@ -499,16 +586,16 @@ public final class TableDiskAccess extends TableAccess {
    * @param p page to fetch
    */
   private void read(final int p) {
-    if(!bm.cursor(p)) return;
-
-    final Buffer bf = bm.current();
     try {
-      write(bf);
-      bf.pos = p;
+      if(!bm.cursor(p)) return;
+
+      final Buffer bf = bm.current();
       if(p >= pages) {
         pages = p + 1;
       } else {
-        file.seek(bf.pos * IO.BLOCKSIZE);
+        final long pos = bf.pos * IO.BLOCKSIZE;
+        prefetcher.access(pos);
+        file.seek(pos);
         file.readFully(bf.data);
       }
     } catch(final IOException ex) {
@@ -518,14 +605,18 @@ public final class TableDiskAccess extends TableAccess {
 
   /**
    * Writes the specified buffer to disk and resets the dirty flag.
+   * The file pointer is not changed, as the method may be called by other threads
+   * (see {@link BufferPool}).
    * @param bf buffer to write
    * @throws IOException I/O exception
    */
   private void write(final Buffer bf) throws IOException {
     if(!bf.dirty) return;
 
-    file.seek(bf.pos * IO.BLOCKSIZE);
-    file.write(bf.data);
+    final ByteBuffer bb = ByteBuffer.wrap(bf.data);
+    final FileChannel fc = file.getChannel();
+    long pos = bf.pos * IO.BLOCKSIZE;
+    while(bb.hasRemaining()) pos += fc.write(bb, pos);
     bf.dirty = false;
   }
 
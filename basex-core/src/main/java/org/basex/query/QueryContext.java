@@ -127,6 +127,15 @@ public final class QueryContext extends Job implements Closeable {
   /** Indicates if the default serialization parameters are used. */
   private boolean defaultOutput;
 
+  /** Cached query plan that is evaluated by this context (can be {@code null}). */
+  QueryPlan plan;
+  /** Values of the deferred external variables of a cached query plan (lazy instantiation). */
+  private HashMap<StaticVar, Value> deferred;
+  /** Indicates if static declarations are looked up at runtime (prevents caching of the plan). */
+  public boolean introspect;
+  /** Indicates if dynamic values have been pre-evaluated (prevents caching of the plan). */
+  public boolean dynamic;
+
   /** Indicates if the query has been compiled. */
   private boolean compiled;
   /** Indicates if the query context has been closed. */
@@ -247,6 +256,41 @@ public final class QueryContext extends Job implements Closeable {
     updating = rt.expr.has(Flag.UPD);
   }
 
+  /**
+   * Assigns a cached query plan, which will be evaluated by this context.
+   * @param qp query plan (can be {@code null})
+   */
+  void plan(final QueryPlan qp) {
+    if(plan != null) plan.release();
+    plan = qp;
+    root = qp != null ? qp.qc.root : null;
+    if(qp != null) info.query = qp.qc.info.query;
+  }
+
+  /**
+   * Assigns the value of a deferred external variable.
+   * @param var variable
+   * @param value value
+   */
+  public void deferred(final StaticVar var, final Value value) {
+    if(deferred == null) deferred = new HashMap<>();
+    deferred.put(var, value);
+  }
+
+  /**
+   * Returns the value of a deferred external variable.
+   * The values bound to the parent contexts will be considered as well.
+   * @param var variable
+   * @return value or {@code null}
+   */
+  public Value deferred(final StaticVar var) {
+    for(QueryContext qc = this; qc != null; qc = qc.parent) {
+      final Value value = qc.deferred != null ? qc.deferred.get(var) : null;
+      if(value != null) return value;
+    }
+    return null;
+  }
+
   /**
    * Compiles and optimizes the expression.
    * @throws QueryException query exception
@@ -278,6 +322,12 @@ public final class QueryContext extends Job implements Closeable {
       // set tail call option after assigning database options
       maxCalls = mopts.get(MainOptions.TAILCALLS);
 
+      // cached query plan: bind external variables, skip compilation
+      if(plan != null) {
+        plan.qc.vars.bindDeferred(this, bindings);
+        return;
+      }
+
       // bind external variables
       vars.bindExternal(this, bindings);
 
@@ -413,6 +463,12 @@ public final class QueryContext extends Job implements Closeable {
   public void addLocks() {
     final Locks locks = jc().locks;
     final LockList read = locks.reads, write = locks.writes;
+    // cached query plan: adopt the locks of the parsed query
+    if(plan != null) {
+      read.add(plan.locks.reads);
+      write.add(plan.locks.writes);
+      return;
+    }
     read.add(readLocks);
     write.add(writeLocks);
     // use global locking if referenced databases cannot be statically determined
@@ -527,8 +583,13 @@ public final class QueryContext extends Job implements Closeable {
    */
   public SerializerOptions serParams() {
     if(serParams == null) {
-      serParams = new SerializerOptions(context.options.get(MainOptions.SERIALIZER));
-      defaultOutput = root != null;
+      if(plan != null) {
+        serParams = new SerializerOptions(plan.qc.serParams());
+        defaultOutput = plan.qc.defaultOutput;
+      } else {
+        serParams = new SerializerOptions(context.options.get(MainOptions.SERIALIZER));
+        defaultOutput = root != null;
+      }
     }
     return serParams;
   }
@@ -580,6 +641,7 @@ public final class QueryContext extends Job implements Closeable {
   public void close() {
     if(closed) return;
     closed = true;
+    if(plan != null) plan.release();
     if(parent == null) {
       // topmost query: close resources (opened by compile step)
       resources.close();
@@ -0,0 +1,195 @@
+package org.basex.query;
+
+import static org.basex.util.Token.*;
+
+import org.basex.core.*;
+import org.basex.core.locks.*;
+import org.basex.core.users.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.util.*;
+
+/**
+ * Compiled query plan, which can be evaluated repeatedly by different query contexts.
+ * The external variables of the plan are bound by the evaluating contexts.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+final class QueryPlan {
+  /** Query context of the parsed and compiled query. */
+  final QueryContext qc;
+  /** Static context. */
+  final StaticContext sc;
+  /** Locks of the query. */
+  final Locks locks;
+  /** Cache key. */
+  final String key;
+
+  /** Paths to the imported modules. */
+  private IO[] modules;
+  /** Timestamps of the imported modules. */
+  private long[] times;
+  /** Databases opened at compile time. */
+  private Data[] datas;
+  /** Update counters of the databases. */
+  private int[] updates;
+  /** Number of query contexts that currently evaluate the plan. */
+  private int users = 1;
+  /** Indicates if the plan has been evicted from the cache. */
+  private boolean evicted;
+
+  /**
+   * Constructor. Parses the query.
+   * @param key cache key
+   * @param query query string
+   * @param uri base uri (can be {@code null})
+   * @param ctx database context
+   * @throws QueryException query exception
+   */
+  QueryPlan(final String key, final String query, final String uri, final Context ctx)
+      throws QueryException {
+    this.key = key;
+    qc = new QueryContext(ctx);
+    sc = new StaticContext(qc);
+    sc.baseURI(uri);
+    try {
+      qc.parseMain(query, null, sc);
+      qc.addLocks();
+      locks = qc.jc().locks;
+    } catch(final QueryException ex) {
+      qc.close();
+      throw ex;
+    }
+  }
+
+  /**
+   * Checks if the parsed query can be cached. If yes, the binding of the external variables
+   * will be deferred to evaluation time.
+   * @return result of check
+   */
+  boolean cacheable() {
+    if(qc.updating || qc.ctxItem != null || !qc.options.isEmpty()) return false;
+
+    final int ms = qc.modParsed.size();
+    final IO[] ios = new IO[ms];
+    final long[] tms = new long[ms];
+    for(int m = 0; m < ms; m++) {
+      final byte[] path = qc.modParsed.key(m + 1);
+      if(path.length == 0) return false;
+      ios[m] = IO.get(string(path));
+      if(!(ios[m] instanceof IOFile)) return false;
+      tms[m] = ios[m].timeStamp();
+    }
+    if(!qc.vars.defer()) return false;
+    modules = ios;
+    times = tms;
+    return true;
+  }
+
+  /**
+   * Prepares the plan for being evaluated by the specified query context.
+   * If the plan has not been compiled yet, it will be compiled and added to the cache.
+   * Otherwise, it will be checked if the plan is still valid.
+   * @param eqc query context that will evaluate the plan (database locks must have been acquired)
+   * @param plans cached query plans
+   * @return {@code true} if the plan can be used
+   * @throws QueryException query exception
+   */
+  boolean prepare(final QueryContext eqc, final QueryPlans plans) throws QueryException {
+    if(datas == null) {
+      try {
+        qc.compile();
+      } catch(final QueryException ex) {
+        // the query may be compilable at a later time (e.g., if a database is created)
+        evict();
+        throw ex;
+      }
+      final Data[] data = qc.resources.cached();
+      if(data == null || qc.introspect || qc.dynamic || !qc.vars.shareable()) {
+        plans.uncacheable(key);
+        evict();
+        return false;
+      }
+      final int ds = data.length;
+      final int[] upd = new int[ds];
+      for(int d = 0; d < ds; d++) upd[d] = ((DiskData) data[d]).updates();
+      // assign serialization parameters before the plan is shared
+      qc.serParams();
+      datas = data;
+      updates = upd;
+      plans.put(this);
+    } else {
+      final Context ctx = eqc.context;
+      final int ds = datas.length;
+      for(int d = 0; d < ds; d++) {
+        final Data data = datas[d];
+        if(data.closed() || ((DiskData) data).updates() != updates[d] ||
+            !ctx.perm(Perm.READ, data.meta.name)) {
+          plans.remove(this);
+          return false;
+        }
+      }
+      eqc.info.compInfo(QueryText.OPTCACHED);
+    }
+    return true;
+  }
+
+  /**
+   * Checks if the imported modules have not been changed since the query was parsed.
+   * @return result of check
+   */
+  boolean valid() {
+    final int ms = modules.length;
+    for(int m = 0; m < ms; m++) {
+      if(modules[m].timeStamp() != times[m]) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Checks if the plan references the specified database.
+   * @param db name of database
+   * @return result of check
+   */
+  boolean references(final String db) {
+    for(final Data data : datas) {
+      if(Prop.CASE ? data.meta.name.equals(db) : data.meta.name.equalsIgnoreCase(db)) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Registers a query context that evaluates the plan.
+   * @return {@code false} if the plan has been evicted
+   */
+  synchronized boolean acquire() {
+    if(evicted) return false;
+    users++;
+    return true;
+  }
+
+  /**
+   * Unregisters a query context. Closes the plan if it has been evicted and is not used anymore.
+   */
+  void release() {
+    final boolean close;
+    synchronized(this) {
+      close = --users == 0 && evicted;
+    }
+    // close resources outside the monitor (databases will be unpinned)
+    if(close) qc.close();
+  }
+
+  /**
+   * Evicts the plan. Closes it if it is not used anymore.
+   */
+  void evict() {
+    final boolean close;
+    synchronized(this) {
+      close = !evicted && users == 0;
+      evicted = true;
+    }
+    if(close) qc.close();
+  }
+}
@@ -0,0 +1,155 @@
+package org.basex.query;
+
+import java.util.*;
+
+import org.basex.core.*;
+
+/**
+ * This class caches compiled query plans, which are reused by the evaluations of the same query
+ * string with the same static context. The least recently used plans are evicted first.
+ * Plans are discarded if imported modules or referenced databases are changed.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class QueryPlans {
+  /** Static options. */
+  private final StaticOptions sopts;
+  /** Cached plans, sorted by their last access ({@code null}: query cannot be cached). */
+  private final LinkedHashMap<String, QueryPlan> plans = new LinkedHashMap<>(16, 0.75f, true);
+
+  /**
+   * Constructor.
+   * @param sopts static options
+   */
+  public QueryPlans(final StaticOptions sopts) {
+    this.sopts = sopts;
+  }
+
+  /**
+   * Indicates if query plans are cached.
+   * @return result of check
+   */
+  boolean enabled() {
+    return sopts.get(StaticOptions.QUERYCACHE) > 0;
+  }
+
+  /**
+   * Returns a cached plan and registers a new user.
+   * @param key cache key
+   * @return plan, or {@code null} if no valid plan is cached
+   */
+  QueryPlan get(final String key) {
+    final QueryPlan plan;
+    synchronized(this) {
+      plan = plans.get(key);
+      if(plan == null) return null;
+      if(plan.valid() && plan.acquire()) return plan;
+      plans.remove(key);
+    }
+    plan.evict();
+    return null;
+  }
+
+  /**
+   * Checks if the query with the specified key may be cached.
+   * @param key cache key
+   * @return result of check
+   */
+  synchronized boolean cacheable(final String key) {
+    return !plans.containsKey(key) || plans.get(key) != null;
+  }
+
+  /**
+   * Caches a compiled plan. Evicts plans if the maximum number of entries is exceeded.
+   * @param plan plan
+   */
+  void put(final QueryPlan plan) {
+    final ArrayList<QueryPlan> evicted = new ArrayList<>(1);
+    synchronized(this) {
+      final QueryPlan old = plans.put(plan.key, plan);
+      if(old != plan) evicted.add(old);
+      trim(evicted);
+    }
+    evict(evicted);
+  }
+
+  /**
+   * Marks the query with the specified key as not cacheable.
+   * @param key cache key
+   */
+  void uncacheable(final String key) {
+    final ArrayList<QueryPlan> evicted = new ArrayList<>(1);
+    synchronized(this) {
+      evicted.add(plans.put(key, null));
+      trim(evicted);
+    }
+    evict(evicted);
+  }
+
+  /**
+   * Removes a plan from the cache.
+   * @param plan plan
+   */
+  void remove(final QueryPlan plan) {
+    synchronized(this) {
+      if(plans.get(plan.key) == plan) plans.remove(plan.key);
+    }
+    plan.evict();
+  }
+
+  /**
+   * Removes all plans that reference the specified database.
+   * @param db name of database
+   */
+  public void close(final String db) {
+    final ArrayList<QueryPlan> evicted = new ArrayList<>(1);
+    synchronized(this) {
+      final Iterator<QueryPlan> iter = plans.values().iterator();
+      while(iter.hasNext()) {
+        final QueryPlan plan = iter.next();
+        if(plan != null && plan.references(db)) {
+          evicted.add(plan);
+          iter.remove();
+        }
+      }
+    }
+    evict(evicted);
+  }
+
+  /**
+   * Removes all plans.
+   */
+  public void close() {
+    final ArrayList<QueryPlan> evicted;
+    synchronized(this) {
+      evicted = new ArrayList<>(plans.values());
+      plans.clear();
+    }
+    evict(evicted);
+  }
+
+  /**
+   * Removes the least recently used entries if the maximum number of entries is exceeded.
+   * @param evicted list for evicted plans
+   */
+  private void trim(final ArrayList<QueryPlan> evicted) {
+    final int max = sopts.get(StaticOptions.QUERYCACHE);
+    final Iterator<QueryPlan> iter = plans.values().iterator();
+    for(int s = plans.size(); s > max && iter.hasNext(); s--) {
+      evicted.add(iter.next());
+      iter.remove();
+    }
+  }
+
+  /**
+   * Evicts the specified plans. Called outside the monitor, as the closing of a plan
+   * unpins its databases.
+   * @param evicted evicted plans (may contain {@code null} entries)
+   */
+  private static void evict(final ArrayList<QueryPlan> evicted) {
+    for(final QueryPlan plan : evicted) {
+      if(plan != null) plan.evict();
+    }
+  }
+}
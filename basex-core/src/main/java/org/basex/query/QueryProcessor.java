@@ -13,6 +13,7 @@ import org.basex.query.util.*;
 import org.basex.query.value.*;
 import org.basex.query.value.node.*;
 import org.basex.query.value.seq.*;
+import org.basex.util.*;
 
 /**
  * This class is an entry point for evaluating XQuery strings.
@@ -31,8 +32,14 @@ public final class QueryProcessor extends Job implements Closeable {
   public final QueryContext qc;
   /** Query. */
   private final String query;
+  /** Base uri (can be {@code null}). */
+  private final String uri;
+  /** Indicates if a cached query plan may be used. */
+  private boolean cachePlan;
   /** Parsed flag. */
   private boolean parsed;
+  /** Compiled flag. */
+  private boolean compiled;
 
   /**
    * Default constructor.
@@ -51,11 +58,22 @@ public final class QueryProcessor extends Job implements Closeable {
    */
   public QueryProcessor(final String query, final String uri, final Context ctx) {
     this.query = query;
+    this.uri = uri;
     qc = pushJob(new QueryContext(ctx));
     sc = new StaticContext(qc);
     sc.baseURI(uri);
   }
 
+  /**
+   * Allows the processor to reuse a cached query plan, or to cache the compiled query.
+   * Query plans will only be cached if the {@link StaticOptions#QUERYCACHE} option is enabled.
+   * @return self reference
+   */
+  public QueryProcessor cachePlan() {
+    cachePlan = true;
+    return this;
+  }
+
   /**
    * Parses the query.
    * @throws QueryException query exception
@@ -63,7 +81,7 @@ public final class QueryProcessor extends Job implements Closeable {
   public void parse() throws QueryException {
     if(parsed) return;
     try {
-      qc.parseMain(query, null, sc);
+      if(!cached()) qc.parseMain(query, null, sc);
     } finally {
       parsed = true;
       updating = qc.updating;
@@ -76,9 +94,60 @@ public final class QueryProcessor extends Job implements Closeable {
    */
   public void compile() throws QueryException {
     parse();
+    if(!compiled) {
+      compiled = true;
+      final QueryPlan plan = qc.plan;
+      if(plan != null && (qc.ctxItem != null || !plan.prepare(qc, qc.context.plans))) {
+        // plan cannot be used: parse query
+        qc.plan(null);
+        qc.parseMain(query, null, sc);
+        updating = qc.updating;
+      }
+    }
     qc.compile();
   }
 
+  /**
+   * Assigns a cached query plan, or creates a new plan, if caching is enabled.
+   * @return {@code true} if a plan was assigned
+   */
+  private boolean cached() {
+    final Context ctx = qc.context;
+    final QueryPlans plans = ctx.plans;
+    if(!cachePlan || !plans.enabled() || ctx.data() != null ||
+        ctx.options.toMap(MainOptions.BINDINGS).containsKey("")) return false;
+
+    // the static context depends on the query, the base uri, the user and the options
+    final String key = query + '\0' + uri + '\0' + ctx.user().name() + '\0' + ctx.options;
+    QueryPlan plan = plans.get(key);
+    if(plan == null) {
+      if(!plans.cacheable(key)) return false;
+      try {
+        plan = new QueryPlan(key, query, uri, ctx);
+      } catch(final QueryException ex) {
+        // errors will be raised by the regular parser
+        Util.debug(ex);
+        return false;
+      }
+      if(!plan.cacheable()) {
+        plans.uncacheable(key);
+        plan.evict();
+        plan.release();
+        return false;
+      }
+    }
+    qc.plan(plan);
+    return true;
+  }
+
+  /**
+   * Returns the static context of the parsed query.
+   * @return static context
+   */
+  private StaticContext sc() {
+    return qc.plan != null ? qc.plan.sc : sc;
+  }
+
   /**
    * Returns a memory-efficient result iterator. In most cases, the query will only be fully
    * evaluated if all items of this iterator are requested.
@@ -86,7 +155,7 @@ public final class QueryProcessor extends Job implements Closeable {
    * @throws QueryException query exception
    */
   public Iter iter() throws QueryException {
-    parse();
+    compile();
     return qc.iter();
   }
 
@@ -108,7 +177,7 @@ public final class QueryProcessor extends Job implements Closeable {
    * @throws QueryException query exception
    */
   public Value cache(final int max) throws QueryException {
-    parse();
+    compile();
     return qc.cache(max);
   }
 
@@ -126,7 +195,7 @@ public final class QueryProcessor extends Job implements Closeable {
    */
   public QueryProcessor bind(final String name, final Object value, final String type)
       throws QueryException {
-    qc.bind(name, value, type, sc);
+    qc.bind(name, value, type, sc());
     return this;
   }
 
@@ -149,7 +218,7 @@ public final class QueryProcessor extends Job implements Closeable {
    * @throws QueryException query exception
    */
   public QueryProcessor bind(final String name, final Value value) throws QueryException {
-    qc.bind(name, value, sc);
+    qc.bind(name, value, sc());
     return this;
   }
 
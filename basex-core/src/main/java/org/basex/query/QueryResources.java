@@ -108,6 +108,20 @@ public final class QueryResources {
     inputs.clear();
   }
 
+  /**
+   * Returns the databases that have been opened at compile time if the compiled query
+   * can be cached, i.e., if it only references persistent databases and no other resources.
+   * @return databases or {@code null}
+   */
+  Data[] cached() {
+    if(!colls.isEmpty() || !collNames.isEmpty() || !external.isEmpty() || !inputs.isEmpty() ||
+        modules != null && modules.java()) return null;
+    for(final Data data : datas) {
+      if(data.inMemory()) return null;
+    }
+    return datas.toArray(new Data[0]);
+  }
+
   /**
    * Returns the globally opened database.
    * @return database or {@code null} if no database is globally opened
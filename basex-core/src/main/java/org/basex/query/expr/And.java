@@ -5,6 +5,7 @@ import static org.basex.query.QueryText.*;
 import java.util.function.*;
 
 import org.basex.query.*;
+import org.basex.query.expr.index.*;
 import org.basex.query.util.*;
 import org.basex.query.util.list.*;
 import org.basex.query.value.item.*;
@@ -128,7 +129,9 @@ public final class And extends Logical {
     // use summarized costs for estimation
     ii.costs = costs;
     // create intersection of all index requests
-    ii.expr = new Intersect(info, list.finish());
+    final Expr[] ops = list.finish();
+    final Expr merged = IndexMerge.get(info, false, ops);
+    ii.expr = merged != null ? merged : new Intersect(info, ops);
     return true;
   }
 
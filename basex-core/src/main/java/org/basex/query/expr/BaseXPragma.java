@@ -16,6 +16,8 @@ import org.basex.util.*;
 public final class BaseXPragma extends Pragma {
   /** Non-deterministic flag. */
   private final boolean ndt;
+  /** Parallel evaluation. */
+  final boolean parallel;
 
   /**
    * Constructor.
@@ -25,6 +27,7 @@ public final class BaseXPragma extends Pragma {
   public BaseXPragma(final QNm name, final byte[] value) {
     super(name, value);
     ndt = Token.eq(name.local(), Token.token(QueryText.NON_DETERMNISTIC));
+    parallel = Token.eq(name.local(), Token.token(QueryText.PARALLEL));
   }
 
   @Override
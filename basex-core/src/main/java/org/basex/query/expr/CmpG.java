@@ -3,6 +3,7 @@ package org.basex.query.expr;
 import static org.basex.query.QueryError.*;
 import static org.basex.query.QueryText.*;
 
+import org.basex.data.*;
 import org.basex.index.*;
 import org.basex.query.*;
 import org.basex.query.expr.CmpV.*;
@@ -182,8 +183,7 @@ public class CmpG extends Cmp {
         if(st1.zeroOrOne() && !st1.mayBeArray() && st2.zeroOrOne() && !st2.mayBeArray()) {
           // simple comparisons
           expr = new CmpSimpleG(expr1, expr2, op, coll, sc, info);
-        } else if(op == OpG.EQ && coll == null && (type1.isNumber() && type2.isNumber() ||
-            (type1.isStringOrUntyped() && type2.isStringOrUntyped())) && !st2.zeroOrOne()) {
+        } else if(hashable() && !st2.zeroOrOne()) {
           // hash-based comparisons
           expr = new CmpHashG(expr1, expr2, op, coll, sc, info);
         }
@@ -194,6 +194,17 @@ public class CmpG extends Cmp {
     return allAreValues(false) ? cc.preEval(expr) : cc.replaceWith(this, expr);
   }
 
+  /**
+   * Checks if the operands can be compared via hashing
+   * (equality check, no collation, numeric or string operands).
+   * @return result of check
+   */
+  public final boolean hashable() {
+    final Type type1 = exprs[0].seqType().type, type2 = exprs[1].seqType().type;
+    return op == OpG.EQ && coll == null && (type1.isNumber() && type2.isNumber() ||
+        type1.isStringOrUntyped() && type2.isStringOrUntyped());
+  }
+
   @Override
   public Expr optimizeEbv(final CompileContext cc) {
     // e.g.: exists(...) = true() -> exists(...)
@@ -204,6 +215,9 @@ public class CmpG extends Cmp {
 
   @Override
   public Bln item(final QueryContext qc, final InputInfo ii) throws QueryException {
+    final Item item = dictionaryItem();
+    if(item != null) return dictionary(exprs[0].iter(qc), item, qc);
+
     final Iter iter1 = exprs[0].atomIter(qc, info);
     final long size1 = iter1.size();
     if(size1 == 0) return Bln.FALSE;
@@ -268,6 +282,52 @@ public class CmpG extends Cmp {
 
   }
 
+  /**
+   * Returns the string that will be compared with the dictionary ids of database nodes
+   * (see {@link org.basex.data.MetaData#dictionary}).
+   * @return string item, or {@code null} if dictionary ids cannot be compared
+   */
+  final Item dictionaryItem() {
+    if(op != OpG.EQ || coll != null || !(exprs[0].seqType().type instanceof NodeType)) return null;
+    final Expr expr2 = exprs[1];
+    return expr2 instanceof Item && ((Item) expr2).type.isStringOrUntyped() ? (Item) expr2 : null;
+  }
+
+  /**
+   * Compares nodes with a string. If both the string value of a database node and the string
+   * are found in the value dictionary, their ids will be compared.
+   * @param iter node iterator
+   * @param item string item
+   * @param qc query context
+   * @return result of check
+   * @throws QueryException query exception
+   */
+  final Bln dictionary(final Iter iter, final Item item, final QueryContext qc)
+      throws QueryException {
+
+    Data data = null;
+    byte[] string = null;
+    int id = 0;
+    for(Item node; (node = qc.next(iter)) != null;) {
+      if(node instanceof DBNode) {
+        final DBNode dbnode = (DBNode) node;
+        final Data dt = dbnode.data();
+        final int nid = dt.dictionaryId(dbnode.pre());
+        if(nid != 0) {
+          if(dt != data) {
+            if(string == null) string = item.string(info);
+            data = dt;
+            id = dt.dictionaryId(string);
+          }
+          if(nid == id) return Bln.TRUE;
+          continue;
+        }
+      }
+      if(eval(node, item)) return Bln.TRUE;
+    }
+    return Bln.FALSE;
+  }
+
   /**
    * Compares a single item.
    * @param item1 first item to be compared
@@ -30,6 +30,9 @@ public final class CmpSimpleG extends CmpG {
 
   @Override
   public Bln item(final QueryContext qc, final InputInfo ii) throws QueryException {
+    final Item item = dictionaryItem();
+    if(item != null) return dictionary(exprs[0].iter(qc), item, qc);
+
     final Item item1 = exprs[0].item(qc, info);
     if(item1 == null) return Bln.FALSE;
     final Item item2 = exprs[1].item(qc, info);
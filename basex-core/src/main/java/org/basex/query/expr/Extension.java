@@ -3,6 +3,8 @@ package org.basex.query.expr;
 import static org.basex.query.QueryText.*;
 
 import org.basex.query.*;
+import org.basex.query.expr.gflwor.*;
+import org.basex.query.func.fn.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.*;
 import org.basex.query.value.*;
@@ -63,12 +65,28 @@ public final class Extension extends Single {
   public Value value(final QueryContext qc) throws QueryException {
     final Object state = pragma.init(qc, info);
     try {
-      return expr.value(qc);
+      return pragma instanceof BaseXPragma && ((BaseXPragma) pragma).parallel ? parallel(qc) :
+        expr.value(qc);
     } finally {
       pragma.finish(qc, state);
     }
   }
 
+  /**
+   * Evaluates the enclosed expression in parallel if it is a FLWOR expression, a simple map,
+   * or a call to {@code fn:for-each} or {@code fn:filter}.
+   * @param qc query context
+   * @return resulting value
+   * @throws QueryException query exception
+   */
+  private Value parallel(final QueryContext qc) throws QueryException {
+    if(expr instanceof GFLWOR) return ((GFLWOR) expr).parallel(qc);
+    if(expr instanceof SimpleMap) return ((SimpleMap) expr).parallel(qc);
+    if(expr instanceof FnForEach) return ((FnForEach) expr).parallel(qc);
+    if(expr instanceof FnFilter) return ((FnFilter) expr).parallel(qc);
+    return expr.value(qc);
+  }
+
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
     return copyType(new Extension(info, pragma.copy(), expr.copy(cc, vm)));
@@ -5,6 +5,7 @@ import static org.basex.query.QueryText.*;
 import java.util.function.*;
 
 import org.basex.query.*;
+import org.basex.query.expr.index.*;
 import org.basex.query.util.*;
 import org.basex.query.util.list.*;
 import org.basex.query.value.item.*;
@@ -100,7 +101,9 @@ public final class Or extends Logical {
     // use summarized costs for estimation
     ii.costs = costs;
     // no expressions means no costs: expression will later be pre-evaluated
-    ii.expr = list.size() == 1 ? list.get(0) : new Union(info, list.finish());
+    final Expr[] ops = list.finish();
+    final Expr merged = IndexMerge.get(info, true, ops);
+    ii.expr = ops.length == 1 ? ops[0] : merged != null ? merged : new Union(info, ops);
     return true;
   }
 
@@ -147,6 +147,45 @@ public abstract class SimpleMap extends Arr {
       this;
   }
 
+  /**
+   * Evaluates the map operator in parallel. The items of the first expression are split into
+   * chunks, which are processed by the tasks of the shared {@link QueryPool}. Subsequent steps
+   * that access the context position or size are evaluated sequentially.
+   * @param qc query context
+   * @return resulting value
+   * @throws QueryException query exception
+   */
+  public final Value parallel(final QueryContext qc) throws QueryException {
+    if(has(Flag.UPD)) return value(qc);
+
+    // subsequent steps can be evaluated per item if they do not access the position
+    final int el = exprs.length;
+    boolean pos = false;
+    for(int e = 2; e < el && !pos; e++) pos = exprs[e].has(Flag.POS);
+    final Expr[] steps = Arrays.copyOfRange(exprs, 1, el);
+    final Expr expr = el == 2 || pos ? steps[0] : new CachedMap(info, steps);
+
+    final Value value = exprs[0].value(qc);
+    final long size = value.size();
+    final Value result = QueryPool.eval(size, (start, end, tqc) -> {
+      final QueryFocus focus = tqc.focus;
+      focus.size = size;
+      final ValueBuilder vb = new ValueBuilder(tqc);
+      for(long i = start; i < end; i++) {
+        tqc.checkStop();
+        focus.value = value.itemAt(i);
+        focus.pos = i + 1;
+        vb.add(expr.value(tqc));
+      }
+      return vb.value();
+    }, qc);
+    if(el == 2 || !pos) return result;
+
+    // evaluate remaining steps sequentially
+    steps[0] = result;
+    return new CachedMap(info, steps).value(qc);
+  }
+
   @Override
   public final boolean has(final Flag... flags) {
     /* Context dependency: Only check first expression.
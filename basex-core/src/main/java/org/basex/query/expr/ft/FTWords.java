@@ -138,8 +138,7 @@ public final class FTWords extends FTExpr {
       public FTNode next() throws QueryException {
         if(ftiter == null) {
           final FTTokenizer ftt = FTWords.this.get(qc);
-          final FTLexer lexer = new FTLexer(ftOpt).
-              lserror(qc.context.options.get(MainOptions.LSERROR));
+          final FTLexer lexer = lexer(qc);
 
           // length distinct tokens
           int len = 0;
@@ -147,28 +146,9 @@ public final class FTWords extends FTExpr {
           for(final byte[] txt : unique(tokens != null ? tokens : tokens(qc))) {
             lexer.init(txt);
             if(!lexer.hasNext()) return null;
+            while(lexer.hasNext()) len += lexer.nextToken().length;
 
-            int d = 0;
-            FTIndexIterator ii = null;
-            final StopWords sw = ftOpt.sw;
-            do {
-              final byte[] tok = lexer.nextToken();
-              len += tok.length;
-              if(sw != null && sw.contains(tok)) {
-                ++d;
-              } else {
-                final FTIndexIterator iter = lexer.get().length > data.meta.maxlen ?
-                  scan(lexer, ftt, data) : (FTIndexIterator) data.iter(lexer);
-                iter.pos(++qc.ftPos);
-                if(ii == null) {
-                  ii = iter;
-                } else {
-                  ii = FTIndexIterator.intersect(ii, iter, ++d);
-                  d = 0;
-                }
-              }
-            } while(lexer.hasNext());
-
+            final FTIndexIterator ii = iter(lexer.init(txt), ftt, data, qc);
             if(ii != null) {
               // create or combine iterator
               if(ftiter == null) {
@@ -192,6 +172,71 @@ public final class FTWords extends FTExpr {
     };
   }
 
+  /**
+   * Returns index iterators for the distinct terms of the query. The iterators will not
+   * be combined, as it is done by {@link #iter(QueryContext)}.
+   * @param qc query context
+   * @return iterators, or {@code null} if a term contains no tokens
+   * @throws QueryException query exception
+   */
+  public FTIndexIterator[] iters(final QueryContext qc) throws QueryException {
+    final Data data = db.data(qc, IndexType.FULLTEXT);
+    final FTTokenizer ftt = get(qc);
+    final FTLexer lexer = lexer(qc);
+
+    final ArrayList<FTIndexIterator> list = new ArrayList<>();
+    for(final byte[] txt : unique(tokens != null ? tokens : tokens(qc))) {
+      lexer.init(txt);
+      if(!lexer.hasNext()) return null;
+      final FTIndexIterator ii = iter(lexer, ftt, data, qc);
+      if(ii != null) list.add(ii);
+    }
+    return list.toArray(new FTIndexIterator[0]);
+  }
+
+  /**
+   * Returns an index iterator for the tokens of a single query term.
+   * @param lexer lexer, initialized with the query term
+   * @param ftt full-text tokenizer
+   * @param data data reference
+   * @param qc query context
+   * @return iterator, or {@code null} if the term only consists of stop words
+   * @throws QueryException query exception
+   */
+  private FTIndexIterator iter(final FTLexer lexer, final FTTokenizer ftt, final Data data,
+      final QueryContext qc) throws QueryException {
+
+    int d = 0;
+    FTIndexIterator ii = null;
+    final StopWords sw = ftOpt.sw;
+    do {
+      final byte[] tok = lexer.nextToken();
+      if(sw != null && sw.contains(tok)) {
+        ++d;
+      } else {
+        final FTIndexIterator iter = lexer.get().length > data.meta.maxlen ?
+          scan(lexer, ftt, data) : (FTIndexIterator) data.iter(lexer);
+        iter.pos(++qc.ftPos);
+        if(ii == null) {
+          ii = iter;
+        } else {
+          ii = FTIndexIterator.intersect(ii, iter, ++d);
+          d = 0;
+        }
+      }
+    } while(lexer.hasNext());
+    return ii;
+  }
+
+  /**
+   * Returns a lexer for index-based evaluation.
+   * @param qc query context
+   * @return lexer
+   */
+  private FTLexer lexer(final QueryContext qc) {
+    return new FTLexer(ftOpt).lserror(qc.context.options.get(MainOptions.LSERROR));
+  }
+
   /**
    * Returns a scan-based index iterator.
    * @param lexer lexer, including the queried value
@@ -0,0 +1,468 @@
+package org.basex.query.expr.gflwor;
+
+import static org.basex.query.QueryError.*;
+import static org.basex.util.Token.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.query.*;
+import org.basex.query.util.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.type.*;
+import org.basex.util.*;
+
+/**
+ * External merge sort for the tuples of an {@code order by} clause.
+ *
+ * <p>If the maximum number of tuples to be sorted in main memory is exceeded, the sorted
+ * tuples will be written to a temporary file. When the first result is requested, all files
+ * and the remaining tuples in main memory will be merged. Ties are resolved by the order of the
+ * runs, which preserves the stable sort order.</p>
+ *
+ * <p>Tuples can only be written to disk if they exclusively consist of database nodes and
+ * atomic items that can be restored without loss of information.</p>
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+final class ExternalSort {
+  /** Minimum number of tuples to be sorted in main memory if the memory is dynamically checked. */
+  private static final int MINRUN = 1 << 16;
+  /** Maximum number of runs to be merged at once. */
+  private static final int MAXRUNS = 64;
+  /** Maximum memory to consume. */
+  private static final long MAXMEM = (long) (Runtime.getRuntime().maxMemory() * 0.8);
+
+  /** Item marker: empty sequence. */
+  private static final int EMPTY = 0;
+  /** Item marker: database node. */
+  private static final int NODE = 1;
+  /** Item marker: integer. */
+  private static final int INTEGER = 2;
+  /** Item marker: double or float. */
+  private static final int DOUBLE = 3;
+  /** Item marker: other atomic item. */
+  private static final int ATOMIC = 4;
+
+  /** Order by clause. */
+  private final OrderBy order;
+  /** Temporary files. */
+  private final TempFiles files;
+  /** Query context. */
+  private final QueryContext qc;
+  /** Input info. */
+  private final InputInfo info;
+
+  /** Files with sorted runs. */
+  private final ArrayList<IOFile> runs = new ArrayList<>();
+  /** Databases of the stored nodes. */
+  private final ArrayList<Data> datas = new ArrayList<>(1);
+  /** Runs to be merged (assigned when the first result is requested). */
+  private PriorityQueue<Run> queue;
+  /** Sort keys of the current tuple. */
+  private Item[] currentKey;
+  /** Values of the current tuple. */
+  private Value[] currentTuple;
+
+  /**
+   * Constructor.
+   * @param order order by clause
+   * @param qc query context
+   */
+  ExternalSort(final OrderBy order, final QueryContext qc) {
+    this.order = order;
+    this.qc = qc;
+    info = order.info;
+    files = qc.resources.index(TempFiles.class);
+  }
+
+  /**
+   * Checks if the cached tuples need to be written to disk.
+   * @param tuples number of cached tuples
+   * @param size maximum number of tuples to be sorted in main memory
+   *   ({@code 0}: dynamic, {@code -1}: unlimited)
+   * @return result of check
+   */
+  static boolean full(final int tuples, final int size) {
+    return size > 0 ? tuples >= size : size == 0 && tuples >= MINRUN &&
+      (tuples & 0xFFF) == 0 && Performance.memory() >= MAXMEM;
+  }
+
+  /**
+   * Checks if a tuple can be written to disk.
+   * @param key sort keys
+   * @param tuple values of the tuple
+   * @return result of check
+   */
+  static boolean spillable(final Item[] key, final Value[] tuple) {
+    for(final Item item : key) {
+      if(item != null && !spillable(item)) return false;
+    }
+    for(final Value value : tuple) {
+      for(final Item item : value) {
+        if(!spillable(item)) return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks if an item can be written to disk.
+   * @param item item
+   * @return result of check
+   */
+  private static boolean spillable(final Item item) {
+    return item instanceof DBNode || item instanceof ANum || item instanceof AStr ||
+      item instanceof Atm || item instanceof Bln || item instanceof ADateDur ||
+      item instanceof Bin;
+  }
+
+  /**
+   * Writes sorted tuples to a temporary file.
+   * @param keys sort keys
+   * @param tuples tuples
+   * @param perm sort order
+   * @throws QueryException query exception
+   */
+  void write(final Item[][] keys, final Value[][] tuples, final Integer[] perm)
+      throws QueryException {
+    try {
+      final IOFile file = files.create();
+      runs.add(file);
+      try(DataOutput out = new DataOutput(file)) {
+        out.writeNum(perm.length);
+        for(final int p : perm) {
+          qc.checkStop();
+          write(out, keys[p], tuples[p]);
+          // free the space occupied by the tuple
+          keys[p] = null;
+          tuples[p] = null;
+        }
+      }
+      // limit the number of opened files: merge existing runs
+      if(runs.size() == MAXRUNS) {
+        final PriorityQueue<Run> q = runs(null);
+        final IOFile merged = files.create();
+        try(DataOutput out = new DataOutput(merged)) {
+          int count = 0;
+          for(final Run run : q) count += run.size;
+          out.writeNum(count);
+          while(next(q)) write(out, currentKey, currentTuple);
+        }
+        for(final IOFile run : runs) files.delete(run);
+        runs.clear();
+        runs.add(merged);
+      }
+    } catch(final IOException ex) {
+      throw IOERR_X.get(info, ex);
+    }
+  }
+
+  /**
+   * Prepares the merge of the sorted runs and the remaining tuples.
+   * @param keys sort keys of the remaining tuples
+   * @param tuples remaining tuples
+   * @param perm sort order of the remaining tuples
+   * @throws QueryException query exception
+   */
+  void merge(final Item[][] keys, final Value[][] tuples, final Integer[] perm)
+      throws QueryException {
+    try {
+      queue = runs(new MemRun(runs.size(), keys, tuples, perm));
+    } catch(final IOException ex) {
+      throw IOERR_X.get(info, ex);
+    }
+  }
+
+  /**
+   * Returns the next tuple.
+   * @return tuple, or {@code null} if all tuples have been returned
+   * @throws QueryException query exception
+   */
+  Value[] next() throws QueryException {
+    try {
+      return next(queue) ? currentTuple : null;
+    } catch(final IOException ex) {
+      throw IOERR_X.get(info, ex);
+    }
+  }
+
+  /**
+   * Creates a queue with the sorted runs.
+   * @param mem main-memory run (can be {@code null})
+   * @return queue
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  private PriorityQueue<Run> runs(final MemRun mem) throws IOException, QueryException {
+    // equal keys: return tuples of earlier runs first
+    final PriorityQueue<Run> q = new PriorityQueue<>(runs.size() + 1, (a, b) -> {
+      try {
+        final int c = order.compare(a.key, b.key);
+        return c != 0 ? c : a.id - b.id;
+      } catch(final QueryException ex) {
+        throw new QueryRTException(ex);
+      }
+    });
+    final int rs = runs.size();
+    for(int r = 0; r < rs; r++) add(q, new FileRun(r, runs.get(r)));
+    if(mem != null) add(q, mem);
+    return q;
+  }
+
+  /**
+   * Adds a run to the queue if it is not exhausted.
+   * @param q queue
+   * @param run run
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  private static void add(final PriorityQueue<Run> q, final Run run)
+      throws IOException, QueryException {
+    if(!run.next()) return;
+    try {
+      q.add(run);
+    } catch(final QueryRTException ex) {
+      throw ex.getCause();
+    }
+  }
+
+  /**
+   * Assigns the smallest tuple of all runs and advances the corresponding run.
+   * @param q queue
+   * @return {@code false} if all runs are exhausted
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  private boolean next(final PriorityQueue<Run> q) throws IOException, QueryException {
+    qc.checkStop();
+    final Run run;
+    try {
+      run = q.poll();
+    } catch(final QueryRTException ex) {
+      throw ex.getCause();
+    }
+    if(run == null) return false;
+    currentKey = run.key;
+    currentTuple = run.tuple;
+    add(q, run);
+    return true;
+  }
+
+  /**
+   * Writes a tuple.
+   * @param out output
+   * @param key sort keys
+   * @param tuple values of the tuple
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  private void write(final DataOutput out, final Item[] key, final Value[] tuple)
+      throws IOException, QueryException {
+    for(final Item item : key) write(out, item);
+    for(final Value value : tuple) {
+      out.writeNum((int) value.size());
+      for(final Item item : value) write(out, item);
+    }
+  }
+
+  /**
+   * Writes an item.
+   * @param out output
+   * @param item item (can be {@code null})
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  private void write(final DataOutput out, final Item item) throws IOException, QueryException {
+    if(item == null) {
+      out.write1(EMPTY);
+    } else if(item instanceof DBNode) {
+      final DBNode node = (DBNode) item;
+      int d = datas.indexOf(node.data());
+      if(d == -1) {
+        d = datas.size();
+        datas.add(node.data());
+      }
+      out.write1(NODE);
+      out.writeNum(d);
+      out.writeNum(node.pre());
+    } else {
+      final Type type = item.type;
+      if(item instanceof Int) {
+        out.write1(INTEGER);
+        out.write1(type.id().asByte());
+        out.writeToken(token(item.itr(info)));
+      } else if(item instanceof Dbl || item instanceof Flt) {
+        // store bits to preserve the exact value
+        out.write1(DOUBLE);
+        out.write1(type.id().asByte());
+        out.writeToken(token(Double.doubleToRawLongBits(item.dbl(info))));
+      } else {
+        out.write1(ATOMIC);
+        out.write1(type.id().asByte());
+        out.writeToken(item.string(info));
+      }
+    }
+  }
+
+  /**
+   * Reads an item.
+   * @param in input
+   * @return item (can be {@code null})
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  private Item read(final DataInput in) throws IOException, QueryException {
+    final int marker = in.read();
+    if(marker == EMPTY) return null;
+    if(marker == NODE) {
+      final Data data = datas.get(in.readNum());
+      return new DBNode(data, in.readNum());
+    }
+    final Type type = Type.ID.getType(in.read());
+    final byte[] token = in.readToken();
+    if(marker == INTEGER) return Int.get(toLong(token), type);
+    if(marker == DOUBLE) {
+      final double d = Double.longBitsToDouble(toLong(token));
+      return type == AtomType.FLT ? Flt.get((float) d) : Dbl.get(d);
+    }
+    if(type == AtomType.STR) return Str.get(token);
+    if(type == AtomType.ATM) return new Atm(token);
+    return ((AtomType) type).cast(Str.get(token), qc, null, info);
+  }
+
+  /**
+   * Sorted run.
+   */
+  private abstract static class Run {
+    /** Index of the run. */
+    final int id;
+    /** Number of tuples. */
+    final int size;
+    /** Sort keys of the current tuple. */
+    Item[] key;
+    /** Values of the current tuple. */
+    Value[] tuple;
+
+    /**
+     * Constructor.
+     * @param id index of the run
+     * @param size number of tuples
+     */
+    Run(final int id, final int size) {
+      this.id = id;
+      this.size = size;
+    }
+
+    /**
+     * Moves to the next tuple.
+     * @return {@code false} if all tuples have been returned
+     * @throws IOException I/O exception
+     * @throws QueryException query exception
+     */
+    abstract boolean next() throws IOException, QueryException;
+  }
+
+  /**
+   * Sorted run in main memory.
+   */
+  private static final class MemRun extends Run {
+    /** Sort keys. */
+    private final Item[][] keys;
+    /** Tuples. */
+    private final Value[][] tuples;
+    /** Sort order. */
+    private final Integer[] perm;
+    /** Current position. */
+    private int pos;
+
+    /**
+     * Constructor.
+     * @param id index of the run
+     * @param keys sort keys
+     * @param tuples tuples
+     * @param perm sort order
+     */
+    MemRun(final int id, final Item[][] keys, final Value[][] tuples, final Integer[] perm) {
+      super(id, perm.length);
+      this.keys = keys;
+      this.tuples = tuples;
+      this.perm = perm;
+    }
+
+    @Override
+    boolean next() {
+      if(pos == size) return false;
+      final int p = perm[pos++];
+      key = keys[p];
+      tuple = tuples[p];
+      // free the space occupied by the tuple
+      keys[p] = null;
+      tuples[p] = null;
+      return true;
+    }
+  }
+
+  /**
+   * Sorted run in a temporary file.
+   */
+  private final class FileRun extends Run {
+    /** File. */
+    private final IOFile file;
+    /** Input. */
+    private final DataInput in;
+    /** Current position. */
+    private int pos;
+
+    /**
+     * Constructor.
+     * @param id index of the run
+     * @param file file
+     * @throws IOException I/O exception
+     */
+    FileRun(final int id, final IOFile file) throws IOException {
+      this(id, file, files.open(file));
+    }
+
+    /**
+     * Constructor.
+     * @param id index of the run
+     * @param file file
+     * @param in input
+     * @throws IOException I/O exception
+     */
+    private FileRun(final int id, final IOFile file, final DataInput in) throws IOException {
+      super(id, in.readNum());
+      this.file = file;
+      this.in = in;
+    }
+
+    @Override
+    boolean next() throws IOException, QueryException {
+      if(pos == size) {
+        // all tuples have been read: delete file
+        files.delete(file);
+        return false;
+      }
+      pos++;
+      final int kl = order.keys.length, rl = order.refs.length;
+      key = new Item[kl];
+      for(int k = 0; k < kl; k++) key[k] = read(in);
+      tuple = new Value[rl];
+      for(int r = 0; r < rl; r++) {
+        final int s = in.readNum();
+        final ValueBuilder vb = new ValueBuilder(qc);
+        for(int i = 0; i < s; i++) vb.add(read(in));
+        tuple[r] = vb.value();
+      }
+      return true;
+    }
+  }
+}
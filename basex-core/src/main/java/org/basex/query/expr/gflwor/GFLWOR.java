@@ -95,6 +95,73 @@ public final class GFLWOR extends ParseExpr {
     };
   }
 
+  /**
+   * Evaluates the FLWOR expression in parallel. The items of the first {@code for} clause are
+   * split into chunks, which are evaluated by the tasks of the shared {@link QueryPool}, and the
+   * results are concatenated in their original order. If the clauses depend on each other
+   * (e.g., in the case of {@code order by} or {@code group by}), the expression is evaluated
+   * sequentially.
+   * @param qc query context
+   * @return resulting value
+   * @throws QueryException query exception
+   */
+  public Value parallel(final QueryContext qc) throws QueryException {
+    final int index = parallelFor();
+    if(index == -1) return value(qc);
+
+    // evaluate preceding clauses (yielding at most one tuple) and items of 'for' clause
+    Eval eval = new StartEval();
+    for(int c = 0; c < index; c++) eval = clauses.get(c).eval(eval);
+    if(!eval.next(qc)) return Empty.SEQ;
+    final For fr = (For) clauses.get(index);
+    final Value value = fr.expr.value(qc);
+
+    return QueryPool.eval(value.size(), (start, end, tqc) -> {
+      Eval ev = new Eval() {
+        /** Current item. */
+        private long i = start;
+
+        @Override
+        boolean next(final QueryContext q) throws QueryException {
+          if(i == end) return false;
+          q.set(fr.var, value.itemAt(i));
+          if(fr.pos != null) q.set(fr.pos, Int.get(i + 1));
+          i++;
+          return true;
+        }
+      };
+      final int cs = clauses.size();
+      for(int c = index + 1; c < cs; c++) ev = clauses.get(c).eval(ev);
+
+      final ValueBuilder vb = new ValueBuilder(tqc);
+      while(ev.next(tqc)) vb.add(rtrn.value(tqc));
+      return vb.value();
+    }, qc);
+  }
+
+  /**
+   * Returns the position of the first {@code for} clause if the tuples of this clause can be
+   * evaluated independently.
+   * @return position or {@code -1}
+   */
+  private int parallelFor() {
+    if(has(Flag.UPD)) return -1;
+    int index = -1;
+    final int cs = clauses.size();
+    for(int c = 0; c < cs; c++) {
+      final Clause clause = clauses.get(c);
+      if(index == -1 && clause instanceof For) {
+        final For fr = (For) clause;
+        if(fr.empty || fr.scoring) return -1;
+        index = c;
+      } else if(!(clause instanceof Let || clause instanceof Where || index != -1 &&
+          (clause instanceof For || clause instanceof Window || clause instanceof Join))) {
+        return -1;
+      }
+    }
+    return index;
+  }
+
   @Override
   public Expr compile(final CompileContext cc) throws QueryException {
     final ListIterator<Clause> iter = clauses.listIterator();
@@ -518,7 +585,14 @@ public final class GFLWOR extends ParseExpr {
           final Clause before = clauses.get(b4);
           if(before instanceof For) {
             final For fr = (For) before;
-            if(fr.toPredicate(cc, where.expr)) {
+            final Join join = join(fr, b4, where, cc);
+            if(join != null) {
+              // for $a in A for $b in B where $a/@id = $b/@id -> hash join
+              clauses.set(b4, join);
+              clauses.remove(newPos);
+              i--;
+              changed = true;
+            } else if(fr.toPredicate(cc, where.expr)) {
               // for $i in ('a', 'b') where $i return $i -> for $i in ('a', 'b')[.] return $i
               fors.add((For) before);
               clauses.remove(newPos);
@@ -538,6 +612,54 @@ public final class GFLWOR extends ParseExpr {
     return changed;
   }
 
+  /**
+   * Tries to rewrite a 'for' clause and a subsequent 'where' clause to a hash join.
+   * The bound expression of the 'for' clause must not depend on the preceding iterations, and
+   * the 'where' clause must be an equality comparison between the 'for' variable and the
+   * variables of the preceding iterations.
+   * @param fr 'for' clause
+   * @param pos position of the 'for' clause
+   * @param where 'where' clause
+   * @param cc compilation context
+   * @return join clause or {@code null}
+   * @throws QueryException query exception
+   */
+  private Join join(final For fr, final int pos, final Where where, final CompileContext cc)
+      throws QueryException {
+
+    if(fr.empty || fr.vars().length != 1 || fr.has(Flag.NDT, Flag.CNS, Flag.UPD) ||
+        !(where.expr instanceof CmpG)) return null;
+    final CmpG cmp = (CmpG) where.expr;
+    if(!cmp.hashable()) return null;
+
+    // collect variables that may change for each tuple
+    final ArrayList<Var> vars = new ArrayList<>();
+    boolean loop = false;
+    for(int c = 0; c < pos; c++) {
+      final Clause clause = clauses.get(c);
+      loop |= clause instanceof For || clause instanceof Window || clause instanceof Join;
+      if(loop) Collections.addAll(vars, clause.vars());
+    }
+    final Predicate<Expr> outer = expr -> {
+      for(final Var var : vars) {
+        if(expr.uses(var)) return true;
+      }
+      return false;
+    };
+    // join is only beneficial if the bound expression would be evaluated repeatedly
+    if(!loop || outer.test(fr.expr)) return null;
+
+    // one operand must only reference the 'for' variable, the other one the outer variables
+    for(int e = 0; e < 2; e++) {
+      final Expr key = cmp.exprs[e], probe = cmp.exprs[1 - e];
+      if(key.uses(fr.var) && !outer.test(key) && !probe.uses(fr.var) && outer.test(probe)) {
+        cc.info(QueryText.OPTJOIN_X, fr.var);
+        return new Join(fr.var, fr.expr, key, probe, fr.info).optimize(cc);
+      }
+    }
+    return null;
+  }
+
   /**
    * Rewrites positional variables to predicates.
    * @param cc compilation context
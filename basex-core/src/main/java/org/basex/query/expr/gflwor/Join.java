@@ -0,0 +1,239 @@
+package org.basex.query.expr.gflwor;
+
+import static org.basex.query.QueryText.*;
+
+import java.util.*;
+
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.*;
+import org.basex.query.util.hash.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.type.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * GFLWOR hash join: a {@code for} clause, followed by a {@code where} clause with an equality
+ * comparison between the iterated items and the preceding tuples.
+ *
+ * <p>The bound expression is evaluated once. The keys of all items are stored in a hash
+ * table, which is probed with the keys of each incoming tuple. The items are returned in
+ * their original order.</p>
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class Join extends Clause {
+  /** Item variable. */
+  final Var var;
+  /** Bound expression. */
+  Expr expr;
+  /** Key of the iterated items (references the item variable). */
+  Expr key;
+  /** Key of the incoming tuples. */
+  Expr probe;
+
+  /**
+   * Constructor.
+   * @param var item variable
+   * @param expr bound expression
+   * @param key key of the iterated items
+   * @param probe key of the incoming tuples
+   * @param info input info
+   */
+  public Join(final Var var, final Expr expr, final Expr key, final Expr probe,
+      final InputInfo info) {
+    super(info, SeqType.ITEM_ZO, var);
+    this.var = var;
+    this.expr = expr;
+    this.key = key;
+    this.probe = probe;
+  }
+
+  @Override
+  Eval eval(final Eval sub) {
+    return new Eval() {
+      /** Items of the bound expression (assigned when the first tuple arrives). */
+      private Value value;
+      /** Hashed keys. */
+      private HashItemSet keys;
+      /** Offsets of the items, indexed by the ids of the keys. */
+      private IntList[] offsets;
+      /** Offsets of the items that match the current tuple. */
+      private IntList matches = new IntList();
+      /** Current offset. */
+      private int m;
+
+      @Override
+      public boolean next(final QueryContext qc) throws QueryException {
+        while(true) {
+          if(m < matches.size()) {
+            qc.set(var, value.itemAt(matches.get(m++)));
+            return true;
+          }
+          if(!sub.next(qc)) return false;
+          if(value == null) build(qc);
+          matches = probe(qc);
+          m = 0;
+        }
+      }
+
+      /**
+       * Evaluates the bound expression and builds the hash table.
+       * @param qc query context
+       * @throws QueryException query exception
+       */
+      private void build(final QueryContext qc) throws QueryException {
+        value = expr.value(qc);
+        keys = new HashItemSet(true);
+        offsets = new IntList[Array.CAPACITY];
+        final long vs = value.size();
+        for(int v = 0; v < vs; v++) {
+          qc.checkStop();
+          qc.set(var, value.itemAt(v));
+          final Iter iter = key.atomIter(qc, info);
+          for(Item item; (item = qc.next(iter)) != null;) {
+            final int id = keys.put(item, info);
+            if(id == offsets.length) offsets = Arrays.copyOf(offsets, Array.newSize(id));
+            IntList list = offsets[id];
+            if(list == null) {
+              list = new IntList(1);
+              offsets[id] = list;
+            }
+            // skip duplicate keys of the same item
+            if(list.isEmpty() || list.peek() != v) list.add(v);
+          }
+        }
+      }
+
+      /**
+       * Returns the offsets of all items whose keys match the keys of the current tuple.
+       * @param qc query context
+       * @return offsets in ascending order
+       * @throws QueryException query exception
+       */
+      private IntList probe(final QueryContext qc) throws QueryException {
+        IntList list = null;
+        boolean merged = false;
+        final Iter iter = probe.atomIter(qc, info);
+        for(Item item; (item = qc.next(iter)) != null;) {
+          final int id = keys.id(item, info);
+          if(id == 0) continue;
+          if(list == null) {
+            list = offsets[id];
+          } else if(list != offsets[id]) {
+            // multiple keys: merge offsets, remove duplicates later on
+            if(!merged) list = new IntList(list.toArray());
+            list.add(offsets[id].toArray());
+            merged = true;
+          }
+        }
+        return list == null ? new IntList(0) : merged ? list.sort().distinct() : list;
+      }
+    };
+  }
+
+  @Override
+  public boolean has(final Flag... flags) {
+    return expr.has(flags) || key.has(flags) || probe.has(flags);
+  }
+
+  @Override
+  public Join compile(final CompileContext cc) throws QueryException {
+    expr = expr.compile(cc);
+    key = key.compile(cc);
+    probe = probe.compile(cc);
+    return optimize(cc);
+  }
+
+  @Override
+  public Join optimize(final CompileContext cc) throws QueryException {
+    exprType.assign(expr.seqType().type, Occ.ONE);
+    var.refineType(seqType(), size(), cc);
+    var.data = expr.data();
+    return this;
+  }
+
+  @Override
+  public boolean inlineable(final Var v) {
+    return expr.inlineable(v) && key.inlineable(v) && probe.inlineable(v);
+  }
+
+  @Override
+  public VarUsage count(final Var v) {
+    // the key is evaluated for each item of the bound expression
+    return expr.count(v).plus(probe.count(v)).plus(key.count(v).times(expr.size()));
+  }
+
+  @Override
+  public Clause inline(final Var v, final Expr ex, final CompileContext cc)
+      throws QueryException {
+    final Expr[] exprs = { expr, key, probe };
+    if(!inlineAll(v, ex, exprs, cc)) return null;
+    expr = exprs[0];
+    key = exprs[1];
+    probe = exprs[2];
+    return optimize(cc);
+  }
+
+  @Override
+  public Join copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    final Var v = cc.copy(var, vm);
+    return copyType(new Join(v, expr.copy(cc, vm), key.copy(cc, vm), probe.copy(cc, vm), info));
+  }
+
+  @Override
+  public boolean accept(final ASTVisitor visitor) {
+    return expr.accept(visitor) && probe.accept(visitor) && visitor.declared(var) &&
+        key.accept(visitor);
+  }
+
+  @Override
+  public void checkUp() throws QueryException {
+    checkNoneUp(expr, key, probe);
+  }
+
+  @Override
+  void calcSize(final long[] minMax) {
+    final long size = expr.size(), max = minMax[1];
+    minMax[0] = 0;
+    if(max > 0) minMax[1] = size < 0 ? -1 : max * size;
+  }
+
+  @Override
+  public int exprSize() {
+    return expr.exprSize() + key.exprSize() + probe.exprSize();
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if(this == obj) return true;
+    if(!(obj instanceof Join)) return false;
+    final Join j = (Join) obj;
+    return var.equals(j.var) && expr.equals(j.expr) && key.equals(j.key) &&
+        probe.equals(j.probe);
+  }
+
+  @Override
+  public void plan(final FElem plan) {
+    final FElem elem = planElem();
+    var.plan(elem);
+    expr.plan(elem);
+    final FElem where = new FElem(WHERE);
+    probe.plan(where);
+    key.plan(where);
+    elem.add(where);
+    plan.add(elem);
+  }
+
+  @Override
+  public String toString() {
+    return FOR + ' ' + var + ' ' + IN + ' ' + expr + ' ' + WHERE + ' ' + probe + " = " + key;
+  }
+}
@@ -6,6 +6,7 @@ import static org.basex.query.QueryText.*;
 import java.util.*;
 import java.util.List;
 
+import org.basex.core.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.util.*;
@@ -25,9 +26,9 @@ import org.basex.util.hash.*;
  */
 public final class OrderBy extends Clause {
   /** References to the variables to be sorted. */
-  private VarRef[] refs;
+  VarRef[] refs;
   /** Sort keys. */
-  private final OrderKey[] keys;
+  final OrderKey[] keys;
 
   /**
    * Constructor.
@@ -44,31 +45,44 @@ public final class OrderBy extends Clause {
   @Override
   Eval eval(final Eval sub) {
     return new Eval() {
+      private Item[][] ks;
       private Value[][] tpls;
       private Integer[] perm;
+      /** External sort ({@code null} if all tuples are sorted in main memory). */
+      private ExternalSort external;
       int pos;
 
       @Override
       public boolean next(final QueryContext qc) throws QueryException {
         if(tpls == null) sort(qc);
-        if(pos == tpls.length) return false;
-        final int p = perm[pos++];
-        final Value[] tuple = tpls[p];
-        // free the space occupied by the tuple
-        tpls[p] = null;
+        final Value[] tuple;
+        if(external != null) {
+          tuple = external.next();
+          if(tuple == null) return false;
+        } else {
+          if(pos == tpls.length) return false;
+          final int p = perm[pos++];
+          tuple = tpls[p];
+          // free the space occupied by the tuple
+          tpls[p] = null;
+        }
         final int rl = refs.length;
         for(int r = 0; r < rl; r++) qc.set(refs[r].var, tuple[r]);
         return true;
       }
 
       /**
-       * Caches and sorts all incoming tuples.
+       * Caches and sorts all incoming tuples. If the maximum number of tuples to be sorted in
+       * main memory is exceeded, sorted tuples will be written to disk.
        * @param qc query context
        * @throws QueryException evaluation exception
        */
       private void sort(final QueryContext qc) throws QueryException {
+        final int size = qc.context.options.get(MainOptions.SORTSIZE);
+        boolean spill = size >= 0;
+
         // keys are stored at odd positions, values at even ones
-        List<Value[]> tuples = new ArrayList<>();
+        final List<Value[]> tuples = new ArrayList<>();
         while(sub.next(qc)) {
           final int kl = keys.length;
           final Item[] key = new Item[kl];
@@ -79,10 +93,27 @@ public final class OrderBy extends Clause {
           final Value[] vals = new Value[rl];
           for(int r = 0; r < rl; r++) vals[r] = refs[r].value(qc);
           tuples.add(vals);
+
+          // tuples that cannot be written to disk: sort remaining tuples in main memory
+          if(spill) spill = ExternalSort.spillable(key, vals);
+          if(spill && ExternalSort.full(tuples.size() >>> 1, size)) {
+            if(external == null) external = new ExternalSort(OrderBy.this, qc);
+            sort(tuples);
+            external.write(ks, tpls, perm);
+          }
         }
+        sort(tuples);
+        if(external != null) external.merge(ks, tpls, perm);
+      }
 
+      /**
+       * Sorts the specified tuples.
+       * @param tuples keys and values of the tuples
+       * @throws QueryException evaluation exception
+       */
+      private void sort(final List<Value[]> tuples) throws QueryException {
         final int len = tuples.size() >>> 1;
-        final Item[][] ks = new Item[len][];
+        ks = new Item[len][];
         perm = new Integer[len];
         tpls = new Value[len][];
         for(int i = 0; i < len; i++) {
@@ -91,26 +122,11 @@ public final class OrderBy extends Clause {
           ks[i] = (Item[]) tuples.get(i << 1);
         }
         // be nice to the garbage collector
-        tuples = null;
+        tuples.clear();
         try {
           Arrays.sort(perm, (x, y) -> {
             try {
-              final Item[] a = ks[x], b = ks[y];
-              final int kl = keys.length;
-              for(int k = 0; k < kl; k++) {
-                final OrderKey key = keys[k];
-                Item m = a[k], n = b[k];
-                if(m == Dbl.NAN || m == Flt.NAN) m = null;
-                if(n == Dbl.NAN || n == Flt.NAN) n = null;
-                if(m != null && n != null && !m.comparable(n))
-                  throw typeError(n, m.type, key.info);
-
-                final int c = m == null
-                    ? n == null ? 0                 : key.least ? -1 : 1
-                    : n == null ? key.least ? 1 : -1 : m.diff(n, key.coll, key.info);
-                if(c != 0) return key.desc ? -c : c;
-              }
-              return 0;
+              return compare(ks[x], ks[y]);
             } catch(final QueryException ex) {
               throw new QueryRTException(ex);
             }
@@ -122,6 +138,31 @@ public final class OrderBy extends Clause {
     };
   }
 
+  /**
+   * Compares the sort keys of two tuples.
+   * @param a sort keys of the first tuple
+   * @param b sort keys of the second tuple
+   * @return result of comparison
+   * @throws QueryException query exception
+   */
+  int compare(final Item[] a, final Item[] b) throws QueryException {
+    final int kl = keys.length;
+    for(int k = 0; k < kl; k++) {
+      final OrderKey key = keys[k];
+      Item m = a[k], n = b[k];
+      if(m == Dbl.NAN || m == Flt.NAN) m = null;
+      if(n == Dbl.NAN || n == Flt.NAN) n = null;
+      if(m != null && n != null && !m.comparable(n))
+        throw typeError(n, m.type, key.info);
+
+      final int c = m == null
+          ? n == null ? 0                 : key.least ? -1 : 1
+          : n == null ? key.least ? 1 : -1 : m.diff(n, key.coll, key.info);
+      if(c != 0) return key.desc ? -c : c;
+    }
+    return 0;
+  }
+
   @Override
   public boolean has(final Flag... flags) {
     for(final OrderKey key : keys) {
@@ -1,6 +1,8 @@
 package org.basex.query.expr.index;
 
+import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.index.query.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.iter.*;
@@ -16,6 +18,8 @@ import org.basex.util.*;
  * @author Christian Gruen
  */
 public abstract class IndexAccess extends Simple {
+  /** Index type. */
+  final IndexType type;
   /** Index database. */
   IndexDb db;
 
@@ -26,14 +30,23 @@ public abstract class IndexAccess extends Simple {
    * @param type type index type
    */
   IndexAccess(final IndexDb db, final InputInfo info, final IndexType type) {
-    super(info, type == IndexType.TEXT || type == IndexType.FULLTEXT ? SeqType.TXT_ZM :
-      SeqType.ATT_ZM);
+    super(info, type.text() ? SeqType.TXT_ZM : SeqType.ATT_ZM);
+    this.type = type;
     this.db = db;
   }
 
   @Override
   public abstract NodeIter iter(QueryContext qc) throws QueryException;
 
+  /**
+   * Returns an iterator for the pre values of the index results.
+   * @param data data reference
+   * @param qc query context
+   * @return iterator (results are sorted and duplicate-free)
+   * @throws QueryException query exception
+   */
+  abstract IndexIterator indexIterator(Data data, QueryContext qc) throws QueryException;
+
   @Override
   public boolean has(final Flag... flags) {
     return db.has(flags);
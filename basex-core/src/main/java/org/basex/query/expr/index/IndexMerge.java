@@ -0,0 +1,223 @@
+package org.basex.query.expr.index;
+
+import static org.basex.query.QueryText.*;
+
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.expr.path.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.type.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+
+/**
+ * This class merges the results of multiple attribute index requests and returns the parent
+ * elements. The sorted results of the index iterators are intersected via leapfrogging, or
+ * merged, and only the resulting elements will be materialized as nodes.
+ *
+ * <pre>
+ * A[@a = 'x'][@b = 'y']    : (IA('x')/self::@a/parent::A intersect IA('y')/self::@b/parent::A)
+ * A[@a = 'x' or @b = 'y']  : (IA('x')/self::@a/parent::A union IA('y')/self::@b/parent::A)</pre>
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class IndexMerge extends Arr {
+  /** Union or intersection. */
+  private final boolean union;
+  /** Attribute tests of the index requests ({@code null} entries: no test). */
+  private final Test[] tests;
+  /** Test of the parent elements. */
+  private final Test test;
+
+  /**
+   * Constructor.
+   * @param info input info
+   * @param union union or intersection
+   * @param test test of the parent elements
+   * @param tests attribute tests of the index requests
+   * @param exprs index requests
+   */
+  private IndexMerge(final InputInfo info, final boolean union, final Test test,
+      final Test[] tests, final Expr... exprs) {
+    super(info, SeqType.ELM_ZM, exprs);
+    this.union = union;
+    this.test = test;
+    this.tests = tests;
+  }
+
+  /**
+   * Tries to merge the specified index expressions.
+   * @param info input info
+   * @param union union or intersection
+   * @param exprs index expressions
+   * @return new expression or {@code null}
+   */
+  public static IndexMerge get(final InputInfo info, final boolean union, final Expr... exprs) {
+    final int el = exprs.length;
+    if(el < 2) return null;
+
+    Test test = null;
+    final Test[] tests = new Test[el];
+    final Expr[] roots = new Expr[el];
+    for(int e = 0; e < el; e++) {
+      // accept paths of the form IA/self::@a/parent::A and IA/parent::A
+      if(!(exprs[e] instanceof Path)) return null;
+      final Path path = (Path) exprs[e];
+      if(!(path.root instanceof IndexAccess)) return null;
+      final IndexAccess ia = (IndexAccess) path.root;
+      if(ia.type != IndexType.ATTRIBUTE || e > 0 && !ia.db.equals(((IndexAccess) roots[0]).db))
+        return null;
+
+      final Expr[] steps = path.steps;
+      final int sl = steps.length;
+      if(sl < 1 || sl > 2) return null;
+      for(final Expr expr : steps) {
+        if(!(expr instanceof Step) || ((Step) expr).exprs.length != 0) return null;
+      }
+      final Step last = (Step) steps[sl - 1];
+      if(last.axis != Axis.PARENT || test != null && !test.equals(last.test)) return null;
+      test = last.test;
+      if(sl == 2) {
+        final Step self = (Step) steps[0];
+        if(self.axis != Axis.SELF) return null;
+        tests[e] = self.test;
+      }
+      roots[e] = ia;
+    }
+    return new IndexMerge(info, union, test, tests, roots);
+  }
+
+  @Override
+  public Expr optimize(final CompileContext cc) {
+    return this;
+  }
+
+  @Override
+  public BasicNodeIter iter(final QueryContext qc) throws QueryException {
+    final Data data = ((IndexAccess) exprs[0]).db.data(qc, IndexType.ATTRIBUTE);
+    final int el = exprs.length;
+    final IndexIterator[] iters = new IndexIterator[el];
+    for(int e = 0; e < el; e++) {
+      iters[e] = parents(((IndexAccess) exprs[e]).indexIterator(data, qc), tests[e], data);
+    }
+    final IndexIterator ii = union ? IndexIterator.union(iters) : IndexIterator.intersect(iters);
+
+    return new DBNodeIter(data) {
+      final DBNode tmp = new DBNode(data, 0, Data.ELEM);
+
+      @Override
+      public DBNode next() {
+        while(ii.more()) {
+          tmp.pre(ii.pre());
+          if(test.eq(tmp)) return tmp.finish();
+        }
+        return null;
+      }
+    };
+  }
+
+  /**
+   * Returns an iterator for the parent elements of the attributes that are returned by the
+   * specified iterator. As attributes directly follow their parent elements, the parents
+   * will be sorted as well.
+   * @param iter attribute iterator
+   * @param at attribute test (can be {@code null})
+   * @param data data reference
+   * @return iterator
+   */
+  private static IndexIterator parents(final IndexIterator iter, final Test at, final Data data) {
+    return new IndexIterator() {
+      final DBNode tmp = new DBNode(data, 0, Data.ATTR);
+      int pre = -1;
+
+      @Override
+      public boolean more() {
+        return next(iter.more(), pre + 1);
+      }
+
+      @Override
+      public boolean advance(final int target) {
+        // attributes with larger pre values than the target have no smaller parents
+        return target <= pre ? more() : next(iter.advance(target), target);
+      }
+
+      @Override
+      public int pre() {
+        return pre;
+      }
+
+      @Override
+      public int size() {
+        return iter.size();
+      }
+
+      /**
+       * Finds the next parent element.
+       * @param found indicates if the attribute iterator returned a result
+       * @param target minimum pre value
+       * @return result of check
+       */
+      private boolean next(final boolean found, final int target) {
+        for(boolean f = found; f; f = iter.more()) {
+          final int p = iter.pre();
+          if(at != null) {
+            tmp.pre(p);
+            if(!at.eq(tmp)) continue;
+          }
+          final int par = data.parent(p, Data.ATTR);
+          if(par >= target) {
+            pre = par;
+            return true;
+          }
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public boolean iterable() {
+    return true;
+  }
+
+  @Override
+  public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    return copyType(new IndexMerge(info, union, test, tests.clone(), copyAll(cc, vm, exprs)));
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if(this == obj) return true;
+    if(!(obj instanceof IndexMerge)) return false;
+    final IndexMerge im = (IndexMerge) obj;
+    return union == im.union && test.equals(im.test) && Arrays.equals(tests, im.tests) &&
+        super.equals(obj);
+  }
+
+  @Override
+  public void plan(final FElem plan) {
+    addPlan(plan, planElem(TYPE, union ? UNION : INTERSECT, NAME, test), exprs);
+  }
+
+  @Override
+  public String toString() {
+    final TokenBuilder tb = new TokenBuilder().add(PAREN1);
+    final int el = exprs.length;
+    for(int e = 0; e < el; e++) {
+      if(e > 0) tb.add(' ').add(union ? UNION : INTERSECT).add(' ');
+      tb.add(exprs[e]);
+      if(tests[e] != null) tb.add('/').add(Axis.SELF).add("::").add(tests[e]);
+      tb.add('/').add(Axis.PARENT).add("::").add(test);
+    }
+    return tb.add(PAREN2).toString();
+  }
+}
@@ -42,7 +42,7 @@ public final class RangeAccess extends IndexAccess {
     final Data data = db.data(qc, type);
     return new DBNodeIter(data) {
       final byte kind = type == IndexType.TEXT ? Data.TEXT : Data.ATTR;
-      final IndexIterator ii = data.iter(index);
+      final IndexIterator ii = indexIterator(data, qc);
       @Override
       public DBNode next() {
         return ii.more() ? new DBNode(data, ii.pre(), kind) : null;
@@ -50,6 +50,11 @@ public final class RangeAccess extends IndexAccess {
     };
   }
 
+  @Override
+  IndexIterator indexIterator(final Data data, final QueryContext qc) {
+    return data.iter(index);
+  }
+
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
     return new RangeAccess(info, index, db.copy(cc, vm));
@@ -42,8 +42,7 @@ public final class StringRangeAccess extends IndexAccess {
     final Data data = db.data(qc, type);
     return new DBNodeIter(data) {
       final byte kind = type == IndexType.TEXT ? Data.TEXT : Data.ATTR;
-      final IndexIterator ii = index.min.length <= data.meta.maxlen &&
-          index.max.length <= data.meta.maxlen ? data.iter(index) : scan(data);
+      final IndexIterator ii = indexIterator(data, qc);
       @Override
       public DBNode next() {
         return ii.more() ? new DBNode(data, ii.pre(), kind) : null;
@@ -51,6 +50,12 @@ public final class StringRangeAccess extends IndexAccess {
     };
   }
 
+  @Override
+  IndexIterator indexIterator(final Data data, final QueryContext qc) {
+    return index.min.length <= data.meta.maxlen && index.max.length <= data.meta.maxlen ?
+      data.iter(index) : scan(data);
+  }
+
   /**
    * Returns scan-based iterator.
    * @param data data reference
@@ -0,0 +1,105 @@
+package org.basex.query.expr.index;
+
+import static org.basex.query.QueryText.*;
+
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.expr.path.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+
+/**
+ * This index class retrieves texts that contain all trigrams of a search string.
+ * The index results are candidates: they may contain the trigrams in a different order,
+ * and need to be checked by the original expression.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class TrigramAccess extends IndexAccess {
+  /** Parent name test (can be {@code null}). */
+  private final NameTest test;
+  /** Search string. */
+  private final byte[] search;
+
+  /**
+   * Constructor.
+   * @param info input info
+   * @param search search string
+   * @param test name test (can be {@code null})
+   * @param db index database
+   */
+  public TrigramAccess(final InputInfo info, final byte[] search, final NameTest test,
+      final IndexDb db) {
+    super(db, info, IndexType.TRIGRAM);
+    this.search = search;
+    this.test = test;
+  }
+
+  @Override
+  public BasicNodeIter iter(final QueryContext qc) throws QueryException {
+    final Data data = db.data(qc, type);
+    final IndexIterator ii = indexIterator(data, qc);
+    final DBNode tmp = new DBNode(data, 0, test == null ? Data.TEXT : Data.ELEM);
+    return new DBNodeIter(data) {
+      @Override
+      public DBNode next() {
+        while(ii.more()) {
+          if(test == null) {
+            tmp.pre(ii.pre());
+          } else {
+            tmp.pre(data.parent(ii.pre(), Data.TEXT));
+            if(!test.eq(tmp)) continue;
+          }
+          return tmp.finish();
+        }
+        return null;
+      }
+    };
+  }
+
+  @Override
+  IndexIterator indexIterator(final Data data, final QueryContext qc) {
+    final byte[][] trigrams = Token.distinctTrigrams(search);
+    final int tl = trigrams.length;
+    final IndexIterator[] iters = new IndexIterator[tl];
+    for(int t = 0; t < tl; t++) iters[t] = data.iter(new StringToken(type, trigrams[t]));
+    // start intersection with the least frequent trigram
+    Arrays.sort(iters, (i1, i2) -> i1.size() - i2.size());
+    return IndexIterator.intersect(iters);
+  }
+
+  @Override
+  public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    return copyType(new TrigramAccess(info, search, test, db.copy(cc, vm)));
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if(!(obj instanceof TrigramAccess)) return false;
+    final TrigramAccess t = (TrigramAccess) obj;
+    return Token.eq(search, t.search) && Objects.equals(test, t.test) && super.equals(obj);
+  }
+
+  @Override
+  public void plan(final FElem plan) {
+    addPlan(plan, planElem(INDEX, type, NAME, test), db, Str.get(search));
+  }
+
+  @Override
+  public String toString() {
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add(type).add("-index(").add(db.source()).add(", ").add(Str.get(search)).add(')');
+    if(test != null) tb.add("/parent::").add(test);
+    return tb.toString();
+  }
+}
@@ -30,8 +30,6 @@ import org.basex.util.list.*;
  * @author Christian Gruen
  */
 public final class ValueAccess extends IndexAccess {
-  /** Index type. */
-  private final IndexType type;
   /** Parent name test (can be {@code null}). */
   private final NameTest test;
   /** Token set ({@code null} if expression was specified). */
@@ -77,7 +75,6 @@ public final class ValueAccess extends IndexAccess {
   private ValueAccess(final InputInfo info, final IndexType type, final NameTest test,
       final IndexDb db, final Expr expr, final TokenSet tokens) {
     super(db, info, type);
-    this.type = type;
     this.test = test;
     this.tokens = tokens;
     this.expr = expr;
@@ -85,15 +82,7 @@ public final class ValueAccess extends IndexAccess {
 
   @Override
   public BasicNodeIter iter(final QueryContext qc) throws QueryException {
-    // cache distinct search terms
-    final TokenSet cache;
-    if(tokens == null) {
-      cache = new TokenSet();
-      final Iter ir = expr.iter(qc);
-      for(Item it; (it = qc.next(ir)) != null;) cache.add(toToken(it));
-    } else {
-      cache = tokens;
-    }
+    final TokenSet cache = tokens(qc);
 
     // no search terms: return empty iterator
     final int c = cache.size();
@@ -114,6 +103,46 @@ public final class ValueAccess extends IndexAccess {
     return nodes.iter();
   }
 
+  @Override
+  IndexIterator indexIterator(final Data data, final QueryContext qc) throws QueryException {
+    final TokenSet cache = tokens(qc);
+    final int c = cache.size();
+    final IndexIterator[] iters = new IndexIterator[c];
+    for(int i = 0; i < c; i++) {
+      final byte[] term = cache.key(i + 1);
+      iters[i] = index(term, data) ? data.iter(new StringToken(type, term)) : scan(term, data);
+    }
+    return IndexIterator.union(iters);
+  }
+
+  /**
+   * Returns the distinct search terms.
+   * @param qc query context
+   * @return search terms
+   * @throws QueryException query exception
+   */
+  private TokenSet tokens(final QueryContext qc) throws QueryException {
+    if(tokens != null) return tokens;
+    final TokenSet cache = new TokenSet();
+    final Iter ir = expr.iter(qc);
+    for(Item it; (it = qc.next(ir)) != null;) cache.add(toToken(it));
+    return cache;
+  }
+
+  /**
+   * Checks if the index is available and if it may contain the requested term.
+   * @param term search term
+   * @param data data reference
+   * @return result of check
+   */
+  private boolean index(final byte[] term, final Data data) {
+    final int tl = term.length;
+    return data.meta.index(type) && (
+        !(type == IndexType.TEXT || type == IndexType.ATTRIBUTE) ||
+        tl > 0 && tl <= data.meta.maxlen
+    );
+  }
+
   /**
    * Returns an index iterator.
    * @param term search term
@@ -130,10 +159,7 @@ public final class ValueAccess extends IndexAccess {
 
     // check if index is available and if it may contain the requested term
     // otherwise, use sequential scan
-    final boolean index = data.meta.index(type) && (
-        !(type == IndexType.TEXT || type == IndexType.ATTRIBUTE) ||
-        tl > 0 && tl <= data.meta.maxlen
-    );
+    final boolean index = index(term, data);
 
     final IndexIterator ii = index ? data.iter(new StringToken(type, term)) : scan(term, data);
     final int kind = type == IndexType.TEXT ? Data.TEXT : Data.ATTR;
@@ -0,0 +1,133 @@
+package org.basex.query.expr.path;
+
+import org.basex.data.*;
+import org.basex.index.name.*;
+import org.basex.query.expr.path.Test.Kind;
+import org.basex.query.iter.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.type.*;
+import org.basex.util.*;
+
+/**
+ * Iterator for descendant elements of a database node with a name test.
+ * Node kinds, name ids and uri ids are read in batches into integer arrays, and nodes will
+ * only be created for entries that match the test.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+final class DescendantScan extends DBNodeIter {
+  /** Maximum number of entries that are read at once. */
+  private static final int BATCH = 1 << 10;
+  /** Minimum number of descendants for which a scan will be performed. */
+  private static final int MIN = 1 << 6;
+
+  /** Node kinds. */
+  private final int[] kinds;
+  /** Name ids. */
+  private final int[] names;
+  /** Uri ids. */
+  private final int[] uris;
+  /** Flags for matching name ids. */
+  private final boolean[] ids;
+  /** Id of the namespace uri to be matched ({@code -1}: ignore namespaces). */
+  private final int uri;
+  /** Node to be returned. */
+  private final DBNode node;
+  /** Pre value after the last descendant. */
+  private final int last;
+  /** Pre value of the first entry of the current batch. */
+  private int pre;
+  /** Number of entries in the current batch. */
+  private int count;
+  /** Offset in the current batch. */
+  private int off;
+
+  /**
+   * Constructor.
+   * @param root root node
+   * @param self include root node
+   * @param ids flags for matching name ids
+   * @param uri id of the namespace uri to be matched ({@code -1}: ignore namespaces)
+   */
+  private DescendantScan(final DBNode root, final boolean self, final boolean[] ids,
+      final int uri) {
+    super(root.data());
+    this.ids = ids;
+    this.uri = uri;
+    node = root.finish();
+    final int p = root.pre(), k = data.kind(p);
+    last = p + data.size(p, k);
+    pre = self ? p : p + data.attSize(p, k);
+    final int n = Math.min(BATCH, last - pre);
+    kinds = new int[n];
+    names = new int[n];
+    uris = new int[n];
+  }
+
+  /**
+   * Returns a scan iterator for the specified step, or {@code null} if the step cannot
+   * be evaluated by a batch scan.
+   * @param axis axis
+   * @param test node test
+   * @param root root node
+   * @return iterator or {@code null}
+   */
+  static DescendantScan get(final Axis axis, final Test test, final ANode root) {
+    if(!(root instanceof DBNode) || !(test instanceof NameTest) || test.type != NodeType.ELM ||
+        axis != Axis.DESCENDANT && axis != Axis.DESCENDANT_OR_SELF) return null;
+
+    // skip small subtrees, for which the preparation of the name ids will not pay off
+    final Data data = root.data();
+    final int pre = ((DBNode) root).pre();
+    if(data.size(pre, data.kind(pre)) < MIN) return null;
+
+    // resolve namespace uri
+    final NameTest nt = (NameTest) test;
+    final Kind kind = nt.kind;
+    final boolean local = kind == Kind.NAME || kind == Kind.URI_NAME;
+    int uri = -1;
+    if(kind == Kind.URI || kind == Kind.URI_NAME) {
+      final byte[] u = nt.name.uri();
+      if(u.length != 0) {
+        uri = data.nspaces.uriId(u);
+        if(uri == 0) return null;
+      } else {
+        uri = 0;
+      }
+    }
+
+    // collect matching names
+    final Names names = data.elemNames;
+    final int ns = names.size();
+    final boolean[] ids = new boolean[ns + 1];
+    for(int id = 1; id <= ns; id++) {
+      final byte[] name = names.key(id);
+      // names with the xml prefix are bound to the XML namespace uri
+      ids[id] = (!local || Token.eq(nt.local, Token.local(name))) &&
+          (uri != 0 || !Token.eq(Token.prefix(name), Token.XML));
+    }
+    return new DescendantScan((DBNode) root, axis == Axis.DESCENDANT_OR_SELF, ids, uri);
+  }
+
+  @Override
+  public DBNode next() {
+    final int[] ks = kinds, ns = names, us = uris;
+    final boolean[] is = ids;
+    final int u = uri;
+    while(true) {
+      if(off == count) {
+        pre += count;
+        if(pre >= last) return null;
+        count = Math.min(ks.length, last - pre);
+        off = 0;
+        data.kinds(pre, ks, ns, us, count);
+      }
+      final int o = off++;
+      if(ks[o] == Data.ELEM && is[ns[o]] && (u == -1 || us[o] == u)) {
+        node.set(pre + o, Data.ELEM);
+        return node;
+      }
+    }
+  }
+}
@@ -31,13 +31,20 @@ public final class IterStep extends Step {
   public NodeIter iter(final QueryContext qc) {
     return new NodeIter() {
       BasicNodeIter iter;
+      boolean scan;
 
       @Override
       public ANode next() throws QueryException {
-        if(iter == null) iter = axis.iter(checkNode(qc));
+        if(iter == null) {
+          final ANode root = checkNode(qc);
+          // batch scan: node test is already performed by the iterator
+          iter = DescendantScan.get(axis, test, root);
+          scan = iter != null;
+          if(!scan) iter = axis.iter(root);
+        }
         for(ANode node; (node = iter.next()) != null;) {
           qc.checkStop();
-          if(test.eq(node) && preds(node, qc)) return node.finish();
+          if((scan || test.eq(node)) && preds(node, qc)) return node.finish();
         }
         return null;
       }
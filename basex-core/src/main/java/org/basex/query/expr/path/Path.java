@@ -675,6 +675,8 @@ public abstract class Path extends ParseExpr {
     IndexInfo index = null;
     // cheapest predicate and step
     int indexPred = 0, indexStep = 0;
+    // index accesses for the predicates of the cheapest step
+    IndexInfo[] indexInfos = null;
 
     // check if path can be converted to an index access
     final Data data = rt != null ? rt.data() : null;
@@ -693,9 +695,11 @@ public abstract class Path extends ParseExpr {
           new IndexDynDb(info, iter, root == null ? new ContextValue(info) : root);
 
         // choose cheapest index access
+        final IndexInfo[] infos = new IndexInfo[el];
         for(int e = 0; e < el; e++) {
           final IndexInfo ii = new IndexInfo(db, cc.qc, step);
           if(!step.exprs[e].indexAccessible(ii)) continue;
+          infos[e] = ii;
 
           if(ii.costs.results() == 0) {
             // no results...
@@ -707,6 +711,7 @@ public abstract class Path extends ParseExpr {
             index = ii;
             indexPred = e;
             indexStep = s;
+            indexInfos = infos;
           }
         }
       }
@@ -720,6 +725,26 @@ public abstract class Path extends ParseExpr {
     // rewrite for index access
     cc.info(index.optInfo);
 
+    // merge index accesses of other predicates that are not too expensive
+    final Expr[] preds = index.step.exprs;
+    final int pl = preds.length;
+    final boolean[] merged = new boolean[pl];
+    // keep predicate if the index results need to be verified
+    merged[indexPred] = !index.verify;
+    final ExprList merge = new ExprList(pl).add(index.expr);
+    for(int p = 0; p < pl; p++) {
+      final IndexInfo ii = indexInfos[p];
+      if(p != indexPred && ii != null && (data == null ? ii.enforce() :
+        !ii.costs.tooExpensive(data)) && IndexMerge.get(info, false, index.expr, ii.expr) != null) {
+        merge.add(ii.expr);
+        merged[p] = true;
+      }
+    }
+    if(merge.size() > 1) {
+      index.expr = IndexMerge.get(info, false, merge.finish());
+      cc.info(QueryText.OPTMERGE_X, index.expr);
+    }
+
     // invert steps that occur before index step and add them as predicate
     final ExprList newPreds = new ExprList();
     final Test rootTest = InvDocTest.get(rt);
@@ -742,10 +767,8 @@ public abstract class Path extends ParseExpr {
     if(!invSteps.isEmpty()) newPreds.add(get(info, null, invSteps.finish()));
 
     // add remaining predicates
-    final Expr[] preds = index.step.exprs;
-    final int pl = preds.length;
     for(int p = 0; p < pl; p++) {
-      if(p != indexPred) newPreds.add(preds[p]);
+      if(!merged[p]) newPreds.add(preds[p]);
     }
 
     // create resulting expression
@@ -760,7 +783,7 @@ public abstract class Path extends ParseExpr {
     }
 
     // only one hit: update sequence type
-    if(index.costs.results() == 1) {
+    if(index.costs.results() == 1 && !index.verify) {
       final Occ occ = resultRoot instanceof IndexAccess ? Occ.ONE : Occ.ZERO_ONE;
       ((ParseExpr) resultRoot).exprType.assign(occ);
     }
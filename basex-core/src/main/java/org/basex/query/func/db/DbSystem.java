@@ -2,6 +2,7 @@ package org.basex.query.func.db;
 
 import org.basex.core.cmd.*;
 import org.basex.query.*;
+import org.basex.query.expr.*;
 import org.basex.query.value.item.*;
 import org.basex.util.*;
 
@@ -19,4 +20,10 @@ public final class DbSystem extends DbFn {
   public Item item(final QueryContext qc, final InputInfo ii) {
     return toNode(Info.info(qc.context), SYSTEM);
   }
+
+  @Override
+  protected Expr opt(final CompileContext cc) {
+    cc.qc.dynamic = true;
+    return this;
+  }
 }
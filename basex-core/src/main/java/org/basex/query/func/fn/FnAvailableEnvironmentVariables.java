@@ -1,6 +1,7 @@
 package org.basex.query.func.fn;
 
 import org.basex.query.*;
+import org.basex.query.expr.*;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
 import org.basex.query.value.*;
@@ -25,4 +26,10 @@ public final class FnAvailableEnvironmentVariables extends StandardFunc {
     for(final Object key : System.getenv().keySet()) tl.add(key.toString());
     return StrSeq.get(tl);
   }
+
+  @Override
+  protected Expr opt(final CompileContext cc) {
+    cc.qc.dynamic = true;
+    return this;
+  }
 }
@@ -1,6 +1,7 @@
 package org.basex.query.func.fn;
 
 import org.basex.query.*;
+import org.basex.query.expr.*;
 import org.basex.query.func.*;
 import org.basex.query.value.item.*;
 import org.basex.util.*;
@@ -16,4 +17,10 @@ public final class FnCurrentDate extends StandardFunc {
   public Item item(final QueryContext qc, final InputInfo ii) throws QueryException {
     return qc.dateTime().date;
   }
+
+  @Override
+  protected Expr opt(final CompileContext cc) {
+    cc.qc.dynamic = true;
+    return this;
+  }
 }
@@ -1,6 +1,7 @@
 package org.basex.query.func.fn;
 
 import org.basex.query.*;
+import org.basex.query.expr.*;
 import org.basex.query.func.*;
 import org.basex.query.value.item.*;
 import org.basex.util.*;
@@ -17,4 +18,10 @@ public final class FnEnvironmentVariable extends StandardFunc {
     final String e = System.getenv(Token.string(toToken(exprs[0], qc)));
     return e != null ? Str.get(e) : null;
   }
+
+  @Override
+  protected Expr opt(final CompileContext cc) {
+    cc.qc.dynamic = true;
+    return this;
+  }
 }
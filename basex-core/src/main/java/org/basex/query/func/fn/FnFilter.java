@@ -4,6 +4,8 @@ import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
+import org.basex.query.util.*;
+import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.type.*;
 
@@ -29,6 +31,27 @@ public final class FnFilter extends StandardFunc {
     };
   }
 
+  /**
+   * Evaluates the function in parallel. The input items are split into chunks, which are
+   * filtered by the tasks of the shared {@link QueryPool}.
+   * @param qc query context
+   * @return resulting value
+   * @throws QueryException query exception
+   */
+  public Value parallel(final QueryContext qc) throws QueryException {
+    final FItem func = checkArity(exprs[1], 1, qc);
+    final Value value = exprs[0].value(qc);
+    return QueryPool.eval(value.size(), (start, end, tqc) -> {
+      final ValueBuilder vb = new ValueBuilder(tqc);
+      for(long i = start; i < end; i++) {
+        tqc.checkStop();
+        final Item item = value.itemAt(i);
+        if(toBoolean(func.invokeItem(tqc, info, item))) vb.add(item);
+      }
+      return vb.value();
+    }, qc);
+  }
+
   @Override
   protected Expr opt(final CompileContext cc) throws QueryException {
     final Expr expr = exprs[0];
@@ -49,6 +49,28 @@ public class FnForEach extends StandardFunc {
     return vb.value();
   }
 
+  /**
+   * Evaluates the function in parallel. The input items are split into chunks, which are
+   * processed by the tasks of the shared {@link QueryPool}.
+   * @param qc query context
+   * @return resulting value
+   * @throws QueryException query exception
+   */
+  public final Value parallel(final QueryContext qc) throws QueryException {
+    if(this instanceof UpdateForEach) return value(qc);
+
+    final Value value = exprs[0].value(qc);
+    final FItem func = checkArity(exprs[1], 1, qc);
+    return QueryPool.eval(value.size(), (start, end, tqc) -> {
+      final ValueBuilder vb = new ValueBuilder(tqc);
+      for(long i = start; i < end; i++) {
+        tqc.checkStop();
+        vb.add(func.invokeValue(tqc, info, value.itemAt(i)));
+      }
+      return vb.value();
+    }, qc);
+  }
+
   @Override
   protected final Expr opt(final CompileContext cc) throws QueryException {
     final Expr expr1 = exprs[0];
@@ -31,6 +31,7 @@ public final class FnFunctionLookup extends StandardFunc {
   protected Expr opt(final CompileContext cc) {
     // make sure that all functions are compiled
     cc.qc.funcs.compile(cc, true);
+    cc.qc.introspect = true;
     return this;
   }
 }
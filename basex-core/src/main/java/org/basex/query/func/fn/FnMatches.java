@@ -4,7 +4,10 @@ import static org.basex.util.Token.*;
 
 import java.util.regex.*;
 
+import org.basex.index.*;
 import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.util.*;
 import org.basex.query.value.item.*;
 import org.basex.util.*;
 
@@ -21,4 +24,63 @@ public final class FnMatches extends RegEx {
     final Pattern pattern = pattern(exprs[1], exprs.length == 3 ? exprs[2] : null, qc, false);
     return Bln.get(pattern.matcher(string(value)).find());
   }
+
+  @Override
+  public boolean indexAccessible(final IndexInfo ii) throws QueryException {
+    // support limited to string literals and flags that do not change the matched strings
+    final Expr flags = exprs.length == 3 ? exprs[2] : null;
+    if(!(exprs[1] instanceof Str) || flags != null && !(flags instanceof Str &&
+        ((Str) flags).toJava().matches("[sm]*"))) return false;
+    // check if pattern is valid
+    pattern(exprs[1], flags, ii.qc, false);
+    final byte[] literal = literal(((Str) exprs[1]).string());
+    return literal != null && ii.create(literal, ii.type(exprs[0], IndexType.TRIGRAM), info);
+  }
+
+  /**
+   * Returns the longest literal substring that is contained in all strings matched by
+   * the specified regular expression.
+   * @param regex regular expression
+   * @return substring or {@code null}
+   */
+  static byte[] literal(final byte[] regex) {
+    byte[] literal = null;
+    final TokenBuilder tb = new TokenBuilder();
+    final int rl = regex.length;
+    for(int r = 0, depth = 0, last = 0; r <= rl; r += r < rl ? cl(regex, r) : 1) {
+      final int cp = r < rl ? cp(regex, r) : -1;
+      if(depth == 0 && cp != -1 && "\\^$.|?*+()[]{}".indexOf(cp) == -1) {
+        last = tb.size();
+        tb.add(cp);
+        continue;
+      }
+      // quantifiers: preceding character may be absent
+      if(cp == '?' || cp == '*' || cp == '{') tb.size(Math.min(last, tb.size()));
+      // remember longest literal
+      final byte[] token = tb.next();
+      if(depth == 0 && (literal == null || token.length > literal.length)) literal = token;
+
+      if(cp == '|') {
+        // alternatives: no common substring can be determined
+        return null;
+      } else if(cp == '\\') {
+        // skip escaped character
+        if(r + 1 < rl) r++;
+      } else if(cp == '[' || cp == '{') {
+        // skip character class or quantifier
+        final int close = cp == '[' ? ']' : '}';
+        for(int d = 1; d > 0 && r + 1 < rl;) {
+          final int c = regex[++r];
+          if(c == '\\' && r + 1 < rl) r++;
+          else if(c == cp) d++;
+          else if(c == close) d--;
+        }
+      } else if(cp == '(') {
+        depth++;
+      } else if(cp == ')') {
+        depth--;
+      }
+    }
+    return literal;
+  }
 }
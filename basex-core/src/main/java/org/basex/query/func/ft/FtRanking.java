@@ -0,0 +1,304 @@
+package org.basex.query.func.ft;
+
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.ft.*;
+import org.basex.index.query.*;
+import org.basex.query.*;
+import org.basex.query.expr.ft.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.ft.*;
+import org.basex.query.value.*;
+import org.basex.query.value.node.*;
+import org.basex.util.ft.*;
+
+/**
+ * Ranked evaluation of full-text index requests.
+ *
+ * <p>If BM25 scoring is chosen, the index iterators of the single query terms are
+ * traversed simultaneously, and the score of a text is the sum of the scores of all contained
+ * terms. If the number of requested results is limited, and if the results are not
+ * filtered by positional options, the MaxScore strategy is applied: The terms are sorted by
+ * the upper bounds of their scores. If the sum of the smallest bounds does not exceed the
+ * lowest score of the current top results, the corresponding terms are not used for
+ * finding new candidates, and the scores of candidates will only be completed if they can
+ * still be included in the results.</p>
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+final class FtRanking {
+  /** Pre value of exhausted iterators. */
+  private static final int MAX = Integer.MAX_VALUE;
+
+  /** Query context. */
+  private final QueryContext qc;
+  /** Data reference. */
+  private final Data data;
+  /** Node iterator for results that are filtered (can be {@code null}). */
+  private final FTIter filter;
+  /** Index iterators of the query terms, sorted by upper bounds (can be {@code null}). */
+  private final FTIndexIterator[] iters;
+  /** Conjunctive query (all terms need to be found). */
+  private final boolean all;
+
+  /** Inverse document frequencies of the terms. */
+  private double[] idfs;
+  /** Accumulated upper bounds of the term scores. */
+  private double[] bounds;
+  /** Current pre values of the index iterators. */
+  private int[] pres;
+  /** Full-text index ({@code null} if no statistics exist). */
+  private FTIndex index;
+  /** Average text length. */
+  private double avg = 1;
+
+  /** Lowest score of the current top results ({@code -1}: no pruning). */
+  private double min = -1;
+  /** Score of the current result. */
+  private double score;
+  /** Matches of the current result (only assigned if positions are cached). */
+  private FTMatches matches;
+
+  /**
+   * Constructor.
+   * @param qc query context
+   * @param data data reference
+   * @param filter node iterator for filtered results (can be {@code null})
+   * @param iters index iterators of the query terms ({@code null}: default scoring)
+   * @param all conjunctive query
+   */
+  FtRanking(final QueryContext qc, final Data data, final FTIter filter,
+      final FTIndexIterator[] iters, final boolean all) {
+
+    this.qc = qc;
+    this.data = data;
+    this.filter = filter;
+    this.iters = iters;
+    this.all = all;
+    if(iters != null) init();
+  }
+
+  /**
+   * Computes the term statistics and initializes the index iterators.
+   */
+  private void init() {
+    if(data.ftIndex instanceof FTIndex) {
+      final FTIndex fti = (FTIndex) data.ftIndex;
+      if(fti.stats() != null) {
+        index = fti;
+        avg = Math.max(1, fti.stats().average());
+      }
+    }
+    final int n = index != null ? index.stats().texts() : data.meta.size;
+
+    // sort iterators by the upper bounds of their scores
+    final int il = iters.length;
+    final double[] idf = new double[il], bound = new double[il];
+    for(int i = 0; i < il; i++) {
+      idf[i] = Scoring.idf(iters[i].texts(), n);
+      bound[i] = Scoring.bm25Max(idf[i]);
+    }
+    final Integer[] order = new Integer[il];
+    for(int i = 0; i < il; i++) order[i] = i;
+    Arrays.sort(order, (i1, i2) -> Double.compare(bound[i1], bound[i2]));
+
+    final FTIndexIterator[] tmp = iters.clone();
+    idfs = new double[il];
+    bounds = new double[il];
+    pres = new int[il];
+    double sum = 0;
+    for(int i = 0; i < il; i++) {
+      final int o = order[i];
+      iters[i] = tmp[o];
+      idfs[i] = idf[o];
+      sum += bound[o];
+      bounds[i] = sum;
+      pres[i] = iters[i].more() ? iters[i].pre() : MAX;
+    }
+  }
+
+  /**
+   * Returns an iterator for the ranked results.
+   * @param top maximum number of results with the highest scores ({@code 0}: all results)
+   * @return iterator
+   * @throws QueryException query exception
+   */
+  Iter iter(final int top) throws QueryException {
+    if(top <= 0) {
+      return new NodeIter() {
+        @Override
+        public FTNode next() throws QueryException {
+          return finish(FtRanking.this.next());
+        }
+      };
+    }
+
+    // find results with the highest scores; prefer results with smaller pre values
+    final PriorityQueue<FTNode> queue = new PriorityQueue<>(top, (n1, n2) -> {
+      final int c = Double.compare(n1.score(), n2.score());
+      return c != 0 ? c : n2.pre() - n1.pre();
+    });
+    for(FTNode node; (node = next()) != null;) {
+      qc.checkStop();
+      if(queue.size() < top) {
+        queue.add(node);
+      } else if(node.score() > queue.peek().score()) {
+        queue.poll();
+        queue.add(node);
+      } else {
+        continue;
+      }
+      if(queue.size() == top) min = queue.peek().score();
+    }
+
+    // return results in document order
+    final FTNode[] nodes = queue.toArray(new FTNode[0]);
+    Arrays.sort(nodes, (n1, n2) -> n1.pre() - n2.pre());
+    final ValueBuilder vb = new ValueBuilder(qc);
+    for(final FTNode node : nodes) vb.add(finish(node));
+    return vb.value().iter();
+  }
+
+  /**
+   * Finishes a result node.
+   * @param node node (can be {@code null})
+   * @return node
+   */
+  private FTNode finish(final FTNode node) {
+    if(node != null) {
+      // cache entry for visualizations or ft:mark/ft:extract
+      if(qc.ftPosData != null) qc.ftPosData.add(node.data(), node.pre(), node.matches());
+      // remove matches reference to save memory
+      node.matches(null);
+    }
+    return node;
+  }
+
+  /**
+   * Returns the next scored result.
+   * @return node or {@code null}
+   * @throws QueryException query exception
+   */
+  private FTNode next() throws QueryException {
+    if(filter != null) {
+      final FTNode node = filter.next();
+      if(node == null) return null;
+      if(iters == null) {
+        // default scoring
+        node.score();
+      } else {
+        // scores of the terms contained in the result
+        final int pre = node.pre();
+        final double len = length(pre);
+        double sc = 0;
+        for(int i = iters.length - 1; i >= 0; i--) sc += score(i, pre, len);
+        node.score(sc);
+      }
+      return node;
+    }
+
+    final int pre = all ? nextAll() : nextAny();
+    if(pre == -1) return null;
+    final FTNode node = new FTNode(matches, data, pre, 0, 0);
+    node.score(score);
+    return node;
+  }
+
+  /**
+   * Returns the next result that contains at least one of the terms.
+   * @return pre value or {@code -1}
+   */
+  private int nextAny() {
+    final int il = iters.length;
+    while(true) {
+      // skip terms with small scores that cannot yield new top results
+      int e = 0;
+      while(e < il && bounds[e] <= min) e++;
+
+      // choose smallest pre value of the remaining terms as candidate
+      int pre = MAX;
+      for(int i = e; i < il; i++) pre = Math.min(pre, pres[i]);
+      if(pre == MAX) return -1;
+
+      if(qc.ftPosData != null) matches = new FTMatches();
+      final double len = length(pre);
+      double sc = 0;
+      for(int i = e; i < il; i++) {
+        if(pres[i] == pre) {
+          sc += score(i, pre, len);
+          pres[i] = iters[i].more() ? iters[i].pre() : MAX;
+        }
+      }
+      // complete score as long as the candidate can still be included in the results
+      int i = e;
+      while(--i >= 0 && sc + bounds[i] > min) sc += score(i, pre, len);
+      if(i < 0) {
+        score = sc;
+        return pre;
+      }
+    }
+  }
+
+  /**
+   * Returns the next result that contains all terms.
+   * @return pre value or {@code -1}
+   */
+  private int nextAll() {
+    final int il = iters.length;
+    // skip search if no result can yield new top results
+    if(il == 0 || bounds[il - 1] <= min) return -1;
+
+    int pre = 0;
+    for(int i = 0; i < il; i++) pre = Math.max(pre, pres[i]);
+    // leapfrog: let all iterators skip the results that are smaller than the candidate
+    for(int i = 0; i < il;) {
+      if(pre == MAX) return -1;
+      if(pres[i] < pre) pres[i] = iters[i].advance(pre) ? iters[i].pre() : MAX;
+      if(pres[i] > pre) {
+        pre = pres[i];
+        i = 0;
+      } else {
+        i++;
+      }
+    }
+
+    if(qc.ftPosData != null) matches = new FTMatches();
+    final double len = length(pre);
+    double sc = 0;
+    for(int i = 0; i < il; i++) {
+      sc += score(i, pre, len);
+      pres[i] = iters[i].more() ? iters[i].pre() : MAX;
+    }
+    score = sc;
+    return pre;
+  }
+
+  /**
+   * Returns the score of a term for the specified result.
+   * @param i offset of the term
+   * @param pre pre value of the result
+   * @param len length of the result
+   * @return score ({@code 0} if the term is not found)
+   */
+  private double score(final int i, final int pre, final double len) {
+    if(pres[i] < pre) pres[i] = iters[i].advance(pre) ? iters[i].pre() : MAX;
+    if(pres[i] != pre) return 0;
+
+    final FTMatches ms = iters[i].matches();
+    if(matches != null) {
+      for(final FTMatch m : ms) matches.add(m);
+    }
+    return Scoring.bm25(idfs[i], ms.size(), len, avg);
+  }
+
+  /**
+   * Returns the number of tokens of a text.
+   * @param pre pre value
+   * @return length, or average length if no statistics are available
+   */
+  private double length(final int pre) {
+    return index != null ? index.length(pre) : avg;
+  }
+}
@@ -4,12 +4,14 @@ import static org.basex.query.QueryError.*;
 import static org.basex.util.ft.FTFlag.*;
 
 import org.basex.data.*;
+import org.basex.index.query.*;
 import org.basex.query.*;
 import org.basex.query.expr.ft.*;
 import org.basex.query.expr.index.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.*;
 import org.basex.query.value.*;
+import org.basex.query.value.seq.*;
 import org.basex.util.ft.*;
 
 /**
@@ -23,7 +25,7 @@ public final class FtSearch extends FtAccess {
   public Iter iter(final QueryContext qc) throws QueryException {
     final Data data = checkData(qc);
     final Value terms = exprs[1].value(qc);
-    final FtIndexOptions opts = toOptions(2, new FtIndexOptions(), qc);
+    final FtSearchOptions opts = toOptions(2, new FtSearchOptions(), qc);
 
     final IndexDb db = new IndexStaticDb(info, data);
     final FTOpt opt = new FTOpt().assign(data.meta);
@@ -33,7 +35,20 @@ public final class FtSearch extends FtAccess {
     if(opt.is(FZ) && opt.is(WC)) throw FT_OPTIONS.get(info, this);
 
     final FTWords ftw = new FTWords(info, db, terms, mode).init(qc, opt);
-    return new FTIndexAccess(info, options(ftw, opts), db).iter(qc);
+    final FTExpr expr = options(ftw, opts);
+    final boolean bm25 = opts.get(FtSearchOptions.SCORING) == FTScoring.BM25;
+    final int top = opts.get(FtSearchOptions.TOP);
+    if(!bm25 && top <= 0) return new FTIndexAccess(info, expr, db).iter(qc);
+
+    // ranked retrieval: results of filtering options are only scored
+    FTIndexIterator[] iters = null;
+    if(bm25) {
+      iters = ftw.iters(qc);
+      if(iters == null) return Empty.ITER;
+    }
+    final FTIter filter = !bm25 || expr != ftw ? expr.iter(qc) : null;
+    final boolean all = mode == FTMode.ALL || mode == FTMode.ALL_WORDS;
+    return new FtRanking(qc, data, filter, iters, all).iter(top);
   }
 
   @Override
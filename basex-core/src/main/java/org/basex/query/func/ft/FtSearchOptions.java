@@ -0,0 +1,18 @@
+package org.basex.query.func.ft;
+
+import org.basex.util.ft.*;
+import org.basex.util.options.*;
+
+/**
+ * Full-text search options.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class FtSearchOptions extends FtIndexOptions {
+  /** Option: scoring model. */
+  public static final EnumOption<FTScoring> SCORING =
+      new EnumOption<>("scoring", FTScoring.DEFAULT);
+  /** Option: maximum number of results with the highest scores (0: all results). */
+  public static final NumberOption TOP = new NumberOption("top", 0);
+}
@@ -1,6 +1,7 @@
 package org.basex.query.func.inspect;
 
 import org.basex.query.*;
+import org.basex.query.expr.*;
 import org.basex.query.func.*;
 import org.basex.query.value.item.*;
 import org.basex.util.*;
@@ -17,4 +18,10 @@ public final class InspectContext extends StandardFunc {
     checkCreate(qc);
     return new PlainDoc(qc, info).context();
   }
+
+  @Override
+  protected Expr opt(final CompileContext cc) {
+    cc.qc.introspect = true;
+    return this;
+  }
 }
@@ -1,6 +1,7 @@
 package org.basex.query.func.inspect;
 
 import org.basex.query.*;
+import org.basex.query.expr.*;
 import org.basex.query.func.*;
 import org.basex.query.value.item.*;
 import org.basex.util.*;
@@ -19,4 +20,10 @@ public final class InspectFunction extends StandardFunc {
     final StaticFunc sf = name == null ? null : qc.funcs.get(name, func.arity());
     return new PlainDoc(qc, info).function(name, sf, func.funcType(), func.annotations(), null);
   }
+
+  @Override
+  protected Expr opt(final CompileContext cc) {
+    cc.qc.introspect = true;
+    return this;
+  }
 }
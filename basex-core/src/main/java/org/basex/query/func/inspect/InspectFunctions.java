@@ -53,6 +53,7 @@ public final class InspectFunctions extends StandardFunc {
   @Override
   protected Expr opt(final CompileContext cc) {
     if(exprs.length == 0) cc.qc.funcs.compile(cc, true);
+    cc.qc.introspect = true;
     return this;
   }
 
@@ -2,12 +2,11 @@ package org.basex.query.func.xquery;
 
 import static org.basex.query.QueryError.*;
 
-import java.util.concurrent.*;
-
 import org.basex.core.jobs.*;
 import org.basex.query.*;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
+import org.basex.query.util.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.seq.*;
@@ -31,19 +30,12 @@ public final class XQueryForkJoin extends StandardFunc {
     // single function: invoke directly
     if(funcs.size() == 1) return ((FItem) funcs.itemAt(0)).invokeValue(qc, info);
 
-    final ForkJoinPool pool = new ForkJoinPool();
-    final XQueryTask task = new XQueryTask(funcs, qc, info);
     try {
-      return pool.invoke(task);
-    } catch(final Exception ex) {
-      // pass on query and job exceptions
-      final Throwable e = Util.rootException(ex);
-      if(e instanceof QueryException) throw (QueryException) e;
-      if(e instanceof JobException) throw (JobException) e;
-      throw XQUERY_UNEXPECTED_X.get(info, e);
-    } finally {
-      // required?
-      pool.shutdown();
+      return QueryPool.invoke(new XQueryTask(funcs, qc, info));
+    } catch(final JobException ex) {
+      throw ex;
+    } catch(final RuntimeException ex) {
+      throw XQUERY_UNEXPECTED_X.get(info, Util.rootException(ex));
     }
   }
 
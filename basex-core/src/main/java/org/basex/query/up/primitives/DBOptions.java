@@ -26,9 +26,10 @@ public final class DBOptions {
   /** Indexing options. */
   public static final Option<?>[] INDEXING = { MainOptions.MAXCATS, MainOptions.MAXLEN,
     MainOptions.SPLITSIZE, MainOptions.LANGUAGE, MainOptions.STOPWORDS, MainOptions.TEXTINDEX,
-    MainOptions.ATTRINDEX, MainOptions.TOKENINDEX, MainOptions.FTINDEX, MainOptions.TEXTINCLUDE,
-    MainOptions.ATTRINCLUDE, MainOptions.TOKENINCLUDE, MainOptions.FTINCLUDE, MainOptions.STEMMING,
-    MainOptions.CASESENS, MainOptions.DIACRITICS, MainOptions.UPDINDEX, MainOptions.AUTOOPTIMIZE };
+    MainOptions.ATTRINDEX, MainOptions.TOKENINDEX, MainOptions.TRIGRAMINDEX, MainOptions.FTINDEX,
+    MainOptions.TEXTINCLUDE, MainOptions.ATTRINCLUDE, MainOptions.TOKENINCLUDE,
+    MainOptions.TRIGRAMINCLUDE, MainOptions.FTINCLUDE, MainOptions.STEMMING, MainOptions.CASESENS, MainOptions.DIACRITICS, MainOptions.UPDINDEX, MainOptions.AUTOOPTIMIZE,
+    MainOptions.MMAP, MainOptions.COMPRESSION, MainOptions.DICTIONARY, MainOptions.RANGEINDEX };
 
   /** Runtime options. */
   private final HashMap<Option<?>, Object> map = new HashMap<>();
@@ -67,25 +67,36 @@ public final class DBOptimize extends DBUpdate {
     options.assignIfAbsent(MainOptions.TEXTINDEX, meta.createtext);
     options.assignIfAbsent(MainOptions.ATTRINDEX, meta.createattr);
     options.assignIfAbsent(MainOptions.TOKENINDEX, meta.createtoken);
+    options.assignIfAbsent(MainOptions.TRIGRAMINDEX, meta.createtrigram);
     options.assignIfAbsent(MainOptions.FTINDEX, meta.createft);
     options.assignIfAbsent(MainOptions.TEXTINCLUDE, meta.textinclude);
     options.assignIfAbsent(MainOptions.ATTRINCLUDE, meta.attrinclude);
     options.assignIfAbsent(MainOptions.TOKENINCLUDE, meta.tokeninclude);
+    options.assignIfAbsent(MainOptions.TRIGRAMINCLUDE, meta.trigraminclude);
     options.assignIfAbsent(MainOptions.FTINCLUDE, meta.ftinclude);
     options.assignIfAbsent(MainOptions.SPLITSIZE, meta.splitsize);
     options.assignIfAbsent(MainOptions.UPDINDEX, meta.updindex);
     options.assignIfAbsent(MainOptions.AUTOOPTIMIZE, meta.autooptimize);
+    options.assignIfAbsent(MainOptions.MMAP, meta.mmap);
+    options.assignIfAbsent(MainOptions.COMPRESSION, meta.compression);
+    options.assignIfAbsent(MainOptions.DICTIONARY, meta.dictionary);
+    options.assignIfAbsent(MainOptions.RANGEINDEX, meta.rangeindex);
     options.assignTo(opts);
 
     // adopt options to database meta data
     meta.createtext = opts.get(MainOptions.TEXTINDEX);
     meta.createattr = opts.get(MainOptions.ATTRINDEX);
     meta.createtoken = opts.get(MainOptions.TOKENINDEX);
+    meta.createtrigram = opts.get(MainOptions.TRIGRAMINDEX);
     meta.createft = opts.get(MainOptions.FTINDEX);
 
     meta.updindex = opts.get(MainOptions.UPDINDEX);
     meta.autooptimize = opts.get(MainOptions.AUTOOPTIMIZE);
+    meta.mmap = opts.get(MainOptions.MMAP);
     meta.splitsize = opts.get(MainOptions.SPLITSIZE);
+    // heap files can only be converted by rebuilding the database
+    if(opts.get(MainOptions.COMPRESSION) != meta.compression ||
+       opts.get(MainOptions.DICTIONARY) != meta.dictionary) all = true;
 
     // check if other indexing options have changed
     final int maxcats = opts.get(MainOptions.MAXCATS);
@@ -93,15 +104,20 @@ public final class DBOptimize extends DBUpdate {
     final String textinclude = opts.get(MainOptions.TEXTINCLUDE);
     final String attrinclude = opts.get(MainOptions.ATTRINCLUDE);
     final String tokeninclude = opts.get(MainOptions.TOKENINCLUDE);
+    final String trigraminclude = opts.get(MainOptions.TRIGRAMINCLUDE);
     final boolean rebuild = maxlen != meta.maxlen;
-    final boolean rebuildText = !meta.textinclude.equals(textinclude) || rebuild;
-    final boolean rebuildAttr = !meta.attrinclude.equals(attrinclude) || rebuild;
+    final boolean ranges = opts.get(MainOptions.RANGEINDEX) != meta.rangeindex;
+    final boolean rebuildText = !meta.textinclude.equals(textinclude) || rebuild || ranges;
+    final boolean rebuildAttr = !meta.attrinclude.equals(attrinclude) || rebuild || ranges;
     final boolean rebuildToken = !meta.tokeninclude.equals(tokeninclude);
+    final boolean rebuildTrigram = !meta.trigraminclude.equals(trigraminclude);
     meta.textinclude = textinclude;
     meta.attrinclude = attrinclude;
     meta.tokeninclude = tokeninclude;
+    meta.trigraminclude = trigraminclude;
     meta.maxcats = maxcats;
     meta.maxlen = maxlen;
+    meta.rangeindex = opts.get(MainOptions.RANGEINDEX);
 
     // check if fulltext indexing options have changed
     final String ftinclude = opts.get(MainOptions.FTINCLUDE);
@@ -122,7 +138,8 @@ public final class DBOptimize extends DBUpdate {
 
     try {
       if(all) OptimizeAll.optimizeAll(data, qc.context, opts, null);
-      else Optimize.optimize(data, rebuildText, rebuildAttr, rebuildToken, rebuildFt, null);
+      else Optimize.optimize(data, rebuildText, rebuildAttr, rebuildToken, rebuildTrigram,
+          rebuildFt, null);
     } catch(final IOException ex) {
       throw UPDBOPTERR_X.get(info, ex);
     }
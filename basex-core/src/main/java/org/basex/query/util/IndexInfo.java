@@ -42,6 +42,8 @@ public final class IndexInfo {
   public Expr expr;
   /** Costs of index access ({@code null}) if no index access is possible). */
   public IndexCosts costs;
+  /** Indicates if the index results are candidates that must be checked by the predicate. */
+  public boolean verify;
 
   /** Predicate expression. */
   private Expr pred;
@@ -64,8 +66,8 @@ public final class IndexInfo {
    * Checks if the specified expression can be rewritten for index access, and returns
    * the applicable index type.
    * @param input input (if {@code null}, no optimization will be possible)
-   * @param type proposed index type ({@link IndexType#TOKEN}, {@link IndexType#FULLTEXT},
-   * or {@code null})
+   * @param type proposed index type ({@link IndexType#TOKEN}, {@link IndexType#TRIGRAM},
+   * {@link IndexType#FULLTEXT}, or {@code null})
    * @return type of applicable index or {@code null}
    */
   public IndexType type(final Expr input, final IndexType type) {
@@ -169,6 +171,34 @@ public final class IndexInfo {
     return true;
   }
 
+  /**
+   * Tries to rewrite a substring search for trigram index access. The index returns all
+   * texts that contain the trigrams of the search string; as the trigrams may occur in a
+   * different order, the results will be filtered by the original predicate.
+   * @param search string to find
+   * @param type index type (can be {@code null})
+   * @param ii input info (can be {@code null})
+   * @return success flag
+   */
+  public boolean create(final byte[] search, final IndexType type, final InputInfo ii) {
+    // no index, or no trigrams in search string: no optimization
+    if(type != IndexType.TRIGRAM || search.length < 3) return false;
+
+    final Data data = db.data();
+    if(data == null && !enforce()) return false;
+
+    // the number of results is limited by the least frequent trigram
+    for(final byte[] trigram : Token.distinctTrigrams(search)) {
+      final IndexCosts c = costs(data, new StringToken(type, trigram));
+      if(c == null) return false;
+      if(costs == null || costs.compareTo(c) > 0) costs = c;
+    }
+    verify = true;
+    create(new TrigramAccess(ii, search, test, db), false,
+        Util.info(OPTINDEX_X_X, type, Str.get(search)), ii);
+    return true;
+  }
+
   /**
    * Creates an index expression with an inverted axis path.
    * @param root new root expression
@@ -214,6 +244,7 @@ public final class IndexInfo {
     return db.data().meta.index(type) && (
       type == IndexType.FULLTEXT ? text :
       type == IndexType.TOKEN ? !text :
+      type == IndexType.TRIGRAM ? text :
       type == IndexType.TEXT ? text :
       !text && last.test.type == NodeType.ATT
     );
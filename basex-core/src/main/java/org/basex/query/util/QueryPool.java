@@ -0,0 +1,175 @@
+package org.basex.query.util;
+
+import java.util.concurrent.*;
+
+import org.basex.core.jobs.*;
+import org.basex.query.*;
+import org.basex.query.value.*;
+import org.basex.query.value.seq.*;
+import org.basex.util.*;
+
+/**
+ * This class provides a global, size-bounded work-stealing pool for evaluating query
+ * expressions in parallel. The pool is shared by all queries: concurrent jobs will compete for
+ * the same worker threads instead of oversubscribing the available processors.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class QueryPool {
+  /** Maximum number of threads. */
+  private static int threads = Runtime.getRuntime().availableProcessors();
+  /** Pool (lazy instantiation). */
+  private static ForkJoinPool pool;
+
+  /** Private constructor. */
+  private QueryPool() { }
+
+  /**
+   * Assigns the maximum number of threads.
+   * @param max maximum number of threads (0: number of processors)
+   */
+  public static synchronized void threads(final int max) {
+    final int t = max > 0 ? max : Runtime.getRuntime().availableProcessors();
+    if(t == threads) return;
+    threads = t;
+    // running tasks will be completed by the old pool; its threads will then be terminated
+    if(pool != null) pool.shutdown();
+    pool = null;
+  }
+
+  /**
+   * Returns the maximum number of threads.
+   * @return number of threads
+   */
+  public static synchronized int threads() {
+    return threads;
+  }
+
+  /**
+   * Returns the shared pool.
+   * @return pool
+   */
+  public static synchronized ForkJoinPool get() {
+    if(pool == null) pool = new ForkJoinPool(threads);
+    return pool;
+  }
+
+  /**
+   * Invokes a task in the shared pool and waits for its result.
+   * Query and job exceptions raised by the task are passed on.
+   * @param task task
+   * @param <T> result type
+   * @return result
+   * @throws QueryException query exception
+   */
+  public static <T> T invoke(final ForkJoinTask<T> task) throws QueryException {
+    while(true) {
+      final ForkJoinPool fjp = get();
+      try {
+        return fjp.invoke(task);
+      } catch(final RejectedExecutionException ex) {
+        // pool has been replaced after it was requested: retry with the new pool
+        if(!fjp.isShutdown()) throw ex;
+        Util.debug(ex);
+      } catch(final Exception ex) {
+        final Throwable th = Util.rootException(ex);
+        if(th instanceof QueryException) throw (QueryException) th;
+        if(th instanceof JobException) throw (JobException) th;
+        throw ex;
+      }
+    }
+  }
+
+  /**
+   * Evaluates a range of items in parallel. The range is split into chunks, which are
+   * evaluated by separate tasks, and the results are concatenated in their original order.
+   * @param size number of items
+   * @param chunk chunk evaluator
+   * @param qc query context
+   * @return resulting value
+   * @throws QueryException query exception
+   */
+  public static Value eval(final long size, final Chunk chunk, final QueryContext qc)
+      throws QueryException {
+    if(size == 0) return Empty.SEQ;
+    // assign date and time before it is shared by the tasks
+    qc.dateTime();
+    final long max = Math.max(1, size / (threads() * 4L));
+    return invoke(new ChunkTask(chunk, qc, max, 0, size));
+  }
+
+  /**
+   * Evaluator for a chunk of items.
+   */
+  public interface Chunk {
+    /**
+     * Evaluates the specified range of items.
+     * @param start first item
+     * @param end last item (exclusive)
+     * @param qc query context of the task (with copies of the focus and the variable bindings)
+     * @return resulting value
+     * @throws QueryException query exception
+     */
+    Value eval(long start, long end, QueryContext qc) throws QueryException;
+  }
+
+  /**
+   * Task for evaluating a range of items.
+   */
+  private static final class ChunkTask extends RecursiveTask<Value> {
+    /** Chunk evaluator. */
+    private final Chunk chunk;
+    /** Query context. */
+    private final QueryContext qc;
+    /** Maximum number of items to be evaluated by a single task. */
+    private final long max;
+    /** First item to evaluate. */
+    private final long start;
+    /** Last item to evaluate (exclusive). */
+    private final long end;
+
+    /**
+     * Constructor.
+     * @param chunk chunk evaluator
+     * @param qc query context
+     * @param max maximum number of items to be evaluated by a single task
+     * @param start first item to evaluate
+     * @param end last item to evaluate (exclusive)
+     */
+    private ChunkTask(final Chunk chunk, final QueryContext qc, final long max,
+        final long start, final long end) {
+      this.chunk = chunk;
+      this.qc = qc;
+      this.max = max;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected Value compute() {
+      final long s = start, e = end;
+      if(e - s > max) {
+        // split the work and join the results in the correct order
+        final long m = s + (e - s) / 2;
+        final ChunkTask task2 = new ChunkTask(chunk, qc, max, m, e);
+        task2.fork();
+        final Value value1 = new ChunkTask(chunk, qc, max, s, m).compute();
+        return new ValueBuilder(qc).add(value1).add(task2.join()).value();
+      }
+
+      // perform the work with a separate focus and copies of the variable bindings
+      final QueryContext tqc = new QueryContext(qc);
+      try {
+        tqc.focus = qc.focus.copy();
+        tqc.dateTime = qc.dateTime;
+        tqc.stack.copyFrame(qc.stack);
+        return chunk.eval(s, e, tqc);
+      } catch(final QueryException ex) {
+        throw new QueryRTException(ex);
+      } finally {
+        tqc.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package org.basex.query.util;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.query.*;
+import org.basex.util.*;
+
+/**
+ * Temporary files created during query evaluation. Files that have not been deleted yet will be
+ * closed and deleted after the query has been evaluated.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class TempFiles implements QueryResource {
+  /** Temporary files, and inputs that have been opened for reading (can be {@code null}). */
+  private final HashMap<IOFile, DataInput> files = new HashMap<>();
+
+  /**
+   * Creates a new temporary file.
+   * @return file
+   * @throws IOException I/O exception
+   */
+  public synchronized IOFile create() throws IOException {
+    final IOFile file = new IOFile(File.createTempFile(Prop.NAME + '-', IO.TMPSUFFIX));
+    files.put(file, null);
+    return file;
+  }
+
+  /**
+   * Opens a temporary file for reading.
+   * @param file file
+   * @return input
+   * @throws IOException I/O exception
+   */
+  public synchronized DataInput open(final IOFile file) throws IOException {
+    final DataInput in = new DataInput(file);
+    files.put(file, in);
+    return in;
+  }
+
+  /**
+   * Closes and deletes a temporary file.
+   * @param file file
+   */
+  public synchronized void delete(final IOFile file) {
+    final DataInput in = files.remove(file);
+    if(in != null) {
+      try {
+        in.close();
+      } catch(final IOException ex) {
+        Util.debug(ex);
+      }
+    }
+    file.delete();
+  }
+
+  @Override
+  public synchronized void close() {
+    for(final IOFile file : new ArrayList<>(files.keySet())) delete(file);
+  }
+}
@@ -55,6 +55,14 @@ public final class ModuleLoader {
     }
   }
 
+  /**
+   * Indicates if Java modules have been instantiated.
+   * @return result of check
+   */
+  public boolean java() {
+    return !javaModules.isEmpty();
+  }
+
   /**
    * Adds a package from the repository or a Java class.
    * @param uri module uri
@@ -36,6 +36,17 @@ public final class QueryStack {
     return s;
   }
 
+  /**
+   * Enters a new stack frame and assigns the bindings of the current frame of another stack.
+   * @param qs stack with the bindings to be copied
+   */
+  public void copyFrame(final QueryStack qs) {
+    final int size = qs.end - qs.start;
+    enterFrame(size);
+    Array.copy(qs.stack, qs.start, size, stack, start);
+    Array.copy(qs.vars, qs.start, size, vars, start);
+  }
+
   /**
    * Prepares the current stack frame to be reused.
    * @param size new frame size
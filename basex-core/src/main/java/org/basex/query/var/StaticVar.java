@@ -28,6 +28,8 @@ public final class StaticVar extends StaticDecl {
 
   /** Bound value. */
   Value value;
+  /** Indicates if the value is bound at evaluation time (variable of a cached query plan). */
+  boolean deferred;
 
   /**
    * Constructor for a variable declared in a query.
@@ -48,6 +50,7 @@ public final class StaticVar extends StaticDecl {
 
   @Override
   public void comp(final CompileContext cc) throws QueryException {
+    if(deferred) return;
     if(expr == null) throw VAREMPTY_X.get(info, name());
     if(dontEnter) throw CIRCVAR_X.get(info, name());
     if(compiled) return;
@@ -81,6 +84,11 @@ public final class StaticVar extends StaticDecl {
    * @throws QueryException query exception
    */
   Value value(final QueryContext qc) throws QueryException {
+    if(deferred) {
+      final Value val = qc.deferred(this);
+      if(val == null) throw VAREMPTY_X.get(info, name());
+      return val;
+    }
     if(dontEnter) throw CIRCVAR_X.get(info, name());
 
     if(lazy) {
@@ -119,11 +127,35 @@ public final class StaticVar extends StaticDecl {
    * @throws QueryException query exception
    */
   void bind(final Value val, final QueryContext qc) throws QueryException {
-    if(!external || compiled) return;
+    if(!external || compiled || deferred) return;
     bindValue(declType == null || declType.instance(val) ? val :
       declType.cast(val, qc, sc, info), qc);
   }
 
+  /**
+   * Defers the binding of this external variable to evaluation time.
+   * The static type must not be derived from the default value.
+   */
+  void defer() {
+    deferred = true;
+    if(declType == null) declType = SeqType.ITEM_ZM;
+  }
+
+  /**
+   * Binds an external value, or the default value, to a deferred variable. The value is
+   * assigned to the specified query context, which evaluates the cached query plan.
+   * @param val value to bind (can be {@code null})
+   * @param qc query context
+   * @throws QueryException query exception
+   */
+  void bindDeferred(final Value val, final QueryContext qc) throws QueryException {
+    final Value v = val == null ? (Value) expr : declType == null || declType.instance(val) ? val :
+      declType.cast(val, qc, sc, info);
+    if(v == null) return;
+    if(declType != null) declType.treat(v, name, qc, info);
+    qc.deferred(this, v);
+  }
+
   /**
    * Binds the specified value to the variable.
    * @param val value to be set
@@ -113,6 +113,46 @@ public final class Variables extends ExprInfo implements Iterable<StaticVar> {
     };
   }
 
+  /**
+   * Defers the binding of all external variables to evaluation time.
+   * @return {@code false} if the default value of an external variable is not a value
+   */
+  public boolean defer() {
+    for(final StaticVar var : this) {
+      if(var.external && var.expr != null && !(var.expr instanceof Value)) return false;
+    }
+    for(final StaticVar var : this) {
+      if(var.external) var.defer();
+    }
+    return true;
+  }
+
+  /**
+   * Binds the deferred external variables.
+   * @param qc query context, which evaluates the cached query plan
+   * @param bindings variable bindings
+   * @throws QueryException query exception
+   */
+  public void bindDeferred(final QueryContext qc, final HashMap<QNm, Value> bindings)
+      throws QueryException {
+    for(final StaticVar var : this) {
+      if(var.deferred) var.bindDeferred(bindings.get(var.name), qc);
+    }
+  }
+
+  /**
+   * Checks if the compiled variables can be shared by the evaluations of a cached query plan.
+   * This is the case if the values of all compiled variables, other than the deferred ones,
+   * have been computed.
+   * @return result of check
+   */
+  public boolean shareable() {
+    for(final StaticVar var : this) {
+      if(!var.deferred && var.compiled() && var.value == null) return false;
+    }
+    return true;
+  }
+
   @Override
   public void plan(final FElem plan) {
     if(vars.isEmpty()) return;
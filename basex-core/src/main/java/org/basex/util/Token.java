@@ -4,6 +4,7 @@ import java.text.*;
 import java.util.*;
 
 import org.basex.io.out.*;
+import org.basex.util.hash.*;
 
 /**
  * <p>This class provides convenience operations for handling 'Tokens'.
@@ -963,6 +964,22 @@ public final class Token {
     return Array.copyOf(tokens, tl);
   }
 
+  /**
+   * Returns the distinct trigrams (substrings with three bytes) of the specified token,
+   * in the order of their first occurrence.
+   * @param token token
+   * @return distinct trigrams
+   */
+  public static byte[][] distinctTrigrams(final byte[] token) {
+    final TokenSet trigrams = new TokenSet();
+    final int tl = token.length - 2;
+    for(int t = 0; t < tl; t++) trigrams.add(Arrays.copyOfRange(token, t, t + 3));
+    final byte[][] tokens = new byte[trigrams.size()][];
+    int i = 0;
+    for(final byte[] trigram : trigrams) tokens[i++] = trigram;
+    return tokens;
+  }
+
   /**
    * Checks if the specified token has only whitespaces.
    * @param token token
@@ -0,0 +1,19 @@
+package org.basex.util.ft;
+
+import java.util.*;
+
+/**
+ * Scoring model.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public enum FTScoring {
+  /** Default scoring. */ DEFAULT,
+  /** Okapi BM25. */ BM25;
+
+  @Override
+  public String toString() {
+    return name().toLowerCase(Locale.ENGLISH);
+  }
+}
@@ -11,6 +11,10 @@ import static java.lang.StrictMath.*;
 public final class Scoring {
   /** Logarithmic base for calculating the score value. */
   private static final double LOG = Math.E - 1;
+  /** BM25: saturation of the term frequency. */
+  private static final double K1 = 1.2;
+  /** BM25: normalization of the text length. */
+  private static final double B = 0.75;
 
   /** Private constructor. */
   private Scoring() { }
@@ -58,4 +62,37 @@ public final class Scoring {
       final int length) {
     return max((double) number / size, log(token * number + 1) / log(length + 1));
   }
+
+  /**
+   * Calculates the inverse document frequency of a term (BM25).
+   * @param df number of texts containing the term
+   * @param n total number of texts
+   * @return inverse document frequency
+   */
+  public static double idf(final int df, final int n) {
+    final double d = min(df, n);
+    return log(1 + (n - d + 0.5) / (d + 0.5));
+  }
+
+  /**
+   * Calculates the score of a term in a text (BM25).
+   * @param idf inverse document frequency of the term
+   * @param tf number of occurrences of the term in the text
+   * @param length number of tokens of the text
+   * @param avg average number of tokens of all texts
+   * @return score
+   */
+  public static double bm25(final double idf, final int tf, final double length,
+      final double avg) {
+    return idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / avg));
+  }
+
+  /**
+   * Returns the upper bound for the score of a term in a text (BM25).
+   * @param idf inverse document frequency of the term
+   * @return maximum score
+   */
+  public static double bm25Max(final double idf) {
+    return idf * (K1 + 1);
+  }
 }
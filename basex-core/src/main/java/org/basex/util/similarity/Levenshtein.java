@@ -110,15 +110,17 @@ public final class Levenshtein {
       matrix = mx;
     }
 
+    // matrix is addressed by character positions
+    final int tkl = tk.length, sbl = sb.length;
     int e2 = -1, f2 = -1;
-    for(int t = 0; t < tl; t += cl(tk, t)) {
+    for(int t = 0, i = 0; t < tkl; t += cl(tk, t), i++) {
       final int e = noDiacritics(lc(cp(tk, t)));
       int d = Integer.MAX_VALUE;
-      for(int s = 0; s < sl; s += cl(sb, s)) {
+      for(int s = 0, j = 0; s < sbl; s += cl(sb, s), j++) {
         final int f = noDiacritics(lc(cp(sb, s)));
-        int c = m(mx[t][s + 1] + 1, mx[t + 1][s] + 1, mx[t][s] + (e == f ? 0 : 1));
-        if(e == f2 && f == e2) c = mx[t][s];
-        mx[t + 1][s + 1] = c;
+        int c = m(mx[i][j + 1] + 1, mx[i + 1][j] + 1, mx[i][j] + (e == f ? 0 : 1));
+        if(e == f2 && f == e2) c = mx[i][j];
+        mx[i + 1][j + 1] = c;
         d = Math.min(d, c);
         f2 = f;
       }
@@ -182,7 +184,7 @@ public final class Levenshtein {
   private static boolean same(final byte[] tk, final byte[] sb) {
     final int tl = tk.length, sl = sb.length;
     for(int s = 0, t = 0; t < tl && s < sl; t += cl(tk, t), s += cl(sb, s)) {
-      if(lc(noDiacritics(cp(tk, t))) != lc(noDiacritics(cp(sb, t)))) return false;
+      if(lc(noDiacritics(cp(tk, t))) != lc(noDiacritics(cp(sb, s)))) return false;
     }
     return true;
   }
@@ -0,0 +1,128 @@
+package org.basex.util.similarity;
+
+import static org.basex.util.FTToken.*;
+import static org.basex.util.Token.*;
+
+/**
+ * <p>Levenshtein automaton for finding similar terms in a sorted dictionary.</p>
+ *
+ * <p>The characters of a term are consumed one by one, and the rows of the distance matrix
+ * are computed incrementally. Each row represents a state of the automaton. If the terms are
+ * supplied in lexicographical order, the states of the common prefix of two subsequent terms
+ * will be reused. If no cell of a row is smaller than or equal to the maximum number of errors,
+ * the state is dead, and all terms starting with the consumed prefix can be skipped.</p>
+ *
+ * <p>The accepted terms are identical to those of
+ * {@link Levenshtein#similar(byte[], byte[], int)}.</p>
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class LevenshteinAutomaton {
+  /** Maximum token size. */
+  private static final int MAX = 50;
+
+  /** Search token. */
+  private final byte[] token;
+  /** Allowed errors (dynamic calculation if value is 0). */
+  private final int error;
+  /** Normalized characters of the search token. */
+  private final int[] query;
+  /** Maximum number of errors ({@code -1}: only exact matches will be accepted). */
+  private final int k;
+  /** Similarity test for terms that are not processed by the automaton. */
+  private final Levenshtein ls;
+
+  /** States of the consumed characters of the current term. */
+  private final int[][] rows;
+  /** Normalized characters of the current term. */
+  private final int[] chars = new int[MAX + 1];
+  /** Byte offsets of the characters of the current term. */
+  private final int[] offsets = new int[MAX + 2];
+  /** Current term. */
+  private byte[] term = EMPTY;
+  /** Number of valid states. */
+  private int depth;
+  /** Length of the prefix of the current term with a dead state ({@code -1}: none). */
+  private int dead = -1;
+
+  /**
+   * Constructor.
+   * @param token search token
+   * @param error allowed errors; dynamic calculation if value is 0
+   */
+  public LevenshteinAutomaton(final byte[] token, final int error) {
+    this.token = token;
+    this.error = error;
+    ls = new Levenshtein();
+
+    final int tl = token.length;
+    int ql = 0;
+    for(int t = 0; t < tl; t += cl(token, t)) ++ql;
+    query = new int[ql];
+    for(int t = 0, q = 0; t < tl; t += cl(token, t)) query[q++] = noDiacritics(lc(cp(token, t)));
+
+    // exact search for too short and too long tokens
+    k = error == 0 && ql < 4 || ql > MAX ? -1 : error == 0 ? Math.max(1, ql >> 2) : error;
+    rows = new int[k == -1 ? 1 : MAX + 1][ql + 1];
+    for(int q = 0; q <= ql; q++) rows[0][q] = q;
+  }
+
+  /**
+   * Checks if the specified term is similar to the search token.
+   * @param trm term
+   * @return result of check
+   */
+  public boolean accept(final byte[] trm) {
+    dead = -1;
+    final int tl = trm.length;
+    int tlen = 0;
+    for(int t = 0; t < tl; t += cl(trm, t)) ++tlen;
+    if(k == -1 || tlen > MAX) {
+      depth = 0;
+      term = EMPTY;
+      return ls.similar(trm, token, error);
+    }
+
+    // reuse states of the common prefix
+    final int pl = Math.min(term.length, tl);
+    int p = 0;
+    while(p < pl && term[p] == trm[p]) p++;
+    while(offsets[depth] > p) depth--;
+    term = trm;
+
+    // consume remaining characters
+    final int ql = query.length;
+    for(int t = offsets[depth]; t < tl; t += cl(trm, t)) {
+      final int d = depth, e = noDiacritics(lc(cp(trm, t))), e2 = d == 0 ? -1 : chars[d - 1];
+      final int[] prev = rows[d], next = rows[d + 1];
+      int f2 = d == 0 || ql == 0 ? -1 : query[ql - 1], min = Integer.MAX_VALUE;
+      next[0] = d + 1;
+      for(int q = 0; q < ql; q++) {
+        final int f = query[q];
+        int c = Math.min(Math.min(prev[q + 1] + 1, next[q] + 1), prev[q] + (e == f ? 0 : 1));
+        if(e == f2 && f == e2) c = prev[q];
+        next[q + 1] = c;
+        min = Math.min(min, c);
+        f2 = f;
+      }
+      chars[d] = e;
+      offsets[d + 1] = t + cl(trm, t);
+      depth = d + 1;
+      if(min > k) {
+        // dead state: no term with this prefix will be accepted
+        dead = offsets[depth];
+        return false;
+      }
+    }
+    return tlen != 0 && Math.abs(ql - tlen) <= k && rows[tlen][ql] <= k;
+  }
+
+  /**
+   * Returns the length of the prefix of the last rejected term that leads to a dead state.
+   * @return number of bytes, or {@code -1} if subsequent terms may be accepted
+   */
+  public int dead() {
+    return dead;
+  }
+}
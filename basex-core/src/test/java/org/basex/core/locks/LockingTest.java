@@ -444,6 +444,85 @@ public final class LockingTest extends SandboxTest {
     th2.release();
   }
 
+  /**
+   * Locks upgrading, the other thread is reader.
+   * @throws InterruptedException Got interrupted.
+   */
+  @Test public void upgradeTest() throws InterruptedException {
+    final CountDownLatch sync = new CountDownLatch(1), test = new CountDownLatch(1);
+
+    final LockTester th1 = new LockTester(null, objects, NONE, sync);
+    final Thread th2 = new Thread(() -> {
+      final Locks locks = new Locks();
+      for(final String object : objects) locks.reads.add(object);
+      locks.finish(context);
+      try {
+        if(!sync.await(WAIT, TimeUnit.MILLISECONDS)) fail("Latch timed out.");
+        locking.acquire(locks);
+        locking.upgrade();
+        test.countDown();
+        locking.release();
+      } catch(final InterruptedException ex) {
+        throw new RuntimeException("Unexpectedly interrupted.");
+      }
+    });
+
+    th1.start();
+    th2.start();
+    assertFalse("Thread 2 shouldn't be able to upgrade lock yet.",
+        test.await(WAIT, TimeUnit.MILLISECONDS));
+    th1.release();
+    assertTrue("Thread 2 should be able to upgrade lock now.",
+        test.await(WAIT, TimeUnit.MILLISECONDS));
+  }
+
+  /**
+   * Locks upgrading, the other thread is a writer that is executed before the upgrade.
+   * @throws Exception exception
+   */
+  @Test public void upgradeWriterTest() throws Exception {
+    // fair locking: queued writer will be preferred
+    final StaticOptions sopts = context.soptions;
+    final boolean fair = sopts.get(StaticOptions.FAIRLOCK);
+    final Locking lckng;
+    sopts.set(StaticOptions.FAIRLOCK, true);
+    try {
+      lckng = new Locking(sopts);
+    } finally {
+      sopts.set(StaticOptions.FAIRLOCK, fair);
+    }
+
+    // no other writer
+    final Locks locks = new Locks();
+    locks.reads.add(objects[0]);
+    locks.finish(context);
+    lckng.acquire(locks);
+    assertTrue(lckng.upgrade());
+    lckng.release();
+
+    // writer is queued while the read lock is held
+    locks.writes.reset();
+    locks.reads.add(objects[0]);
+    locks.finish(context);
+    lckng.acquire(locks);
+    final Thread writer = new Thread(() -> {
+      final Locks wlocks = new Locks();
+      wlocks.writes.add(objects[0]);
+      wlocks.finish(context);
+      try {
+        lckng.acquire(wlocks);
+      } catch(final InterruptedException ex) {
+        throw new RuntimeException("Unexpectedly interrupted.");
+      }
+      lckng.release();
+    });
+    writer.start();
+    while(writer.getState() != Thread.State.WAITING) Thread.sleep(1);
+    assertFalse(lckng.upgrade());
+    lckng.release();
+    writer.join();
+  }
+
   /**
    * Forces a deadlock.
    * @throws InterruptedException Got interrupted.
@@ -0,0 +1,96 @@
+package org.basex.data;
+
+import static org.basex.data.DataText.*;
+import static org.junit.Assert.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.core.parse.Commands.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Test index updates when using disk storage with compressed heap files
+ * ({@link MainOptions#COMPRESSION}).
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class CompressedDiskDataTest extends MemDataTest {
+  /** Test database name. */
+  private final String dbName = Util.className(CompressedDiskDataTest.class);
+
+  @Override
+  @Before public void setUp() {
+    set(MainOptions.COMPRESSION, true);
+    execute(new CreateDB(dbName, XMLSTR));
+  }
+
+  /**
+   * Clean up method; executed after each test; drops the database.
+   */
+  @After public void cleanUp() {
+    execute(new DropDB(dbName));
+    set(MainOptions.COMPRESSION, false);
+  }
+
+  /**
+   * Checks that recurring texts are stored in compressed form, and that updates and
+   * optimizations preserve the contents.
+   */
+  @Test public void compressed() {
+    final TokenBuilder doc = new TokenBuilder().add("<a>");
+    for(int i = 1; i <= 10000; i++) {
+      doc.add("<b c='attribute " + i % 10 + "'>text " + i + "</b>");
+    }
+    execute(new CreateDB(dbName, doc.add("</a>").toString()));
+
+    final MetaData meta = context.data().meta;
+    assertTrue(meta.compression);
+    assertTrue(meta.dbfile(DATABLK + DATATXT).exists());
+    final long size = meta.dbfile(DATATXT).length();
+    assertTrue("Heap file not compressed: " + size, size < 10000 * 8);
+
+    query("for $b in //b[position() mod 100 = 0] return replace value of node $b with "
+        + "string-join(1 to 100)");
+    query("//b[100]/text() = string-join(1 to 100)", "true");
+    query("count(//b[starts-with(., 'text')])", "9900");
+
+    // converting back to uncompressed heap files
+    execute(new Close());
+    query("db:optimize('" + dbName + "', false(), map { 'compression': false() })");
+    execute(new Open(dbName));
+    assertFalse(context.data().meta.compression);
+    assertFalse(context.data().meta.dbfile(DATABLK + DATATXT).exists());
+    query("//b[100]/text() = string-join(1 to 100)", "true");
+    query("count(//@c[. = 'attribute 1'])", "1000");
+  }
+
+  /**
+   * Checks that dropped and rebuilt value indexes do not affect the block indexes of
+   * the heap files.
+   */
+  @Test public void rebuildIndexes() {
+    execute(new CreateDB(dbName, "<a><b c='attribute'>text</b></a>"));
+    execute(new DropIndex(CmdIndex.TEXT));
+    execute(new DropIndex(CmdIndex.ATTRIBUTE));
+
+    // patterns used for dropping index files, and for cleaning up after failed index builds
+    final MetaData meta = context.data().meta;
+    for(final String name : new String[] { DATATXT, DATAATV }) {
+      meta.drop(name + '.');
+      meta.drop(name + ".+");
+      assertTrue(meta.dbfile(DATABLK + name).exists());
+    }
+    execute(new Close());
+    execute(new Open(dbName));
+    query("//b/text() || //@c", "textattribute");
+
+    execute(new CreateIndex(CmdIndex.TEXT));
+    execute(new CreateIndex(CmdIndex.ATTRIBUTE));
+    execute(new Close());
+    execute(new Open(dbName));
+    query("//b[text() = 'text']/@c = 'attribute'", "true");
+  }
+}
@@ -46,6 +46,9 @@ public abstract class DataUpdateTest extends SandboxTest {
   /** Main memory flag. */
   @Parameter
   public Object mainmem;
+  /** Block compression flag. */
+  @Parameter(1)
+  public Object compression;
 
   /**
    * Test parameters.
@@ -53,7 +56,7 @@ public abstract class DataUpdateTest extends SandboxTest {
    */
   @Parameters
   public static List<Object[]> params() {
-    return Arrays.asList(new Object[][] { { false }, { true } });
+    return Arrays.asList(new Object[][] { { false, false }, { true, false }, { false, true } });
   }
 
   /**
@@ -69,6 +72,7 @@ public abstract class DataUpdateTest extends SandboxTest {
    */
   @Before public final void setUp() {
     set(MainOptions.MAINMEM, mainmem);
+    set(MainOptions.COMPRESSION, compression);
     execute(new CreateDB(NAME, TESTFILE));
     size = context.data().meta.size;
   }
@@ -77,6 +81,7 @@ public abstract class DataUpdateTest extends SandboxTest {
    * Deletes the test database.
    */
   @After public final void tearDown() {
+    set(MainOptions.COMPRESSION, false);
     if((Boolean) mainmem) return;
     execute(new Close());
     execute(new DropDB(NAME));
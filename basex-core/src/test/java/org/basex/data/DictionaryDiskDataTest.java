@@ -0,0 +1,98 @@
+package org.basex.data;
+
+import static org.basex.data.DataText.*;
+import static org.junit.Assert.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Test index updates when using disk storage with dictionary-encoded values
+ * ({@link MainOptions#DICTIONARY}).
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class DictionaryDiskDataTest extends MemDataTest {
+  /** Test database name. */
+  private final String dbName = Util.className(DictionaryDiskDataTest.class);
+
+  @Override
+  @Before public void setUp() {
+    set(MainOptions.DICTIONARY, true);
+    execute(new CreateDB(dbName, XMLSTR));
+  }
+
+  /**
+   * Clean up method; executed after each test; drops the database.
+   */
+  @After public void cleanUp() {
+    execute(new DropDB(dbName));
+    set(MainOptions.DICTIONARY, false);
+    set(MainOptions.TEXTINDEX, true);
+    set(MainOptions.ATTRINDEX, true);
+  }
+
+  /**
+   * Checks that recurring values are referenced, compared and updated correctly.
+   */
+  @Test public void dictionary() {
+    final TokenBuilder doc = new TokenBuilder().add("<a>");
+    for(int i = 1; i <= 1000; i++) {
+      doc.add("<b c='status " + i % 3 + "'><d>country " + i % 5 + "</d><e>text " + i + "</e></b>");
+    }
+    // disable index structures to enforce sequential comparisons
+    set(MainOptions.TEXTINDEX, false);
+    set(MainOptions.ATTRINDEX, false);
+    execute(new CreateDB(dbName, doc.add("</a>").toString()));
+
+    final Data data = context.data();
+    assertTrue(data.meta.dictionary);
+    assertTrue(data.meta.dbfile(DATADIC).exists());
+    // categories are stored in the dictionary, arbitrary strings are stored in the heap files
+    assertNotEquals(0, data.dictionaryId(Token.token("status 1")));
+    assertNotEquals(0, data.dictionaryId(Token.token("country 1")));
+    assertEquals(0, data.dictionaryId(Token.token("text 999")));
+
+    query("count(//b[@c = 'status 1'])", "334");
+    query("count(//d[. = 'country 4'])", "200");
+    query("count(//d[text() = ('country 4', 'country 0')])", "400");
+    query("count(//b[d = 'country 4'])", "200");
+    query("count(//b[@c = 'status 4'])", "0");
+    query("count(//e[. = 'text 7'])", "1");
+    query("//b[1]/@c = 'status 1'", "true");
+
+    // updates: reference existing entries or store new values in the heap file
+    query("replace value of node //b[1]/@c with 'status 2'");
+    query("replace value of node //b[2]/d with 'country 9'");
+    query("replace value of node //b[3]/e with 'country 1'");
+    query("count(//b[@c = 'status 2'])", "334");
+    query("count(//d[. = 'country 9'])", "1");
+    query("count(//*[. = 'country 1'])", "201");
+    query("//b[2]/d/text()", "country 9");
+
+    // converting back to plain heap files
+    execute(new Close());
+    query("db:optimize('" + dbName + "', false(), map { 'dictionary': false() })");
+    execute(new Open(dbName));
+    assertFalse(context.data().meta.dictionary);
+    assertEquals(0, context.data().dictionaryId(Token.token("status 1")));
+    query("count(//b[@c = 'status 2'])", "334");
+    query("count(//*[. = 'country 1'])", "201");
+  }
+
+  /**
+   * Checks the largest heap file offsets that can be distinguished from dictionary references.
+   */
+  @Test public void offsets() {
+    final long ref = ValueDictionary.REF, max = ref - 1;
+    assertTrue(ValueDictionary.offset(max));
+    assertFalse(ValueDictionary.offset(ref));
+    assertFalse(ValueDictionary.ref(max));
+    assertFalse(ValueDictionary.ref(Compress.COMPRESS | max));
+    assertTrue(ValueDictionary.ref(ref | 1));
+  }
+}
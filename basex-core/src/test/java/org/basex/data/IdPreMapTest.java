@@ -2,9 +2,12 @@ package org.basex.data;
 
 import static org.junit.Assert.*;
 
+import java.io.*;
 import java.util.*;
 
 import org.basex.index.*;
+import org.basex.io.*;
+import org.basex.util.*;
 import org.basex.util.list.*;
 import org.junit.*;
 
@@ -96,6 +99,33 @@ public final class IdPreMapTest {
     }
   }
 
+  /**
+   * Serialization: write and read the map after random updates.
+   * @throws IOException I/O exception
+   */
+  @Test public void serialization() throws IOException {
+    final IOFile file = new IOFile(Prop.TEMPDIR, Util.className(IdPreMapTest.class) + ".idp");
+    try {
+      for(int i = 0, cnt = BASEID + 1, id = BASEID + 1; i < ITERATIONS; ++i) {
+        if(RANDOM.nextBoolean() || cnt == 0) insert(RANDOM.nextInt(++cnt), id++);
+        else delete(RANDOM.nextInt(cnt--));
+      }
+      testedmap.write(file);
+      final int size = testedmap.size();
+      testedmap = new IdPreMap(file);
+      assertEquals(size, testedmap.size());
+      check();
+
+      // perform further updates on the deserialized map
+      for(int id = BASEID + ITERATIONS + 1, n = id + ITERATIONS; id < n; ++id) {
+        insert(RANDOM.nextInt(basemap.size() + 1), id);
+      }
+      check();
+    } finally {
+      file.delete();
+    }
+  }
+
   /** Insert performance: insert at random positions. */
   @Test public void insertPerformance() {
     insertPerformance(testedmap);
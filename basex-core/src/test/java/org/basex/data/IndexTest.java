@@ -1,6 +1,7 @@
 package org.basex.data;
 
 import static org.basex.query.func.Function.*;
+import static org.junit.Assert.*;
 
 import java.util.*;
 import java.util.List;
@@ -8,6 +9,9 @@ import java.util.List;
 import org.basex.*;
 import org.basex.core.*;
 import org.basex.core.cmd.*;
+import org.basex.core.parse.Commands.*;
+import org.basex.io.*;
+import org.basex.util.*;
 import org.junit.*;
 import org.junit.Test;
 import org.junit.runner.*;
@@ -51,6 +55,7 @@ public final class IndexTest extends SandboxTest {
   @After public void after() {
     execute(new DropDB(NAME));
     set(MainOptions.TOKENINDEX, false);
+    set(MainOptions.FTINDEX, false);
     set(MainOptions.UPDINDEX, false);
     set(MainOptions.AUTOOPTIMIZE, false);
     set(MainOptions.MAINMEM, false);
@@ -138,6 +143,117 @@ public final class IndexTest extends SandboxTest {
     query(_DB_INFO.args(NAME) + "//tokenindex/text()", true);
   }
 
+  /**
+   * Test.
+   */
+  @Test public void updindexFulltext() {
+    if((Boolean) mainmem) return;
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.FTINDEX, true);
+    execute(new CreateDB(NAME, "<x><a>A B</a></x>"));
+    for(int i = 0; i < 5; i++) {
+      execute(new Add("a", "<x><a>A C</a><a>D</a></x>"));
+      execute(new Replace("a", "<x><a>Ending</a></x>"));
+      execute(new Close());
+      execute(new Open(NAME));
+    }
+    final String count = "count(//a[text() contains text '%'])";
+    query(Util.info(count, "A"), 1);
+    query(Util.info(count, "B"), 1);
+    query(Util.info(count, "C"), 0);
+    query(Util.info(count, "Ending"), 1);
+    query(Util.info(count, "F"), 0);
+
+    query("replace value of node //a[. = 'A B'] with 'C D'");
+    query("insert node <a>B D</a> into (/x)[1]");
+    query(Util.info(count, "B"), 1);
+    query(Util.info(count, "D"), 2);
+    query("count(//a[text() contains text 'E.*' using wildcards])", 1);
+    query("count(//a[text() contains text 'Endung' using fuzzy])", 1);
+    query(_FT_TOKENS.args(NAME) + "[. = 'd']/@count/data()", 2);
+    query(_DB_INFO.args(NAME) + "//ftindex/text()", true);
+
+    // statistics for relevance scoring are updated as well
+    final String scores = _FT_SEARCH.args(NAME, " ('a', 'd')",
+        " map { 'scoring':'bm25' }") + " ! " + _FT_SCORE.args(" .");
+    final String result = query(scores);
+    execute(new OptimizeAll());
+    query(scores, result);
+  }
+
+  /**
+   * Test.
+   */
+  @Test public void updindexFulltextMerge() {
+    if((Boolean) mainmem) return;
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.FTINDEX, true);
+    execute(new CreateDB(NAME, "<x><a>A B</a></x>"));
+    // add enough entries to merge the buffered entries with the index
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < 8000; i++) sb.append("<a>A C ").append(i % 10).append("</a>");
+    execute(new Add("a", sb.append("</x>").toString()));
+
+    final String count = "count(//a[text() contains text '%'])";
+    query(Util.info(count, "A"), 8001);
+    query(Util.info(count, "C"), 8000);
+    query(Util.info(count, "1"), 800);
+    execute(new Delete("a"));
+    query(Util.info(count, "A"), 1);
+    query(Util.info(count, "C"), 0);
+    query(_DB_INFO.args(NAME) + "//ftindex/text()", true);
+  }
+
+  /**
+   * Merges the buffered entries if their number exceeds a fraction of the number of
+   * index entries (not of the index file size).
+   */
+  @Test public void updindexFulltextMergeThreshold() {
+    if((Boolean) mainmem) return;
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.FTINDEX, true);
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < 30000; i++) sb.append("<a>A B C D E F G H I J</a>");
+    execute(new CreateDB(NAME, sb.append("</x>").toString()));
+
+    // add 50000 entries: more than 1/8 of the 300000 entries of the index
+    sb.setLength(0);
+    sb.append("<x>");
+    for(int i = 0; i < 5000; i++) sb.append("<a>K L M N O P Q R S T</a>");
+    execute(new Add("a", sb.append("</x>").toString()));
+    final IOFile delta = context.data().meta.dbfile(DataText.DATAFTX + 'u');
+    assertTrue("Entries were not merged: " + delta.length(), delta.length() < 100);
+    query("count(//a[text() contains text 'K'])", 5000);
+  }
+
+  /**
+   * Rebuilds an updatable full-text index: buffered changes of the old index must be discarded.
+   */
+  @Test public void updindexFulltextRebuild() {
+    if((Boolean) mainmem) return;
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.FTINDEX, true);
+    execute(new CreateDB(NAME, "<a>alpha</a>"));
+    final String count = "count(//a[text() contains text '%'])";
+
+    query("replace value of node /a with 'gamma'");
+    execute(new DropIndex(CmdIndex.FULLTEXT));
+    query("replace value of node /a with 'delta'");
+    execute(new CreateIndex(CmdIndex.FULLTEXT));
+    execute(new Close());
+    execute(new Open(NAME));
+    query(Util.info(count, "gamma"), 0);
+    query(Util.info(count, "delta"), 1);
+
+    query("replace value of node /a with 'beta'");
+    execute(new Optimize());
+    execute(new Close());
+    execute(new Open(NAME));
+    query(Util.info(count, "delta"), 0);
+    query(Util.info(count, "beta"), 1);
+    query(_FT_TOKENS.args(NAME) + "[. = 'beta']/@count/data()", 1);
+  }
+
   /**
    * Test.
    */
@@ -0,0 +1,32 @@
+package org.basex.data;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.util.*;
+import org.junit.*;
+
+/**
+ * Test index updates when using disk storage with a memory-mapped table
+ * ({@link MainOptions#MMAP}).
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class MappedDiskDataTest extends MemDataTest {
+  /** Test database name. */
+  private final String dbName = Util.className(MappedDiskDataTest.class);
+
+  @Override
+  @Before public void setUp() {
+    set(MainOptions.MMAP, true);
+    execute(new CreateDB(dbName, XMLSTR));
+  }
+
+  /**
+   * Clean up method; executed after each test; drops the database.
+   */
+  @After public void cleanUp() {
+    execute(new DropDB(dbName));
+    set(MainOptions.MMAP, false);
+  }
+}
@@ -4,6 +4,7 @@ import static org.basex.util.Token.*;
 import static org.junit.Assert.*;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.junit.*;
 
@@ -69,6 +70,103 @@ public final class IndexCacheTest {
     assertNull(cache.get(key));
   }
 
+  /** Tests if the number of entries is limited, and if used entries are kept. */
+  @Test public void testEviction() {
+    cache = new IndexCache(160);
+    final byte[] used = token("keyUsed");
+    cache.add(used, 1, 1L);
+    for(int i = 0; i < 4000; ++i) {
+      cache.add(token("keyEvict" + i), i, i);
+      assertNotNull(cache.get(used));
+    }
+    int count = 0;
+    for(int i = 0; i < 4000; ++i) {
+      if(cache.get(token("keyEvict" + i)) != null) count++;
+    }
+    assertTrue("Too many entries: " + count, count < 160);
+    assertCacheEntry(token("keyEvict3999"), 3999, 3999L);
+  }
+
+  /**
+   * Tests concurrent lookups and updates.
+   * @throws Exception exception
+   */
+  @Test public void testConcurrency() throws Exception {
+    final int keys = 1000;
+    for(int i = 0; i < keys; ++i) cache.add(token("key" + i), i, i);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    final List<Future<?>> futures = new ArrayList<>();
+    for(int t = 0; t < 8; t++) {
+      final int thread = t;
+      futures.add(executor.submit(() -> {
+        for(int i = 0; i < 20000; ++i) {
+          final int k = (i * 31 + thread) % keys;
+          final IndexEntry entry = cache.get(token("key" + k));
+          if(entry != null) assertEquals(k, entry.size);
+          if(i % 10 == thread) cache.add(token("new" + thread + '/' + i), i, i);
+        }
+      }));
+    }
+    for(final Future<?> future : futures) future.get();
+    executor.shutdown();
+    for(int i = 0; i < keys; ++i) assertCacheEntry(token("key" + i), i, i);
+  }
+
+  /** Tests if short keys are distributed across all segments. */
+  @Test public void testSegments() {
+    cache = new IndexCache(1600);
+    for(int i = 0; i < 100000; ++i) cache.add(token(Integer.toString(i)), i, i);
+    int count = 0;
+    for(int i = 0; i < 100000; ++i) {
+      if(cache.get(token(Integer.toString(i))) != null) count++;
+    }
+    assertTrue("Too few entries: " + count, count > 800);
+  }
+
+  /** Tests if deleted and replaced entries are discarded by the eviction strategy. */
+  @Test public void testStale() {
+    cache = new IndexCache(160);
+    for(int i = 0; i < 4000; ++i) {
+      final byte[] key = token("keyStale" + i % 100);
+      cache.add(key, i, i);
+      cache.add(key, i + 1, i + 1);
+      if(i % 3 == 0) cache.delete(key);
+    }
+    for(int i = 0; i < 4000; ++i) cache.add(token("keyEvict" + i), i, i);
+    int count = 0;
+    for(int i = 0; i < 4000; ++i) {
+      if(cache.get(token("keyEvict" + i)) != null) count++;
+    }
+    assertTrue("Too many entries: " + count, count <= 160);
+    assertCacheEntry(token("keyEvict3999"), 3999, 3999L);
+  }
+
+  /**
+   * Tests if updated entries are consistent for concurrent readers.
+   * @throws Exception exception
+   */
+  @Test public void testConcurrentUpdates() throws Exception {
+    final int keys = 100;
+    for(int i = 0; i < keys; ++i) cache.add(token("key" + i), 0, 0);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    final List<Future<?>> futures = new ArrayList<>();
+    futures.add(executor.submit(() -> {
+      for(int i = 1; i < 100000; ++i) cache.add(token("key" + i % keys), i, i * 2L);
+    }));
+    for(int t = 0; t < 3; t++) {
+      futures.add(executor.submit(() -> {
+        for(int i = 0; i < 100000; ++i) {
+          final IndexEntry entry = cache.get(token("key" + i % keys));
+          assertEquals(entry.size * 2L, entry.offset);
+        }
+      }));
+    }
+    for(final Future<?> future : futures) future.get();
+    executor.shutdown();
+  }
+
   /**
    * Test that new records can be continuously added without hitting
    * {@link OutOfMemoryError}.
@@ -0,0 +1,87 @@
+package org.basex.index;
+
+import static org.junit.Assert.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.core.parse.Commands.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for building index structures in parallel.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class ParallelIndexTest extends SandboxTest {
+  /** Query for summarizing the value index structures. */
+  private static final String SUMMARY = "string-join(("
+      + "for $e in index:texts('" + NAME + "') return $e || '/' || $e/@count,"
+      + "for $e in index:attributes('" + NAME + "') return $e || '/' || $e/@count,"
+      + "for $e in index:tokens('" + NAME + "') return $e || '/' || $e/@count,"
+      + "sort(db:text('" + NAME + "', 'text 7 w0') ! db:node-pre(.)) ! string(),"
+      + "sort(db:token('" + NAME + "', 'w3') ! db:node-pre(.)) ! string()"
+      + "), ' ')";
+
+  /** Initializes a test. */
+  @Before public void init() {
+    set(MainOptions.TOKENINDEX, true);
+    set(MainOptions.FTINDEX, true);
+  }
+
+  /** Finalizes a test. */
+  @After public void finish() {
+    IndexBuilder.threads(0);
+    set(MainOptions.TOKENINDEX, false);
+    set(MainOptions.FTINDEX, false);
+    set(MainOptions.UPDINDEX, false);
+    set(MainOptions.SPLITSIZE, 0);
+    execute(new DropDB(NAME));
+  }
+
+  /** Builds partitioned indexes and compares them with sequentially built indexes. */
+  @Test public void partitions() {
+    compare();
+  }
+
+  /** Builds indexes with intermediate splits. */
+  @Test public void splits() {
+    set(MainOptions.SPLITSIZE, 1);
+    compare();
+  }
+
+  /** Builds partitioned updatable indexes. */
+  @Test public void updindex() {
+    set(MainOptions.UPDINDEX, true);
+    compare();
+  }
+
+  /**
+   * Builds the index structures sequentially and in parallel and compares the results.
+   */
+  private static void compare() {
+    final TokenBuilder doc = new TokenBuilder().add("<a>");
+    for(int i = 0; i < 50000; i++) {
+      doc.add("<b c='v" + i % 100 + "'>text " + i % 1000 + " w" + i % 7 + "</b>");
+    }
+    final String xml = doc.add("</a>").toString();
+
+    IndexBuilder.threads(1);
+    execute(new CreateDB(NAME, xml));
+    final String expected = query(SUMMARY);
+    final String ft = query("count(//b[text() contains text 'w3'])");
+
+    IndexBuilder.threads(4);
+    execute(new CreateDB(NAME, xml));
+    assertEquals(expected, query(SUMMARY));
+    assertEquals(ft, query("count(//b[text() contains text 'w3'])"));
+    assertEquals("7143", ft);
+
+    // rebuild single index
+    execute(new CreateIndex(CmdIndex.TOKEN));
+    assertEquals(expected, query(SUMMARY));
+  }
+}
@@ -13,6 +13,7 @@ import org.basex.core.cmd.Set;
 import org.basex.index.query.*;
 import org.basex.index.value.*;
 import org.basex.util.hash.*;
+import org.basex.util.list.*;
 import org.junit.*;
 import org.junit.Test;
 import org.junit.runner.*;
@@ -122,6 +123,43 @@ public final class ValueIndexTest extends SandboxTest {
     valueIndexTest(IndexType.TOKEN, tokens, paramSet);
   }
 
+  /**
+   * Tests skipping index results.
+   */
+  @Test public void advance() {
+    set(MainOptions.TOKENINDEX, true);
+    for(final Set option : paramSet) execute(option);
+    final StringBuilder doc = new StringBuilder("<x>");
+    for(int i = 0; i < 2000; i++) doc.append("<a>").append(i % 3 == 0 ? "x y" : "y").append("</a>");
+    execute(new CreateDB(NAME, doc.append("</x>").toString()));
+
+    for(final IndexType type : new IndexType[] { IndexType.TEXT, IndexType.TOKEN }) {
+      final ValueIndex index = (ValueIndex) context.data().index(type);
+      final IndexEntries entries = new IndexEntries(token("y"), type);
+      final IntList pres = new IntList();
+      for(final IndexIterator it = index.iter(entries); it.more();) pres.add(it.pre());
+      final int ps = pres.size();
+
+      for(final int step : new int[] { 1, 2, 100, 300, 5000 }) {
+        final IndexIterator it = index.iter(entries);
+        for(int target = 0, i = -1;; target += step) {
+          // skip results with smaller pre values
+          int e = i + 1;
+          while(e < ps && pres.get(e) < target) e++;
+          final boolean found = it.advance(target);
+          assertEquals(e < ps, found);
+          if(!found) break;
+          assertEquals(pres.get(e), it.pre());
+          // proceed with next result
+          i = e + 1;
+          assertEquals(i < ps, it.more());
+          if(i == ps) break;
+          assertEquals(pres.get(i), it.pre());
+        }
+      }
+    }
+  }
+
   /**
    * Tests the index: fetch results for different tokens, compare whether the right node was
    * returned and verify against the expected result size.
@@ -0,0 +1,133 @@
+package org.basex.io.random;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.concurrent.*;
+
+import org.basex.io.*;
+import org.basex.util.*;
+import org.junit.*;
+
+/**
+ * Tests for class {@link BufferPool}.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class BufferPoolTest {
+  /** Pool capacity. */
+  private static final int CAPACITY = 8;
+  /** Number of written blocks per file. */
+  private static final int BLOCKS = 64;
+  /** Buffer pool. */
+  private final BufferPool pool = BufferPool.get();
+  /** Original capacity. */
+  private int capacity;
+  /** First file. */
+  private IOFile file1;
+  /** Second file. */
+  private IOFile file2;
+
+  /** Set up method. */
+  @Before public void setUp() {
+    capacity = pool.capacity();
+    pool.capacity(CAPACITY);
+    file1 = new IOFile(Prop.TEMPDIR, "pool1" + IO.BASEXSUFFIX);
+    file2 = new IOFile(Prop.TEMPDIR, "pool2" + IO.BASEXSUFFIX);
+  }
+
+  /** Tear down method. */
+  @After public void tearDown() {
+    pool.capacity(capacity);
+    file1.delete();
+    file2.delete();
+  }
+
+  /**
+   * Writes and reads two files, which share a pool with a small number of buffers.
+   * @throws Exception exception
+   */
+  @Test public void shared() throws Exception {
+    try(DataAccess da1 = new DataAccess(file1); DataAccess da2 = new DataAccess(file2)) {
+      for(int b = 0; b < BLOCKS; b++) {
+        da1.write4((long) b * IO.BLOCKSIZE, b);
+        da2.write4((long) b * IO.BLOCKSIZE, -b);
+      }
+      for(int b = 0; b < BLOCKS; b++) {
+        assertEquals(b, da1.read4((long) b * IO.BLOCKSIZE));
+        assertEquals(-b, da2.read4((long) b * IO.BLOCKSIZE));
+      }
+    }
+    try(DataAccess da1 = new DataAccess(file1)) {
+      for(int b = BLOCKS - 1; b >= 0; b--) assertEquals(b, da1.read4((long) b * IO.BLOCKSIZE));
+    }
+  }
+
+  /**
+   * Checks that frequently used buffers are not evicted by a sequential scan.
+   * @throws Exception exception
+   */
+  @Test public void scanResistance() throws Exception {
+    try(DataAccess da = new DataAccess(file1)) {
+      for(int b = 0; b < BLOCKS; b++) da.write4((long) b * IO.BLOCKSIZE, b);
+      da.flush();
+
+      // reference first block repeatedly
+      for(int i = 0; i < 3; i++) {
+        da.read4(0);
+        da.read4(IO.BLOCKSIZE);
+      }
+      // scan all other blocks
+      for(int b = 2; b < BLOCKS; b++) da.read4((long) b * IO.BLOCKSIZE);
+
+      final long misses = pool.misses();
+      assertEquals(0, da.read4(0));
+      assertEquals(misses, pool.misses());
+    }
+  }
+
+  /**
+   * Checks that dirty buffers are written to disk without locking the pool.
+   * @throws Exception exception
+   */
+  @Test public void unlockedWrite() throws Exception {
+    final CountDownLatch writing = new CountDownLatch(1), release = new CountDownLatch(1);
+    final Buffers slow = new Buffers(b -> {
+      writing.countDown();
+      try {
+        release.await();
+      } catch(final InterruptedException ex) {
+        throw new InterruptedIOException();
+      }
+      b.dirty = false;
+    });
+    final Buffers fast = new Buffers(b -> b.dirty = false);
+    try {
+      // fill pool with dirty buffers
+      for(int b = 0; b < CAPACITY; b++) {
+        slow.cursor((long) b * IO.BLOCKSIZE);
+        slow.current().dirty = true;
+      }
+      // request new buffer: least recently used buffer will be written
+      final FutureTask<Boolean> cursor = new FutureTask<>(() -> fast.cursor(0));
+      new Thread(cursor).start();
+      assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+      // pool is not locked while the buffer is written
+      final FutureTask<Integer> size = new FutureTask<>(pool::size);
+      new Thread(size).start();
+      try {
+        assertTrue(size.get(5, TimeUnit.SECONDS) >= CAPACITY);
+      } finally {
+        release.countDown();
+      }
+      assertTrue(cursor.get(5, TimeUnit.SECONDS));
+      assertFalse(fast.current().dirty);
+    } finally {
+      release.countDown();
+      fast.close();
+      slow.close();
+    }
+  }
+}
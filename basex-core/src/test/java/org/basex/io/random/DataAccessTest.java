@@ -3,7 +3,9 @@ package org.basex.io.random;
 import static org.junit.Assert.*;
 
 import java.io.*;
+import java.lang.ref.*;
 import java.util.*;
+import java.util.concurrent.atomic.*;
 
 import org.basex.io.*;
 import org.basex.util.*;
@@ -312,6 +314,90 @@ public class DataAccessTest {
     assertContent(pos, CINT1_BIN);
   }
 
+  /**
+   * Concurrent reads: each thread has its own cursor.
+   * @throws Exception exception
+   */
+  @Test public final void testConcurrentReads() throws Exception {
+    final long off = STR_BIN.length + BYTE_BIN.length + LONG_BIN.length + INT_BIN.length;
+    final Thread[] threads = new Thread[8];
+    final AtomicInteger errors = new AtomicInteger();
+    for(int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        for(int i = 0; i < 10000; i++) {
+          da.cursor(off);
+          if(da.readNum() != CINT5 || da.readNum() != CINT4 ||
+             !STR.equals(Token.string(da.readToken(BLOCK_BOUNDARY_POS)))) {
+            errors.incrementAndGet();
+          }
+        }
+      });
+      threads[t].start();
+    }
+    for(final Thread thread : threads) thread.join();
+    assertEquals(0, errors.get());
+  }
+
+  /**
+   * Interrupted readers must not close the file for other threads.
+   * @throws Exception exception
+   */
+  @Test public final void testInterruptedReader() throws Exception {
+    final AtomicBoolean ok = new AtomicBoolean(), interrupted = new AtomicBoolean();
+    final Thread thread = new Thread(() -> {
+      Thread.currentThread().interrupt();
+      ok.set(STR.equals(Token.string(da.readToken(BLOCK_BOUNDARY_POS))));
+      interrupted.set(Thread.currentThread().isInterrupted());
+    });
+    thread.start();
+    thread.join();
+    assertTrue(ok.get());
+    assertTrue(interrupted.get());
+
+    // file can still be accessed by other threads
+    assertEquals(STR, Token.string(da.readToken(BLOCK_BOUNDARY_POS)));
+    da.write4(RANDOM_POS, INT);
+    da.flush();
+    assertContent(RANDOM_POS, INT_BIN);
+  }
+
+  /** Reads after unflushed and flushed write operations. */
+  @Test public final void testReadAfterWrite() {
+    final long pos = RANDOM_POS;
+    assertNotEquals(INT, da.read4(pos));
+    da.write4(pos, INT);
+    assertEquals(INT, da.read4(pos));
+    da.flush();
+    assertEquals(INT, da.read4(pos));
+    da.write4(pos, CINT4);
+    assertEquals(CINT4, da.read4(pos));
+  }
+
+  /**
+   * Closed instances must not be retained by the threads that have read from them.
+   * @throws Exception exception
+   */
+  @Test public final void testRelease() throws Exception {
+    final IOFile tmp = new IOFile(Prop.TEMPDIR, "release" + IO.BASEXSUFFIX);
+    try {
+      DataAccess access = new DataAccess(tmp);
+      access.write4(0, INT);
+      access.flush();
+      assertEquals(INT, access.read4(0));
+      access.close();
+
+      final WeakReference<DataAccess> ref = new WeakReference<>(access);
+      access = null;
+      for(int i = 0; i < 100 && ref.get() != null; i++) {
+        System.gc();
+        Thread.sleep(10);
+      }
+      assertNull(ref.get());
+    } finally {
+      tmp.delete();
+    }
+  }
+
   /** Test method for {@link DataAccess#free(long, int)}. */
   @Ignore
   @Test public final void testFree() {
@@ -0,0 +1,286 @@
+package org.basex.io.random;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.io.*;
+import org.basex.util.*;
+import org.junit.*;
+
+/**
+ * Tests for class {@link Prefetcher}.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class PrefetcherTest {
+  /** Number of blocks to be read ahead. */
+  private static final int AHEAD = 8;
+  /** Number of blocks of the test file. */
+  private static final int BLOCKS = 64;
+  /** Original number of blocks to be read ahead. */
+  private int blocks;
+  /** Test file. */
+  private IOFile file;
+  /** Channel of the test file, which records all read operations. */
+  private Recorder recorder;
+  /** Prefetcher. */
+  private Prefetcher prefetcher;
+
+  /**
+   * Set up method.
+   * @throws IOException I/O exception
+   */
+  @Before public void setUp() throws IOException {
+    blocks = Prefetcher.blocks();
+    Prefetcher.blocks(AHEAD);
+    file = new IOFile(Prop.TEMPDIR, "prefetch" + IO.BASEXSUFFIX);
+    file.write(new byte[BLOCKS * IO.BLOCKSIZE]);
+    recorder = new Recorder(file);
+    prefetcher = new Prefetcher(new Channel(recorder));
+  }
+
+  /**
+   * Tear down method.
+   * @throws IOException I/O exception
+   */
+  @After public void tearDown() throws IOException {
+    Prefetcher.blocks(blocks);
+    recorder.close();
+    file.delete();
+  }
+
+  /**
+   * Reads the subsequent blocks after a sequential access.
+   * @throws Exception exception
+   */
+  @Test public void sequential() throws Exception {
+    access(0, 1);
+    // blocks following the accessed block, within the read-ahead window
+    assertEquals(range(2, AHEAD), recorder.read());
+  }
+
+  /**
+   * Does not read ahead if blocks are accessed randomly.
+   * @throws Exception exception
+   */
+  @Test public void random() throws Exception {
+    access(5, 1, 17, 3, 40);
+    assertEquals(range(0, -1), recorder.read());
+  }
+
+  /**
+   * Does not read ahead if read-ahead is disabled.
+   * @throws Exception exception
+   */
+  @Test public void disabled() throws Exception {
+    Prefetcher.blocks(0);
+    access(0, 1, 2, 3);
+    assertEquals(range(0, -1), recorder.read());
+  }
+
+  /**
+   * Reads every block only once, and never more blocks than the read-ahead window.
+   * @throws Exception exception
+   */
+  @Test public void bound() throws Exception {
+    final int last = BLOCKS / 2;
+    for(int b = 0; b <= last; b++) {
+      access(b);
+      final List<Long> read = recorder.positions();
+      // no block is read twice
+      assertEquals(read.size(), new HashSet<>(read).size());
+      // no block beyond the window is read
+      for(final long pos : read) assertTrue(pos < (long) (b + AHEAD) * IO.BLOCKSIZE);
+    }
+    // at least half of the window following the last access has been read
+    assertTrue(recorder.read().containsAll(range(2, last + AHEAD / 2)));
+  }
+
+  /**
+   * Skips pending read operations if the file has been closed.
+   * @throws Exception exception
+   */
+  @Test public void close() throws Exception {
+    recorder.close();
+    access(0, 1, 2, 3);
+    // read operations fail silently, and read-ahead stops at the first failing block
+    assertEquals(1, recorder.positions().size());
+
+    // subsequent accesses do not fail
+    access(4, 5, 6);
+  }
+
+  /**
+   * Registers the synchronous reads of the specified blocks, and waits until all resulting
+   * read-ahead operations have been completed.
+   * @param bls block indexes
+   * @throws Exception exception
+   */
+  private void access(final int... bls) throws Exception {
+    for(final int b : bls) prefetcher.access((long) b * IO.BLOCKSIZE);
+    // requests are processed in order by a single thread: wait for a subsequent request
+    final CountDownLatch latch = new CountDownLatch(1);
+    final Prefetcher sync = new Prefetcher(new Channel(new Recorder(file) {
+      @Override
+      public int read(final ByteBuffer dst, final long position) throws IOException {
+        try {
+          return super.read(dst, position);
+        } finally {
+          latch.countDown();
+          close();
+        }
+      }
+    }));
+    final int b = Prefetcher.blocks();
+    Prefetcher.blocks(AHEAD);
+    sync.access(0);
+    sync.access(IO.BLOCKSIZE);
+    Prefetcher.blocks(b);
+    assertTrue("Read-ahead timed out.", latch.await(5, TimeUnit.SECONDS));
+  }
+
+  /**
+   * Returns the file positions of a range of blocks.
+   * @param min first block
+   * @param max last block
+   * @return positions
+   */
+  private static TreeSet<Long> range(final int min, final int max) {
+    final TreeSet<Long> set = new TreeSet<>();
+    for(int b = min; b <= max; b++) set.add((long) b * IO.BLOCKSIZE);
+    return set;
+  }
+
+  /**
+   * File channel that records the positions of all positional read operations.
+   */
+  private static class Recorder extends FileChannel {
+    /** Positions of the read operations. */
+    private final List<Long> positions = Collections.synchronizedList(new ArrayList<>());
+    /** Wrapped channel. */
+    private final FileChannel fc;
+
+    /**
+     * Constructor.
+     * @param file file
+     * @throws IOException I/O exception
+     */
+    Recorder(final IOFile file) throws IOException {
+      fc = FileChannel.open(file.file().toPath(), StandardOpenOption.READ);
+    }
+
+    /**
+     * Returns the positions of all read operations.
+     * @return positions
+     */
+    List<Long> positions() {
+      synchronized(positions) {
+        return new ArrayList<>(positions);
+      }
+    }
+
+    /**
+     * Returns the distinct positions of all read operations.
+     * @return positions
+     */
+    TreeSet<Long> read() {
+      return new TreeSet<>(positions());
+    }
+
+    @Override
+    public int read(final ByteBuffer dst, final long position) throws IOException {
+      positions.add(position);
+      if(!isOpen()) throw new ClosedChannelException();
+      return fc.read(dst, position);
+    }
+
+    @Override
+    public int read(final ByteBuffer dst) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long read(final ByteBuffer[] dsts, final int offset, final int length) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int write(final ByteBuffer src) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long write(final ByteBuffer[] srcs, final int offset, final int length) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int write(final ByteBuffer src, final long position) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long position() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FileChannel position(final long newPosition) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long size() throws IOException {
+      return fc.size();
+    }
+
+    @Override
+    public FileChannel truncate(final long size) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void force(final boolean metaData) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long transferTo(final long position, final long count,
+        final WritableByteChannel target) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long transferFrom(final ReadableByteChannel src, final long position,
+        final long count) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MappedByteBuffer map(final MapMode mode, final long position, final long size) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FileLock lock(final long position, final long size, final boolean shared) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FileLock tryLock(final long position, final long size, final boolean shared) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected void implCloseChannel() throws IOException {
+      fc.close();
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package org.basex.query;
+
+import static org.junit.Assert.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for cached query plans.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class QueryPlansTest extends SandboxTest {
+  /** Query with external variable. */
+  private static final String QUERY = "declare variable $a external := 1; $a * 2";
+  /** Database query. */
+  private static final String DB =
+      "declare variable $n external; db:open('" + NAME + "')//x[. = $n]";
+
+  /** Enables the cache. */
+  @BeforeClass public static void init() {
+    context.soptions.set(StaticOptions.QUERYCACHE, 8);
+    set(MainOptions.QUERYINFO, true);
+  }
+
+  /** Disables the cache. */
+  @AfterClass public static void finish() {
+    set(MainOptions.QUERYINFO, false);
+    context.soptions.set(StaticOptions.QUERYCACHE, 0);
+    context.plans.close();
+  }
+
+  /** Binds different values to a cached plan. */
+  @Test public void externals() {
+    assertEquals("2", execute(new XQuery(QUERY)));
+    assertTrue(cached(new XQuery(QUERY).bind("a", "3", "xs:integer")));
+    assertEquals("6", execute(new XQuery(QUERY).bind("a", "3", "xs:integer")));
+    assertEquals("2", execute(new XQuery(QUERY)));
+    assertEquals("2.5", execute(new XQuery(QUERY).bind("a", "1.25", "xs:decimal")));
+
+    // declared types are checked at evaluation time
+    final String query = "declare variable $a as xs:integer external; $a";
+    assertEquals("1", execute(new XQuery(query).bind("a", "1")));
+    assertEquals("2", execute(new XQuery(query).bind("a", "2")));
+    try {
+      new XQuery(query).bind("a", "x").execute(context);
+      fail("Error expected.");
+    } catch(final BaseXException ex) {
+      Util.debug(ex);
+    }
+  }
+
+  /** Queries that are not cached. */
+  @Test public void uncached() {
+    // non-deterministic variable
+    final String query = "declare variable $a external; declare variable $r := random:double(); " +
+      "$r < 1 and $a";
+    execute(new XQuery(query).bind("a", "true", "xs:boolean"));
+    assertFalse(cached(new XQuery(query).bind("a", "true", "xs:boolean")));
+    // updating query
+    execute(new XQuery("delete node <a/>"));
+    assertFalse(cached(new XQuery("delete node <a/>")));
+    // introspection
+    execute(new XQuery("function-lookup(xs:QName('fn:true'), 0)()"));
+    assertFalse(cached(new XQuery("function-lookup(xs:QName('fn:true'), 0)()")));
+  }
+
+  /**
+   * Queries with values of the dynamic context that are pre-evaluated at compile time.
+   * @throws InterruptedException interrupted exception
+   */
+  @Test public void dynamic() throws InterruptedException {
+    final String query = "current-dateTime()";
+    final String dtm = execute(new XQuery(query));
+    Thread.sleep(10);
+    final XQuery cmd = new XQuery(query);
+    assertNotEquals(dtm, execute(cmd));
+    assertFalse(cmd.info().contains(QueryText.OPTCACHED));
+    assertFalse(cached(new XQuery("environment-variable('PATH')")));
+    assertFalse(cached(new XQuery("implicit-timezone()")));
+  }
+
+  /** Reports the reuse of plans only if a compiled plan has been reused. */
+  @Test public void reuse() {
+    final String query = "declare variable $a external := 2; $a * 3";
+    assertFalse(cached(new XQuery(query)));
+    assertTrue(cached(new XQuery(query)));
+  }
+
+  /** Invalidates plans after database updates. */
+  @Test public void database() {
+    execute(new CreateDB(NAME, "<a><x>1</x><x>2</x></a>"));
+    execute(new Close());
+    assertEquals("<x>1</x>", execute(new XQuery(DB).bind("n", "1")));
+    assertTrue(cached(new XQuery(DB).bind("n", "2")));
+    assertEquals("<x>2</x>", execute(new XQuery(DB).bind("n", "2")));
+
+    // update database
+    execute(new XQuery("insert node <x>3</x> into db:open('" + NAME + "')/a"));
+    assertFalse(cached(new XQuery(DB).bind("n", "3")));
+    assertEquals("<x>3</x>", execute(new XQuery(DB).bind("n", "3")));
+
+    // cached plans must not prevent databases from being dropped or replaced
+    execute(new DropDB(NAME));
+    execute(new CreateDB(NAME, "<a><x>4</x></a>"));
+    execute(new Close());
+    assertEquals("<x>4</x>", execute(new XQuery(DB).bind("n", "4")));
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Checks if the query info indicates that a cached plan has been used.
+   * @param cmd command
+   * @return result of check
+   */
+  private static boolean cached(final XQuery cmd) {
+    execute(cmd);
+    return cmd.info().contains(QueryText.OPTCACHED);
+  }
+}
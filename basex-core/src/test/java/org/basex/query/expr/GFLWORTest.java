@@ -4,11 +4,17 @@ import static org.basex.query.QueryError.*;
 import static org.basex.query.func.Function.*;
 import static org.junit.Assert.*;
 
+import java.io.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
 import org.basex.query.ast.*;
 import org.basex.query.expr.gflwor.*;
 import org.basex.query.up.expr.*;
 import org.basex.util.*;
 import org.junit.*;
+import org.junit.Test;
 
 /**
  * Test cases for FLWOR expressions.
@@ -343,4 +349,110 @@ public final class GFLWORTest extends QueryPlanTest {
     check("let $x := <x>0</x> let $b := $x/text() return $b + 1", 1, count(Let.class, 1));
     error("let $x := <x>false</x> let $b as xs:boolean := $x/text() return $b", INVTYPE_X_X_X);
   }
+
+  /** Tests hash joins. */
+  @Test public void hashJoin() {
+    final String doc = "let $doc := <x>{ (1 to 100) ! <o c='{ . mod 7 }'/>, "
+        + "(1 to 10) ! <c id='{ . }'/> }</x> ";
+    check(doc + "return count(for $o in $doc/o for $c in $doc/c where $o/@c = $c/@id return $c)",
+        86, exists(Join.class), count(For.class, 1));
+    check(doc + "return count(for $o in $doc/o for $c in $doc/c where $c/@id = $o/@c return $c)",
+        86, exists(Join.class));
+    // order of the results
+    check("for $a in (3, 1) for $b in (1 to 6) where $b mod 3 = $a mod 3 return $a * 10 + $b",
+        "33\n36\n11\n14", exists(Join.class));
+    // multiple keys
+    check("for $a in (1, 2) for $b in ('1', '2', '1') "
+        + "where ($b, 'x') = ($a, $a - 1) ! string() return $b",
+        "1\n1\n1\n2\n1", exists(Join.class));
+    // bound expression references a preceding let clause
+    check("let $d := <x>{ (1 to 9) ! <a>{ . mod 3 }</a> }</x> "
+        + "for $a in ('1', '2') for $b in $d/a where $a = $b return $b/text()",
+        "1\n1\n1\n2\n2\n2", exists(Join.class));
+
+    // no rewrites: dependent sequence, non-hashable comparison
+    check("for $a in (1, 2) for $b in ($a to 3) where $a = $b return $b",
+        "1\n2", empty(Join.class));
+    check("for $a in (1, 2) for $b in (1 to 3) where $a < $b return $b",
+        "2\n3\n3", empty(Join.class));
+  }
+
+  /** Tests parallel evaluation. */
+  @Test public void parallel() {
+    final String flwor = "for $a at $p in 1 to 1000 let $b := $a * $a where $a mod 3 = 0 "
+        + "for $c in 1 to 2 return $p + $b + $c";
+    final String pragma = "(# basex:parallel #) { ";
+    assertEquals(query(flwor), query(pragma + flwor + " }"));
+    // variables and focus
+    assertEquals(query("for $n in (1 to 3) ! <a>{ . }</a> return $n ! (let $x := 2 return "
+        + "for $i in 1 to 10 return (string(), $x, $i))"),
+        query("for $n in (1 to 3) ! <a>{ . }</a> return $n ! (let $x := 2 return "
+        + pragma + "for $i in 1 to 10 return (string(), $x, $i) })"));
+    // sequential evaluation of dependent clauses
+    query(pragma + "for $a in 1 to 10 order by $a descending return $a }",
+        "10\n9\n8\n7\n6\n5\n4\n3\n2\n1");
+    query(pragma + "for $a in 1 to 10 count $c where $c > 8 return $a }", "9\n10");
+    // errors
+    error(pragma + "for $a in 1 to 100 return 1 idiv ($a - 50) }", DIVZERO_X);
+  }
+
+  /** Tests the external merge sort. */
+  @Test public void externalSort() {
+    final String[] queries = {
+      // stable order
+      "for $i in 1 to 1000 order by $i mod 7 return $i",
+      "for $i in 1 to 1000 order by $i mod 3 descending, $i mod 5 return $i",
+      // empty keys, NaN, doubles and decimals
+      "for $i in 1 to 500 let $k := if($i mod 5 = 0) then () else if($i mod 7 = 0) "
+        + "then xs:double('NaN') else $i * 1.5e0 order by $k descending empty least return $i",
+      "for $i in 1 to 500 let $k := if($i mod 5 = 0) then () else $i div 7 "
+        + "order by $k empty greatest return ($i, $k)",
+      // collations, strings, dates
+      "for $i in 1 to 500 let $s := ('a', 'B', 'Ä', 'b')[$i mod 4 + 1] "
+        + "order by $s collation 'http://basex.org/collation?lang=de;strength=primary' "
+        + "return $s || $i",
+      "for $i in 1 to 500 let $d := xs:date('2000-01-01') + xs:dayTimeDuration('P' || $i mod 13 "
+        + "|| 'D') order by $d descending return ($d, $i)",
+      // database nodes
+      "for $n in " + _DB_OPEN.args(NAME) + "//x order by -$n return ($n/.., $n)",
+      // tuples that cannot be written to disk
+      "for $i in 1 to 500 let $e := <e>{ $i }</e> order by $i mod 10 return $e",
+    };
+    final StringBuilder doc = new StringBuilder("<a>");
+    for(int i = 1; i <= 300; i++) doc.append("<x>").append(i % 17).append("</x>");
+    execute(new CreateDB(NAME, doc.append("</a>").toString()));
+    try {
+      set(MainOptions.SORTSIZE, -1);
+      final String[] expected = new String[queries.length];
+      for(int q = 0; q < queries.length; q++) expected[q] = query(queries[q]);
+
+      set(MainOptions.SORTSIZE, 10);
+      final int files = tempFiles();
+      for(int q = 0; q < queries.length; q++) assertEquals(expected[q], query(queries[q]));
+      // results are only partially requested: temporary files will be deleted
+      query("(for $i in 1 to 1000 order by -$i return $i)[1]", 1000);
+      assertEquals(files, tempFiles());
+
+      // errors in runs and during merge
+      error("for $i in 1 to 100 order by (if($i = 90) then 'x' else $i) return $i", INVTYPE_X_X_X);
+      set(MainOptions.SORTSIZE, 2);
+      error("for $k in ('', '', 'a', 'b', '1', '2') order by (if($k = '') then () " +
+          "else if($k castable as xs:integer) then xs:integer($k) else $k) return $k",
+          INVTYPE_X_X_X);
+      assertEquals(files, tempFiles());
+    } finally {
+      set(MainOptions.SORTSIZE, 0);
+      execute(new DropDB(NAME));
+    }
+  }
+
+  /**
+   * Returns the number of temporary files.
+   * @return number of files
+   */
+  private static int tempFiles() {
+    final String[] names = new File(Prop.TEMPDIR).list((dir, name) ->
+      name.startsWith(Prop.NAME + '-') && name.endsWith(IO.TMPSUFFIX));
+    return names == null ? 0 : names.length;
+  }
 }
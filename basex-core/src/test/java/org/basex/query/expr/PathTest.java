@@ -258,4 +258,27 @@ public final class PathTest extends SandboxTest {
     query(".[/a]", "<a/>");
     query(".[/b]", "<b/>");
   }
+
+  /**
+   * Descendant steps with name tests on large database subtrees.
+   */
+  @Test public void descendantScan() {
+    execute(new Close());
+    query("db:create('" + NAME + "', <root xmlns:x='x'>{ for $i in 1 to 3000 return "
+        + "<item price='{ $i }'><x:item/>{ if($i mod 2) then <a><item/></a> else () }</item> }"
+        + "</root>, 'doc.xml')");
+    execute(new Open(NAME));
+    query("count(//item)", 4500);
+    query("count(//*:item)", 7500);
+    query("declare namespace x = 'x'; count(//x:item)", 3000);
+    query("declare namespace x = 'x'; count(//x:*)", 3000);
+    query("declare namespace y = 'y'; count(//y:item)", 0);
+    query("count(//*)", 9001);
+    query("count(//item[@price > 100])", 2900);
+    query("count(/descendant-or-self::root)", 1);
+    query("count(/root/descendant-or-self::item)", 4500);
+    query("count(//item/descendant::item)", 1500);
+    query("count(/root/item[1000]/descendant::*)", 1);
+    query("for $r in /root return count($r/descendant::*:item[@price mod 7 = 0])", 428);
+  }
 }
@@ -84,4 +84,15 @@ public final class SimpleMapTest extends QueryPlanTest {
     check("(1 to 2) ! util:replicate('a', 2) ! util:replicate('a', 2)", "a\na\na\na\na\na\na\na",
         exists(SingletonSeq.class) + " and .//@size = 8");
   }
+
+  /** Parallel evaluation. */
+  @Test public void parallel() {
+    final String pragma = "(# basex:parallel #) { ";
+    query(pragma + "(1 to 1000) ! (. * 2) }", query("(1 to 1000) ! (. * 2)"));
+    query(pragma + "(1 to 1000) ! position() ! (. + last()) }",
+        query("(1 to 1000) ! position() ! (. + last())"));
+    query("let $x := 5 return " + pragma + "(1 to 100) ! ($x + .) }",
+        query("(1 to 100) ! (5 + .)"));
+    error(pragma + "(1 to 100) ! (1 idiv (. - 50)) }", DIVZERO_X);
+  }
 }
@@ -3,6 +3,8 @@ package org.basex.query.ft;
 import static org.basex.query.func.Function.*;
 import static org.junit.Assert.*;
 
+import java.util.*;
+
 import org.basex.core.*;
 import org.basex.core.cmd.*;
 import org.junit.Test;
@@ -63,6 +65,45 @@ public final class FTIndexQueryTest extends FTData {
     assertQuery("Mix", "//mix[text() contains text 'A'][1]");
   }
 
+  /**
+   * Runs index-based queries in parallel.
+   * @throws Throwable throwable
+   */
+  @Test public void parallel() throws Throwable {
+    final StringBuilder sb = new StringBuilder("<xml>");
+    for(int i = 0; i < 2000; i++) {
+      sb.append("<t>a").append(i % 13).append(" b").append(i % 7).append("</t>");
+    }
+    init(sb.append("</xml>").toString());
+    execute(new Open(NAME + "ix"));
+
+    final String[] queries = {
+      "count(//t[text() contains text 'a1'])",
+      "count(//t[text() contains text { 'a2', 'b3' } all])",
+      "count(//t[text() contains text 'a.' using wildcards])",
+      "count(//t[text() contains text 'b5' using fuzzy])"
+    };
+    final ArrayList<String> results = new ArrayList<>();
+    for(final String query : queries) results.add(query(query));
+
+    final Throwable[] error = { null };
+    final ArrayList<Thread> threads = new ArrayList<>();
+    for(int t = 0; t < 8; t++) {
+      threads.add(new Thread(() -> {
+        try {
+          for(int i = 0; i < 20; i++) {
+            for(int q = 0; q < queries.length; q++) assertEquals(results.get(q), query(queries[q]));
+          }
+        } catch(final Throwable th) {
+          error[0] = th;
+        }
+      }));
+    }
+    for(final Thread thread : threads) thread.start();
+    for(final Thread thread : threads) thread.join();
+    if(error[0] != null) throw error[0];
+  }
+
   /**
    * Asserts that a query returns the same result with and without ft index.
    * @param name name of query
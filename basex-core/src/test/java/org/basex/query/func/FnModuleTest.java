@@ -187,6 +187,10 @@ public final class FnModuleTest extends QueryPlanTest {
         type(FuncItem.class, "function(xs:string) as xs:boolean"));
 
     check(func.args(" (<a/>, <b/>)", " boolean#1"), "<a/>\n<b/>", type(FILTER, "element()*"));
+
+    // parallel evaluation
+    query("(# basex:parallel #) { " + func.args(" 1 to 1000", " function($_) { $_ mod 100 = 0 }")
+        + " }", "100\n200\n300\n400\n500\n600\n700\n800\n900\n1000");
     check(func.args(" <a/>", " boolean#1"), "<a/>", type(FILTER, "element()?"));
   }
 
@@ -272,6 +276,12 @@ public final class FnModuleTest extends QueryPlanTest {
     query("count(" + func.args(" 1 to 10000000000", " string#1") + ')', 10000000000L);
     check("count(" + func.args(" 1 to 20", " function($a) { $a, $a }") + ')', 40, exists(FOR_EACH));
 
+    // parallel evaluation
+    final String seq = func.args(" 1 to 1000", " function($a) { $a, -$a }");
+    assertEquals(query(seq), query("(# basex:parallel #) { " + seq + " }"));
+    error("(# basex:parallel #) { " + func.args(" 1 to 100", " function($a) { 1 idiv ($a - 50) }")
+        + " }", DIVZERO_X);
+
     // should be unrolled and evaluated at compile time
     check(func.args(" 0 to 8", " function($x) { $x + 1 }"),
         "1\n2\n3\n4\n5\n6\n7\n8\n9",
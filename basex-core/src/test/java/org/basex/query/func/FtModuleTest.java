@@ -112,6 +112,46 @@ public final class FtModuleTest extends SandboxTest {
     error(func.args(NAME, "x", " 1"), MAP_X_X);
   }
 
+  /** Test method. */
+  @Test public void searchRanked() {
+    final Function func = _FT_SEARCH;
+    final String bm25 = " map { 'scoring':'bm25' }";
+    execute(new CreateDB(NAME, "<x><t>a b</t><t>a c c c c c c</t><t>a</t><t>c</t></x>"));
+    execute(new CreateIndex(CmdIndex.FULLTEXT));
+
+    // short texts and rare terms yield higher scores
+    query("for $t in " + func.args(NAME, "a", bm25) + " order by " + _FT_SCORE.args(" $t") +
+        " descending return string($t)", "a\na b\na c c c c c c");
+    query("for $t in " + func.args(NAME, " ('b', 'c')", bm25) + " order by " +
+        _FT_SCORE.args(" $t") + " descending return string($t)", "a b\na c c c c c c\nc");
+    query(func.args(NAME, " ('a', 'c')", " map { 'scoring':'bm25', 'mode':'all' }"),
+        "a c c c c c c");
+    query(func.args(NAME, "a c", " map { 'scoring':'bm25', 'mode':'phrase' }"),
+        "a c c c c c c");
+    query(func.args(NAME, "c", " map { 'scoring':'bm25', 'content':'start' }"), "c");
+    query(func.args(NAME, "a", " map { 'top':1 }"), "a");
+    query(func.args(NAME, "a", " map { 'scoring':'bm25', 'top':2 }"), "a b\na");
+
+    // compare top results with sorted results
+    execute(new CreateDB(NAME, "<x>{ for $i in 1 to 2000 return <t>{ string-join(" +
+        "for $j in 1 to $i mod 9 + 1 return 'w' || ($i * $j) mod 17, ' ') }</t> }</x>"));
+    execute(new CreateIndex(CmdIndex.FULLTEXT));
+    final String scores = "declare function local:scores($nodes) { for $n in $nodes " +
+        "let $s := round(" + _FT_SCORE.args(" $n") + ", 9) order by $s descending return $s }; ";
+    for(final String terms : new String[] { "w1", "w1 w2", "w1 w2 w3 w4 w5", "w0 w16" }) {
+      for(final String mode : new String[] { "any word", "all words" }) {
+        for(final int top : new int[] { 1, 5, 100, 5000 }) {
+          final String opts = " map { 'scoring':'bm25', 'mode':'" + mode + "'";
+          final String all = func.args(NAME, terms, opts + " }");
+          final String ranked = func.args(NAME, terms, opts + ", 'top':" + top + " }");
+          query(scores + "deep-equal(local:scores(" + all + ")[position() <= " + top + "], " +
+              "local:scores(" + ranked + ")) and " + COUNT.args(ranked) + " = min((" + top + ", " +
+              COUNT.args(all) + "))", true);
+        }
+      }
+    }
+  }
+
   /** Test method. */
   @Test public void count() {
     final Function func = _FT_COUNT;
@@ -6,6 +6,7 @@ import static org.basex.query.func.Function.*;
 import org.basex.*;
 import org.basex.core.*;
 import org.basex.core.cmd.*;
+import org.basex.io.*;
 import org.junit.Test;
 
 /**
@@ -117,6 +118,14 @@ public final class XQueryModuleTest extends SandboxTest {
     error(func.args(" count#1"), ZEROFUNCS_X_X);
     error(func.args(" 123"), ZEROFUNCS_X_X);
     error(func.args(" error#0"), FUNERR1);
+
+    // stopped jobs are not converted to query errors
+    final String slow = " function() { (1 to 10000000000000)[. = 0] }";
+    final String caught = new IOFile(sandbox(), "caught").path();
+    error(_XQUERY_EVAL.args("try { " + func.args(" (" + slow + ',' + slow + ')') +
+        " } catch * { " + _FILE_WRITE_TEXT.args(caught, " $err:code") + " }", " map { }",
+        " map { 'timeout': 1 }"), XQUERY_TIMEOUT);
+    query(_FILE_EXISTS.args(caught), false);
   }
 
   /** Test method. */
@@ -0,0 +1,70 @@
+package org.basex.query.index;
+
+import org.basex.core.cmd.*;
+import org.basex.core.parse.Commands.CmdIndex;
+import org.basex.query.ast.*;
+import org.basex.query.expr.index.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests if multiple attribute index requests are merged ({@link IndexMerge}).
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class IndexMergeTest extends QueryPlanTest {
+  /**
+   * Initializes the tests.
+   */
+  @BeforeClass public static void start() {
+    final TokenBuilder tb = new TokenBuilder().add("<xml>");
+    for(int i = 0; i < 3000; i++) {
+      tb.add("<n a='").addInt(i % 7).add("' b='").addInt(i % 11).add("' c='").addInt(i % 13);
+      tb.add("'/><m a='").addInt(i % 7).add("' b='").addInt(i % 11).add("'/>");
+    }
+    execute(new CreateDB(NAME, tb.add("</xml>").toString()));
+  }
+
+  /**
+   * Finishes the tests.
+   */
+  @AfterClass public static void finish() {
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Conjunctions.
+   */
+  @Test public void intersect() {
+    test("count(//n[@a = '1'][@b = '2'])", 39);
+    test("count(//n[@a = '1' and @b = '2'])", 39);
+    test("count(//n[@a = '1'][@b = '2'][@c = '3'])", 3);
+    test("count(//n[@a = ('1', '2')][@b = '2'])", 78);
+    test("count(//n[@a = '1'][@b = '10'][@c = '0'])", 3);
+    test("count(//n[@a = '1'][@b = '2'][@c = '3']/@a)", 3);
+  }
+
+  /**
+   * Disjunctions.
+   */
+  @Test public void union() {
+    test("count(//n[@a = '1' or @b = '2'])", 663);
+    test("count(//n[@a = '1' or @c = '1'])", 627);
+    test("count(//m[@a = '1' or @b = '2' or @a = '3'])", 1053);
+  }
+
+  /**
+   * Tests a query with and without index.
+   * @param query query
+   * @param result expected result
+   */
+  private static void test(final String query, final Object result) {
+    final String merge = Util.className(IndexMerge.class);
+    check(query, result, exists(merge));
+    execute(new DropIndex(CmdIndex.ATTRIBUTE));
+    check(query, result, empty(merge));
+    execute(new CreateIndex(CmdIndex.ATTRIBUTE));
+  }
+}
@@ -0,0 +1,76 @@
+package org.basex.query.index;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.core.parse.Commands.CmdIndex;
+import org.basex.query.ast.*;
+import org.basex.query.expr.index.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests if numeric range queries are correctly evaluated with(out) a typed index
+ * ({@link MainOptions#RANGEINDEX}).
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class NumericRangeTest extends QueryPlanTest {
+  /**
+   * Initializes the tests.
+   */
+  @BeforeClass public static void start() {
+    final TokenBuilder tb = new TokenBuilder().add("<xml>");
+    for(int i = -400; i <= 400; i++) {
+      tb.add("<n v='").addInt(i * 3).add("'>").add(Token.token(i / 4.0)).add("</n>");
+    }
+    set(MainOptions.RANGEINDEX, true);
+    execute(new CreateDB(NAME, tb.add("</xml>").toString()));
+    set(MainOptions.RANGEINDEX, false);
+  }
+
+  /**
+   * Finishes the tests.
+   */
+  @AfterClass public static void finish() {
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Ranges with negative values and fractional digits.
+   */
+  @Test public void text() {
+    test("count(//n[text() >= -10.5 and text() < 3.25])", 55);
+    test("count(//n[text() > -0.25 and text() <= 0.25])", 2);
+    test("count(//n[text() = 99.75])", 1);
+    test("count(//n[text() = 99.7])", 0);
+    test("count(//n[text() >= -1000])", 801);
+    test("count(//n[text() < -99.75])", 1);
+  }
+
+  /**
+   * Ranges with negative values and different string lengths.
+   */
+  @Test public void attribute() {
+    test("count(//n[@v = -30])", 1);
+    test("count(//n[@v < -1100])", 34);
+    test("count(//n[@v >= -9 and @v <= 1000])", 337);
+    test("count(//n[@v > 1100])", 34);
+  }
+
+  /**
+   * Tests a query with and without typed index.
+   * @param query query
+   * @param result expected result
+   */
+  private static void test(final String query, final Object result) {
+    final String range = Util.className(RangeAccess.class);
+    check(query, result, exists(range));
+    execute(new DropIndex(CmdIndex.TEXT));
+    execute(new DropIndex(CmdIndex.ATTRIBUTE));
+    check(query, result, empty(range));
+    execute(new CreateIndex(CmdIndex.TEXT));
+    execute(new CreateIndex(CmdIndex.ATTRIBUTE));
+  }
+}
@@ -87,6 +87,19 @@ public final class StringRangeTest extends QueryPlanTest {
     test("count(//*[text() > '@'])", 900);
   }
 
+  /**
+   * Testing key lookups and prefix searches.
+   */
+  @Test public void keys() {
+    execute(new CreateIndex(CmdIndex.TEXT));
+    query("every $i in 100 to 999 satisfies count(db:text('" + NAME + "', string($i))) = 1",
+        true);
+    query("count(index:texts('" + NAME + "', '12'))", 10);
+    query("count(index:texts('" + NAME + "', '1'))", 100);
+    query("count(index:texts('" + NAME + "', '999'))", 1);
+    query("count(index:texts('" + NAME + "', '0'))", 0);
+  }
+
   /**
    * Tests a query with and without index.
    * @param query query
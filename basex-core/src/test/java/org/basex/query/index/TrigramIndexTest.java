@@ -0,0 +1,114 @@
+package org.basex.query.index;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.core.parse.Commands.CmdIndex;
+import org.basex.query.ast.*;
+import org.basex.query.expr.index.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests the trigram index ({@link TrigramAccess}).
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class TrigramIndexTest extends QueryPlanTest {
+  /**
+   * Initializes the tests.
+   */
+  @BeforeClass public static void start() {
+    set(MainOptions.TRIGRAMINDEX, true);
+  }
+
+  /**
+   * Finishes the tests.
+   */
+  @AfterClass public static void finish() {
+    execute(new DropDB(NAME));
+    set(MainOptions.TRIGRAMINDEX, false);
+    set(MainOptions.UPDINDEX, false);
+  }
+
+  /**
+   * Substring searches.
+   */
+  @Test public void contains() {
+    create();
+    test("count(//n[contains(., 'abc')])", 200);
+    test("count(//n[contains(text(), 'cab')])", 200);
+    test("count(//text()[contains(., 'ab-12')])", 11);
+    test("count(//n[contains(., 'a-12')][@a != '1'])", 10);
+    test("count(//n[contains(., 'äöü')])", 300);
+
+    // no results, no trigrams
+    check("count(//n[contains(., 'abcx')])", 0, empty(TrigramAccess.class));
+    check("count(//n[contains(., 'ab')])", 400, empty(TrigramAccess.class));
+
+    // no index access for other default collations
+    check("declare default collation 'http://basex.org/collation?lang=en;strength=primary'; " +
+        "count(//n[contains(., 'ABC')])", 200, empty(TrigramAccess.class));
+  }
+
+  /**
+   * Regular expressions.
+   */
+  @Test public void matches() {
+    create();
+    test("count(//n[matches(., 'abc-1')])", 111);
+    test("count(//n[matches(., '^cab-1\\d$')])", 5);
+    test("count(//n[matches(., 'b?ca-12')])", 11);
+    test("count(//n[matches(., 'ca-\\d{2}7', 's')])", 10);
+    test("count(//n[matches(text(), 'abc(-)+\\d0')])", 19);
+
+    // no common substring
+    check("count(//n[matches(., 'xyz|abc')])", 200, empty(TrigramAccess.class));
+    check("count(//n[matches(., 'abc', 'i')])", 200, empty(TrigramAccess.class));
+  }
+
+  /**
+   * Updatable index.
+   */
+  @Test public void update() {
+    set(MainOptions.UPDINDEX, true);
+    create();
+    query("insert node <n>xabcx</n> into /xml");
+    query("delete node //n[. = 'abc-1']");
+    query("replace value of node //n[. = 'bca-2'] with 'xyz'");
+    test("count(//text()[contains(., 'abc')])", 200);
+    test("count(//text()[contains(., 'bca-')])", 199);
+    test("count(//text()[contains(., 'xyz')])", 1);
+    execute(new Optimize());
+    test("count(//n[contains(., 'abc')])", 200);
+    set(MainOptions.UPDINDEX, false);
+  }
+
+  /**
+   * Creates the test database.
+   */
+  private static void create() {
+    final String[] texts = { "abc-", "bca-", "cab-" };
+    final TokenBuilder tb = new TokenBuilder().add("<xml>");
+    for(int i = 0; i < 600; i++) {
+      tb.add("<n a='").addInt(i % 7).add("'>").add(texts[i % 3]).addInt(i / 3);
+      if(i % 2 == 0) tb.add("äöü");
+      tb.add("</n>");
+    }
+    execute(new CreateDB(NAME, tb.add("</xml>").toString()));
+  }
+
+  /**
+   * Tests a query with and without index.
+   * @param query query
+   * @param result expected result
+   */
+  private static void test(final String query, final Object result) {
+    final String access = Util.className(TrigramAccess.class);
+    check(query, result, exists(access));
+    execute(new DropIndex(CmdIndex.TRIGRAM));
+    check(query, result, empty(access));
+    execute(new CreateIndex(CmdIndex.TRIGRAM));
+  }
+}
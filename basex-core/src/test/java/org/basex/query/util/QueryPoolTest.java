@@ -0,0 +1,41 @@
+package org.basex.query.util;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.*;
+
+import org.basex.*;
+import org.junit.*;
+
+/**
+ * Tests for the shared query thread pool.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class QueryPoolTest extends SandboxTest {
+  /** Resets the number of threads. */
+  @After public void after() {
+    QueryPool.threads(0);
+  }
+
+  /**
+   * Shuts down the old pool if the number of threads is changed.
+   * @throws Exception exception
+   */
+  @Test public void threads() throws Exception {
+    final ForkJoinPool pool = QueryPool.get();
+    QueryPool.threads(pool.getParallelism() + 1);
+    assertTrue(pool.isShutdown());
+    assertNotSame(pool, QueryPool.get());
+    assertEquals(pool.getParallelism() + 1, QueryPool.get().getParallelism());
+
+    // tasks are evaluated by the new pool
+    assertEquals(Integer.valueOf(1), QueryPool.invoke(new RecursiveTask<Integer>() {
+      @Override
+      protected Integer compute() {
+        return 1;
+      }
+    }));
+  }
+}
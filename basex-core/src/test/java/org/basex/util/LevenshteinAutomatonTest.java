@@ -0,0 +1,81 @@
+package org.basex.util;
+
+import static org.basex.util.Token.*;
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+import org.basex.util.similarity.*;
+import org.junit.*;
+
+/**
+ * Levenshtein automaton tests.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class LevenshteinAutomatonTest {
+  /** Characters of the generated terms. */
+  private static final String CHARS = "abcdeäöü";
+  /** Sorted terms. */
+  private static final TokenList TERMS = new TokenList();
+
+  /** Initializes the tests. */
+  @BeforeClass public static void init() {
+    final Random rnd = new Random(0);
+    final TokenSet set = new TokenSet();
+    for(int i = 0; i < 20000; i++) {
+      final StringBuilder sb = new StringBuilder();
+      final int l = 1 + rnd.nextInt(9);
+      for(int c = 0; c < l; c++) sb.append(CHARS.charAt(rnd.nextInt(CHARS.length())));
+      set.add(sb.toString());
+    }
+    for(final byte[] term : set) TERMS.add(term);
+    TERMS.sort();
+  }
+
+  /** Compares the accepted terms with the results of the dynamic algorithm. */
+  @Test public void accept() {
+    for(final String query : new String[] { "a", "abc", "abcd", "bcadeb", "äöüabc", "aaaaaaaaa" }) {
+      for(int error = 0; error < 4; error++) {
+        final byte[] qu = token(query);
+        final Levenshtein ls = new Levenshtein();
+        final LevenshteinAutomaton la = new LevenshteinAutomaton(qu, error);
+        for(final byte[] term : TERMS) {
+          assertEquals(string(term) + '/' + query + '/' + error,
+              ls.similar(term, qu, error), la.accept(term));
+        }
+      }
+    }
+  }
+
+  /** Skips terms with dead prefixes. */
+  @Test public void dead() {
+    final byte[] qu = token("abcde");
+    final Levenshtein ls = new Levenshtein();
+    final LevenshteinAutomaton la = new LevenshteinAutomaton(qu, 1);
+    final TokenList expected = new TokenList(), found = new TokenList();
+    for(final byte[] term : TERMS) {
+      if(ls.similar(term, qu, 1)) expected.add(term);
+    }
+
+    final int ts = TERMS.size();
+    int skipped = 0;
+    for(int t = 0; t < ts;) {
+      final byte[] term = TERMS.get(t);
+      if(la.accept(term)) found.add(term);
+      final int d = la.dead();
+      t++;
+      if(d != -1) {
+        while(t < ts && startsWith(TERMS.get(t), Arrays.copyOf(term, d))) {
+          t++;
+          skipped++;
+        }
+      }
+    }
+    assertArrayEquals(expected.finish(), found.finish());
+    assertTrue("No terms were skipped.", skipped > 0);
+  }
+}